@@ -0,0 +1,175 @@
+package interfaz;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cliente del ServidorConsultas. Los metodos pedirXxx() solo encolan el pedido y retornan su
+ * id; enviar() los manda todos juntos y recibir() retorna las respuestas en el mismo orden
+ * (pipelining). Los metodos buscar(), generos(), etc. hacen una consulta completa a la vez.
+ * No es thread-safe.
+ */
+public class ClienteConsultas implements Closeable {
+    private final SocketChannel canal;
+    private ByteBuffer salida = ByteBuffer.allocate(1 << 12);
+    private int proximoId = 1;
+
+    /**
+     * Se conecta al servidor en la direccion indicada (Unix domain o TCP)
+     */
+    public ClienteConsultas(SocketAddress direccion) throws IOException {
+        canal = direccion instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open();
+        canal.connect(direccion);
+    }
+
+    public int pedirBuscar(String genero) {
+        return pedido(ServidorConsultas.BUSCAR, 0, genero);
+    }
+
+    public int pedirGeneros() {
+        return pedido(ServidorConsultas.GENEROS, -1, null);
+    }
+
+    /**
+     * Se encola el pedido de las k series mejor puntuadas de un genero (k debe ser positivo)
+     */
+    public int pedirTopK(int k, String genero) {
+        if (k <= 0)
+            throw new IllegalArgumentException("pedirTopK(): k debe ser positivo");
+        return pedido(ServidorConsultas.TOPK, k, genero);
+    }
+
+    public int pedirResumen(String genero) {
+        return pedido(ServidorConsultas.RESUMEN, 0, genero);
+    }
+
+    public int pedirVersion() {
+        return pedido(ServidorConsultas.VERSION, -1, null);
+    }
+
+    /**
+     * Se envian todos los pedidos encolados
+     */
+    public void enviar() throws IOException {
+        salida.flip();
+        while (salida.hasRemaining())
+            canal.write(salida);
+        salida.clear();
+    }
+
+    /**
+     * Se recibe la siguiente respuesta (en el orden de los pedidos)
+     */
+    public Respuesta recibir() throws IOException {
+        ByteBuffer largo = leerCompleto(4);
+        ByteBuffer datos = leerCompleto(largo.getInt());
+        return new Respuesta(datos.getInt(), datos.get(), datos);
+    }
+
+    /**
+     * Se obtiene el texto del resultado de un genero, o null si no existe
+     */
+    public String buscar(String genero) throws IOException {
+        pedirBuscar(genero);
+        enviar();
+        Respuesta r = recibir();
+        return r.getEstado() == ServidorConsultas.OK ? r.getTexto() : null;
+    }
+
+    /**
+     * Se obtienen los generos del catalogo
+     */
+    public String[] generos() throws IOException {
+        pedirGeneros();
+        enviar();
+        Respuesta r = recibir();
+        if (r.getEstado() != ServidorConsultas.OK)
+            return new String[0];
+        String[] generos = new String[r.getEntero()];
+        for (int i = 0; i < generos.length; i++)
+            generos[i] = r.getTexto();
+        return generos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private int pedido(byte operacion, int k, String genero) {
+        byte[] texto = genero == null ? new byte[0] : genero.getBytes(StandardCharsets.UTF_8);
+        int largo = 5 + (operacion == ServidorConsultas.TOPK ? 4 : 0) + (genero == null ? 0 : 4 + texto.length);
+        if (salida.remaining() < 4 + largo) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(salida.capacity() * 2, salida.position() + 4 + largo));
+            salida.flip();
+            mayor.put(salida);
+            salida = mayor;
+        }
+        int id = proximoId++;
+        salida.putInt(largo).putInt(id).put(operacion);
+        if (operacion == ServidorConsultas.TOPK)
+            salida.putInt(k);
+        if (genero != null)
+            salida.putInt(texto.length).put(texto);
+        return id;
+    }
+
+    private ByteBuffer leerCompleto(int n) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(n);
+        while (b.hasRemaining()) {
+            if (canal.read(b) == -1)
+                throw new EOFException("recibir(): el servidor cerro la conexion");
+        }
+        return b.flip();
+    }
+
+    /**
+     * Respuesta del servidor: sus datos se leen en orden con los metodos getXxx()
+     */
+    public static class Respuesta {
+        private final int id;
+        private final byte estado;
+        private final ByteBuffer datos;
+
+        private Respuesta(int id, byte estado, ByteBuffer datos) {
+            this.id = id;
+            this.estado = estado;
+            this.datos = datos;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public byte getEstado() {
+            return estado;
+        }
+
+        public int getEntero() {
+            return datos.getInt();
+        }
+
+        public long getLargo() {
+            return datos.getLong();
+        }
+
+        public double getReal() {
+            return datos.getDouble();
+        }
+
+        public String getTexto() {
+            byte[] bytes = new byte[datos.getInt()];
+            datos.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package interfaz;
+
+import negocio.Estadisticas;
+import negocio.IndiceReparto;
+import negocio.Resultado;
+import soporte.AgregacionExterna;
+import soporte.Dataset;
+import soporte.ListadoOrdenado;
+import soporte.DatasetDirectorio;
+import soporte.ParserNumeros;
+import soporte.SpaceSaving;
+import soporte.TSBArrayList;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Punto de entrada sin interfaz grafica para correr las estadisticas en lote (por ejemplo
+ * desde cron): carga uno o mas archivos CSV (o directorios) y escribe el reporte por genero
+ * en la salida estandar como texto, CSV o JSON. Con varios archivos, una serie que aparece en
+ * mas de uno se cuenta solo en el primero (ver DatasetDirectorio). El reporte se escribe a medida que se recorre
+ * cada resultado, a traves de un BufferedWriter, sin armar el texto completo en memoria.
+ *
+ * Uso: Consola [--formato texto|csv|json] [--top k] [--resumen] [--estrellas] [--genero g] [--redondeo r] archivo...
+ *      Consola [--top k] --compartidas estrella1 estrella2 | --coestrellas estrella archivo...
+ *      Consola [--formato texto|csv|json] [--top k] [--memoria m] --ordenar puntuacion|titulo|votos archivo...
+ *
+ *   --top k     lista solo las k series mejor puntuadas de cada genero
+ *   --resumen   solo la cantidad de series, minimo, maximo, promedio y votos de cada genero
+ *   --estrellas agrega la cantidad aproximada de estrellas distintas y las mas frecuentes
+ *               (solo las que se distinguen del error de la estimacion)
+ *   --genero g  solo el genero g (puede repetirse)
+ *   --redondeo r como se llevan a decimas las puntuaciones con mas de un decimal: truncar,
+ *               medio-arriba (por defecto) o medio-par
+ *   --memoria m limita a m MB la memoria de las estadisticas: si no alcanza, los generos se
+ *               agregan y se reportan por particiones volcadas a disco (solo archivos, sin
+ *               --estrellas; los generos quedan ordenados dentro de cada particion)
+ *
+ *   --compartidas e1 e2  en lugar del reporte, las series en las que actuan juntas e1 y e2
+ *   --coestrellas e      en lugar del reporte, las estrellas que mas series comparten con e
+ *                        (las k primeras, 10 si no se indica --top)
+ *   --ordenar c          en lugar del reporte, todas las series ordenadas por c (las k primeras
+ *                        con --top), con un ordenamiento externo que usa a lo sumo m MB
+ *                        (64 si no se indica --memoria); solo archivos
+ */
+public class Consola {
+    private String formato = "texto";
+    private int top = 0;
+    private boolean resumen = false;
+    private boolean estrellas = false;
+    private long memoria = 0;
+    private ParserNumeros.Redondeo redondeo = ParserNumeros.Redondeo.MEDIO_ARRIBA;
+    private boolean primero = true;
+    private final TSBArrayList<String> generos = new TSBArrayList<>();
+    private final TSBArrayList<String> reparto = new TSBArrayList<>();
+    private String consultaReparto = null;
+    private ListadoOrdenado.Criterio ordenar = null;
+    private final TSBArrayList<String> archivos = new TSBArrayList<>();
+
+    /**
+     * Solo se usa desde main()
+     */
+    private Consola() {
+    }
+
+    public static void main(String[] args) {
+        Consola consola = new Consola();
+        if (!consola.opciones(args)) {
+            System.err.println("uso: Consola [--formato texto|csv|json] [--top k] [--resumen] [--estrellas] [--genero g] [--memoria m] [--redondeo truncar|medio-arriba|medio-par] archivo...");
+            System.err.println("     Consola [--top k] --compartidas estrella1 estrella2 | --coestrellas estrella archivo...");
+            System.err.println("     Consola [--formato texto|csv|json] [--top k] [--memoria m] --ordenar puntuacion|titulo|votos archivo...");
+            System.exit(2);
+        }
+        // los datos se cargan antes de escribir nada: si fallan no queda un reporte vacio
+        Estadisticas estadisticas = null;
+        if (consola.ordenar == null && consola.memoria == 0) {
+            try {
+                estadisticas = consola.cargar();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("No se pudo cargar " + String.join(", ", consola.archivos) + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+            if (consola.ordenar != null)
+                consola.listarOrdenado(out);
+            else if (consola.consultaReparto != null)
+                consola.consultarReparto(estadisticas, out);
+            else if (consola.memoria > 0)
+                consola.reportarPorParticiones(out);
+            else
+                consola.reportar(estadisticas, out);
+            out.flush();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("No se pudo escribir el reporte: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private boolean opciones(String[] args) {
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--formato":
+                        formato = args[++i];
+                        if (!formato.equals("texto") && !formato.equals("csv") && !formato.equals("json"))
+                            return false;
+                        break;
+                    case "--top":
+                        top = Integer.parseInt(args[++i]);
+                        if (top <= 0)
+                            return false;
+                        break;
+                    case "--resumen":
+                        resumen = true;
+                        break;
+                    case "--estrellas":
+                        estrellas = true;
+                        break;
+                    case "--genero":
+                        generos.add(args[++i]);
+                        break;
+                    case "--memoria":
+                        memoria = Long.parseLong(args[++i]) << 20;
+                        if (memoria <= 0)
+                            return false;
+                        break;
+                    case "--redondeo":
+                        redondeo = ParserNumeros.Redondeo.valueOf(args[++i].toUpperCase(Locale.ROOT).replace('-', '_'));
+                        break;
+                    case "--ordenar":
+                        ordenar = ListadoOrdenado.Criterio.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                        break;
+                    case "--compartidas":
+                        reparto.add(args[++i]);
+                        reparto.add(args[++i]);
+                        consultaReparto = args[i - 2];
+                        estrellas = true;
+                        break;
+                    case "--coestrellas":
+                        reparto.add(args[++i]);
+                        consultaReparto = args[i - 1];
+                        estrellas = true;
+                        break;
+                    default:
+                        if (args[i].startsWith("--"))
+                            return false;
+                        archivos.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            return false;
+        }
+        if (memoria > 0 && estrellas)
+            return false;
+        return !archivos.isEmpty() && reparto.size() <= 2;
+    }
+
+    /**
+     * Se cargan todos los archivos (o directorios) en unas unicas estadisticas. Un unico archivo
+     * se carga en etapas (ver Dataset); si son varios, o hay directorios, se combinan en el orden
+     * indicado contando cada serie solo en el primer archivo en que aparece (ver
+     * DatasetDirectorio)
+     */
+    private Estadisticas cargar() throws IOException {
+        File unico = new File(archivos.get(0));
+        if (archivos.size() == 1 && !unico.isDirectory()) {
+            Dataset d = new Dataset(unico.getPath());
+            d.setEstrellas(estrellas);
+            d.setRedondeo(redondeo);
+            return d.cargarDataset();
+        }
+        TSBArrayList<Path> lista = new TSBArrayList<>();
+        for (String archivo : archivos) {
+            File f = new File(archivo);
+            if (f.isDirectory())
+                lista.addAll(new DatasetDirectorio(f.getPath()).getArchivos());
+            else
+                lista.add(f.toPath());
+        }
+        DatasetDirectorio d = new DatasetDirectorio(lista);
+        d.setEstrellas(estrellas);
+        d.setRedondeo(redondeo);
+        return d.cargarDataset();
+    }
+
+    /**
+     * Se cargan los archivos con el presupuesto de memoria y se escribe el reporte a medida que
+     * se agrega cada particion (ver AgregacionExterna)
+     */
+    private void reportarPorParticiones(Writer out) throws IOException {
+        Dataset[] datasets = new Dataset[archivos.size()];
+        for (int i = 0; i < datasets.length; i++) {
+            if (new File(archivos.get(i)).isDirectory()) {
+                System.err.println("--memoria no admite directorios: " + archivos.get(i));
+                System.exit(2);
+            }
+            datasets[i] = new Dataset(archivos.get(i));
+            datasets[i].setRedondeo(redondeo);
+        }
+        // las particiones se entregan despues de leer todos los archivos: el encabezado se
+        // escribe con la primera, de forma que si la carga falla no se escribe nada
+        boolean[] escrito = {false};
+        try {
+            AgregacionExterna externa = new AgregacionExterna(memoria, datasets);
+            externa.setRedondeo(redondeo);
+            externa.cargar(e -> {
+                try {
+                    if (!escrito[0]) {
+                        encabezado(out);
+                        escrito[0] = true;
+                    }
+                    reportarGeneros(e, out);
+                } catch (IOException x) {
+                    throw new UncheckedIOException(x);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo cargar " + String.join(", ", archivos) + ": " + e.getMessage());
+            System.exit(1);
+        }
+        if (!escrito[0])
+            encabezado(out);
+        pie(out);
+    }
+
+    /**
+     * Se escriben todas las series de los archivos ordenadas segun el criterio indicado
+     */
+    private void listarOrdenado(Writer out) throws IOException {
+        ListadoOrdenado listado = new ListadoOrdenado(ordenar, memoria > 0 ? memoria : 64L << 20);
+        try {
+            for (String archivo : archivos) {
+                if (new File(archivo).isDirectory()) {
+                    System.err.println("--ordenar no admite directorios: " + archivo);
+                    System.exit(2);
+                }
+                Dataset d = new Dataset(archivo);
+                d.setRedondeo(redondeo);
+                listado.agregar(d);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo cargar " + String.join(", ", archivos) + ": " + e.getMessage());
+            System.exit(1);
+        }
+
+        if (formato.equals("csv"))
+            out.write("serie,generos,puntuacion,votos\n");
+        else if (formato.equals("json"))
+            out.write("[");
+        long limite = top > 0 ? top : Long.MAX_VALUE;
+        long[] escritas = {0};
+        listado.recorrer(f -> {
+            if (escritas[0] >= limite)
+                return;
+            switch (formato) {
+                case "csv":
+                    escribir(out, campoCsv(f.getTitulo()) + "," + campoCsv(f.getGeneros()) + "," + f.getPuntuacion()
+                            + "," + f.getVotos() + "\n");
+                    break;
+                case "json":
+                    escribir(out, (escritas[0] == 0 ? "\n" : ",\n") + "{\"serie\":" + textoJson(f.getTitulo())
+                            + ",\"generos\":" + textoJson(f.getGeneros()) + ",\"puntuacion\":" + f.getPuntuacion()
+                            + ",\"votos\":" + f.getVotos() + "}");
+                    break;
+                default:
+                    escribir(out, f.getTitulo() + " con puntuación " + f.getPuntuacion() + " (" + f.getVotos()
+                            + " votos) - " + f.getGeneros() + "\n");
+            }
+            escritas[0]++;
+        });
+        if (formato.equals("json"))
+            out.write("]\n");
+    }
+
+    /**
+     * Se escribe el reporte de los generos pedidos (o de todos, ordenados)
+     */
+    private void reportar(Estadisticas estadisticas, Writer out) throws IOException {
+        encabezado(out);
+        reportarGeneros(estadisticas, out);
+        pie(out);
+    }
+
+    private void encabezado(Writer out) throws IOException {
+        if (formato.equals("csv"))
+            out.write(resumen ? "genero,series,minimo,maximo,promedio,votos" + (estrellas ? ",estrellas" : "") + "\n"
+                    : "genero,serie,puntuacion,votos\n");
+        else if (formato.equals("json"))
+            out.write("[");
+    }
+
+    private void pie(Writer out) throws IOException {
+        if (formato.equals("json"))
+            out.write("]\n");
+    }
+
+    private void reportarGeneros(Estadisticas estadisticas, Writer out) throws IOException {
+        TSBArrayList<String> lista = new TSBArrayList<>(generos);
+        if (lista.isEmpty()) {
+            for (Object g : estadisticas.getGeneros())
+                lista.add(g.toString());
+            lista.sort(null);
+        }
+
+        for (String genero : lista) {
+            Resultado r = (Resultado) estadisticas.buscar(genero);
+            if (r == null)
+                continue;
+            switch (formato) {
+                case "csv":
+                    csv(genero, r, estadisticas, out);
+                    break;
+                case "json":
+                    if (!primero)
+                        out.write(",");
+                    json(genero, r, estadisticas, out);
+                    break;
+                default:
+                    texto(genero, r, estadisticas, out);
+            }
+            primero = false;
+        }
+    }
+
+    /**
+     * Se escribe el resultado de una consulta sobre el indice de reparto
+     */
+    private void consultarReparto(Estadisticas estadisticas, Writer out) throws IOException {
+        IndiceReparto indice = estadisticas.getReparto();
+        if (indice == null)
+            return;
+        if (consultaReparto.equals("--compartidas")) {
+            for (String serie : indice.seriesCompartidas(reparto.get(0), reparto.get(1)))
+                out.write(serie + "\n");
+        } else {
+            for (SpaceSaving.Frecuencia<String> f : indice.coestrellas(reparto.get(0), top > 0 ? top : 10))
+                out.write(f.getValor() + " (" + f.getCount() + " series)\n");
+        }
+    }
+
+    private void texto(String genero, Resultado r, Estadisticas e, Writer out) throws IOException {
+        out.write("== " + genero + " ==\n");
+        if (estrellas) {
+            out.write("Estrellas distintas (aprox.): " + e.estrellasDistintas(genero) + ". Mas frecuentes:");
+            List<SpaceSaving.Frecuencia<String>> frecuentes = e.estrellasFrecuentes(genero, 5);
+            if (frecuentes.isEmpty())
+                out.write(" ninguna se distingue del error de la estimacion");
+            for (SpaceSaving.Frecuencia<String> f : frecuentes)
+                out.write(" " + f.getValor() + " (" + f.getCount() + (f.getError() > 0 ? " +-" + f.getError() : "") + ")");
+            out.write("\n");
+        }
+        if (resumen)
+            out.write(r.getSeries() + " series, minimo " + ParserNumeros.formatDecimas(r.getMinimo())
+                    + ", maximo " + ParserNumeros.formatDecimas(r.getMaximo())
+                    + ", promedio " + String.format(Locale.ROOT, "%.2f", r.getPromedio()) + ", " + r.getVotos() + " votos\n");
+        else if (top > 0)
+            out.write(r.topK(top));
+        else
+            r.escribir(out);
+        out.write("\n\n");
+    }
+
+    private void csv(String genero, Resultado r, Estadisticas e, Writer out) throws IOException {
+        if (resumen) {
+            out.write(campoCsv(genero) + "," + r.getSeries() + "," + ParserNumeros.formatDecimas(r.getMinimo())
+                    + "," + ParserNumeros.formatDecimas(r.getMaximo())
+                    + "," + String.format(Locale.ROOT, "%.4f", r.getPromedio()) + "," + r.getVotos()
+                    + (estrellas ? "," + e.estrellasDistintas(genero) : "") + "\n");
+            return;
+        }
+        String prefijo = campoCsv(genero) + ",";
+        recorrer(r, (serie, rating, votos) -> escribir(out, prefijo + campoCsv(serie) + ","
+                + ParserNumeros.formatDecimas(rating) + "," + votos + "\n"));
+    }
+
+    private void json(String genero, Resultado r, Estadisticas e, Writer out) throws IOException {
+        out.write("\n{\"genero\":" + textoJson(genero) + ",\"series\":" + r.getSeries()
+                + ",\"minimo\":" + ParserNumeros.formatDecimas(r.getMinimo())
+                + ",\"maximo\":" + ParserNumeros.formatDecimas(r.getMaximo())
+                + ",\"promedio\":" + r.getPromedio() + ",\"votos\":" + r.getVotos());
+        if (estrellas) {
+            out.write(",\"estrellas\":" + e.estrellasDistintas(genero) + ",\"frecuentes\":[");
+            boolean primera = true;
+            for (SpaceSaving.Frecuencia<String> f : e.estrellasFrecuentes(genero, 5)) {
+                out.write((primera ? "" : ",") + "{\"estrella\":" + textoJson(f.getValor()) + ",\"series\":" + f.getCount() + ",\"error\":" + f.getError() + "}");
+                primera = false;
+            }
+            out.write("]");
+        }
+        if (!resumen) {
+            out.write(",\"lista\":[");
+            boolean[] primera = {true};
+            recorrer(r, (serie, rating, votos) -> {
+                escribir(out, (primera[0] ? "" : ",") + "{\"serie\":" + textoJson(serie)
+                        + ",\"puntuacion\":" + ParserNumeros.formatDecimas(rating) + ",\"votos\":" + votos + "}");
+                primera[0] = false;
+            });
+            out.write("]");
+        }
+        out.write("}");
+    }
+
+    private void recorrer(Resultado r, Resultado.AccionSerie accion) {
+        if (top > 0)
+            r.forEachTop(top, accion);
+        else
+            r.forEachSerie(accion);
+    }
+
+    private static void escribir(Writer out, String s) {
+        try {
+            out.write(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String campoCsv(String s) {
+        if (s.indexOf(',') == -1 && s.indexOf('"') == -1 && s.indexOf('\n') == -1)
+            return s;
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String textoJson(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
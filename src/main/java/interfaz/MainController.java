@@ -1,5 +1,6 @@
 package interfaz;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -7,53 +8,176 @@ import javafx.fxml.FXML;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
+import negocio.CacheConsultas;
+import negocio.Catalogo;
 import negocio.Estadisticas;
+import negocio.EstadisticasVersion;
+import negocio.RecargaAutomatica;
 import soporte.Dataset;
+import soporte.DatasetDirectorio;
+import soporte.ParserNumeros;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 public class MainController {
-    public ComboBox cboGeneros;
-    private Estadisticas estadisticas;
+    public ComboBox<Object> cboGeneros;
+    @FXML
+    private ComboBox<ParserNumeros.Redondeo> cboRedondeo;
+    private Catalogo catalogo;
+    private CacheConsultas consultas;
+    private RecargaAutomatica recarga;
 
     public TextArea txtResultado;
     private Boolean buscar = true;
 
 
     public void initialize() {
+        cboRedondeo.setItems(FXCollections.observableArrayList(ParserNumeros.Redondeo.values()));
+        cboRedondeo.setValue(ParserNumeros.Redondeo.MEDIO_ARRIBA);
         permitirBusqueda(true);
     }
 
     /**
      * Permite seleccionar el archivo a procesar y cargar el combobox de generos
-     * con todos los géneros existentes.
+     * con todos los géneros existentes. La carga se hace en segundo plano: mientras
+     * tanto se puede seguir consultando la version anterior del catalogo. Luego el
+     * archivo se sigue vigilando y se vuelve a cargar solo cuando cambia. Las puntuaciones
+     * se llevan a decimas segun el redondeo elegido al momento de cargar.
      */
     public void onCargarClick(ActionEvent actionEvent) {
         FileChooser fileChooser = new FileChooser();
         File file = fileChooser.showOpenDialog(null);
         if (file != null) {
-            Dataset ds = new Dataset(file.getPath());
-            estadisticas = ds.cargarDataset();
-            buscar = false;
-            Collection generos = estadisticas.getGeneros();
-            ObservableList ol = FXCollections.observableArrayList(generos);
-            ol.sort(null);
-            cboGeneros.setItems(ol);
-            permitirBusqueda(false);
-            buscar = true;
+            ParserNumeros.Redondeo redondeo = cboRedondeo.getValue();
+            vigilar(file, redondeo, () -> {
+                Dataset dataset = new Dataset(file.getPath());
+                dataset.setRedondeo(redondeo);
+                try {
+                    return dataset.cargarDataset();
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Permite seleccionar un directorio y cargar juntos todos sus archivos CSV (por ejemplo,
+     * exportaciones separadas por region y mes). Las series repetidas se cuentan una sola vez.
+     */
+    public void onCargarCarpetaClick(ActionEvent actionEvent) {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        File dir = directoryChooser.showDialog(null);
+        if (dir != null) {
+            ParserNumeros.Redondeo redondeo = cboRedondeo.getValue();
+            vigilar(dir, redondeo, () -> {
+                DatasetDirectorio directorio = new DatasetDirectorio(dir.getPath());
+                directorio.setRedondeo(redondeo);
+                try {
+                    return directorio.cargarDataset();
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Carga el archivo o directorio y lo deja vigilado (dejando de vigilar el anterior): cada
+     * vez que cambia se vuelve a cargar en segundo plano (solo las series agregadas, si se
+     * agregaron al final del archivo) y se actualizan los generos sin perder el seleccionado.
+     * Si no se puede vigilar, se carga una unica vez con carga.
+     */
+    private void vigilar(File origen, ParserNumeros.Redondeo redondeo, Supplier<Estadisticas> carga) {
+        if (recarga != null) {
+            recarga.close();
+            recarga = null;
+        }
+        try {
+            recarga = new RecargaAutomatica(catalogo(), origen, 500,
+                    version -> Platform.runLater(() -> mostrarGeneros(version)));
+            recarga.setRedondeo(redondeo);
+            mostrarCarga(recarga.cargar(), origen);
+        }
+        catch (IOException e) {
+            System.out.println("No se puede vigilar " + origen.getName() + ": " + e.getMessage());
+            mostrarCarga(catalogo().recargar(carga), origen);
+        }
+    }
+
+    /**
+     * Cuando termina la carga muestra los generos de la version publicada o, si fallo o no se
+     * publico nada, informa el problema (en el hilo de JavaFX, sin perder la version anterior).
+     */
+    private void mostrarCarga(CompletableFuture<EstadisticasVersion> carga, File origen) {
+        carga.whenComplete((version, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable causa = error;
+                while ((causa instanceof CompletionException || causa instanceof UncheckedIOException)
+                        && causa.getCause() != null)
+                    causa = causa.getCause();
+                txtResultado.setText("No se pudo cargar " + origen.getName() + ": " + causa);
+            }
+            else if (version == null)
+                txtResultado.setText("No se pudo cargar " + origen.getName());
+            else
+                mostrarGeneros(version);
+        }));
+    }
+
+    /**
+     * El catalogo (con su hilo de recarga) y la cache de consultas se crean recien con la
+     * primera carga, para no demorar el arranque de la aplicacion.
+     */
+    private Catalogo catalogo() {
+        if (catalogo == null) {
+            catalogo = new Catalogo();
+            consultas = new CacheConsultas(64, 64L << 20);
+        }
+        return catalogo;
+    }
+
+    /**
+     * Carga el combobox con los generos de la version publicada (en el hilo de JavaFX). Si el
+     * genero seleccionado sigue existiendo, se mantiene y se muestra su resultado actualizado.
+     */
+    private void mostrarGeneros(EstadisticasVersion version) {
+        Object seleccionado = cboGeneros.getValue();
+        buscar = false;
+        Collection<Object> generos = version.getGeneros();
+        ObservableList<Object> ol = FXCollections.observableArrayList(generos);
+        ol.sort(null);
+        cboGeneros.setItems(ol);
+        permitirBusqueda(false);
+        buscar = true;
+        if (seleccionado != null && version.buscar(seleccionado) != null) {
+            cboGeneros.setValue(seleccionado);
+            onBuscarClick(null);
         }
     }
 
     /**
      * Al selecionar un genero del combobox nos devuelve en el txtResultado las cantidad de series totales
-     * que posee el genero y lista las series qeu pertenecen a el junto con su puntuacion redondeada al entero.
+     * que posee el genero y lista las series qeu pertenecen a el junto con su puntuacion (con un decimal).
      */
     public void onBuscarClick(ActionEvent actionEvent) {
-        if (buscar) {
-            Object resultado = estadisticas.buscar(cboGeneros.getValue());
-            txtResultado.setText(resultado.toString());
+        if (catalogo == null)
+            return;
+        EstadisticasVersion version = catalogo.actual();
+        if (buscar && version != null && cboGeneros.getValue() != null) {
+            String texto = consultas.texto(version, cboGeneros.getValue());
+            if (texto != null)
+                txtResultado.setText(texto);
         }
     }
 
@@ -0,0 +1,391 @@
+package interfaz;
+
+import negocio.CacheConsultas;
+import negocio.Catalogo;
+import negocio.Estadisticas;
+import negocio.EstadisticasVersion;
+import negocio.Resultado;
+import soporte.Dataset;
+import soporte.DatasetDirectorio;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Modo sin interfaz grafica: carga el catalogo una sola vez y atiende consultas de otros
+ * procesos por un socket local (Unix domain o TCP en la interfaz de loopback), de forma que
+ * varios clientes livianos compartan el mismo catalogo en memoria.
+ *
+ * Todas las conexiones las atiende un unico hilo con un Selector de NIO. El protocolo es
+ * binario (enteros big-endian, textos en UTF-8 precedidos por su largo) y admite pipelining:
+ * el cliente puede enviar varios pedidos sin esperar las respuestas, que llegan en el mismo
+ * orden. Cada mensaje es:
+ *
+ *   pedido:    int largo, int id, byte operacion, datos
+ *   respuesta: int largo, int id, byte estado, datos
+ *
+ * donde largo cuenta los bytes que siguen al propio largo. Operaciones y sus datos:
+ *
+ *   BUSCAR  (genero)     -> texto del resultado
+ *   GENEROS ()           -> int n, n textos
+ *   TOPK    (int k, genero) -> texto con las k series mejor puntuadas
+ *   RESUMEN (genero)     -> int series, int minimo, int maximo, double promedio, long votos
+ *                           (minimo y maximo en decimas: 8.9 es 89)
+ *   VERSION ()           -> long numero de version del catalogo
+ *
+ * Un texto se codifica como int largo seguido de sus bytes UTF-8. El estado es OK,
+ * NO_ENCONTRADO (el genero no existe o todavia no hay catalogo) o ERROR (seguido de un
+ * texto con el mensaje).
+ */
+public class ServidorConsultas {
+    public static final byte BUSCAR = 1;
+    public static final byte GENEROS = 2;
+    public static final byte TOPK = 3;
+    public static final byte RESUMEN = 4;
+    public static final byte VERSION = 5;
+
+    public static final byte OK = 0;
+    public static final byte NO_ENCONTRADO = 1;
+    public static final byte ERROR = 2;
+
+    // tamanio maximo de un pedido (los pedidos son chicos: un genero y poco mas)
+    public static final int MAX_PEDIDO = 1 << 16;
+
+    // cantidad de respuestas sin enviar a partir de la cual se deja de leer a un cliente
+    private static final int MAX_PENDIENTES = 64;
+
+    private final Catalogo catalogo;
+    private final CacheConsultas consultas;
+    private final SocketAddress direccion;
+    private Selector selector;
+    private ServerSocketChannel servidor;
+
+    /**
+     * Se crea el servidor para el catalogo indicado. La direccion puede ser un
+     * UnixDomainSocketAddress o un InetSocketAddress (normalmente de loopback). Solo se crea
+     * desde main() (y las pruebas), porque el catalogo no es parte de la API del modulo
+     */
+    ServidorConsultas(Catalogo catalogo, SocketAddress direccion) {
+        this.catalogo = catalogo;
+        this.direccion = direccion;
+        this.consultas = new CacheConsultas(256, 64L << 20);
+    }
+
+    /**
+     * Uso: ServidorConsultas archivo-o-directorio (--puerto n | --socket ruta)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[1].equals("--puerto") || args[1].equals("--socket"))) {
+            System.err.println("uso: ServidorConsultas <archivo.csv|directorio> (--puerto <n> | --socket <ruta>)");
+            System.exit(2);
+        }
+
+        Catalogo catalogo = new Catalogo();
+        File origen = new File(args[0]);
+        Estadisticas estadisticas = null;
+        try {
+            estadisticas = origen.isDirectory()
+                    ? new DatasetDirectorio(origen.getPath()).cargarDataset()
+                    : new Dataset(origen.getPath()).cargarDataset();
+        } catch (IOException | RuntimeException e) {
+            // sin datos no se atiende: no se publica un catalogo vacio
+            System.err.println("No se pudo cargar " + origen.getName() + ": " + e.getMessage());
+            System.exit(1);
+        }
+        EstadisticasVersion version = catalogo.publicar(estadisticas);
+        System.out.println("Catalogo cargado: " + version.getGeneros().size() + " generos");
+
+        SocketAddress direccion;
+        if (args[1].equals("--puerto")) {
+            direccion = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[2]));
+        } else {
+            Path ruta = Path.of(args[2]);
+            Files.deleteIfExists(ruta);
+            direccion = UnixDomainSocketAddress.of(ruta);
+        }
+
+        ServidorConsultas servidor = new ServidorConsultas(catalogo, direccion);
+        servidor.abrir();
+        System.out.println("Atendiendo consultas en " + servidor.getDireccion());
+        servidor.atender();
+    }
+
+    /**
+     * Se abre el socket del servidor (sin empezar a atender)
+     */
+    public void abrir() throws IOException {
+        selector = Selector.open();
+        servidor = direccion instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        servidor.bind(direccion);
+        servidor.configureBlocking(false);
+        servidor.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Se obtiene la direccion en la que escucha el servidor (con el puerto real si se pidio el 0)
+     */
+    public SocketAddress getDireccion() throws IOException {
+        return servidor.getLocalAddress();
+    }
+
+    /**
+     * Se atienden las conexiones hasta que se cierre el servidor
+     */
+    public void atender() throws IOException {
+        while (servidor.isOpen()) {
+            try {
+                selector.select();
+            } catch (ClosedSelectorException e) {
+                break;
+            }
+            if (!selector.isOpen())
+                break;
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                try {
+                    if (key.isAcceptable())
+                        aceptar();
+                    else {
+                        if (key.isReadable())
+                            leer(key);
+                        if (key.isValid() && key.isWritable())
+                            escribir(key);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // un cliente con problemas no debe tirar abajo al servidor
+                    cerrar(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Se cierra el servidor y todas sus conexiones
+     */
+    public void cerrar() throws IOException {
+        if (selector == null)
+            return;
+        for (SelectionKey key : selector.keys())
+            key.channel().close();
+        selector.close();
+        if (direccion instanceof UnixDomainSocketAddress)
+            Files.deleteIfExists(((UnixDomainSocketAddress) direccion).getPath());
+    }
+
+    private void aceptar() throws IOException {
+        SocketChannel canal = servidor.accept();
+        if (canal == null)
+            return;
+        canal.configureBlocking(false);
+        canal.register(selector, SelectionKey.OP_READ, new Conexion());
+    }
+
+    /**
+     * Se leen los bytes disponibles y se responden los pedidos completos
+     */
+    private void leer(SelectionKey key) throws IOException {
+        SocketChannel canal = (SocketChannel) key.channel();
+        Conexion c = (Conexion) key.attachment();
+        if (canal.read(c.entrada) == -1) {
+            cerrar(key);
+            return;
+        }
+        procesar(c);
+        escribir(key);
+    }
+
+    /**
+     * Se responden los pedidos completos del buffer de entrada, mientras no haya demasiadas
+     * respuestas sin enviar (si el cliente no lee, se deja de leerle: contrapresion)
+     */
+    private void procesar(Conexion c) throws IOException {
+        c.entrada.flip();
+        while (c.entrada.remaining() >= 4 && c.salida.size() < MAX_PENDIENTES) {
+            int largo = c.entrada.getInt(c.entrada.position());
+            if (largo < 5 || largo > MAX_PEDIDO)
+                throw new IOException("pedido con largo invalido: " + largo);
+            if (c.entrada.remaining() < 4 + largo)
+                break;
+            c.entrada.getInt();
+            ByteBuffer pedido = c.entrada.slice(c.entrada.position(), largo);
+            c.entrada.position(c.entrada.position() + largo);
+            c.salida.add(responder(pedido));
+        }
+        c.entrada.compact();
+    }
+
+    /**
+     * Se escriben las respuestas pendientes; si el socket no acepta mas, se espera a OP_WRITE
+     */
+    private void escribir(SelectionKey key) throws IOException {
+        SocketChannel canal = (SocketChannel) key.channel();
+        Conexion c = (Conexion) key.attachment();
+        while (!c.salida.isEmpty()) {
+            ByteBuffer b = c.salida.peek();
+            canal.write(b);
+            if (b.hasRemaining())
+                break;
+            c.salida.poll();
+            // al liberarse lugar se siguen respondiendo los pedidos ya recibidos
+            if (c.salida.isEmpty() && c.entrada.position() > 0)
+                procesar(c);
+        }
+        int ops = 0;
+        if (c.salida.size() < MAX_PENDIENTES)
+            ops |= SelectionKey.OP_READ;
+        if (!c.salida.isEmpty())
+            ops |= SelectionKey.OP_WRITE;
+        key.interestOps(ops);
+    }
+
+    private void cerrar(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // ya estaba cerrado
+        }
+    }
+
+    /**
+     * Se resuelve un pedido (sin el largo) y se arma la respuesta completa
+     */
+    private ByteBuffer responder(ByteBuffer pedido) {
+        int id = pedido.getInt();
+        byte operacion = pedido.get();
+        Respuesta r = new Respuesta(id);
+        try {
+            EstadisticasVersion version = catalogo.actual();
+            if (version == null)
+                return r.estado(NO_ENCONTRADO).terminar();
+
+            switch (operacion) {
+                case BUSCAR: {
+                    String texto = consultas.texto(version, leerTexto(pedido));
+                    return texto == null ? r.estado(NO_ENCONTRADO).terminar() : r.estado(OK).texto(texto).terminar();
+                }
+                case GENEROS: {
+                    Collection<Object> generos = version.getGeneros();
+                    r.estado(OK).entero(generos.size());
+                    for (Object g : generos)
+                        r.texto(g.toString());
+                    return r.terminar();
+                }
+                case TOPK: {
+                    int k = pedido.getInt();
+                    String texto = consultas.topK(version, leerTexto(pedido), k);
+                    return texto == null ? r.estado(NO_ENCONTRADO).terminar() : r.estado(OK).texto(texto).terminar();
+                }
+                case RESUMEN: {
+                    Resultado resultado = (Resultado) version.buscar(leerTexto(pedido));
+                    if (resultado == null)
+                        return r.estado(NO_ENCONTRADO).terminar();
+                    return r.estado(OK).entero(resultado.getSeries()).entero(resultado.getMinimo())
+                            .entero(resultado.getMaximo()).real(resultado.getPromedio()).largo(resultado.getVotos())
+                            .terminar();
+                }
+                case VERSION:
+                    return r.estado(OK).largo(version.getNumero()).terminar();
+                default:
+                    return new Respuesta(id).estado(ERROR).texto("operacion desconocida: " + operacion).terminar();
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return new Respuesta(id).estado(ERROR).texto("pedido mal formado: " + e.getMessage()).terminar();
+        }
+    }
+
+    private static String leerTexto(ByteBuffer b) {
+        int largo = b.getInt();
+        if (largo < 0 || largo > b.remaining())
+            throw new IllegalArgumentException("texto con largo invalido");
+        byte[] bytes = new byte[largo];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Estado de lectura y escritura de una conexion
+     */
+    private static class Conexion {
+        private final ByteBuffer entrada = ByteBuffer.allocate(4 + MAX_PEDIDO);
+        private final ArrayDeque<ByteBuffer> salida = new ArrayDeque<>();
+    }
+
+    /**
+     * Armado de una respuesta: el largo se completa al terminar
+     */
+    private static class Respuesta {
+        private ByteBuffer b = ByteBuffer.allocate(256);
+
+        private Respuesta(int id) {
+            b.putInt(0).putInt(id);
+        }
+
+        private Respuesta estado(byte estado) {
+            lugar(1);
+            b.put(estado);
+            return this;
+        }
+
+        private Respuesta entero(int v) {
+            lugar(4);
+            b.putInt(v);
+            return this;
+        }
+
+        private Respuesta largo(long v) {
+            lugar(8);
+            b.putLong(v);
+            return this;
+        }
+
+        private Respuesta real(double v) {
+            lugar(8);
+            b.putDouble(v);
+            return this;
+        }
+
+        private Respuesta texto(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            lugar(4 + bytes.length);
+            b.putInt(bytes.length).put(bytes);
+            return this;
+        }
+
+        private ByteBuffer terminar() {
+            b.putInt(0, b.position() - 4);
+            return b.flip();
+        }
+
+        private void lugar(int n) {
+            if (b.remaining() < n) {
+                ByteBuffer mayor = ByteBuffer.allocate(Math.max(b.capacity() * 2, b.position() + n));
+                b.flip();
+                mayor.put(b);
+                b = mayor;
+            }
+        }
+    }
+}
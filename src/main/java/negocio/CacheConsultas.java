@@ -0,0 +1,90 @@
+package negocio;
+
+import soporte.TSBLruCache;
+
+/**
+ * Cache de los textos generados por las consultas (listado completo y top-K de un genero).
+ * Cada texto se guarda junto con el Resultado del que salio y su cantidad de modificaciones:
+ * si el Resultado cambia (o se publica otra version del catalogo, con otros Resultado), la
+ * entrada deja de ser valida y el texto se vuelve a generar. No es thread-safe: se usa
+ * desde el hilo de JavaFX.
+ */
+public class CacheConsultas {
+    private final TSBLruCache<String, Entrada> cache;
+
+    /**
+     * Se crea la cache acotada por cantidad de consultas y por bytes de texto
+     */
+    public CacheConsultas(int maxConsultas, long maxBytes) {
+        cache = new TSBLruCache<>(maxConsultas, maxBytes, e -> 2L * e.texto.length() + 64);
+    }
+
+    /**
+     * Se obtiene el texto completo del genero en la version indicada, o null si el genero no existe
+     */
+    public String texto(EstadisticasVersion version, Object genero) {
+        return consultar(version, genero, 0);
+    }
+
+    /**
+     * Se obtiene el texto con las k series mejor puntuadas del genero, o null si el genero no existe
+     */
+    public String topK(EstadisticasVersion version, Object genero, int k) {
+        if (k <= 0) throw new IllegalArgumentException("topK(): k debe ser positivo");
+        return consultar(version, genero, k);
+    }
+
+    private String consultar(EstadisticasVersion version, Object genero, int k) {
+        Resultado resultado = (Resultado) version.buscar(genero);
+        if (resultado == null) return null;
+
+        String clave = genero + "\u0000" + k;
+        Entrada e = cache.get(clave);
+        if (e != null && e.resultado == resultado && e.modificaciones == resultado.getModificaciones()) {
+            return e.texto;
+        }
+
+        int modificaciones = resultado.getModificaciones();
+        String texto = k == 0 ? resultado.toString() : resultado.topK(k);
+        cache.put(clave, new Entrada(resultado, modificaciones, texto));
+        return texto;
+    }
+
+    /**
+     * Se vacia la cache
+     */
+    public void limpiar() {
+        cache.clear();
+    }
+
+    /**
+     * Se obtiene la cantidad de consultas resueltas con la cache
+     */
+    public long getAciertos() {
+        return cache.getHits();
+    }
+
+    /**
+     * Se obtiene la cantidad de consultas que no estaban en la cache
+     */
+    public long getFallos() {
+        return cache.getMisses();
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+
+    private static final class Entrada {
+        private final Resultado resultado;
+        private final int modificaciones;
+        private final String texto;
+
+        private Entrada(Resultado resultado, int modificaciones, String texto) {
+            this.resultado = resultado;
+            this.modificaciones = modificaciones;
+            this.texto = texto;
+        }
+    }
+}
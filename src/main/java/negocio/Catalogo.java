@@ -0,0 +1,64 @@
+package negocio;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Mantiene la version vigente de las estadisticas. Los lectores obtienen la
+ * version actual con una simple lectura de una referencia (sin bloqueos) y la
+ * conservan mientras la usan; una recarga arma las estadisticas nuevas en
+ * segundo plano y recien al terminar reemplaza atomicamente la referencia, de
+ * forma que una consulta nunca espera a una recarga ni ve datos a medio cargar.
+ */
+public class Catalogo {
+    private final AtomicReference<EstadisticasVersion> actual;
+    private final AtomicLong versiones;
+    private final ExecutorService recargas;
+
+    /**
+     * Se crea el catalogo vacio (sin ninguna version publicada)
+     */
+    public Catalogo() {
+        actual = new AtomicReference<>();
+        versiones = new AtomicLong();
+        // un unico hilo: las recargas se publican en el orden en que se piden
+        recargas = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "recarga-catalogo");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Se obtiene la version vigente, o null si todavia no se publico ninguna
+     */
+    public EstadisticasVersion actual() {
+        return actual.get();
+    }
+
+    /**
+     * Se congelan las estadisticas cargadas y se publican como version vigente.
+     * Si se publica desde varios hilos a la vez, queda vigente la de mayor numero
+     * (una version nunca reemplaza a otra posterior)
+     */
+    public EstadisticasVersion publicar(Estadisticas estadisticas) {
+        EstadisticasVersion version = estadisticas.congelar(versiones.incrementAndGet());
+        actual.accumulateAndGet(version, (vigente, nueva) ->
+                vigente == null || nueva.getNumero() > vigente.getNumero() ? nueva : vigente);
+        return version;
+    }
+
+    /**
+     * Se cargan las estadisticas en segundo plano y se publican al terminar.
+     * Mientras tanto las consultas siguen usando la version anterior. Si la carga devuelve
+     * null (por ejemplo, porque no hubo cambios) no se publica nada y se obtiene null.
+     */
+    public CompletableFuture<EstadisticasVersion> recargar(Supplier<Estadisticas> carga) {
+        return CompletableFuture.supplyAsync(carga, recargas)
+                .thenApply(estadisticas -> estadisticas == null ? null : publicar(estadisticas));
+    }
+}
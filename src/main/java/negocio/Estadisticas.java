@@ -1,28 +1,196 @@
 package negocio;
 
+import soporte.SketchesPorClave;
+import soporte.SpaceSaving;
 import soporte.TSBHashTableDA;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
 
+/**
+ * Estadisticas por genero. Los generos se reparten en una o mas particiones (shards) segun
+ * su valor hash, cada una con su propia hashtable. Como un genero siempre cae en la misma
+ * particion, varios hilos pueden agregar registros a la vez sin bloqueos siempre que cada
+ * particion sea usada por un unico hilo (ver shardDe()). Las consultas (buscar, getGeneros,
+ * forEach) ven todas las particiones como si fueran una sola tabla.
+ *
+ * Opcionalmente, cada particion lleva tambien sketches de las estrellas de cada genero
+ * (cuantas estrellas distintas tiene y cuales aparecen mas), de memoria constante por genero,
+ * y las estrellas de cada serie, con las que se arma un IndiceReparto.
+ */
 public class Estadisticas {
 
-    private TSBHashTableDA tabla;
+    private TSBHashTableDA<Object, Resultado>[] tablas;
+    private SketchesPorClave<Object, String>[] estrellas;
+    private IndiceReparto.Acumulador[] repartos;
+    private IndiceReparto indice;
+    private boolean publicada;
     /**
      * Creamos una hashtable para guardar las estadisticas
      */
     public Estadisticas() {
-        tabla = new TSBHashTableDA<>();
+        this(1);
     }
+
+    /**
+     * Creamos las estadisticas repartidas en la cantidad de particiones indicada
+     */
+    public Estadisticas(int shards) {
+        if (shards <= 0)
+            throw new IllegalArgumentException("Estadisticas(): la cantidad de particiones debe ser positiva");
+        tablas = arreglo(new TSBHashTableDA<?, ?>[shards]);
+        estrellas = arreglo(new SketchesPorClave<?, ?>[shards]);
+        repartos = new IndiceReparto.Acumulador[shards];
+        for (int i = 0; i < shards; i++)
+            tablas[i] = new TSBHashTableDA<>();
+        publicada = false;
+    }
+
     /**
-     * Agregamos un nuevo registro en la hastable
+     * Se obtiene la particion que le corresponde a un genero cuando hay shards particiones.
+     * Quien cargue en paralelo debe repartir los registros con esta misma funcion, para que
+     * cada hilo escriba en una unica particion.
      */
-    public void agregar(Object clave, String nombreSerie, int rating)
+    public static int shardDe(Object clave, int shards) {
+        return (clave.hashCode() & 0x7FFFFFFF) % shards;
+    }
+
+    /**
+     * Se obtiene la cantidad de particiones
+     */
+    public int getShards() {
+        return tablas.length;
+    }
+
+    /**
+     * Agregamos un nuevo registro en la hastable, con la puntuacion en decimas y los votos de la serie
+     */
+    public void agregar(Object clave, String nombreSerie, short rating, long votos)
     {
-        Resultado item = (Resultado) tabla.get(clave);
+        if (publicada)
+            throw new IllegalStateException("agregar(): las estadisticas ya fueron publicadas");
+        TSBHashTableDA<Object, Resultado> tabla = tablaDe(clave);
+        Resultado item = tabla.get(clave);
         if(item== null)
-            tabla.put(clave,new Resultado(nombreSerie, rating));
+            tabla.put(clave,new Resultado(nombreSerie, rating, votos));
         else
-            item.actualizar(nombreSerie,rating);
+            item.actualizar(nombreSerie,rating, votos);
+    }
+
+    /**
+     * Se registra una estrella que actua en una serie del genero (en la misma particion que el
+     * genero, por lo que vale lo mismo que para agregar() respecto de los hilos)
+     */
+    public void agregarEstrella(Object clave, String estrella)
+    {
+        if (publicada)
+            throw new IllegalStateException("agregarEstrella(): las estadisticas ya fueron publicadas");
+        int shard = indiceDe(clave);
+        if (estrellas[shard] == null)
+            estrellas[shard] = new SketchesPorClave<>();
+        estrellas[shard].add(clave, estrella);
+    }
+
+    /**
+     * Se registran las estrellas de una serie para el indice de reparto. La clave (uno de los
+     * generos de la serie) solo elige la particion, por lo que vale lo mismo que para agregar()
+     * respecto de los hilos; cada serie se registra una sola vez, no una por genero.
+     */
+    public void agregarReparto(Object clave, String nombreSerie, String[] estrellasSerie)
+    {
+        if (publicada)
+            throw new IllegalStateException("agregarReparto(): las estadisticas ya fueron publicadas");
+        int shard = indiceDe(clave);
+        if (repartos[shard] == null)
+            repartos[shard] = new IndiceReparto.Acumulador();
+        repartos[shard].agregar(nombreSerie, estrellasSerie);
+        indice = null;
+    }
+
+    /**
+     * Se obtiene el indice de las estrellas de cada serie (null si no se registraron). Se arma
+     * en la primera consulta y se reutiliza mientras no se registren nuevas series.
+     */
+    public IndiceReparto getReparto()
+    {
+        if (indice == null)
+            indice = construirReparto();
+        return indice;
+    }
+
+    /**
+     * Se obtiene la cantidad aproximada de estrellas distintas del genero (0 si no se registraron)
+     */
+    public long estrellasDistintas(Object clave)
+    {
+        SketchesPorClave<Object, String> s = estrellas[indiceDe(clave)];
+        return s == null ? 0 : s.distinct(clave);
+    }
+
+    /**
+     * Se obtienen las estrellas (a lo sumo n) que seguro aparecen en mas series del genero, de
+     * mayor a menor. Las que no se distinguen del error del sketch no se informan, por lo que
+     * la lista puede tener menos de n o estar vacia
+     */
+    public List<SpaceSaving.Frecuencia<String>> estrellasFrecuentes(Object clave, int n)
+    {
+        SketchesPorClave<Object, String> s = estrellas[indiceDe(clave)];
+        return s == null ? List.of() : s.topGarantizado(clave, n);
+    }
+
+    /**
+     * Se crean estadisticas con una copia de los resultados de una version publicada, para
+     * seguir agregando registros (por ejemplo, las series agregadas al final del archivo) sin
+     * modificar la version. No se copian las estrellas ni el indice de reparto
+     */
+    public static Estadisticas copiaDe(EstadisticasVersion version) {
+        Estadisticas copia = new Estadisticas();
+        for (Object clave : version.getGeneros())
+            copia.tablas[0].put(clave, new Resultado((Resultado) version.buscar(clave)));
+        return copia;
+    }
+
+    /**
+     * Se incorporan los resultados de otras estadisticas (por ejemplo, las parciales de una
+     * carga en paralelo). Los resultados de otras pasan a formar parte de estas, por lo que
+     * otras no debe volver a usarse.
+     */
+    public void incorporar(Estadisticas otras)
+    {
+        if (publicada)
+            throw new IllegalStateException("incorporar(): las estadisticas ya fueron publicadas");
+        otras.forEach((clave, otro) -> {
+            TSBHashTableDA<Object, Resultado> tabla = tablaDe(clave);
+            Resultado item = tabla.get(clave);
+            if(item== null)
+                tabla.put(clave,otro);
+            else
+                item.incorporar(otro);
+        });
+        // los sketches de cada genero van a la particion que le corresponde
+        for (SketchesPorClave<Object, String> s : otras.estrellas) {
+            if (s == null)
+                continue;
+            for (int i = 0; i < estrellas.length; i++) {
+                int shard = i;
+                if (estrellas[i] == null)
+                    estrellas[i] = new SketchesPorClave<>();
+                estrellas[i].merge(s, clave -> indiceDe(clave) == shard);
+            }
+        }
+        // las series de cada reparto no dependen del genero: van todas a la primera particion
+        for (IndiceReparto.Acumulador r : otras.repartos) {
+            if (r == null)
+                continue;
+            if (repartos[0] == null)
+                repartos[0] = new IndiceReparto.Acumulador();
+            repartos[0].incorporar(r);
+            indice = null;
+        }
     }
 
     /**
@@ -30,15 +198,122 @@ public class Estadisticas {
      */
     public Object buscar(Object clave)
     {
-        return tabla.get(clave);
+        return tablaDe(clave).get(clave);
     }
     /**
      * Se obtiene los generos en la tabla
      */
-    public Collection getGeneros()
+    public Collection<Object> getGeneros()
     {
-        return tabla.keySet();
+        if (tablas.length == 1)
+            return tablas[0].keySet();
+        return new Generos();
     }
 
+    /**
+     * Se recorren todos los generos con su resultado, particion por particion
+     */
+    public void forEach(BiConsumer<Object, Resultado> accion)
+    {
+        for (TSBHashTableDA<Object, Resultado> tabla : tablas)
+            tabla.forEach(accion);
+    }
 
+    /**
+     * Se congelan las estadisticas en una version inmutable con el numero indicado.
+     * A partir de aca ya no se pueden agregar registros, porque los resultados
+     * pasan a ser compartidos por la version publicada.
+     */
+    public EstadisticasVersion congelar(long numero)
+    {
+        publicada = true;
+        SketchesPorClave<Object, String> todasEstrellas = null;
+        for (SketchesPorClave<Object, String> s : estrellas) {
+            if (s == null)
+                continue;
+            if (todasEstrellas == null)
+                todasEstrellas = new SketchesPorClave<>();
+            todasEstrellas.merge(s);
+        }
+        IndiceReparto reparto = getReparto();
+        if (tablas.length == 1)
+            return new EstadisticasVersion(numero, tablas[0].freeze(), todasEstrellas, reparto);
+
+        int total = 0;
+        for (TSBHashTableDA<Object, Resultado> tabla : tablas)
+            total += tabla.size();
+        TSBHashTableDA<Object, Resultado> todas = TSBHashTableDA.withExpectedSize(total);
+        for (TSBHashTableDA<Object, Resultado> tabla : tablas)
+            todas.putAll(tabla);
+        return new EstadisticasVersion(numero, todas.freeze(), todasEstrellas, reparto);
+    }
+
+    private IndiceReparto construirReparto() {
+        IndiceReparto.Acumulador todos = null;
+        for (IndiceReparto.Acumulador r : repartos) {
+            if (r == null)
+                continue;
+            if (todos == null)
+                todos = new IndiceReparto.Acumulador();
+            todos.incorporar(r);
+        }
+        return todos == null ? null : todos.construir();
+    }
+
+    private TSBHashTableDA<Object, Resultado> tablaDe(Object clave) {
+        return tablas[indiceDe(clave)];
+    }
+
+    private int indiceDe(Object clave) {
+        return tablas.length == 1 ? 0 : shardDe(clave, tablas.length);
+    }
+
+    /**
+     * Arreglo de particiones del tipo pedido: no se pueden crear arreglos de un tipo generico,
+     * pero el arreglo vacio solo se usa con ese tipo y nunca sale de la clase
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] arreglo(Object[] vacio) {
+        return (T[]) vacio;
+    }
+
+    /**
+     * Vista de solo lectura de los generos de todas las particiones
+     */
+    private class Generos extends AbstractCollection<Object> {
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<Object>() {
+                private int shard = 0;
+                private Iterator<Object> actual = tablas[0].keySet().iterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!actual.hasNext() && shard < tablas.length - 1)
+                        actual = tablas[++shard].keySet().iterator();
+                    return actual.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException("next(): no existe el elemento pedido...");
+                    return actual.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int total = 0;
+            for (TSBHashTableDA<Object, Resultado> tabla : tablas)
+                total += tabla.size();
+            return total;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o != null && tablaDe(o).containsKey(o);
+        }
+    }
 }
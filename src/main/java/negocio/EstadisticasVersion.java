@@ -0,0 +1,77 @@
+package negocio;
+
+import soporte.FrozenTSBHashTable;
+import soporte.SketchesPorClave;
+import soporte.SpaceSaving;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Version inmutable de las estadisticas, publicada por el Catalogo. Todos sus
+ * datos son de solo lectura, por lo que puede ser consultada desde cualquier
+ * hilo sin bloqueos mientras en segundo plano se arma la version siguiente.
+ */
+public final class EstadisticasVersion {
+    private final long numero;
+    private final FrozenTSBHashTable<Object, Resultado> tabla;
+    private final SketchesPorClave<Object, String> estrellas;
+    private final IndiceReparto reparto;
+
+    /**
+     * Se crea la version con su numero, la tabla congelada de resultados, los sketches de
+     * estrellas por genero y el indice de reparto (null si no se registraron las estrellas).
+     * Los sketches ya no se modifican.
+     */
+    EstadisticasVersion(long numero, FrozenTSBHashTable<Object, Resultado> tabla, SketchesPorClave<Object, String> estrellas,
+                        IndiceReparto reparto) {
+        this.numero = numero;
+        this.tabla = tabla;
+        this.estrellas = estrellas;
+        this.reparto = reparto;
+    }
+
+    /**
+     * Se obtiene el numero de la version (crece con cada publicacion)
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Se busca segun un genero en la tabla
+     */
+    public Object buscar(Object clave) {
+        return tabla.get(clave);
+    }
+
+    /**
+     * Se obtiene los generos en la tabla
+     */
+    public Collection<Object> getGeneros() {
+        return tabla.keySet();
+    }
+
+    /**
+     * Se obtiene la cantidad aproximada de estrellas distintas del genero (0 si no se registraron)
+     */
+    public long estrellasDistintas(Object clave) {
+        return estrellas == null ? 0 : estrellas.distinct(clave);
+    }
+
+    /**
+     * Se obtienen las estrellas (a lo sumo n) que seguro aparecen en mas series del genero, de
+     * mayor a menor. Las que no se distinguen del error del sketch no se informan, por lo que
+     * la lista puede tener menos de n o estar vacia
+     */
+    public List<SpaceSaving.Frecuencia<String>> estrellasFrecuentes(Object clave, int n) {
+        return estrellas == null ? List.of() : estrellas.topGarantizado(clave, n);
+    }
+
+    /**
+     * Se obtiene el indice de las estrellas de cada serie (null si no se registraron)
+     */
+    public IndiceReparto getReparto() {
+        return reparto;
+    }
+}
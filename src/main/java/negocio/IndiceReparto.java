@@ -0,0 +1,175 @@
+package negocio;
+
+import soporte.GrafoCSR;
+import soporte.IntIntTSBHashTable;
+import soporte.IntTSBArrayList;
+import soporte.ObjectIntTSBHashTable;
+import soporte.SpaceSaving;
+import soporte.TSBArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indice inmutable de las estrellas (Star1 a Star4) de cada serie. Cada estrella y cada serie
+ * tienen un numero, y las relaciones se guardan en dos grafos CSR (estrella -> series y
+ * serie -> estrellas) de arreglos de int ordenados, por lo que las consultas que cruzan dos
+ * estrellas se resuelven intersectando sus listas de series.
+ *
+ * Las series se identifican por su titulo: si un titulo aparece mas de una vez, sus estrellas
+ * se juntan en una sola serie.
+ */
+public final class IndiceReparto {
+    private final String[] estrellas;
+    private final String[] series;
+    private final ObjectIntTSBHashTable<String> idEstrella;
+    private final ObjectIntTSBHashTable<String> idSerie;
+    private final GrafoCSR seriesDeEstrella;
+    private final GrafoCSR estrellasDeSerie;
+
+    private IndiceReparto(Acumulador acumulador) {
+        idEstrella = new ObjectIntTSBHashTable<>();
+        idSerie = ObjectIntTSBHashTable.withExpectedSize(acumulador.series.size());
+        TSBArrayList<String> nombresEstrellas = new TSBArrayList<>();
+        TSBArrayList<String> nombresSeries = new TSBArrayList<>();
+        IntTSBArrayList origenes = new IntTSBArrayList(acumulador.series.size() * 4);
+        IntTSBArrayList destinos = new IntTSBArrayList(acumulador.series.size() * 4);
+
+        for (int i = 0; i < acumulador.series.size(); i++) {
+            int serie = numerar(acumulador.series.get(i), idSerie, nombresSeries);
+            for (String estrella : acumulador.repartos.get(i)) {
+                if (estrella.isEmpty())
+                    continue;
+                origenes.add(numerar(estrella, idEstrella, nombresEstrellas));
+                destinos.add(serie);
+            }
+        }
+
+        estrellas = nombresEstrellas.toArray(new String[0]);
+        series = nombresSeries.toArray(new String[0]);
+        seriesDeEstrella = new GrafoCSR(estrellas.length, origenes, destinos);
+        estrellasDeSerie = seriesDeEstrella.traspuesto(series.length);
+    }
+
+    /**
+     * Se obtiene la cantidad de estrellas distintas
+     */
+    public int getEstrellas() {
+        return estrellas.length;
+    }
+
+    /**
+     * Se obtiene la cantidad de series distintas
+     */
+    public int getSeries() {
+        return series.length;
+    }
+
+    /**
+     * Se obtienen las series en las que actua la estrella (vacia si no se conoce)
+     */
+    public List<String> seriesDe(String estrella) {
+        int e = idEstrella.getOrDefault(estrella, -1);
+        List<String> lista = new ArrayList<>();
+        if (e != -1)
+            seriesDeEstrella.forEachVecino(e, s -> lista.add(series[s]));
+        return lista;
+    }
+
+    /**
+     * Se obtienen las estrellas de la serie (vacia si no se conoce)
+     */
+    public List<String> estrellasDe(String serie) {
+        int s = idSerie.getOrDefault(serie, -1);
+        List<String> lista = new ArrayList<>();
+        if (s != -1)
+            estrellasDeSerie.forEachVecino(s, e -> lista.add(estrellas[e]));
+        return lista;
+    }
+
+    /**
+     * Se obtienen las series en las que actuan juntas las dos estrellas
+     */
+    public List<String> seriesCompartidas(String estrella1, String estrella2) {
+        int a = idEstrella.getOrDefault(estrella1, -1);
+        int b = idEstrella.getOrDefault(estrella2, -1);
+        List<String> lista = new ArrayList<>();
+        if (a != -1 && b != -1)
+            seriesDeEstrella.interseccion(a, b, s -> lista.add(series[s]));
+        return lista;
+    }
+
+    /**
+     * Se obtienen las n estrellas que mas series comparten con la estrella indicada, de mayor a
+     * menor (a igual cantidad, por nombre). Los candidatos son las estrellas de sus series, y
+     * para cada uno se cuentan las series en comun intersectando las dos listas de series.
+     */
+    public List<SpaceSaving.Frecuencia<String>> coestrellas(String estrella, int n) {
+        int a = idEstrella.getOrDefault(estrella, -1);
+        if (a == -1 || n <= 0)
+            return List.of();
+
+        IntIntTSBHashTable vistos = new IntIntTSBHashTable();
+        IntTSBArrayList candidatos = new IntTSBArrayList();
+        seriesDeEstrella.forEachVecino(a, s -> estrellasDeSerie.forEachVecino(s, e -> {
+            if (e != a && !vistos.containsKey(e)) {
+                vistos.put(e, 0);
+                candidatos.add(e);
+            }
+        }));
+
+        long[] orden = new long[candidatos.size()];
+        for (int i = 0; i < orden.length; i++) {
+            int e = candidatos.get(i);
+            orden[i] = (long) seriesDeEstrella.interseccion(a, e, null) << 32 | e;
+        }
+        Integer[] posiciones = new Integer[orden.length];
+        for (int i = 0; i < posiciones.length; i++)
+            posiciones[i] = i;
+        Arrays.sort(posiciones, (x, y) -> {
+            int c = Long.compare(orden[y] >>> 32, orden[x] >>> 32);
+            return c != 0 ? c : estrellas[(int) orden[x]].compareTo(estrellas[(int) orden[y]]);
+        });
+
+        List<SpaceSaving.Frecuencia<String>> lista = new ArrayList<>(Math.min(n, posiciones.length));
+        for (int i = 0; i < posiciones.length && i < n; i++) {
+            long o = orden[posiciones[i]];
+            lista.add(new SpaceSaving.Frecuencia<>(estrellas[(int) o], o >>> 32, 0));
+        }
+        return lista;
+    }
+
+    private static int numerar(String nombre, ObjectIntTSBHashTable<String> ids, TSBArrayList<String> nombres) {
+        int id = ids.getOrDefault(nombre, -1);
+        if (id == -1) {
+            id = nombres.size();
+            ids.put(nombre, id);
+            nombres.add(nombre);
+        }
+        return id;
+    }
+
+    /**
+     * Series con sus estrellas, registradas durante la carga en el orden en que llegan. Cada
+     * particion de las Estadisticas tiene el suyo; al publicar se juntan y se arma el indice.
+     */
+    static class Acumulador {
+        private final TSBArrayList<String> series = new TSBArrayList<>();
+        private final TSBArrayList<String[]> repartos = new TSBArrayList<>();
+
+        void agregar(String serie, String[] estrellas) {
+            series.add(serie);
+            repartos.add(estrellas);
+        }
+
+        void incorporar(Acumulador otro) {
+            series.addAll(otro.series);
+            repartos.addAll(otro.repartos);
+        }
+
+        IndiceReparto construir() {
+            return new IndiceReparto(this);
+        }
+    }
+}
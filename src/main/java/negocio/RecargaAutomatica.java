@@ -0,0 +1,239 @@
+package negocio;
+
+import soporte.Dataset;
+import soporte.DatasetDirectorio;
+import soporte.ParserNumeros;
+import soporte.VigilanteArchivos;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Carga un archivo (o un directorio de archivos CSV) en el catalogo y lo vuelve a cargar
+ * solo cada vez que cambia, vigilandolo con un VigilanteArchivos. Las recargas se hacen en
+ * el hilo de recarga del catalogo, por lo que mientras tanto se sigue consultando la version
+ * anterior, y cada version publicada se entrega a quien la muestre.
+ *
+ * Si al archivo solo se le agregaron lineas al final (es mas largo y sus ultimos bytes
+ * anteriores no cambiaron), se cargan solo las lineas nuevas completas (hasta el ultimo fin
+ * de linea) y se agregan a una copia de la version vigente. En cualquier otro caso (archivo reescrito, acortado o comprimido, o un
+ * directorio) se vuelve a cargar todo.
+ */
+public class RecargaAutomatica implements Closeable {
+    // bytes del final de lo ya cargado con los que se verifica que no haya cambiado...
+    private static final int TAM_HUELLA = 4096;
+
+    private final Catalogo catalogo;
+    private final File origen;
+    private final Consumer<EstadisticasVersion> alPublicar;
+    private final VigilanteArchivos vigilante;
+
+    // lo que se cargo del archivo la ultima vez (solo se usa desde el hilo de recarga)...
+    private Marca marca;
+    private volatile boolean cerrada;
+    private volatile ParserNumeros.Redondeo redondeo = ParserNumeros.Redondeo.MEDIO_ARRIBA;
+
+    /**
+     * Se comienza a vigilar el archivo o directorio origen. Cuando cambia, se espera a que
+     * pasen espera milisegundos sin nuevos cambios antes de recargarlo, y cada version que se
+     * publique por un cambio se entrega a alPublicar (desde el hilo de recarga)
+     */
+    public RecargaAutomatica(Catalogo catalogo, File origen, long espera, Consumer<EstadisticasVersion> alPublicar)
+            throws IOException {
+        if (catalogo == null || origen == null || alPublicar == null)
+            throw new NullPointerException("RecargaAutomatica(): parametro null");
+        this.catalogo = catalogo;
+        this.origen = origen;
+        this.alPublicar = alPublicar;
+        if (origen.isDirectory()) {
+            PathMatcher csv = FileSystems.getDefault().getPathMatcher("glob:*.csv");
+            vigilante = new VigilanteArchivos(origen.toPath(), csv::matches, espera, this::cambio);
+        }
+        else
+            vigilante = VigilanteArchivos.deArchivo(origen.toPath(), espera, this::cambio);
+    }
+
+    /**
+     * Se indica como se lleva la puntuacion a decimas en las cargas siguientes (ver
+     * Dataset.setRedondeo())
+     */
+    public void setRedondeo(ParserNumeros.Redondeo redondeo) {
+        if (redondeo == null)
+            throw new NullPointerException("setRedondeo(): parametro null");
+        this.redondeo = redondeo;
+    }
+
+    /**
+     * Se carga todo el origen en segundo plano y se publica, como la primera vez. Si no se
+     * puede leer, el resultado termina con la excepcion (una IOException envuelta en
+     * UncheckedIOException) y queda la version anterior (si la hay)
+     */
+    public CompletableFuture<EstadisticasVersion> cargar() {
+        return catalogo.recargar(() -> {
+            try {
+                return cargarTodo();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Se deja de vigilar el origen. Una recarga pendiente ya no se publica
+     */
+    @Override
+    public void close() {
+        cerrada = true;
+        vigilante.close();
+    }
+
+    /**
+     * Se pide la recarga por un cambio en el origen (desde el hilo del vigilante)
+     */
+    private void cambio() {
+        if (cerrada)
+            return;
+        catalogo.recargar(this::cargarCambios).thenAccept(version -> {
+            if (version != null && !cerrada)
+                alPublicar.accept(version);
+        });
+    }
+
+    /**
+     * Se cargan los cambios del origen, o se devuelve null si no hay nada que publicar (no
+     * cambio, se borro o fallo la lectura: en esos casos queda la version anterior)
+     */
+    private Estadisticas cargarCambios() {
+        if (cerrada)
+            return null;
+        try {
+            if (origen.isDirectory())
+                return cargarTodo();
+            if (!origen.isFile())
+                return null;
+
+            Dataset dataset = dataset();
+            EstadisticasVersion anterior = catalogo.actual();
+            long largo = origen.length();
+            if (marca == null || anterior == null || dataset.isComprimido() || largo < marca.largo
+                    || !marca.finDeLinea || marcaDe(origen, marca.largo).crc != marca.crc)
+                return cargarTodo();
+            if (largo == marca.largo)
+                return null;
+
+            // solo se agregaron lineas: se cargan hasta el ultimo fin de linea (una linea que se
+            // esta escribiendo queda para la proxima vez) y se suman a una copia de la version
+            // vigente
+            long hasta = finDeUltimaLinea(origen, marca.largo, largo);
+            if (hasta < 0)
+                return null;
+            Marca nueva = marcaDe(origen, hasta);
+            Estadisticas estadisticas = Estadisticas.copiaDe(anterior);
+            estadisticas.incorporar(dataset.cargarRango(marca.largo, hasta));
+            marca = nueva;
+            return estadisticas;
+        }
+        catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo recargar " + origen.getName() + ": " + e.getMessage());
+            marca = null;
+            return null;
+        }
+    }
+
+    /**
+     * Se carga todo el origen y se registra hasta donde se cargo
+     */
+    private Estadisticas cargarTodo() throws IOException {
+        marca = null;
+        if (origen.isDirectory()) {
+            DatasetDirectorio directorio = new DatasetDirectorio(origen.getPath());
+            directorio.setRedondeo(redondeo);
+            return directorio.cargarDataset();
+        }
+
+        Dataset dataset = dataset();
+        if (dataset.isComprimido())
+            return dataset.cargarDataset();
+        long largo = origen.length();
+        Marca nueva = marcaDe(origen, largo);
+        Estadisticas estadisticas = dataset.cargarRango(0, largo);
+        marca = nueva;
+        return estadisticas;
+    }
+
+    private Dataset dataset() {
+        Dataset dataset = new Dataset(origen.getPath());
+        dataset.setRedondeo(redondeo);
+        return dataset;
+    }
+
+    /**
+     * Se obtiene la marca de los primeros largo bytes del archivo: el CRC de sus ultimos
+     * TAM_HUELLA bytes y si terminan en un fin de linea
+     */
+    private static Marca marcaDe(File archivo, long largo) throws IOException {
+        int n = (int) Math.min(TAM_HUELLA, largo);
+        ByteBuffer buffer = ByteBuffer.allocate(n);
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer, largo - n + buffer.position()) < 0)
+                    throw new EOFException("el archivo se acorto durante la lectura: " + archivo.getName());
+            }
+        }
+        buffer.flip();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        return new Marca(largo, crc.getValue(), n > 0 && buffer.get(n - 1) == '\n');
+    }
+
+    /**
+     * Se obtiene la posicion siguiente al ultimo fin de linea del archivo entre desde
+     * (inclusive) y hasta (exclusive), o -1 si en ese tramo no hay ninguno
+     */
+    private static long finDeUltimaLinea(File archivo, long desde, long hasta) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TAM_HUELLA);
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)) {
+            for (long fin = hasta; fin > desde; ) {
+                int n = (int) Math.min(TAM_HUELLA, fin - desde);
+                buffer.clear().limit(n);
+                while (buffer.hasRemaining()) {
+                    if (canal.read(buffer, fin - n + buffer.position()) < 0)
+                        throw new EOFException("el archivo se acorto durante la lectura: " + archivo.getName());
+                }
+                for (int i = n - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n')
+                        return fin - n + i + 1;
+                }
+                fin -= n;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Hasta donde se cargo el archivo
+     */
+    private static class Marca {
+        private final long largo;
+        private final long crc;
+        private final boolean finDeLinea;
+
+        Marca(long largo, long crc, boolean finDeLinea) {
+            this.largo = largo;
+            this.crc = crc;
+            this.finDeLinea = finDeLinea;
+        }
+    }
+}
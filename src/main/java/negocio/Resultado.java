@@ -1,24 +1,165 @@
 package negocio;
 
+import soporte.LongTSBArrayList;
+import soporte.ParserNumeros;
+import soporte.ShortTSBArrayList;
+import soporte.TSBArrayList;
+
+import java.io.IOException;
+
+/**
+ * Series de un genero. Las puntuaciones se guardan en decimas (8.9 es 89), tal como figuran
+ * en el Dataset, y junto con cada una la cantidad de votos de la serie.
+ */
 public class Resultado {
     private int series;
-    private StringBuffer registro;
+    private final TSBArrayList<String> nombres;
+    private final ShortTSBArrayList ratings;
+    private final LongTSBArrayList votos;
+    private int modificaciones;
+
+    /**
+     * Accion que recibe una serie con su puntuacion (en decimas) y su cantidad de votos
+     */
+    public interface AccionSerie {
+        void aceptar(String nombreSerie, short rating, long votos);
+    }
+
+    /**
+     * Se inicializa el contador de series para ese genero y se genera un resultado con la serie, su puntuacion
+     * en decimas y sus votos
+     */
+    public Resultado(String nombreSerie, short rating, long votos) {
+        series = 0;
+        nombres = new TSBArrayList<>();
+        ratings = new ShortTSBArrayList();
+        this.votos = new LongTSBArrayList();
+        actualizar(nombreSerie, rating, votos);
+    }
 
     /**
-     * Se inicializa el contador de series para ese genero y se genera un resultado con la serie y su puntuacion
+     * Se crea una copia independiente de otro resultado, para seguir agregandole series sin
+     * modificar el original (que puede pertenecer a una version publicada)
      */
-    public Resultado(String nombreSerie, int rating) {
-        series = 1;
-        registro = new StringBuffer(nombreSerie + " con puntuación " + rating);
+    Resultado(Resultado otro) {
+        series = otro.series;
+        nombres = new TSBArrayList<>(otro.nombres);
+        ratings = new ShortTSBArrayList(otro.ratings.toArray());
+        votos = new LongTSBArrayList(otro.votos.toArray());
     }
 
     /**
-     * Se actualiza el contador de serie para ese genero y se muestra un resultado con la serie y su puntuacion
+     * Se actualiza el contador de serie para ese genero y se muestra un resultado con la serie, su puntuacion
+     * en decimas y sus votos
      */
 
-    public void actualizar(String nombreSerie, int rating) {
+    public void actualizar(String nombreSerie, short rating, long votos) {
         series += 1;
-        registro.append("\n" + nombreSerie + " con puntuación " + rating);
+        nombres.add(nombreSerie);
+        ratings.add(rating);
+        this.votos.add(votos);
+        modificaciones++;
+    }
+
+    /**
+     * Se agregan a continuacion todas las series de otro resultado del mismo genero
+     */
+    public void incorporar(Resultado otro) {
+        for (int i = 0; i < otro.series; i++) {
+            actualizar(otro.nombres.get(i), otro.ratings.get(i), otro.votos.get(i));
+        }
+    }
+
+    /**
+     * Se obtiene la cantidad de series del genero
+     */
+    public int getSeries() {
+        return series;
+    }
+
+    /**
+     * Se obtiene la menor puntuacion del genero, en decimas
+     */
+    public short getMinimo() {
+        short min = ratings.get(0);
+        for (int i = 1; i < series; i++) min = (short) Math.min(min, ratings.get(i));
+        return min;
+    }
+
+    /**
+     * Se obtiene la mayor puntuacion del genero, en decimas
+     */
+    public short getMaximo() {
+        short max = ratings.get(0);
+        for (int i = 1; i < series; i++) max = (short) Math.max(max, ratings.get(i));
+        return max;
+    }
+
+    /**
+     * Se obtiene el promedio de las puntuaciones del genero (en puntos, no en decimas)
+     */
+    public double getPromedio() {
+        long suma = 0;
+        for (int i = 0; i < series; i++) suma += ratings.get(i);
+        return (double) suma / series / 10;
+    }
+
+    /**
+     * Se obtiene la cantidad total de votos de las series del genero
+     */
+    public long getVotos() {
+        long suma = 0;
+        for (int i = 0; i < series; i++) suma += votos.get(i);
+        return suma;
+    }
+
+    /**
+     * Se obtiene la cantidad de modificaciones del resultado. Sirve para saber si un texto
+     * generado antes (por ejemplo, guardado en una cache) sigue siendo valido.
+     */
+    public int getModificaciones() {
+        return modificaciones;
+    }
+
+    /**
+     * Se genera el listado de las k series con mayor puntuacion del genero (a igual puntuacion
+     * primero la de mas votos, y a igual cantidad de votos se respeta el orden de carga)
+     */
+    public String topK(int k) {
+        int[] orden = ordenTop(k);
+        StringBuilder sb = new StringBuilder("Top " + orden.length + " de " + series + " series en este Genero.\n");
+        sb.append("-----------------------------------\n");
+        for (int i = 0; i < orden.length; i++) {
+            if (i > 0) sb.append('\n');
+            linea(sb, orden[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Se recorren las series del genero en el orden de carga, con su puntuacion y sus votos
+     */
+    public void forEachSerie(AccionSerie accion) {
+        for (int i = 0; i < series; i++) accion.aceptar(nombres.get(i), ratings.get(i), votos.get(i));
+    }
+
+    /**
+     * Se recorren las k series con mayor puntuacion (como en topK())
+     */
+    public void forEachTop(int k, AccionSerie accion) {
+        for (int i : ordenTop(k)) accion.aceptar(nombres.get(i), ratings.get(i), votos.get(i));
+    }
+
+    /**
+     * Se escribe el mismo texto que toString() directamente en out, sin armarlo en memoria
+     */
+    public void escribir(Appendable out) throws IOException {
+        out.append(String.valueOf(series)).append(" series en este Genero.\n");
+        out.append("-----------------------------------\n");
+        for (int i = 0; i < series; i++) {
+            if (i > 0) out.append('\n');
+            out.append(nombres.get(i)).append(" con puntuación ").append(ParserNumeros.formatDecimas(ratings.get(i)));
+        }
     }
 
     /**
@@ -26,9 +167,81 @@ public class Resultado {
      */
     @Override
     public String toString() {
-        StringBuffer sb = new StringBuffer(series + " series en este Genero.\n");
-        sb.append("-----------------------------------\n");
-        sb.append(registro);
+        StringBuilder sb = new StringBuilder();
+        try {
+            escribir(sb);
+        } catch (IOException e) {
+            // un StringBuilder no lanza IOException
+        }
         return sb.toString();
     }
+
+    /**
+     * Se obtienen los indices de las k series con mayor puntuacion, de mayor a menor.
+     * Se recorren las series una vez manteniendo en un monticulo de int las k mejores
+     * vistas hasta el momento (con la peor en la raiz), sin crear un Integer por serie
+     * ni ordenar todas; al final se ordena el monticulo extrayendo cada vez la peor
+     */
+    private int[] ordenTop(int k) {
+        if (k <= 0) throw new IllegalArgumentException("topK(): k debe ser positivo");
+        int[] top = new int[Math.min(k, series)];
+        int n = 0;
+        for (int i = 0; i < series; i++) {
+            if (n < top.length) {
+                top[n] = i;
+                subir(top, n++);
+            } else if (mejor(i, top[0])) {
+                top[0] = i;
+                bajar(top, 0, n);
+            }
+        }
+
+        for (int fin = n - 1; fin > 0; fin--) {
+            int peor = top[0];
+            top[0] = top[fin];
+            top[fin] = peor;
+            bajar(top, 0, fin);
+        }
+        return top;
+    }
+
+    /**
+     * Se determina si la serie a va antes que la b en el top: mayor puntuacion, a igual
+     * puntuacion mas votos, y a igualdad de ambos la que se agrego primero
+     */
+    private boolean mejor(int a, int b) {
+        int c = Short.compare(ratings.get(a), ratings.get(b));
+        if (c == 0) c = Long.compare(votos.get(a), votos.get(b));
+        return c != 0 ? c > 0 : a < b;
+    }
+
+    private void subir(int[] monticulo, int pos) {
+        while (pos > 0) {
+            int padre = (pos - 1) >>> 1;
+            if (!mejor(monticulo[padre], monticulo[pos])) break;
+            intercambiar(monticulo, padre, pos);
+            pos = padre;
+        }
+    }
+
+    private void bajar(int[] monticulo, int pos, int n) {
+        while (true) {
+            int hijo = 2 * pos + 1;
+            if (hijo >= n) break;
+            if (hijo + 1 < n && mejor(monticulo[hijo], monticulo[hijo + 1])) hijo++;
+            if (!mejor(monticulo[pos], monticulo[hijo])) break;
+            intercambiar(monticulo, pos, hijo);
+            pos = hijo;
+        }
+    }
+
+    private static void intercambiar(int[] v, int i, int j) {
+        int t = v[i];
+        v[i] = v[j];
+        v[j] = t;
+    }
+
+    private void linea(StringBuilder sb, int i) {
+        sb.append(nombres.get(i)).append(" con puntuación ").append(ParserNumeros.formatDecimas(ratings.get(i)));
+    }
 }
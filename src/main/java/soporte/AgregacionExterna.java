@@ -0,0 +1,295 @@
+package soporte;
+
+import negocio.Estadisticas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * Carga de uno o mas Dataset con un presupuesto de memoria. Mientras las
+ * estadisticas en memoria no superen el presupuesto, la carga es la comun;
+ * al superarlo, su contenido se vuelca a archivos temporales (uno por
+ * particion, segun el hash del genero, igual que Estadisticas.shardDe()) y
+ * el resto de los registros (genero, serie, puntuacion y votos) va directamente a
+ * esos archivos. Luego cada particion se agrega por separado.
+ *
+ * Con cargar() cada particion se entrega a medida que se agrega, por lo que
+ * en memoria hay una sola particion a la vez: alcanza con que la mas grande
+ * entre en el presupuesto (un genero nunca se parte, por lo que la unidad
+ * minima es el genero mas grande). cargarDataset() en cambio junta todas las
+ * particiones en unas unicas estadisticas, para quien necesite el resultado
+ * completo y solo quiera acotar la memoria usada durante la carga.
+ *
+ * Los registros de cada genero se agregan en el orden de los archivos, por lo
+ * que el resultado es el mismo que el de Dataset.cargarDataset(). En este modo
+ * no se registran las estrellas.
+ */
+public class AgregacionExterna
+{
+    // bytes estimados por registro, ademas de los caracteres del titulo (el
+    // String, su arreglo y la referencia, puntuacion y votos en el Resultado)...
+    private static final int BYTES_POR_REGISTRO = 80;
+
+    // tamanio del buffer de cada archivo de particion...
+    private static final int TAM_BUFFER = 1 << 16;
+
+    // los Dataset a cargar, en orden...
+    private final Dataset[] datasets;
+
+    // el presupuesto de memoria (en bytes) y la cantidad de particiones...
+    private final long presupuesto;
+    private int particiones = 16;
+
+    // el directorio de los archivos temporales y el redondeo de la puntuacion...
+    private Path temporales = Paths.get(System.getProperty("java.io.tmpdir"));
+    private ParserNumeros.Redondeo redondeo = ParserNumeros.Redondeo.MEDIO_ARRIBA;
+
+    // estado de la carga: las estadisticas en memoria (hasta volcarlas), su
+    // tamanio estimado y los archivos de particion (una vez volcadas)...
+    private Estadisticas actual;
+    private long usados;
+    private Path[] archivos;
+    private DataOutputStream[] salidas;
+
+    /**
+     * Crea la carga de los datasets indicados con el presupuesto de memoria
+     * indicado.
+     * @param presupuesto los bytes que pueden ocupar las estadisticas en memoria.
+     * @param datasets los Dataset a cargar (sus registros se agregan en ese orden).
+     * @throws IllegalArgumentException si el presupuesto no es positivo.
+     */
+    public AgregacionExterna(long presupuesto, Dataset... datasets)
+    {
+        if(presupuesto <= 0) throw new IllegalArgumentException("AgregacionExterna(): presupuesto no valido");
+        this.presupuesto = presupuesto;
+        this.datasets = datasets.clone();
+    }
+
+    /**
+     * Indica en cuantas particiones se reparten los generos al volcar a disco
+     * (16 por defecto).
+     * @param particiones la cantidad de particiones.
+     * @throws IllegalArgumentException si la cantidad no es positiva.
+     */
+    public void setParticiones(int particiones)
+    {
+        if(particiones <= 0) throw new IllegalArgumentException("setParticiones(): cantidad no valida");
+        this.particiones = particiones;
+    }
+
+    /**
+     * Indica el directorio de los archivos temporales (por defecto, el de
+     * java.io.tmpdir).
+     * @param temporales el directorio.
+     * @throws NullPointerException si temporales es null.
+     */
+    public void setDirectorioTemporal(Path temporales)
+    {
+        if(temporales == null) throw new NullPointerException("setDirectorioTemporal(): parametro null");
+        this.temporales = temporales;
+    }
+
+    /**
+     * Indica como se lleva la puntuacion a decimas (por defecto se redondea
+     * al mas cercano, igual que en Dataset).
+     * @param redondeo la forma de redondear la puntuacion.
+     * @throws NullPointerException si redondeo es null.
+     */
+    public void setRedondeo(ParserNumeros.Redondeo redondeo)
+    {
+        if(redondeo == null) throw new NullPointerException("setRedondeo(): parametro null");
+        this.redondeo = redondeo;
+    }
+
+    /**
+     * Carga los datasets y entrega las estadisticas de a una particion por
+     * vez (o todas juntas, si nunca se supero el presupuesto). Los generos de
+     * particiones distintas no se repiten.
+     * @param accion la accion a ejecutar con las estadisticas de cada particion.
+     * @return true si hubo que volcar a disco.
+     * @throws IOException si falla la lectura de un dataset o algun archivo
+     *         temporal.
+     */
+    public boolean cargar(Consumer<Estadisticas> accion) throws IOException
+    {
+        actual = new Estadisticas();
+        usados = 0;
+        archivos = null;
+        salidas = null;
+        try
+        {
+            for(Dataset d : datasets)
+            {
+                d.recorrer(this::agregar);
+            }
+            if(salidas == null)
+            {
+                Estadisticas e = actual;
+                actual = null;
+                accion.accept(e);
+                return false;
+            }
+
+            this.cerrar_salidas();
+            for(int p = 0; p < particiones; p++)
+            {
+                Estadisticas e = this.leer_particion(archivos[p]);
+                Files.deleteIfExists(archivos[p]);
+                if(!e.getGeneros().isEmpty()) accion.accept(e);
+            }
+            return true;
+        }
+        catch(UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            actual = null;
+            this.borrar_archivos();
+        }
+    }
+
+    /**
+     * Carga los datasets y retorna todas las particiones juntas en unas
+     * unicas estadisticas.
+     * @return las estadisticas cargadas.
+     * @throws IOException si falla la lectura de un dataset o algun archivo
+     *         temporal.
+     */
+    public Estadisticas cargarDataset() throws IOException
+    {
+        Estadisticas total = new Estadisticas();
+        this.cargar(total::incorporar);
+        return total;
+    }
+
+    /*
+     * Agrega los registros (uno por genero) de una fila, en memoria o en los
+     * archivos de particion segun corresponda.
+     */
+    private void agregar(LineaCsv linea)
+    {
+        String texto = linea.texto();
+        String serie = linea.campo(LineaCsv.TITULO);
+        short rating = linea.decimas(redondeo);
+        long votos = linea.votos();
+        try
+        {
+            for(int i = linea.inicio(LineaCsv.GENEROS), j; (j = linea.finGenero(i)) != -1; i = j + 1)
+            {
+                String genero = texto.substring(i, j);
+                if(salidas != null)
+                {
+                    this.escribir(genero, serie, rating, votos);
+                    continue;
+                }
+                actual.agregar(genero, serie, rating, votos);
+                usados += BYTES_POR_REGISTRO + 2L * serie.length();
+                if(usados > presupuesto) this.volcar();
+            }
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Crea los archivos de particion y vuelca en ellos las estadisticas en
+     * memoria (serie por serie, en su orden), que se descartan.
+     */
+    private void volcar() throws IOException
+    {
+        archivos = new Path[particiones];
+        salidas = new DataOutputStream[particiones];
+        for(int p = 0; p < particiones; p++)
+        {
+            archivos[p] = Files.createTempFile(temporales, "agregacion-" + p + "-", ".tmp");
+            salidas[p] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivos[p]), TAM_BUFFER));
+        }
+
+        Estadisticas e = actual;
+        actual = null;
+        e.forEach((genero, r) -> r.forEachSerie((serie, rating, votos) -> {
+            try
+            {
+                this.escribir((String) genero, serie, rating, votos);
+            }
+            catch(IOException x)
+            {
+                throw new UncheckedIOException(x);
+            }
+        }));
+    }
+
+    private void escribir(String genero, String serie, short rating, long votos) throws IOException
+    {
+        DataOutputStream out = salidas[Estadisticas.shardDe(genero, particiones)];
+        out.writeUTF(genero);
+        out.writeUTF(serie);
+        out.writeShort(rating);
+        out.writeLong(votos);
+    }
+
+    private Estadisticas leer_particion(Path archivo) throws IOException
+    {
+        Estadisticas e = new Estadisticas();
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo), TAM_BUFFER)))
+        {
+            while(true)
+            {
+                String genero;
+                try
+                {
+                    genero = in.readUTF();
+                }
+                catch(EOFException fin)
+                {
+                    return e;
+                }
+                e.agregar(genero, in.readUTF(), in.readShort(), in.readLong());
+            }
+        }
+    }
+
+    private void cerrar_salidas() throws IOException
+    {
+        for(DataOutputStream out : salidas)
+        {
+            out.close();
+        }
+    }
+
+    /*
+     * Cierra y borra los archivos de particion que queden (por ejemplo, si
+     * la carga fallo a mitad de camino).
+     */
+    private void borrar_archivos()
+    {
+        if(archivos == null) return;
+        for(int p = 0; p < archivos.length; p++)
+        {
+            try
+            {
+                if(salidas[p] != null) salidas[p].close();
+                if(archivos[p] != null) Files.deleteIfExists(archivos[p]);
+            }
+            catch(IOException e)
+            {
+                // es un archivo temporal: si no se puede borrar, no afecta al resultado...
+            }
+        }
+        archivos = null;
+        salidas = null;
+    }
+}
@@ -0,0 +1,128 @@
+package soporte;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Filtro de Bloom por bloques (blocked Bloom filter): responde si un valor
+ * seguro no fue agregado, o si puede haberlo sido. Los bits se agrupan en
+ * bloques de 512 bits (8 long, el tamanio de una linea de cache); cada valor
+ * elige un bloque con la parte alta de su hash y marca un bit en cada uno de
+ * los 8 long del bloque, elegido con la parte baja multiplicada por una
+ * constante distinta para cada long. Asi una consulta lee una sola linea de
+ * cache, a cambio de una tasa de falsos positivos algo mayor que la de un
+ * filtro comun de igual tamanio.
+ *
+ * No se pueden quitar valores: quien lo use debe reconstruirlo (con clear()
+ * y volviendo a agregar) para descartar los que ya no estan.
+ */
+public class BloomBloqueado implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // long por bloque (8 x 64 = 512 bits)...
+    private static final int LONGS_POR_BLOQUE = 8;
+
+    // constantes impares con las que se elige el bit de cada long del bloque...
+    private static final int[] SALTS = {
+            0x47B6137B, 0x44974D91, 0x8824AD5B, 0xA2B7289D,
+            0x705495C7, 0x2DF1424B, 0x9EFC4947, 0x5C6BFB31};
+
+    // los bits, bloque por bloque, y cuantos bits del hash eligen el bloque...
+    private final long[] bits;
+    private final int bloque_bits;
+
+    /**
+     * Crea un filtro vacio con espacio para la cantidad esperada de valores,
+     * con bits_por_valor bits por valor (redondeando la cantidad de bloques a
+     * una potencia de 2). Con 16 bits por valor la tasa de falsos positivos
+     * ronda el 0.1%; con 8, el 2%.
+     * @param esperados la cantidad de valores que se espera agregar.
+     * @param bits_por_valor los bits de filtro por cada valor esperado.
+     * @throws IllegalArgumentException si bits_por_valor no es positivo.
+     */
+    public BloomBloqueado(int esperados, int bits_por_valor)
+    {
+        if(bits_por_valor <= 0) throw new IllegalArgumentException("BloomBloqueado(): bits por valor no validos");
+        long total = Math.max(1L, (long) esperados) * bits_por_valor;
+        long bloques = Math.max(1L, (total + 511) / 512);
+        int exp = 64 - Long.numberOfLeadingZeros(bloques - 1);
+        if(exp > 22) exp = 22;
+        this.bloque_bits = exp;
+        this.bits = new long[(1 << exp) * LONGS_POR_BLOQUE];
+    }
+
+    /**
+     * Calcula el hash de 64 bits que usa el filtro a partir del hashCode() de
+     * un objeto: el paso final de MurmurHash3 dispersa sus bits, para que
+     * tanto el bloque (parte alta) como los bits (parte baja) queden bien
+     * distribuidos aunque el hashCode() no lo este.
+     * @param hash_code el hashCode() del valor.
+     * @return el hash de 64 bits del valor.
+     */
+    public static long hash(int hash_code)
+    {
+        long z = hash_code;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Agrega un valor a partir de su hash de 64 bits (que debe estar bien
+     * distribuido, como el de hash()).
+     * @param hash el hash del valor.
+     */
+    public void add(long hash)
+    {
+        int base = this.bloque(hash);
+        int x = (int) hash;
+        for(int i = 0; i < LONGS_POR_BLOQUE; i++)
+        {
+            bits[base + i] |= 1L << ((x * SALTS[i]) >>> 26);
+        }
+    }
+
+    /**
+     * Determina si el valor con ese hash puede haber sido agregado. Si
+     * retorna false, seguro no lo fue.
+     * @param hash el hash del valor.
+     * @return false si el valor seguro no fue agregado.
+     */
+    public boolean mightContain(long hash)
+    {
+        int base = this.bloque(hash);
+        int x = (int) hash;
+        for(int i = 0; i < LONGS_POR_BLOQUE; i++)
+        {
+            if((bits[base + i] & (1L << ((x * SALTS[i]) >>> 26))) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Quita todos los valores del filtro (conserva su tamanio).
+     */
+    public void clear()
+    {
+        Arrays.fill(bits, 0L);
+    }
+
+    /**
+     * Retorna la cantidad de bits del filtro.
+     * @return el tamanio del filtro en bits.
+     */
+    public long sizeInBits()
+    {
+        return (long) bits.length * 64;
+    }
+
+    /*
+     * Indice del primer long del bloque que le corresponde al hash.
+     */
+    private int bloque(long hash)
+    {
+        if(bloque_bits == 0) return 0;
+        return (int) (hash >>> (64 - bloque_bits)) * LONGS_POR_BLOQUE;
+    }
+}
@@ -0,0 +1,506 @@
+package soporte;
+
+import negocio.Estadisticas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Carga de un Dataset organizada como una linea de produccion de tres etapas,
+ * cada una en sus propios hilos y unidas por colas TSBRingBuffer acotadas (un
+ * productor y un consumidor por cola):
+ *
+ * 1. Lectura: el hilo que invoca a cargar() lee el stream en bloques de bytes
+ *    que terminan en un fin de linea, y los reparte entre los parsers en forma
+ *    circular (el bloque i va al parser i % parsers).
+ * 2. Parseo: cada parser separa las lineas de sus bloques en campos y arma,
+ *    por cada bloque, un lote de registros (genero, serie, puntuacion en
+ *    decimas, votos y, si se registran, las estrellas de la serie) para cada
+ *    agregador. El genero decide el agregador, segun su valor hash.
+ * 3. Agregacion: cada agregador toma los lotes de los parsers en el mismo
+ *    orden circular en que se repartieron los bloques (por eso los registros
+ *    llegan en el orden del archivo) y los agrega en su particion de unas
+ *    Estadisticas con una particion por agregador. Como los parsers reparten
+ *    los generos con Estadisticas.shardDe(), cada particion es escrita por un
+ *    unico hilo y no hace falta ningun bloqueo ni combinar resultados.
+ *
+ * Cuando una etapa es mas lenta, las colas se llenan y la etapa anterior
+ * espera (contrapresion), por lo que la memoria usada queda acotada. Si un
+ * hilo falla, se interrumpe a todos los demas y cargar() relanza el error.
+ */
+public class CargaEnEtapas
+{
+    // tamanio de los bloques de lectura y capacidad de las colas...
+    private static final int TAM_BLOQUE = 1 << 16;
+    private static final int BLOQUES_POR_PARSER = 4;
+    private static final int LOTES_POR_COLA = 16;
+
+    // marca de fin que cada etapa envia a la siguiente...
+    private static final Bloque FIN_BLOQUES = new Bloque(new byte[0], 0, 0);
+    private static final Lote FIN_LOTES = new Lote(0);
+
+    // el stream a cargar y su codificacion...
+    private final InputStream in;
+    private final Charset charset;
+
+    // cantidad de hilos de cada etapa...
+    private final int parsers;
+    private final int agregadores;
+
+    // la forma de llevar la puntuacion a decimas...
+    private ParserNumeros.Redondeo redondeo = ParserNumeros.Redondeo.MEDIO_ARRIBA;
+
+    // si se registran las estrellas (Star1 a Star4) de cada genero...
+    private boolean estrellas = false;
+
+    // si la primera linea del stream es la de titulos...
+    private boolean titulos = true;
+
+    // como se crean los hilos de parseo y agregacion...
+    private ThreadFactory fabrica = Thread::new;
+
+    // colas entre etapas...
+    private TSBRingBuffer<Bloque>[] bloques;
+    private TSBRingBuffer<Lote>[][] lotes;
+
+    // los hilos de parseo y agregacion, y el primer error producido...
+    private Thread[] hilos;
+    private Thread lector;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    /**
+     * Crea la carga del stream in, leido con la codificacion por defecto (la
+     * misma que usa Dataset.leer()).
+     * @param in el stream con el contenido del Dataset (con linea de titulos,
+     *        salvo que se indique lo contrario con setTitulos()).
+     * @param parsers la cantidad de hilos de parseo.
+     * @param agregadores la cantidad de hilos de agregacion.
+     * @throws IllegalArgumentException si alguna cantidad no es positiva.
+     */
+    public CargaEnEtapas(InputStream in, int parsers, int agregadores)
+    {
+        if(in == null) throw new NullPointerException("CargaEnEtapas(): parametro null");
+        if(parsers <= 0 || agregadores <= 0)
+        {
+            throw new IllegalArgumentException("CargaEnEtapas(): la cantidad de hilos debe ser positiva");
+        }
+        this.in = in;
+        this.charset = Charset.defaultCharset();
+        this.parsers = parsers;
+        this.agregadores = agregadores;
+    }
+
+    /**
+     * Indica como se lleva la puntuacion a decimas cuando tiene mas de un
+     * decimal. Por defecto se redondea al mas cercano (8.95 es 9.0).
+     * @param redondeo la forma de redondear la puntuacion.
+     * @throws NullPointerException si redondeo es null.
+     */
+    public void setRedondeo(ParserNumeros.Redondeo redondeo)
+    {
+        if(redondeo == null) throw new NullPointerException("setRedondeo(): parametro null");
+        this.redondeo = redondeo;
+    }
+
+    /**
+     * Indica si ademas se registran las estrellas (Star1 a Star4) de cada
+     * genero, en sketches de valores distintos y mas frecuentes (ver
+     * Estadisticas.agregarEstrella()), y las de cada serie para el indice de
+     * reparto (ver Estadisticas.agregarReparto()). Por defecto no se registran.
+     * @param estrellas true para registrar las estrellas.
+     */
+    public void setEstrellas(boolean estrellas)
+    {
+        this.estrellas = estrellas;
+    }
+
+    /**
+     * Indica si la primera linea del stream es la de titulos, que se saltea
+     * (por defecto, si). Un stream que comienza a mitad del archivo (por
+     * ejemplo, con las lineas agregadas al final) no la tiene.
+     * @param titulos true si el stream comienza con la linea de titulos.
+     */
+    public void setTitulos(boolean titulos)
+    {
+        this.titulos = titulos;
+    }
+
+    /**
+     * Indica como se crean los hilos de parseo y agregacion (por ejemplo, para
+     * medir lo que cada uno asigna en memoria). A los hilos creados se les da
+     * igual su nombre ("carga-parser-i" y "carga-agregador-i") y se los marca
+     * como daemon. Por defecto se crean hilos comunes.
+     * @param fabrica la fabrica de hilos.
+     * @throws NullPointerException si fabrica es null.
+     */
+    public void setFabricaHilos(ThreadFactory fabrica)
+    {
+        if(fabrica == null) throw new NullPointerException("setFabricaHilos(): parametro null");
+        this.fabrica = fabrica;
+    }
+
+    /**
+     * Ejecuta la carga completa y retorna las estadisticas resultantes.
+     * @return las estadisticas cargadas.
+     * @throws IOException si falla la lectura del stream.
+     * @throws RuntimeException si falla el parseo de alguna linea.
+     */
+    public Estadisticas cargar() throws IOException
+    {
+        // los arreglos de colas son privados y solo guardan colas del tipo declarado...
+        @SuppressWarnings("unchecked")
+        TSBRingBuffer<Bloque>[] b = (TSBRingBuffer<Bloque>[]) new TSBRingBuffer<?>[parsers];
+        @SuppressWarnings("unchecked")
+        TSBRingBuffer<Lote>[][] l = (TSBRingBuffer<Lote>[][]) new TSBRingBuffer<?>[parsers][agregadores];
+        bloques = b;
+        lotes = l;
+        for(int p = 0; p < parsers; p++)
+        {
+            bloques[p] = new TSBRingBuffer<>(BLOQUES_POR_PARSER);
+        }
+        for(int p = 0; p < parsers; p++)
+        {
+            for(int a = 0; a < agregadores; a++)
+            {
+                lotes[p][a] = new TSBRingBuffer<>(LOTES_POR_COLA);
+            }
+        }
+
+        Estadisticas estadisticas = new Estadisticas(agregadores);
+        lector = Thread.currentThread();
+        hilos = new Thread[parsers + agregadores];
+        for(int p = 0; p < parsers; p++)
+        {
+            int id = p;
+            hilos[p] = fabrica.newThread(() -> this.ejecutar(() -> this.parsear(id)));
+            hilos[p].setName("carga-parser-" + p);
+        }
+        for(int a = 0; a < agregadores; a++)
+        {
+            int id = a;
+            hilos[parsers + a] = fabrica.newThread(() -> this.ejecutar(() -> this.agregar(id, estadisticas)));
+            hilos[parsers + a].setName("carga-agregador-" + a);
+        }
+        for(Thread t : hilos)
+        {
+            t.setDaemon(true);
+            t.start();
+        }
+
+        try
+        {
+            this.leer();
+        }
+        catch(IOException | RuntimeException e)
+        {
+            this.fallar(e);
+        }
+        catch(InterruptedException e)
+        {
+            // interrumpido por un hilo que fallo (o desde afuera)...
+            this.fallar(e);
+        }
+
+        boolean interrumpido = false;
+        for(Thread t : hilos)
+        {
+            while(t.isAlive())
+            {
+                try
+                {
+                    t.join();
+                }
+                catch(InterruptedException e)
+                {
+                    interrumpido = true;
+                }
+            }
+        }
+        if(interrumpido && error.get() == null) Thread.currentThread().interrupt();
+
+        Throwable e = error.get();
+        if(e != null)
+        {
+            // la interrupcion la provoco el propio error: no se propaga...
+            Thread.interrupted();
+            if(e instanceof IOException) throw (IOException) e;
+            if(e instanceof RuntimeException) throw (RuntimeException) e;
+            if(e instanceof Error) throw (Error) e;
+            throw new IllegalStateException("cargar(): carga interrumpida", e);
+        }
+
+        return estadisticas;
+    }
+
+    /*
+     * Etapa 1: lee el stream en bloques que terminan en fin de linea (el
+     * resto de la ultima linea incompleta pasa al bloque siguiente) y los
+     * reparte entre los parsers. El primer bloque saltea la linea de titulos
+     * (si la hay).
+     */
+    private void leer() throws IOException, InterruptedException
+    {
+        byte[] buff = new byte[TAM_BLOQUE];
+        int usados = 0;
+        long secuencia = 0;
+        boolean primera = titulos;
+
+        while(true)
+        {
+            if(usados == buff.length) buff = Arrays.copyOf(buff, buff.length * 2);
+            int n = in.readNBytes(buff, usados, buff.length - usados);
+            usados += n;
+            boolean fin = n == 0;
+
+            int corte = fin ? usados : ultimo_fin_de_linea(buff, usados) + 1;
+            if(corte > 0)
+            {
+                int desde = 0;
+                if(primera)
+                {
+                    desde = primer_fin_de_linea(buff, corte) + 1;
+                    if(desde == 0) desde = corte;
+                    primera = false;
+                }
+                byte[] resto = new byte[Math.max(TAM_BLOQUE, usados - corte)];
+                System.arraycopy(buff, corte, resto, 0, usados - corte);
+                if(corte > desde)
+                {
+                    bloques[(int) (secuencia++ % parsers)].put(new Bloque(buff, desde, corte - desde));
+                }
+                buff = resto;
+                usados -= corte;
+            }
+            if(fin) break;
+        }
+
+        // la marca de fin va a cada parser, a continuacion de su ultimo bloque...
+        for(int p = 0; p < parsers; p++)
+        {
+            bloques[(int) (secuencia++ % parsers)].put(FIN_BLOQUES);
+        }
+    }
+
+    /*
+     * Etapa 2: separa las lineas de cada bloque y envia un lote (posiblemente
+     * vacio) a cada agregador, para que estos puedan seguir el orden circular.
+     */
+    private void parsear(int id) throws InterruptedException
+    {
+        TSBRingBuffer<Bloque> entrada = bloques[id];
+        TSBRingBuffer<Lote>[] salidas = lotes[id];
+        LineaCsv linea = new LineaCsv();
+        while(true)
+        {
+            Bloque b = entrada.take();
+            if(b == FIN_BLOQUES)
+            {
+                for(TSBRingBuffer<Lote> s : salidas) { s.put(FIN_LOTES); }
+                return;
+            }
+
+            Lote[] armados = new Lote[agregadores];
+            for(int a = 0; a < agregadores; a++) { armados[a] = new Lote(256); }
+
+            String texto = new String(b.datos, b.desde, b.largo, charset);
+            int inicio = 0;
+            while(inicio < texto.length())
+            {
+                int fin = texto.indexOf('\n', inicio);
+                if(fin == -1) fin = texto.length();
+                int hasta = fin > inicio && texto.charAt(fin - 1) == '\r' ? fin - 1 : fin;
+                if(hasta > inicio)
+                {
+                    linea.ubicar(texto, inicio, hasta);
+                    this.parsear_linea(linea, armados);
+                }
+                inicio = fin + 1;
+            }
+
+            for(int a = 0; a < agregadores; a++) { salidas[a].put(armados[a]); }
+        }
+    }
+
+    /*
+     * Agrega un registro por cada genero de la linea (con sus campos ya
+     * ubicados por LineaCsv), en el lote del agregador que le corresponde.
+     * Solo se crean los String del titulo y de cada genero, que se guardan.
+     */
+    private void parsear_linea(LineaCsv linea, Lote[] armados)
+    {
+        String texto = linea.texto();
+        String serie = linea.campo(LineaCsv.TITULO);
+        short rating = linea.decimas(redondeo);
+        long votos = linea.votos();
+        String[] reparto = null;
+        if(estrellas)
+        {
+            reparto = new String[4];
+            for(int f = 0; f < 4; f++)
+            {
+                reparto[f] = linea.campo(LineaCsv.ESTRELLA1 + f);
+            }
+        }
+
+        // el reparto se registra con el primer genero, una sola vez por serie...
+        boolean primero = true;
+        for(int i = linea.inicio(LineaCsv.GENEROS), j; (j = linea.finGenero(i)) != -1; i = j + 1)
+        {
+            String genero = texto.substring(i, j);
+            armados[Estadisticas.shardDe(genero, agregadores)].add(genero, serie, rating, votos, reparto, primero);
+            primero = false;
+        }
+    }
+
+    /*
+     * Etapa 3: toma los lotes de los parsers en orden circular (el mismo en
+     * que se repartieron los bloques) y los agrega en las estadisticas (todos
+     * sus generos caen en la particion id).
+     */
+    private void agregar(int id, Estadisticas estadisticas) throws InterruptedException
+    {
+        for(int p = 0; ; p = (p + 1) % parsers)
+        {
+            Lote l = lotes[p][id].take();
+            if(l == FIN_LOTES) return;
+            for(int i = 0; i < l.count; i++)
+            {
+                estadisticas.agregar(l.generos[i], l.series[i], l.ratings[i], l.votos[i]);
+                if(l.repartos[i] != null)
+                {
+                    if(l.primeros[i]) estadisticas.agregarReparto(l.generos[i], l.series[i], l.repartos[i]);
+                    for(String estrella : l.repartos[i])
+                    {
+                        if(!estrella.isEmpty()) estadisticas.agregarEstrella(l.generos[i], estrella);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Ejecuta el cuerpo de un hilo, registrando su error (si lo hay).
+     */
+    private void ejecutar(Tarea tarea)
+    {
+        try
+        {
+            tarea.ejecutar();
+        }
+        catch(InterruptedException e)
+        {
+            // interrumpido por el fallo de otro hilo: el error ya esta registrado...
+        }
+        catch(Throwable e)
+        {
+            this.fallar(e);
+        }
+    }
+
+    /*
+     * Registra el primer error producido e interrumpe a todos los hilos, para
+     * que ninguno quede esperando en una cola que ya no se va a mover.
+     */
+    private void fallar(Throwable e)
+    {
+        if(!error.compareAndSet(null, e)) return;
+        for(Thread t : hilos)
+        {
+            if(t != Thread.currentThread()) t.interrupt();
+        }
+        if(lector != Thread.currentThread()) lector.interrupt();
+    }
+
+    private static int ultimo_fin_de_linea(byte[] b, int hasta)
+    {
+        for(int i = hasta - 1; i >= 0; i--)
+        {
+            if(b[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private static int primer_fin_de_linea(byte[] b, int hasta)
+    {
+        for(int i = 0; i < hasta; i++)
+        {
+            if(b[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    /*
+     * Cuerpo de un hilo de la carga.
+     */
+    private interface Tarea
+    {
+        void ejecutar() throws InterruptedException;
+    }
+
+    /*
+     * Porcion del stream (lineas completas) enviada a un parser.
+     */
+    private static class Bloque
+    {
+        private final byte[] datos;
+        private final int desde;
+        private final int largo;
+
+        public Bloque(byte[] datos, int desde, int largo)
+        {
+            this.datos = datos;
+            this.desde = desde;
+            this.largo = largo;
+        }
+    }
+
+    /*
+     * Registros parseados de un bloque para un agregador, en arreglos
+     * paralelos.
+     */
+    private static class Lote
+    {
+        private String[] generos;
+        private String[] series;
+        private short[] ratings;
+        private long[] votos;
+        private String[][] repartos;
+        private boolean[] primeros;
+        private int count;
+
+        public Lote(int capacidad)
+        {
+            generos = new String[capacidad];
+            series = new String[capacidad];
+            ratings = new short[capacidad];
+            votos = new long[capacidad];
+            repartos = new String[capacidad][];
+            primeros = new boolean[capacidad];
+        }
+
+        public void add(String genero, String serie, short rating, long voto, String[] reparto, boolean primero)
+        {
+            if(count == generos.length)
+            {
+                int length = Math.max(16, count + (count >> 1));
+                generos = Arrays.copyOf(generos, length);
+                series = Arrays.copyOf(series, length);
+                ratings = Arrays.copyOf(ratings, length);
+                votos = Arrays.copyOf(votos, length);
+                repartos = Arrays.copyOf(repartos, length);
+                primeros = Arrays.copyOf(primeros, length);
+            }
+            generos[count] = genero;
+            series[count] = serie;
+            ratings[count] = rating;
+            votos[count] = voto;
+            repartos[count] = reparto;
+            primeros[count] = primero;
+            count++;
+        }
+    }
+}
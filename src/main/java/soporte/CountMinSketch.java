@@ -0,0 +1,142 @@
+package soporte;
+
+import java.io.Serializable;
+
+/**
+ * Estimador de la frecuencia de cada valor de un flujo de datos, con memoria
+ * constante (depth filas de width contadores). Cada valor incrementa un
+ * contador por fila, elegido por una funcion hash distinta en cada una; la
+ * frecuencia estimada es el minimo de esos contadores. La estimacion nunca es
+ * menor que la frecuencia real, y la supera en a lo sumo e * N / width (con N
+ * el total agregado) con probabilidad 1 - e^-depth.
+ *
+ * Dos sketches de iguales dimensiones se combinan con merge() (suma contador
+ * a contador), con el mismo resultado que si todo se hubiese agregado a uno.
+ */
+public class CountMinSketch implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // los contadores, fila por fila...
+    private final long[][] counts;
+    private final int width;
+
+    // el total agregado...
+    private long total;
+
+    /**
+     * Crea un sketch de 4 filas de 1024 contadores.
+     */
+    public CountMinSketch()
+    {
+        this(1024, 4);
+    }
+
+    /**
+     * Crea un sketch con las dimensiones indicadas.
+     * @param width la cantidad de contadores por fila.
+     * @param depth la cantidad de filas.
+     * @throws IllegalArgumentException si alguna dimension no es positiva.
+     */
+    public CountMinSketch(int width, int depth)
+    {
+        if(width <= 0 || depth <= 0 || depth > 16)
+        {
+            throw new IllegalArgumentException("CountMinSketch(): dimensiones fuera de rango");
+        }
+        this.width = width;
+        this.counts = new long[depth][width];
+    }
+
+    /**
+     * Suma una aparicion del valor o.
+     * @param o el valor.
+     * @throws NullPointerException si o es null.
+     */
+    public void add(Object o)
+    {
+        this.add(o, 1);
+    }
+
+    /**
+     * Suma count apariciones del valor o.
+     * @param o el valor.
+     * @param count la cantidad de apariciones (no negativa).
+     * @throws NullPointerException si o es null.
+     * @throws IllegalArgumentException si count es negativo.
+     */
+    public void add(Object o, long count)
+    {
+        if(count < 0) throw new IllegalArgumentException("add(): cantidad negativa");
+        long h = HyperLogLog.hash64(o);
+        for(int i = 0; i < counts.length; i++)
+        {
+            counts[i][this.index(h, i)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Retorna la frecuencia estimada del valor o (nunca menor que la real).
+     * @param o el valor.
+     * @return la frecuencia estimada.
+     * @throws NullPointerException si o es null.
+     */
+    public long estimate(Object o)
+    {
+        long h = HyperLogLog.hash64(o);
+        long min = Long.MAX_VALUE;
+        for(int i = 0; i < counts.length; i++)
+        {
+            min = Math.min(min, counts[i][this.index(h, i)]);
+        }
+        return min;
+    }
+
+    /**
+     * Combina en este sketch el contenido de otro de iguales dimensiones.
+     * @param other el sketch a combinar.
+     * @throws IllegalArgumentException si las dimensiones son distintas.
+     */
+    public void merge(CountMinSketch other)
+    {
+        if(other.width != width || other.counts.length != counts.length)
+        {
+            throw new IllegalArgumentException("merge(): las dimensiones no coinciden");
+        }
+        for(int i = 0; i < counts.length; i++)
+        {
+            for(int j = 0; j < width; j++)
+            {
+                counts[i][j] += other.counts[i][j];
+            }
+        }
+        total += other.total;
+    }
+
+    /**
+     * Retorna el total de apariciones agregadas.
+     * @return el total agregado.
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CountMinSketch[" + counts.length + "x" + width + ", total=" + total + "]";
+    }
+
+    /*
+     * Contador de la fila i para el hash h: se derivan depth funciones de un
+     * unico hash de 64 bits (h1 + i * h2, tecnica de Kirsch-Mitzenmacher).
+     */
+    private int index(long h, int i)
+    {
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        return ((h1 + i * h2) & 0x7FFFFFFF) % width;
+    }
+}
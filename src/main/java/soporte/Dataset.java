@@ -2,64 +2,282 @@ package soporte;
 
 import negocio.Estadisticas;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPInputStream;
+import java.util.function.Consumer;
 
 public class Dataset {
     private File file;
+    private int parsers;
+    private int agregadores;
+    private ParserNumeros.Redondeo redondeo = ParserNumeros.Redondeo.MEDIO_ARRIBA;
+    private boolean estrellas = false;
+    private long presupuesto = 0;
+    private ThreadFactory fabricaHilos = Thread::new;
 
     public Dataset(String ruta) {
+        this(ruta, Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 2)), 2);
+    }
+
+    /**
+     * Se indica la cantidad de hilos de parseo y de agregacion de la carga (ver CargaEnEtapas)
+     */
+    public Dataset(String ruta, int parsers, int agregadores) {
+        if (parsers <= 0 || agregadores <= 0)
+            throw new IllegalArgumentException("Dataset(): la cantidad de hilos debe ser positiva");
         file = new File(ruta);
+        this.parsers = parsers;
+        this.agregadores = agregadores;
+    }
+
+    /**
+     * Se indica como se lleva la puntuacion a decimas cuando tiene mas de un decimal (por
+     * defecto se redondea al mas cercano: 8.95 es 9.0)
+     */
+    public void setRedondeo(ParserNumeros.Redondeo redondeo) {
+        if (redondeo == null)
+            throw new NullPointerException("setRedondeo(): parametro null");
+        this.redondeo = redondeo;
+    }
+
+    /**
+     * Se obtiene como se lleva la puntuacion a decimas
+     */
+    public ParserNumeros.Redondeo getRedondeo() {
+        return redondeo;
+    }
+
+    /**
+     * Se indica si ademas se registran las estrellas (Star1 a Star4) de cada genero y de cada serie
+     */
+    public void setEstrellas(boolean estrellas) {
+        this.estrellas = estrellas;
+    }
+
+    /**
+     * Se indica un presupuesto de memoria (en bytes) para las estadisticas: si la carga lo
+     * supera, se termina agregando por particiones volcadas a disco (ver AgregacionExterna).
+     * Con 0 (por defecto) no hay limite. En ese modo no se registran las estrellas
+     */
+    public void setPresupuesto(long presupuesto) {
+        if (presupuesto < 0)
+            throw new IllegalArgumentException("setPresupuesto(): presupuesto negativo");
+        this.presupuesto = presupuesto;
+    }
+
+    /**
+     * Se indica como se crean los hilos de parseo y agregacion de la carga (por ejemplo, para
+     * medir la memoria que asigna cada uno; ver CargaEnEtapas.setFabricaHilos())
+     */
+    public void setFabricaHilos(ThreadFactory fabricaHilos) {
+        if (fabricaHilos == null)
+            throw new NullPointerException("setFabricaHilos(): parametro null");
+        this.fabricaHilos = fabricaHilos;
     }
 
     /**
-     * Se lee el archivo para cargar el Dataset
+     * Se lee el archivo para cargar el Dataset. La lectura, el parseo y la agregacion
+     * se hacen en etapas concurrentes (salvo que haya un presupuesto de memoria). Si no se
+     * puede leer el archivo se lanza IOException, y si una linea no se puede interpretar la
+     * excepcion del parseo (nunca se devuelven estadisticas vacias o a medio cargar)
      */
-    public Estadisticas cargarDataset()
+    public Estadisticas cargarDataset() throws IOException
     {
-        String linea;
-        String [] campos;
-        String [] difGeneros;
-        Boolean primera = true;
-        Estadisticas estadisticas = new Estadisticas();
-        try {
-            Scanner scanner = new Scanner(file);
-            while (scanner.hasNext()){
-                linea = scanner.nextLine();
-                /**
-                 * Salteamosla primera liena de titulos de cada columna
-                 */
-                if (primera) {
-                    primera = false;
-                    continue;
-                }
-                /**
-                 * Generamos la separacion de cada campo mediante las comas
-                 */
-                campos = linea.split(",");
-                /**
-                 * Generamos la separacion de cada genero que comparten lugar en el mismo campo
-                 */
-                String separador = "\\|";
-                /**
-                 * Realizamos un ciclo por cada linea y por cada genero para la misma serie
-                 */
-                difGeneros = campos[4].split(separador);
-                for (int i = 1; i < 2; i++) {
-                    for (int j = 0; j < difGeneros.length; j++) {
-                        estadisticas.agregar(difGeneros[j],campos[0], (int)Double.parseDouble(campos[5]));
-                    }
-
-                }
-            }
+        if (presupuesto > 0) {
+            AgregacionExterna externa = new AgregacionExterna(presupuesto, this);
+            externa.setRedondeo(redondeo);
+            return externa.cargarDataset();
         }
-        catch (FileNotFoundException e){
-            System.out.println("No se pudo abrir "+file.getName());
+        try (InputStream in = abrir()) {
+            CargaEnEtapas carga = new CargaEnEtapas(in, parsers, agregadores);
+            carga.setRedondeo(redondeo);
+            carga.setEstrellas(estrellas);
+            carga.setFabricaHilos(fabricaHilos);
+            return carga.cargar();
         }
-        finally {
-            return estadisticas;
+    }
+
+    /**
+     * Se cargan solo los bytes del archivo entre desde (inclusive) y hasta (exclusive), por
+     * ejemplo las lineas agregadas al final desde la ultima carga. desde debe ser el inicio de
+     * una linea; si es 0, se saltea la linea de titulos. No se puede con archivos comprimidos
+     */
+    public Estadisticas cargarRango(long desde, long hasta) throws IOException
+    {
+        if (desde < 0 || hasta < desde)
+            throw new IllegalArgumentException("cargarRango(): rango no valido");
+        if (isComprimido())
+            throw new IOException("no se puede cargar una parte de un archivo comprimido: " + file.getName());
+        try (FileChannel canal = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             InputStream in = new Tramo(Channels.newInputStream(canal.position(desde)), hasta - desde)) {
+            CargaEnEtapas carga = new CargaEnEtapas(in, parsers, agregadores);
+            carga.setRedondeo(redondeo);
+            carga.setEstrellas(estrellas);
+            carga.setTitulos(desde == 0);
+            carga.setFabricaHilos(fabricaHilos);
+            return carga.cargar();
         }
     }
 
+    /**
+     * Se indica si el archivo esta comprimido con gzip o lz4 (segun su numero magico)
+     */
+    public boolean isComprimido() throws IOException
+    {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] magico = in.readNBytes(4);
+            return esGzip(magico) || esLz4(magico);
+        }
+    }
+
+    /**
+     * Se recorre el archivo y se entregan los campos de cada serie (sin la linea de titulos).
+     * Si el archivo esta comprimido con gzip o lz4 se descomprime al vuelo en un hilo aparte,
+     * sin pasar por un archivo temporal. Las lineas se separan en campos igual que en la
+     * carga en etapas (ver LineaCsv)
+     */
+    public void leer(Consumer<String[]> fila) throws IOException
+    {
+        recorrer(linea -> {
+            String[] campos = new String[LineaCsv.CAMPOS];
+            for (int i = 0; i < campos.length; i++)
+                campos[i] = linea.campo(i);
+            fila.accept(campos);
+        });
+    }
+
+    /**
+     * Se recorre el archivo y se entrega cada serie con sus campos ubicados, sin copiarlos
+     * (la misma LineaCsv para todas las lineas)
+     */
+    void recorrer(Consumer<LineaCsv> linea) throws IOException
+    {
+        try (InputStream in = abrir()) {
+            LineaCsv.recorrer(in, Charset.defaultCharset(), true, linea);
+        }
+    }
+
+    /**
+     * Se abre el archivo detectando el formato por sus primeros bytes (numero magico)
+     */
+    private InputStream abrir() throws IOException
+    {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        in.mark(4);
+        byte[] magico = in.readNBytes(4);
+        in.reset();
+
+        if (esGzip(magico))
+            return new LectorEnSegundoPlano(new GZIPInputStream(in, 1 << 16));
+        if (esLz4(magico))
+            return new LectorEnSegundoPlano(new LectorLz4(in));
+        if (magico.length == 4 && (magico[0] & 0xFF) == 0x28 && (magico[1] & 0xFF) == 0xB5
+                && (magico[2] & 0xFF) == 0x2F && (magico[3] & 0xFF) == 0xFD) {
+            in.close();
+            throw new IOException("formato zstd no soportado: " + file.getName());
+        }
+        return in;
+    }
+
+    private static boolean esGzip(byte[] magico)
+    {
+        return magico.length >= 2 && (magico[0] & 0xFF) == 0x1F && (magico[1] & 0xFF) == 0x8B;
+    }
+
+    private static boolean esLz4(byte[] magico)
+    {
+        return magico.length == 4 && (magico[0] & 0xFF) == 0x04 && (magico[1] & 0xFF) == 0x22
+                && (magico[2] & 0xFF) == 0x4D && (magico[3] & 0xFF) == 0x18;
+    }
+
+    /**
+     * Se agrega la serie en cada uno de sus generos
+     */
+    static void agregar(Estadisticas estadisticas, LineaCsv linea, ParserNumeros.Redondeo redondeo, boolean estrellas)
+    {
+        String texto = linea.texto();
+        String serie = linea.campo(LineaCsv.TITULO);
+        short rating = linea.decimas(redondeo);
+        long votos = linea.votos();
+        String[] reparto = null;
+        if (estrellas) {
+            reparto = new String[4];
+            for (int k = 0; k < 4; k++)
+                reparto[k] = linea.campo(LineaCsv.ESTRELLA1 + k);
+        }
+        /**
+         * Realizamos un ciclo por cada genero para la misma serie (separados por '|' dentro
+         * del mismo campo); el reparto se registra con el primero
+         */
+        for (int i = linea.inicio(LineaCsv.GENEROS), j; (j = linea.finGenero(i)) != -1; i = j + 1) {
+            String genero = texto.substring(i, j);
+            if (reparto != null && i == linea.inicio(LineaCsv.GENEROS))
+                estadisticas.agregarReparto(genero, serie, reparto);
+            estadisticas.agregar(genero, serie, rating, votos);
+            for (int k = 0; reparto != null && k < 4; k++) {
+                if (!reparto[k].isEmpty())
+                    estadisticas.agregarEstrella(genero, reparto[k]);
+            }
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Stream que entrega a lo sumo los primeros bytes indicados de otro
+     */
+    private static class Tramo extends FilterInputStream {
+        private long restantes;
+
+        Tramo(InputStream in, long restantes) {
+            super(in);
+            this.restantes = restantes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (restantes == 0)
+                return -1;
+            int b = super.read();
+            if (b >= 0)
+                restantes--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            if (restantes == 0)
+                return -1;
+            int n = super.read(b, off, (int) Math.min(len, restantes));
+            if (n > 0)
+                restantes -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long s = super.skip(Math.min(n, restantes));
+            restantes -= s;
+            return s;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), restantes);
+        }
+    }
 }
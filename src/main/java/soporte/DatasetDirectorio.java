@@ -0,0 +1,198 @@
+package soporte;
+
+import negocio.Estadisticas;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Carga todos los archivos de un directorio que coinciden con un patron glob (por ejemplo
+ * "*.csv") como si fueran un unico Dataset. Los archivos se leen en paralelo, con a lo sumo
+ * maxConcurrencia lecturas a la vez, y se combinan en unas unicas Estadisticas en el orden
+ * de sus nombres. Cada archivo se agrega a medida que se lee, sin guardar sus filas. Una
+ * serie que aparece en mas de un archivo se cuenta solo en el primero (segun ese orden),
+ * identificandola por su titulo; las repeticiones dentro de un mismo archivo se cuentan
+ * todas, igual que al cargar ese archivo con Dataset.
+ */
+public class DatasetDirectorio {
+    private Path directorio;
+    private String patron;
+    private TSBArrayList<Path> lista = null;
+    private int maxConcurrencia;
+    private ParserNumeros.Redondeo redondeo = ParserNumeros.Redondeo.MEDIO_ARRIBA;
+    private boolean estrellas = false;
+
+    public DatasetDirectorio(String ruta) {
+        this(ruta, "*.csv", Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public DatasetDirectorio(String ruta, String patron, int maxConcurrencia) {
+        if (maxConcurrencia <= 0)
+            throw new IllegalArgumentException("DatasetDirectorio(): la concurrencia debe ser positiva");
+        this.directorio = Paths.get(ruta);
+        this.patron = patron;
+        this.maxConcurrencia = maxConcurrencia;
+    }
+
+    /**
+     * Se cargan los archivos indicados (en lugar de los de un directorio), combinandolos en el
+     * orden de la lista: una serie que aparece en mas de uno se cuenta solo en el primero
+     */
+    public DatasetDirectorio(TSBArrayList<Path> archivos) {
+        this(".", "*", Math.min(4, Runtime.getRuntime().availableProcessors()));
+        if (archivos == null)
+            throw new NullPointerException("DatasetDirectorio(): parametro null");
+        this.lista = new TSBArrayList<>(archivos);
+    }
+
+    /**
+     * Se indica como se lleva la puntuacion a decimas cuando tiene mas de un decimal (por
+     * defecto se redondea al mas cercano: 8.95 es 9.0)
+     */
+    public void setRedondeo(ParserNumeros.Redondeo redondeo) {
+        if (redondeo == null)
+            throw new NullPointerException("setRedondeo(): parametro null");
+        this.redondeo = redondeo;
+    }
+
+    /**
+     * Se indica si ademas se registran las estrellas (Star1 a Star4) de cada genero y de cada serie
+     */
+    public void setEstrellas(boolean estrellas) {
+        this.estrellas = estrellas;
+    }
+
+    /**
+     * Se leen los archivos del directorio para cargar el Dataset. Si alguno no se puede leer
+     * se cancelan las lecturas pendientes y se lanza su excepcion (no se devuelve una
+     * combinacion parcial)
+     */
+    public Estadisticas cargarDataset() throws IOException
+    {
+        Estadisticas estadisticas = new Estadisticas();
+        TSBArrayList<Path> archivos = getArchivos();
+        if (archivos.isEmpty())
+            return estadisticas;
+
+        ExecutorService lectores = Executors.newFixedThreadPool(Math.min(maxConcurrencia, archivos.size()), r -> {
+            Thread t = new Thread(r, "lector-dataset");
+            t.setDaemon(true);
+            return t;
+        });
+        TSBArrayList<Future<Parcial>> lecturas = new TSBArrayList<>(archivos.size());
+        try {
+            for (Path archivo : archivos) {
+                lecturas.add(lectores.submit(() -> leer(archivo)));
+            }
+
+            /**
+             * Combinamos en el orden de los archivos. Las series repetidas dentro de un mismo
+             * archivo se cuentan todas (como al cargar ese archivo solo); solo se saltean los
+             * titulos que ya aparecieron en un archivo anterior. Si un archivo no repite
+             * ninguno, sus estadisticas se incorporan enteras; si repite alguno, se vuelve a
+             * recorrer salteando esos titulos (el conjunto de titulos se guarda fuera del
+             * heap, sin un objeto por titulo)
+             */
+            OffHeapTSBHashTable vistos = new OffHeapTSBHashTable(0);
+            for (int i = 0; i < lecturas.size(); i++) {
+                Parcial parcial = lecturas.get(i).get();
+                lecturas.set(i, null);
+                // se recorren los titulos en la tabla, sin armar un arreglo con todos
+                boolean[] repetidos = {false};
+                parcial.titulos.forEach((titulo, registro) -> {
+                    if (!repetidos[0] && vistos.containsKey(titulo))
+                        repetidos[0] = true;
+                });
+                if (repetidos[0])
+                    releer(archivos.get(i), vistos, estadisticas);
+                else
+                    estadisticas.incorporar(parcial.estadisticas);
+                parcial.titulos.forEach((titulo, registro) -> vistos.put(titulo, null));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("cargarDataset(): carga interrumpida");
+        }
+        catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException)
+                throw (IOException) causa;
+            if (causa instanceof RuntimeException)
+                throw (RuntimeException) causa;
+            if (causa instanceof Error)
+                throw (Error) causa;
+            throw new IOException("cargarDataset(): no se pudo leer el directorio " + directorio, causa);
+        }
+        finally {
+            // si se corto por un error, las lecturas que quedan no se usan
+            for (Future<Parcial> lectura : lecturas) {
+                if (lectura != null)
+                    lectura.cancel(true);
+            }
+            lectores.shutdownNow();
+        }
+        return estadisticas;
+    }
+
+    /**
+     * Se obtienen los archivos que se cargan: los del directorio que coinciden con el patron,
+     * ordenados por nombre, o los indicados al crearlo. Si no se puede abrir el directorio se
+     * lanza IOException
+     */
+    public TSBArrayList<Path> getArchivos() throws IOException
+    {
+        if (lista != null)
+            return lista;
+        TSBArrayList<Path> archivos = new TSBArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(directorio, patron)) {
+            for (Path p : ds) {
+                if (Files.isRegularFile(p))
+                    archivos.add(p);
+            }
+        }
+        archivos.sort(null);
+        return archivos;
+    }
+
+    /**
+     * Se agregan las series de un archivo a medida que se leen, registrando sus titulos
+     */
+    private Parcial leer(Path archivo) throws IOException
+    {
+        Parcial parcial = new Parcial();
+        new Dataset(archivo.toString()).recorrer(linea -> {
+            parcial.titulos.put(linea.campo(LineaCsv.TITULO), null);
+            Dataset.agregar(parcial.estadisticas, linea, redondeo, estrellas);
+        });
+        return parcial;
+    }
+
+    /**
+     * Se vuelve a recorrer un archivo agregando solo las series cuyo titulo no aparecio en un
+     * archivo anterior
+     */
+    private void releer(Path archivo, OffHeapTSBHashTable vistos, Estadisticas estadisticas) throws IOException
+    {
+        new Dataset(archivo.toString()).recorrer(linea -> {
+            if (!vistos.containsKey(linea.campo(LineaCsv.TITULO)))
+                Dataset.agregar(estadisticas, linea, redondeo, estrellas);
+        });
+    }
+
+    /**
+     * Resultado de leer un archivo: sus estadisticas y el conjunto de sus titulos
+     */
+    private static class Parcial {
+        private final Estadisticas estadisticas = new Estadisticas();
+        private final OffHeapTSBHashTable titulos = new OffHeapTSBHashTable(0);
+    }
+}
@@ -0,0 +1,340 @@
+package soporte;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Lista implementada sobre un arreglo de float, con la misma forma que la
+ * clase IntTSBArrayList. Pensada para columnas de puntuaciones, sin el costo
+ * de un objeto Float o Double por elemento. Las comparaciones de contains() e
+ * indexOf() usan la misma semantica que Float.equals() (NaN es igual a NaN).
+ */
+public class FloatTSBArrayList implements Cloneable, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // el arreglo que contendra los elementos...
+    private float[] items;
+
+    // el tamanio inicial del arreglo...
+    private int initial_capacity;
+
+    // la cantidad de casillas realmente usadas...
+    private int count;
+
+    /**
+     * Crea una lista con capacidad inicial de 10 casilleros, pero ninguno
+     * ocupado realmente: la lista esta vacia a todos los efectos practicos.
+     */
+    public FloatTSBArrayList()
+    {
+        this(10);
+    }
+
+    /**
+     * Crea una lista con initialCapacity casilleros de capacidad, pero ninguno
+     * ocupado realmente. Si el valor de initialCapacity es <= 0, el valor se
+     * ajusta a 10.
+     * @param initialCapacity la capacidad inicial de la lista.
+     */
+    public FloatTSBArrayList(int initialCapacity)
+    {
+        if(initialCapacity <= 0)
+        {
+            initialCapacity = 10;
+        }
+        items = new float[initialCapacity];
+        initial_capacity = initialCapacity;
+        count = 0;
+    }
+
+    /**
+     * Crea una lista conteniendo una copia de los elementos del arreglo que
+     * viene como parametro, en el mismo orden.
+     * @param a el arreglo cuyos elementos seran copiados en la lista.
+     * @throws NullPointerException si a es null.
+     */
+    public FloatTSBArrayList(float[] a)
+    {
+        this(a.length);
+        this.addAll(a);
+    }
+
+    /**
+     * Agrega el valor e al final de la lista.
+     * @param e el valor a agregar.
+     * @return true (como especifica Collection.add()).
+     */
+    public boolean add(float e)
+    {
+        if(count == items.length) this.grow(count + 1);
+        items[count++] = e;
+        return true;
+    }
+
+    /**
+     * Agrega el valor e en la posicion index de la lista, desplazando hacia la
+     * derecha a los elementos siguientes.
+     * @param index el indice de la casilla donde debe quedar el valor e.
+     * @param e el valor a agregar.
+     * @throws IndexOutOfBoundsException si index < 0 o index > size().
+     */
+    public void add(int index, float e)
+    {
+        if(index > count || index < 0)
+        {
+            throw new IndexOutOfBoundsException("add(): indice fuera de rango...");
+        }
+
+        if(count == items.length) this.grow(count + 1);
+        System.arraycopy(items, index, items, index + 1, count - index);
+        items[index] = e;
+        count++;
+    }
+
+    /**
+     * Agrega al final de la lista todos los valores del arreglo a, creciendo
+     * (a lo sumo) una sola vez.
+     * @param a el arreglo cuyos valores seran agregados.
+     * @throws NullPointerException si a es null.
+     */
+    public void addAll(float[] a)
+    {
+        this.addAll(a, 0, a.length);
+    }
+
+    /**
+     * Agrega al final de la lista los len valores del arreglo a que comienzan
+     * en la posicion from, creciendo (a lo sumo) una sola vez.
+     * @param a el arreglo cuyos valores seran agregados.
+     * @param from la posicion del primer valor a agregar.
+     * @param len la cantidad de valores a agregar.
+     * @throws NullPointerException si a es null.
+     * @throws IndexOutOfBoundsException si el rango no es valido en a.
+     */
+    public void addAll(float[] a, int from, int len)
+    {
+        if(from < 0 || len < 0 || from + len > a.length)
+        {
+            throw new IndexOutOfBoundsException("addAll(): rango fuera de limites...");
+        }
+        if(count + len > items.length) this.grow(count + len);
+        System.arraycopy(a, from, items, count, len);
+        count += len;
+    }
+
+    /**
+     * Elimina todo el contenido de la lista, y reinicia su capacidad al valor
+     * de la capacidad con que fue creada originalmente.
+     */
+    public void clear()
+    {
+        items = new float[initial_capacity];
+        count = 0;
+    }
+
+    /**
+     * Retorna una copia de la lista (el arreglo de soporte se duplica).
+     * @return una copia de la lista.
+     * @throws CloneNotSupportedException si la clase no implementa Cloneable.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException
+    {
+        FloatTSBArrayList temp = (FloatTSBArrayList) super.clone();
+        temp.items = Arrays.copyOf(items, count);
+        return temp;
+    }
+
+    /**
+     * Devuelve true si la lista contiene al valor e.
+     * @param e el valor a buscar en la lista.
+     * @return true si la lista contiene al valor e.
+     */
+    public boolean contains(float e)
+    {
+        return this.indexOf(e) != -1;
+    }
+
+    /**
+     * Retorna el indice de la primera aparicion del valor e en la lista, o -1
+     * si la lista no lo contiene.
+     * @param e el valor a buscar en la lista.
+     * @return el indice de e, o -1.
+     */
+    public int indexOf(float e)
+    {
+        for(int i = 0; i < count; i++)
+        {
+            if(Float.floatToIntBits(items[i]) == Float.floatToIntBits(e)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Aumenta la capacidad del arreglo de soporte, si es necesario, para
+     * asegurar que pueda contener al menos un numero de elementos igual al
+     * indicado por el parametro minCapacity.
+     * @param minCapacity la minima capacidad requerida.
+     */
+    public void ensureCapacity(int minCapacity)
+    {
+        if(minCapacity <= items.length) return;
+        items = Arrays.copyOf(items, minCapacity);
+    }
+
+    /**
+     * Retorna el valor contenido en la casilla index.
+     * @param index indice de la casilla a acceder.
+     * @return el valor contenido en la casilla index.
+     * @throws IndexOutOfBoundsException si index < 0 o index >= size().
+     */
+    public float get(int index)
+    {
+        if(index < 0 || index >= count)
+        {
+            throw new IndexOutOfBoundsException("get(): indice fuera de rango...");
+        }
+        return items[index];
+    }
+
+    /**
+     * Devuelve true si la lista no contiene elementos.
+     * @return true si la lista esta vacia.
+     */
+    public boolean isEmpty()
+    {
+        return (count == 0);
+    }
+
+    /**
+     * Remueve de la lista el valor contenido en la posicion index. Los valores
+     * ubicados a la derecha de este se desplazan un casillero a la izquierda.
+     * La capacidad de la lista no se altera.
+     * @param index el indice de la casilla a remover.
+     * @return el valor removido de la lista.
+     * @throws IndexOutOfBoundsException si index < 0 o index >= size().
+     */
+    public float remove(int index)
+    {
+        if(index >= count || index < 0)
+        {
+            throw new IndexOutOfBoundsException("remove(): indice fuera de rango...");
+        }
+
+        float old = items[index];
+        System.arraycopy(items, index + 1, items, index, count - index - 1);
+        count--;
+        return old;
+    }
+
+    /**
+     * Reemplaza el valor en la posicion index por element, y retorna el valor
+     * originalmente contenido en esa posicion.
+     * @param index indice de la casilla a acceder.
+     * @param element el valor que sera ubicado en la posicion index.
+     * @return el valor originalmente contenido en la posicion index.
+     * @throws IndexOutOfBoundsException si index < 0 o index >= size().
+     */
+    public float set(int index, float element)
+    {
+        if(index < 0 || index >= count)
+        {
+            throw new IndexOutOfBoundsException("set(): indice fuera de rango...");
+        }
+        float old = items[index];
+        items[index] = element;
+        return old;
+    }
+
+    /**
+     * Retorna el tamanio de la lista: la cantidad de elementos realmente
+     * contenidos en ella.
+     * @return la cantidad de elementos que la lista contiene.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Ordena los elementos de la lista en forma ascendente.
+     */
+    public void sort()
+    {
+        Arrays.sort(items, 0, count);
+    }
+
+    /**
+     * Retorna un arreglo nuevo con los elementos de la lista, en el mismo
+     * orden.
+     * @return un arreglo con los elementos de la lista.
+     */
+    public float[] toArray()
+    {
+        return Arrays.copyOf(items, count);
+    }
+
+    /**
+     * Interface funcional para recorrer la lista recibiendo cada elemento como
+     * float (el paquete java.util.function no la provee).
+     */
+    @FunctionalInterface
+    public interface FloatConsumer
+    {
+        void accept(float value);
+    }
+
+    /**
+     * Aplica la accion indicada a cada elemento de la lista, en orden y sin
+     * crear ningun objeto intermedio.
+     * @param action la accion a aplicar.
+     * @throws NullPointerException si action es null.
+     */
+    public void forEach(FloatConsumer action)
+    {
+        if(action == null) throw new NullPointerException("forEach(): parametro null");
+        for(int i = 0; i < count; i++)
+        {
+            action.accept(items[i]);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder buff = new StringBuilder();
+        buff.append('{');
+        for(int i = 0; i < count; i++)
+        {
+            buff.append(items[i]);
+            if(i < count - 1)
+            {
+                buff.append(", ");
+            }
+        }
+        buff.append('}');
+        return buff.toString();
+    }
+
+    /**
+     * Ajusta el tamanio del arreglo de soporte, para que coincida con el
+     * tamanio de la lista.
+     */
+    public void trimToSize()
+    {
+        if(count == items.length) return;
+        items = Arrays.copyOf(items, count);
+    }
+
+    /*
+     * Hace crecer el arreglo de soporte en un 50% (o lo necesario para que
+     * quepan minCapacity elementos, si es mas), de forma que una secuencia de
+     * n inserciones cueste O(n) copias en total.
+     */
+    private void grow(int minCapacity)
+    {
+        int length = items.length + (items.length >> 1) + 1;
+        this.ensureCapacity(Math.max(length, minCapacity));
+    }
+}
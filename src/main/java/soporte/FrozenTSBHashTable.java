@@ -0,0 +1,331 @@
+package soporte;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Forma congelada (inmutable) de una tabla hash, pensada para ser leida desde
+ * varios hilos a la vez sin ningun tipo de bloqueo. Se crea una sola vez a
+ * partir de otra tabla (normalmente con TSBHashTableDA.freeze()) y a partir de
+ * alli no admite cambios: todos los metodos que modificarian la tabla lanzan
+ * UnsupportedOperationException.
+ *
+ * Como no hay inserciones ni eliminaciones, la tabla no necesita estados de
+ * casilla, tumbas, contador de modificaciones ni factor de carga dinamico: las
+ * claves, los valores y los valores hash se guardan en arreglos paralelos de
+ * tamanio potencia de 2 (con a lo sumo 50% de ocupacion) y una busqueda es una
+ * exploracion lineal que calcula la casilla inicial con una mascara de bits.
+ * Todos los atributos son final (incluida la vista de pares, que se crea con
+ * la tabla), por lo que una vez construida la tabla puede compartirse entre
+ * hilos sin sincronizacion adicional. Por el mismo motivo la tabla se
+ * serializa a traves de un representante que guarda solo los pares, y al
+ * deserializarse se vuelve a construir con el constructor.
+ *
+ * @param <K> el tipo de los objetos que seran usados como clave en la tabla.
+ * @param <V> el tipo de los objetos que seran los valores de la tabla.
+ */
+public final class FrozenTSBHashTable<K,V> extends AbstractMap<K,V> implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // los arreglos paralelos que forman la tabla (no se serializan: ver
+    // writeReplace())...
+    private final transient Object[] keys;
+    private final transient Object[] values;
+    private final transient int[] hashes;
+
+    // mascara para calcular la casilla inicial (tamanio - 1)...
+    private final int mask;
+
+    // la cantidad de pares que contiene la tabla...
+    private final int count;
+
+    // la vista de pares (stateless, se crea junto con la tabla)...
+    private final transient Set<Map.Entry<K,V>> entrySet = new EntrySet();
+
+    /**
+     * Crea una tabla congelada con el contenido del Map especificado.
+     * @param m el Map cuyo contenido se copiara en la tabla.
+     * @throws NullPointerException si m es null o contiene claves o valores
+     *         null.
+     */
+    public FrozenTSBHashTable(Map<? extends K, ? extends V> m)
+    {
+        int n = m.size();
+        int length = 2;
+        while(length < 2 * n) { length <<= 1; }
+
+        Object[] k = new Object[length];
+        Object[] v = new Object[length];
+        int[] hs = new int[length];
+        int msk = length - 1;
+        int[] c = { 0 };
+        m.forEach((key, value) ->
+        {
+            if(key == null || value == null) throw new NullPointerException("FrozenTSBHashTable(): parametro null");
+            int hash = spread(key.hashCode());
+            int pos = hash & msk;
+            while(k[pos] != null)
+            {
+                if(hs[pos] == hash && key.equals(k[pos])) { break; }
+                pos = (pos + 1) & msk;
+            }
+            if(k[pos] == null) { c[0]++; }
+            k[pos] = key;
+            v[pos] = value;
+            hs[pos] = hash;
+        });
+
+        this.keys = k;
+        this.values = v;
+        this.hashes = hs;
+        this.mask = msk;
+        this.count = c[0];
+    }
+
+    /**
+     * Retorna la cantidad de pares contenidos en la tabla.
+     * @return la cantidad de pares de la tabla.
+     */
+    @Override
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Determina si la tabla esta vacia (no contiene ningun par).
+     * @return true si la tabla esta vacia.
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return this.count == 0;
+    }
+
+    /**
+     * Retorna el objeto al cual esta asociada la clave key en la tabla, o null
+     * si la tabla no contiene ningun objeto asociado a esa clave.
+     * @param key la clave que sera buscada en la tabla.
+     * @return el objeto asociado a la clave, o null si no existe.
+     * @throws NullPointerException si key es null.
+     */
+    @Override
+    public V get(Object key)
+    {
+        int pos = this.search_for_index(key);
+        return pos != -1 ? value_at(pos) : null;
+    }
+
+    /**
+     * Determina si la clave key esta en la tabla.
+     * @param key la clave a verificar.
+     * @return true si la clave esta en la tabla.
+     * @throws NullPointerException si key es null.
+     */
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return this.search_for_index(key) != -1;
+    }
+
+    /**
+     * Aplica la accion indicada a cada par (key, value) de la tabla,
+     * recorriendo directamente los arreglos de soporte.
+     * @param action la accion a aplicar sobre cada par.
+     * @throws NullPointerException si action es null.
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action)
+    {
+        if(action == null) throw new NullPointerException("forEach(): parametro null");
+        for(int i = 0; i < keys.length; i++)
+        {
+            if(keys[i] != null) { action.accept(key_at(i), value_at(i)); }
+        }
+    }
+
+    /**
+     * Retorna un Set de solo lectura a modo de vista de todos los pares de la
+     * tabla.
+     * @return un conjunto con todos los pares de la tabla.
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        return entrySet;
+    }
+
+    //************************ Serializacion.
+
+    /*
+     * La tabla se escribe como un representante con sus pares: las casillas
+     * dependen del hashCode() de las claves, que no tiene por que ser el mismo
+     * en la JVM que la lea.
+     */
+    private Object writeReplace()
+    {
+        return new Pares(this);
+    }
+
+    /*
+     * Una tabla congelada solo se puede leer a traves de su representante.
+     */
+    private void readObject(ObjectInputStream s) throws InvalidObjectException
+    {
+        throw new InvalidObjectException("FrozenTSBHashTable: se esperaba el representante serializado");
+    }
+
+    /*
+     * Representante serializado de la tabla: se escriben la cantidad de pares
+     * y luego cada clave seguida de su valor, y al leerse se construye de
+     * nuevo la tabla congelada.
+     */
+    private static final class Pares implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        // la tabla al escribir, o los pares leidos al deserializar...
+        private transient Map<?, ?> pares;
+
+        Pares(Map<?, ?> pares)
+        {
+            this.pares = pares;
+        }
+
+        private void writeObject(ObjectOutputStream s) throws IOException
+        {
+            s.defaultWriteObject();
+            s.writeInt(pares.size());
+            for(Map.Entry<?, ?> e : pares.entrySet())
+            {
+                s.writeObject(e.getKey());
+                s.writeObject(e.getValue());
+            }
+        }
+
+        private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException
+        {
+            s.defaultReadObject();
+            int n = s.readInt();
+            if(n < 0) throw new InvalidObjectException("FrozenTSBHashTable: cantidad de pares no valida: " + n);
+            TSBHashTableDA<Object, Object> t = TSBHashTableDA.withExpectedSize(n);
+            for(int i = 0; i < n; i++)
+            {
+                Object key = s.readObject();
+                Object value = s.readObject();
+                if(key == null || value == null) throw new InvalidObjectException("FrozenTSBHashTable: par null");
+                t.put(key, value);
+            }
+            pares = t;
+        }
+
+        private Object readResolve()
+        {
+            return new FrozenTSBHashTable<>(pares);
+        }
+    }
+
+    /*
+     * Dispersa los bits del valor hash, para que claves con hashCode()
+     * parecidos no queden en casillas consecutivas.
+     */
+    private static int spread(int h)
+    {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * Retorna la clave de la casilla pos. Los arreglos son Object[] porque no se
+     * pueden crear arreglos de K o V, pero solo guardan claves de tipo K y
+     * valores de tipo V (o null).
+     */
+    @SuppressWarnings("unchecked")
+    private K key_at(int pos)
+    {
+        return (K) keys[pos];
+    }
+
+    /*
+     * Retorna el valor de la casilla pos.
+     */
+    @SuppressWarnings("unchecked")
+    private V value_at(int pos)
+    {
+        return (V) values[pos];
+    }
+
+    /*
+     * Busca la clave key aplicando exploracion lineal. Retorna su posicion, o
+     * -1 si no esta en la tabla.
+     */
+    private int search_for_index(Object key)
+    {
+        if(key == null) throw new NullPointerException("parametro null");
+        int hash = spread(key.hashCode());
+        for(int pos = hash & mask; ; pos = (pos + 1) & mask)
+        {
+            Object k = keys[pos];
+            if(k == null) { return -1; }
+            if(hashes[pos] == hash && key.equals(k)) { return pos; }
+        }
+    }
+
+    /*
+     * Vista de solo lectura de los pares de la tabla.
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>>
+    {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator()
+        {
+            return new Iterator<Map.Entry<K, V>>()
+            {
+                private int next_index = advance(0);
+
+                private int advance(int i)
+                {
+                    while(i < keys.length && keys[i] == null) { i++; }
+                    return i;
+                }
+
+                @Override
+                public boolean hasNext()
+                {
+                    return next_index < keys.length;
+                }
+
+                @Override
+                public Map.Entry<K, V> next()
+                {
+                    if(!hasNext()) throw new NoSuchElementException("next(): no existe el elemento pedido...");
+                    int i = next_index;
+                    next_index = advance(i + 1);
+                    return new AbstractMap.SimpleImmutableEntry<>(key_at(i), value_at(i));
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return FrozenTSBHashTable.this.count;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            if(!(o instanceof Map.Entry)) { return false; }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            if(e.getKey() == null) { return false; }
+            int pos = FrozenTSBHashTable.this.search_for_index(e.getKey());
+            return pos != -1 && values[pos].equals(e.getValue());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package soporte;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Grafo dirigido e inmutable entre vertices numerados 0..n-1, guardado en
+ * formato CSR (compressed sparse row): los vecinos de todos los vertices van
+ * uno detras de otro en un unico arreglo de int, y offsets[v] indica donde
+ * empiezan los del vertice v (terminan donde empiezan los de v + 1). Son dos
+ * arreglos de int en total, sin un objeto por vertice ni por arista.
+ *
+ * Los vecinos de cada vertice quedan ordenados y sin repetir, por lo que la
+ * interseccion de los vecinos de dos vertices se obtiene recorriendo ambas
+ * filas a la vez, en O(grado(u) + grado(v)) y sin memoria adicional.
+ */
+public class GrafoCSR implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // inicio de la fila de cada vertice (con un elemento extra al final)...
+    private final int[] offsets;
+
+    // los vecinos de todos los vertices, fila por fila...
+    private final int[] vecinos;
+
+    /**
+     * Crea el grafo con las aristas (origenes[i], destinos[i]). Las aristas
+     * repetidas se guardan una sola vez.
+     * @param vertices la cantidad de vertices de origen.
+     * @param origenes el origen de cada arista.
+     * @param destinos el destino de cada arista.
+     * @throws IllegalArgumentException si las listas no tienen el mismo
+     *         tamanio o algun origen esta fuera de rango.
+     */
+    public GrafoCSR(int vertices, IntTSBArrayList origenes, IntTSBArrayList destinos)
+    {
+        if(vertices < 0 || origenes.size() != destinos.size())
+        {
+            throw new IllegalArgumentException("GrafoCSR(): aristas no validas");
+        }
+
+        // se cuentan los grados y se ubica cada arista en su fila (counting sort)...
+        int[] inicio = new int[vertices + 1];
+        for(int i = 0; i < origenes.size(); i++)
+        {
+            int o = origenes.get(i);
+            if(o < 0 || o >= vertices) throw new IllegalArgumentException("GrafoCSR(): origen fuera de rango");
+            inicio[o + 1]++;
+        }
+        for(int v = 0; v < vertices; v++) { inicio[v + 1] += inicio[v]; }
+
+        int[] filas = new int[origenes.size()];
+        int[] libre = Arrays.copyOf(inicio, vertices);
+        for(int i = 0; i < origenes.size(); i++)
+        {
+            filas[libre[origenes.get(i)]++] = destinos.get(i);
+        }
+
+        // se ordena cada fila y se compactan las repetidas...
+        int[] offsets = new int[vertices + 1];
+        int n = 0;
+        for(int v = 0; v < vertices; v++)
+        {
+            Arrays.sort(filas, inicio[v], inicio[v + 1]);
+            offsets[v] = n;
+            for(int i = inicio[v]; i < inicio[v + 1]; i++)
+            {
+                if(n == offsets[v] || filas[n - 1] != filas[i]) filas[n++] = filas[i];
+            }
+        }
+        offsets[vertices] = n;
+
+        this.offsets = offsets;
+        this.vecinos = n == filas.length ? filas : Arrays.copyOf(filas, n);
+    }
+
+    private GrafoCSR(int[] offsets, int[] vecinos)
+    {
+        this.offsets = offsets;
+        this.vecinos = vecinos;
+    }
+
+    /**
+     * Retorna el grafo con todas las aristas invertidas.
+     * @param vertices la cantidad de vertices de destino de este grafo (que
+     *        pasan a ser los de origen del traspuesto).
+     * @return el grafo traspuesto.
+     * @throws IllegalArgumentException si algun destino esta fuera de rango.
+     */
+    public GrafoCSR traspuesto(int vertices)
+    {
+        int[] inicio = new int[vertices + 1];
+        for(int d : vecinos)
+        {
+            if(d < 0 || d >= vertices) throw new IllegalArgumentException("traspuesto(): destino fuera de rango");
+            inicio[d + 1]++;
+        }
+        for(int v = 0; v < vertices; v++) { inicio[v + 1] += inicio[v]; }
+
+        // recorriendo los origenes en orden, cada fila del traspuesto queda ordenada...
+        int[] filas = new int[vecinos.length];
+        int[] libre = Arrays.copyOf(inicio, vertices);
+        for(int o = 0; o < this.vertices(); o++)
+        {
+            for(int i = offsets[o]; i < offsets[o + 1]; i++)
+            {
+                filas[libre[vecinos[i]]++] = o;
+            }
+        }
+        return new GrafoCSR(inicio, filas);
+    }
+
+    /**
+     * Retorna la cantidad de vertices de origen.
+     * @return la cantidad de vertices.
+     */
+    public int vertices()
+    {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Retorna la cantidad de aristas (sin repetidas).
+     * @return la cantidad de aristas.
+     */
+    public int aristas()
+    {
+        return vecinos.length;
+    }
+
+    /**
+     * Retorna la cantidad de vecinos del vertice v.
+     * @param v el vertice.
+     * @return el grado de v.
+     * @throws IndexOutOfBoundsException si v esta fuera de rango.
+     */
+    public int grado(int v)
+    {
+        this.check(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Retorna el i-esimo vecino del vertice v (en orden creciente).
+     * @param v el vertice.
+     * @param i la posicion del vecino (0 a grado(v) - 1).
+     * @return el vecino.
+     * @throws IndexOutOfBoundsException si v o i estan fuera de rango.
+     */
+    public int vecino(int v, int i)
+    {
+        if(i < 0 || i >= this.grado(v)) throw new IndexOutOfBoundsException("vecino(): indice fuera de rango");
+        return vecinos[offsets[v] + i];
+    }
+
+    /**
+     * Recorre los vecinos del vertice v, en orden creciente.
+     * @param v el vertice.
+     * @param accion la accion a ejecutar con cada vecino.
+     * @throws IndexOutOfBoundsException si v esta fuera de rango.
+     */
+    public void forEachVecino(int v, IntConsumer accion)
+    {
+        this.check(v);
+        for(int i = offsets[v]; i < offsets[v + 1]; i++) { accion.accept(vecinos[i]); }
+    }
+
+    /**
+     * Recorre los vecinos comunes de los vertices u y v, en orden creciente.
+     * @param u un vertice.
+     * @param v otro vertice.
+     * @param accion la accion a ejecutar con cada vecino comun (puede ser null
+     *        si solo interesa la cantidad).
+     * @return la cantidad de vecinos comunes.
+     * @throws IndexOutOfBoundsException si u o v estan fuera de rango.
+     */
+    public int interseccion(int u, int v, IntConsumer accion)
+    {
+        this.check(u);
+        this.check(v);
+        int i = offsets[u], fin_i = offsets[u + 1];
+        int j = offsets[v], fin_j = offsets[v + 1];
+        int comunes = 0;
+        while(i < fin_i && j < fin_j)
+        {
+            int a = vecinos[i], b = vecinos[j];
+            if(a < b) i++;
+            else if(a > b) j++;
+            else
+            {
+                if(accion != null) accion.accept(a);
+                comunes++;
+                i++;
+                j++;
+            }
+        }
+        return comunes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "GrafoCSR[vertices=" + this.vertices() + ", aristas=" + this.aristas() + "]";
+    }
+
+    private void check(int v)
+    {
+        if(v < 0 || v >= this.vertices()) throw new IndexOutOfBoundsException("vertice fuera de rango: " + v);
+    }
+}
@@ -0,0 +1,171 @@
+package soporte;
+
+import java.io.Serializable;
+
+/**
+ * Estimador de la cantidad de valores distintos (cardinalidad) de un flujo de
+ * datos, con memoria constante: 2^precision registros de un byte, sin importar
+ * cuantos valores se agreguen. Con precision p el error relativo esperado es
+ * de alrededor de 1.04 / sqrt(2^p) (por ejemplo, 3.2% con p = 10 y 1 KB).
+ *
+ * Cada valor se lleva a un hash de 64 bits: los primeros p bits eligen el
+ * registro y el resto aporta la posicion de su primer bit en 1, de la que cada
+ * registro guarda el maximo visto. Dos estimadores de igual precision se
+ * combinan con merge() (maximo registro a registro), y el resultado es el
+ * mismo que si todos los valores se hubiesen agregado a uno solo: por eso las
+ * particiones de una carga en paralelo pueden usar cada una su estimador.
+ */
+public class HyperLogLog implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // los registros y la precision (cantidad de bits del indice)...
+    private final byte[] registers;
+    private final int precision;
+
+    /**
+     * Crea un estimador con precision 10 (1024 registros, ~3% de error).
+     */
+    public HyperLogLog()
+    {
+        this(10);
+    }
+
+    /**
+     * Crea un estimador con la precision indicada.
+     * @param precision la cantidad de bits del indice de registro (4 a 16).
+     * @throws IllegalArgumentException si la precision esta fuera de rango.
+     */
+    public HyperLogLog(int precision)
+    {
+        if(precision < 4 || precision > 16)
+        {
+            throw new IllegalArgumentException("HyperLogLog(): precision fuera de rango (4 a 16)");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Agrega el valor o al flujo.
+     * @param o el valor a agregar.
+     * @throws NullPointerException si o es null.
+     */
+    public void add(Object o)
+    {
+        this.addHash(hash64(o));
+    }
+
+    /**
+     * Agrega al flujo un valor ya convertido en un hash de 64 bits (que debe
+     * estar bien distribuido, como los de hash64()).
+     * @param hash el hash del valor.
+     */
+    public void addHash(long hash)
+    {
+        int index = (int) (hash >>> (64 - precision));
+        long w = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(w) + 1);
+        if(rank > registers[index]) registers[index] = rank;
+    }
+
+    /**
+     * Retorna la cantidad estimada de valores distintos agregados.
+     * @return la cardinalidad estimada.
+     */
+    public long estimate()
+    {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for(byte r : registers)
+        {
+            sum += 1.0 / (1L << r);
+            if(r == 0) zeros++;
+        }
+
+        double alpha;
+        switch(m)
+        {
+            case 16: alpha = 0.673; break;
+            case 32: alpha = 0.697; break;
+            case 64: alpha = 0.709; break;
+            default: alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        double e = alpha * m * m / sum;
+
+        // para cardinalidades chicas, el conteo lineal de registros vacios es mas preciso...
+        if(e <= 2.5 * m && zeros > 0)
+        {
+            e = m * Math.log((double) m / zeros);
+        }
+        return Math.round(e);
+    }
+
+    /**
+     * Combina en este estimador el contenido de otro de igual precision.
+     * @param other el estimador a combinar.
+     * @throws IllegalArgumentException si las precisiones son distintas.
+     */
+    public void merge(HyperLogLog other)
+    {
+        if(other.precision != precision)
+        {
+            throw new IllegalArgumentException("merge(): las precisiones no coinciden");
+        }
+        for(int i = 0; i < registers.length; i++)
+        {
+            if(other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    /**
+     * Retorna la precision del estimador.
+     * @return la precision.
+     */
+    public int getPrecision()
+    {
+        return precision;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "HyperLogLog[p=" + precision + ", estimate=" + estimate() + "]";
+    }
+
+    /**
+     * Calcula un hash de 64 bits bien distribuido para el objeto o. Para
+     * cadenas se recorren sus caracteres (el hashCode() de 32 bits no alcanza
+     * para flujos muy grandes); para el resto se dispersa su hashCode().
+     * @param o el objeto.
+     * @return el hash de 64 bits.
+     * @throws NullPointerException si o es null.
+     */
+    public static long hash64(Object o)
+    {
+        if(o == null) throw new NullPointerException("hash64(): parametro null");
+        if(o instanceof CharSequence)
+        {
+            CharSequence s = (CharSequence) o;
+            long h = 0xCBF29CE484222325L;
+            for(int i = 0; i < s.length(); i++)
+            {
+                h ^= s.charAt(i);
+                h *= 0x100000001B3L;
+            }
+            return mix64(h);
+        }
+        return mix64(o.hashCode());
+    }
+
+    /*
+     * Paso final de MurmurHash3: dispersa todos los bits de z.
+     */
+    static long mix64(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,525 @@
+package soporte;
+
+import java.io.Serializable;
+import java.util.ConcurrentModificationException;
+
+/**
+ * Tabla hash con claves de tipo int y valores de tipo int, implementada con el
+ * mismo modelo de Resolucion de Colisiones por Direccionamiento Abierto que
+ * TSBHashTableDA (arreglo de tamanio primo, exploracion cuadratica y casillas
+ * marcadas como tumba al eliminar). A diferencia de TSBHashTableDA, las claves,
+ * los valores y los estados de cada casilla se guardan en arreglos paralelos de
+ * tipos primitivos, por lo que ni get() ni put() crean objetos: no hay boxing a
+ * Integer ni objetos Entry. Pensada para conteos e indices numericos (ids de
+ * fila, cantidad de votos, puntuaciones agrupadas, etc.).
+ *
+ * Como en una tabla de tipos primitivos no existe el valor null, los metodos
+ * que deben informar la ausencia de una clave retornan 0 (o el valor por
+ * defecto indicado en getOrDefault()). Para distinguir una clave ausente de
+ * una clave asociada a 0 debe usarse containsKey().
+ */
+public class IntIntTSBHashTable implements Cloneable, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    //************************ Constantes (privadas o publicas).
+
+    // estados en los que puede estar una casilla (los mismos de TSBHashTableDA)...
+    private static final byte OPEN = TSBHashTableDA.OPEN;
+    private static final byte CLOSED = TSBHashTableDA.CLOSED;
+    private static final byte TOMBSTONE = TSBHashTableDA.TOMBSTONE;
+
+    //************************ Atributos privados (estructurales).
+
+    // los arreglos paralelos que forman la tabla...
+    private int[] keys;
+    private int[] values;
+    private byte[] states;
+
+    // el tamanio inicial de la tabla (tamanio con el que fue creada)...
+    private int initial_capacity;
+
+    // la cantidad de objetos que contiene la tabla...
+    private int count;
+
+    // la cantidad de casillas marcadas como tumba...
+    private int tombstones;
+
+    // el factor de carga para calcular si hace falta un rehashing...
+    private float load_factor;
+
+    //************************ Atributos protegidos (control de iteracion).
+
+    // conteo de operaciones de cambio de tamanio (fail-fast).
+    protected transient int modCount;
+
+
+    //************************ Constructores.
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial igual a 11 y con factor
+     * de carga igual a 0.5f.
+     */
+    public IntIntTSBHashTable()
+    {
+        this(11, 0.5f);
+    }
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial indicada y con factor
+     * de carga igual a 0.5f.
+     * @param initial_capacity la capacidad inicial de la tabla.
+     */
+    public IntIntTSBHashTable(int initial_capacity)
+    {
+        this(initial_capacity, 0.5f);
+    }
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial y el factor de carga
+     * indicados. Se aplican los mismos ajustes que en TSBHashTableDA: una
+     * capacidad menor o igual a 0 se ajusta a 11, un factor de carga fuera de
+     * (0, 0.5] se ajusta a 0.5f y una capacidad que no sea prima se ajusta al
+     * primer primo mayor.
+     * @param initial_capacity la capacidad inicial de la tabla.
+     * @param load_factor el factor de carga de la tabla.
+     */
+    public IntIntTSBHashTable(int initial_capacity, float load_factor)
+    {
+        if(load_factor <= 0 || load_factor > 0.5) { load_factor = 0.5f; }
+        if(initial_capacity <= 0) { initial_capacity = 11; }
+        else if(!TSBHashTableDA.isPrime(initial_capacity))
+        {
+            initial_capacity = TSBHashTableDA.nextPrime(initial_capacity);
+        }
+
+        this.keys = new int[initial_capacity];
+        this.values = new int[initial_capacity];
+        this.states = new byte[initial_capacity];
+        this.initial_capacity = initial_capacity;
+        this.load_factor = load_factor;
+        this.count = 0;
+        this.tombstones = 0;
+        this.modCount = 0;
+    }
+
+    /**
+     * Crea una tabla vacia dimensionada para contener expected_size pares sin
+     * necesidad de ningun rehashing.
+     * @param expected_size la cantidad de pares que se espera insertar.
+     * @return una tabla vacia con la capacidad ya ajustada.
+     */
+    public static IntIntTSBHashTable withExpectedSize(int expected_size)
+    {
+        return new IntIntTSBHashTable(TSBHashTableDA.capacityFor(expected_size, 0.5f), 0.5f);
+    }
+
+
+    //************************ Operaciones basicas.
+
+    /**
+     * Retorna la cantidad de pares contenidos en la tabla.
+     * @return la cantidad de pares de la tabla.
+     */
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Determina si la tabla esta vacia (no contiene ningun par).
+     * @return true si la tabla esta vacia.
+     */
+    public boolean isEmpty()
+    {
+        return (this.count == 0);
+    }
+
+    /**
+     * Determina si la clave key esta en la tabla.
+     * @param key la clave a verificar.
+     * @return true si la clave esta en la tabla.
+     */
+    public boolean containsKey(int key)
+    {
+        return this.search_for_index(key) != -1;
+    }
+
+    /**
+     * Determina si alguna clave de la tabla esta asociada al valor indicado.
+     * @param value el valor a buscar en la tabla.
+     * @return true si alguna clave esta asociada a ese valor.
+     */
+    public boolean containsValue(int value)
+    {
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED && values[i] == value) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna el valor asociado a la clave key, o 0 si la clave no esta en la
+     * tabla.
+     * @param key la clave que sera buscada en la tabla.
+     * @return el valor asociado a la clave, o 0 si no existe.
+     */
+    public int get(int key)
+    {
+        return this.getOrDefault(key, 0);
+    }
+
+    /**
+     * Retorna el valor asociado a la clave key, o default_value si la clave no
+     * esta en la tabla.
+     * @param key la clave que sera buscada en la tabla.
+     * @param default_value el valor a retornar si la clave no existe.
+     * @return el valor asociado a la clave, o default_value si no existe.
+     */
+    public int getOrDefault(int key, int default_value)
+    {
+        int pos = this.search_for_index(key);
+        return pos != -1 ? values[pos] : default_value;
+    }
+
+    /**
+     * Asocia el valor value con la clave key. Si la clave ya estaba en la
+     * tabla, su valor anterior es reemplazado (y el tamanio no cambia).
+     * @param key la clave del par a agregar.
+     * @param value el valor a asociar con la clave.
+     * @return el valor anteriormente asociado a la clave, o 0 si no existia.
+     */
+    public int put(int key, int value)
+    {
+        int pos = this.search_for_slot(key);
+        if(pos >= 0)
+        {
+            int old = values[pos];
+            values[pos] = value;
+            return old;
+        }
+
+        this.insert(-pos - 1, key, value);
+        return 0;
+    }
+
+    /**
+     * Suma incr al valor asociado a la clave key. Si la clave no estaba en la
+     * tabla, se agrega asociada a incr (como si su valor previo fuese 0). Es la
+     * operacion tipica de un contador, resuelta con una sola busqueda.
+     * @param key la clave cuyo valor se incrementa.
+     * @param incr el valor a sumar.
+     * @return el nuevo valor asociado a la clave.
+     */
+    public int addTo(int key, int incr)
+    {
+        int pos = this.search_for_slot(key);
+        if(pos >= 0)
+        {
+            values[pos] += incr;
+            return values[pos];
+        }
+
+        this.insert(-pos - 1, key, incr);
+        return incr;
+    }
+
+    /**
+     * Elimina de la tabla la clave key (y su valor asociado). El metodo no
+     * hace nada si la clave no esta en la tabla.
+     * @param key la clave a eliminar.
+     * @return el valor al cual la clave estaba asociada, o 0 si no existia.
+     */
+    public int remove(int key)
+    {
+        int pos = this.search_for_index(key);
+        if(pos == -1) { return 0; }
+
+        states[pos] = TOMBSTONE;
+        this.count--;
+        this.tombstones++;
+        this.modCount++;
+        return values[pos];
+    }
+
+    /**
+     * Elimina el contenido de la tabla, de forma de dejarla vacia y con el
+     * tamanio que tuvo al ser creada.
+     */
+    public void clear()
+    {
+        this.keys = new int[initial_capacity];
+        this.values = new int[initial_capacity];
+        this.states = new byte[initial_capacity];
+        this.count = 0;
+        this.tombstones = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Asegura que la tabla pueda contener al menos min_size pares sin que
+     * ninguna insercion posterior dispare un rehashing.
+     * @param min_size la cantidad de pares que la tabla debe poder contener.
+     */
+    public void ensureCapacity(int min_size)
+    {
+        int new_length = TSBHashTableDA.capacityFor(min_size, this.load_factor);
+        if(new_length > this.states.length) { this.rehash(new_length); }
+    }
+
+
+    //************************ Recorrido sin objetos intermedios.
+
+    /**
+     * Interface funcional para recorrer los pares de la tabla recibiendo la
+     * clave y el valor como tipos primitivos.
+     */
+    @FunctionalInterface
+    public interface IntIntConsumer
+    {
+        void accept(int key, int value);
+    }
+
+    /**
+     * Aplica la accion indicada a cada par (key, value) de la tabla, en el
+     * orden en que aparecen en el arreglo de soporte. No crea iteradores ni
+     * objetos Entry.
+     * @param action la accion a aplicar sobre cada par.
+     * @throws NullPointerException si action es null.
+     * @throws ConcurrentModificationException si la tabla cambia
+     *         su estructura durante el recorrido.
+     */
+    public void forEach(IntIntConsumer action)
+    {
+        if(action == null) throw new NullPointerException("forEach(): parametro null");
+        int expected_modCount = this.modCount;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { action.accept(keys[i], values[i]); }
+            if(this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("forEach(): modificacion inesperada de tabla...");
+            }
+        }
+    }
+
+    /**
+     * Retorna un arreglo nuevo con todas las claves de la tabla.
+     * @return las claves de la tabla, sin ningun orden en particular.
+     */
+    public int[] keys()
+    {
+        int[] r = new int[count];
+        int j = 0;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { r[j++] = keys[i]; }
+        }
+        return r;
+    }
+
+    /**
+     * Retorna un arreglo nuevo con todos los valores de la tabla, en el mismo
+     * orden en que keys() retorna las claves.
+     * @return los valores de la tabla.
+     */
+    public int[] values()
+    {
+        int[] r = new int[count];
+        int j = 0;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { r[j++] = values[i]; }
+        }
+        return r;
+    }
+
+
+    //************************ Redefinicion de metodos heredados desde Object.
+
+    /**
+     * Retorna una copia de la tabla (los arreglos de soporte se duplican).
+     * @return una copia de la tabla.
+     * @throws CloneNotSupportedException si la clase no implementa Cloneable.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException
+    {
+        IntIntTSBHashTable t = (IntIntTSBHashTable) super.clone();
+        t.keys = this.keys.clone();
+        t.values = this.values.clone();
+        t.states = this.states.clone();
+        t.modCount = 0;
+        return t;
+    }
+
+    /**
+     * Determina si esta tabla es igual al objeto especificado: ambas deben
+     * contener exactamente los mismos pares.
+     * @param obj el objeto a comparar con esta tabla.
+     * @return true si los objetos son iguales.
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if(this == obj) { return true; }
+        if(!(obj instanceof IntIntTSBHashTable)) { return false; }
+
+        IntIntTSBHashTable t = (IntIntTSBHashTable) obj;
+        if(t.size() != this.size()) { return false; }
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] != CLOSED) { continue; }
+            int pos = t.search_for_index(keys[i]);
+            if(pos == -1 || t.values[pos] != values[i]) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Retorna un hash code para la tabla completa.
+     * @return un hash code para la tabla.
+     */
+    @Override
+    public int hashCode()
+    {
+        int hc = 0;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { hc += keys[i] ^ values[i]; }
+        }
+        return hc;
+    }
+
+    /**
+     * Devuelve el contenido de la tabla en forma de String.
+     * @return una cadena con el contenido completo de la tabla.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder cad = new StringBuilder("[");
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED)
+            {
+                cad.append('(').append(keys[i]).append(", ").append(values[i]).append(") ");
+            }
+        }
+        cad.append("]");
+        return cad.toString();
+    }
+
+
+    //************************ Metodos privados.
+
+    /*
+     * Funcion hash. Toma una clave entera k y un tamanio de tabla t, y calcula
+     * y retorna un indice valido para esa clave dado ese tamanio.
+     */
+    private static int h(int k, int t)
+    {
+        return (k & 0x7FFFFFFF) % t;
+    }
+
+    /*
+     * Busca la clave key aplicando exploracion cuadratica. Si la encuentra,
+     * retorna su posicion. Si no la encuentra, retorna -1.
+     */
+    private int search_for_index(int key)
+    {
+        int t = states.length;
+        int y = h(key, t);
+        for(int j = 1; ; j++)
+        {
+            if(states[y] == OPEN) { return -1; }
+            if(states[y] == CLOSED && keys[y] == key) { return y; }
+
+            // (ik + j^2) - (ik + (j-1)^2) = 2j - 1...
+            y = (y + 2 * j - 1) % t;
+        }
+    }
+
+    /*
+     * Busca la clave key aplicando exploracion cuadratica. Si la encuentra,
+     * retorna su posicion (un valor >= 0). Si no la encuentra, retorna
+     * -(p + 1), siendo p la primera casilla libre (abierta o tumba) donde
+     * podria insertarse.
+     */
+    private int search_for_slot(int key)
+    {
+        int t = states.length;
+        int y = h(key, t);
+        int free = -1;
+        for(int j = 1; ; j++)
+        {
+            if(states[y] == OPEN) { return -((free != -1 ? free : y) + 1); }
+            if(states[y] == TOMBSTONE) { if(free == -1) { free = y; } }
+            else if(keys[y] == key) { return y; }
+
+            y = (y + 2 * j - 1) % t;
+        }
+    }
+
+    /*
+     * Inserta un par nuevo en la casilla libre pos (obtenida con
+     * search_for_slot()), haciendo antes el rehashing si corresponde.
+     */
+    private void insert(int pos, int key, int value)
+    {
+        // las tumbas tambien cuentan: de ellas depende que la exploracion termine...
+        if(states[pos] == OPEN && (this.count + this.tombstones + 1) > this.load_factor * states.length)
+        {
+            this.rehash();
+            pos = -this.search_for_slot(key) - 1;
+        }
+
+        if(states[pos] == TOMBSTONE) { this.tombstones--; }
+        keys[pos] = key;
+        values[pos] = value;
+        states[pos] = CLOSED;
+        this.count++;
+        this.modCount++;
+    }
+
+    /*
+     * Reorganiza la tabla. Si la mayor parte de las casillas usadas son tumbas
+     * alcanza con reorganizar con el mismo tamanio; si no, se crece al primer
+     * primo mayor o igual al 150% del tamanio actual.
+     */
+    private void rehash()
+    {
+        int old_length = states.length;
+        if(this.tombstones >= this.count) { this.rehash(old_length); }
+        else { this.rehash(TSBHashTableDA.nextPrime((int)(old_length * 1.5f))); }
+    }
+
+    /*
+     * Redimensiona la tabla al tamanio new_length (que se asume primo) y
+     * reubica en los nuevos arreglos todos los pares que contenia.
+     */
+    private void rehash(int new_length)
+    {
+        int[] old_keys = this.keys;
+        int[] old_values = this.values;
+        byte[] old_states = this.states;
+
+        this.keys = new int[new_length];
+        this.values = new int[new_length];
+        this.states = new byte[new_length];
+        this.tombstones = 0;
+        this.modCount++;
+
+        for(int i = 0; i < old_states.length; i++)
+        {
+            if(old_states[i] != CLOSED) { continue; }
+
+            int y = h(old_keys[i], new_length);
+            for(int j = 1; states[y] != OPEN; j++) { y = (y + 2 * j - 1) % new_length; }
+            keys[y] = old_keys[i];
+            values[y] = old_values[i];
+            states[y] = CLOSED;
+        }
+    }
+}
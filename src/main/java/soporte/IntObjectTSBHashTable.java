@@ -0,0 +1,586 @@
+package soporte;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ConcurrentModificationException;
+import java.util.function.IntFunction;
+
+/**
+ * Tabla hash con claves de tipo int y valores de tipo V, implementada con el
+ * mismo modelo de Direccionamiento Abierto que IntIntTSBHashTable: las claves
+ * se guardan en un arreglo de int (sin boxing a Integer) y los valores en un
+ * arreglo paralelo de referencias, sin objetos Entry. Pensada para indices
+ * por id numerico (id de fila, id de actor, etc.). Al igual que en
+ * TSBHashTableDA, no se admiten valores null: get() retorna null solo si la
+ * clave no esta en la tabla.
+ * @param <V> el tipo de los objetos que seran los valores de la tabla.
+ */
+public class IntObjectTSBHashTable<V> implements Cloneable, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    //************************ Constantes (privadas o publicas).
+
+    // estados en los que puede estar una casilla (los mismos de TSBHashTableDA)...
+    private static final byte OPEN = TSBHashTableDA.OPEN;
+    private static final byte CLOSED = TSBHashTableDA.CLOSED;
+    private static final byte TOMBSTONE = TSBHashTableDA.TOMBSTONE;
+
+    //************************ Atributos privados (estructurales).
+
+    // los arreglos paralelos que forman la tabla (no se serializan tal cual:
+    // ver writeObject())...
+    private transient int[] keys;
+    private transient Object[] values;
+    private transient byte[] states;
+
+    // el tamanio inicial de la tabla (tamanio con el que fue creada)...
+    private int initial_capacity;
+
+    // la cantidad de objetos que contiene la tabla...
+    private int count;
+
+    // la cantidad de casillas marcadas como tumba...
+    private int tombstones;
+
+    // el factor de carga para calcular si hace falta un rehashing...
+    private float load_factor;
+
+    //************************ Atributos protegidos (control de iteracion).
+
+    // conteo de operaciones de cambio de tamanio (fail-fast).
+    protected transient int modCount;
+
+
+    //************************ Constructores.
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial igual a 11 y con factor
+     * de carga igual a 0.5f.
+     */
+    public IntObjectTSBHashTable()
+    {
+        this(11, 0.5f);
+    }
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial indicada y con factor
+     * de carga igual a 0.5f.
+     * @param initial_capacity la capacidad inicial de la tabla.
+     */
+    public IntObjectTSBHashTable(int initial_capacity)
+    {
+        this(initial_capacity, 0.5f);
+    }
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial y el factor de carga
+     * indicados. Se aplican los mismos ajustes que en TSBHashTableDA: una
+     * capacidad menor o igual a 0 se ajusta a 11, un factor de carga fuera de
+     * (0, 0.5] se ajusta a 0.5f y una capacidad que no sea prima se ajusta al
+     * primer primo mayor.
+     * @param initial_capacity la capacidad inicial de la tabla.
+     * @param load_factor el factor de carga de la tabla.
+     */
+    public IntObjectTSBHashTable(int initial_capacity, float load_factor)
+    {
+        if(load_factor <= 0 || load_factor > 0.5) { load_factor = 0.5f; }
+        if(initial_capacity <= 0) { initial_capacity = 11; }
+        else if(!TSBHashTableDA.isPrime(initial_capacity))
+        {
+            initial_capacity = TSBHashTableDA.nextPrime(initial_capacity);
+        }
+
+        this.keys = new int[initial_capacity];
+        this.values = new Object[initial_capacity];
+        this.states = new byte[initial_capacity];
+        this.initial_capacity = initial_capacity;
+        this.load_factor = load_factor;
+        this.count = 0;
+        this.tombstones = 0;
+        this.modCount = 0;
+    }
+
+    /**
+     * Crea una tabla vacia dimensionada para contener expected_size pares sin
+     * necesidad de ningun rehashing.
+     * @param expected_size la cantidad de pares que se espera insertar.
+     * @return una tabla vacia con la capacidad ya ajustada.
+     */
+    public static <V> IntObjectTSBHashTable<V> withExpectedSize(int expected_size)
+    {
+        return new IntObjectTSBHashTable<>(TSBHashTableDA.capacityFor(expected_size, 0.5f), 0.5f);
+    }
+
+
+    //************************ Operaciones basicas.
+
+    /**
+     * Retorna la cantidad de pares contenidos en la tabla.
+     * @return la cantidad de pares de la tabla.
+     */
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Determina si la tabla esta vacia (no contiene ningun par).
+     * @return true si la tabla esta vacia.
+     */
+    public boolean isEmpty()
+    {
+        return (this.count == 0);
+    }
+
+    /**
+     * Determina si la clave key esta en la tabla.
+     * @param key la clave a verificar.
+     * @return true si la clave esta en la tabla.
+     */
+    public boolean containsKey(int key)
+    {
+        return this.search_for_index(key) != -1;
+    }
+
+    /**
+     * Determina si alguna clave de la tabla esta asociada al valor indicado.
+     * @param value el valor a buscar en la tabla.
+     * @return true si alguna clave esta asociada a ese valor.
+     */
+    public boolean containsValue(Object value)
+    {
+        if(value == null) return false;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED && value.equals(values[i])) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna el valor asociado a la clave key, o null si la clave no esta en
+     * la tabla.
+     * @param key la clave que sera buscada en la tabla.
+     * @return el valor asociado a la clave, o null si no existe.
+     */
+    public V get(int key)
+    {
+        return this.getOrDefault(key, null);
+    }
+
+    /**
+     * Retorna el valor asociado a la clave key, o default_value si la clave no
+     * esta en la tabla.
+     * @param key la clave que sera buscada en la tabla.
+     * @param default_value el valor a retornar si la clave no existe.
+     * @return el valor asociado a la clave, o default_value si no existe.
+     */
+    public V getOrDefault(int key, V default_value)
+    {
+        int pos = this.search_for_index(key);
+        return pos != -1 ? value_at(pos) : default_value;
+    }
+
+    /**
+     * Asocia el valor value con la clave key. Si la clave ya estaba en la
+     * tabla, su valor anterior es reemplazado (y el tamanio no cambia).
+     * @param key la clave del par a agregar.
+     * @param value el valor a asociar con la clave.
+     * @return el valor anteriormente asociado a la clave, o null si no
+     *         existia.
+     * @throws NullPointerException si value es null.
+     */
+    public V put(int key, V value)
+    {
+        if(value == null) throw new NullPointerException("put(): parametro null");
+        int pos = this.search_for_slot(key);
+        if(pos >= 0)
+        {
+            V old = value_at(pos);
+            values[pos] = value;
+            return old;
+        }
+
+        this.insert(-pos - 1, key, value);
+        return null;
+    }
+
+    /**
+     * Retorna el valor asociado a la clave key. Si la clave no estaba en la
+     * tabla, se crea el valor con la funcion indicada y se lo asocia a la
+     * clave, con una sola busqueda en ambos casos.
+     * @param key la clave buscada.
+     * @param mapping_function la funcion que crea el valor si la clave no existe.
+     * @return el valor (existente o nuevo) asociado a la clave.
+     * @throws NullPointerException si la funcion es null o retorna null.
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> mapping_function)
+    {
+        if(mapping_function == null) throw new NullPointerException("computeIfAbsent(): parametro null");
+        int pos = this.search_for_slot(key);
+        if(pos >= 0) { return value_at(pos); }
+
+        V value = mapping_function.apply(key);
+        if(value == null) throw new NullPointerException("computeIfAbsent(): la funcion retorno null");
+        this.insert(-pos - 1, key, value);
+        return value;
+    }
+
+    /**
+     * Elimina de la tabla la clave key (y su valor asociado). El metodo no
+     * hace nada si la clave no esta en la tabla.
+     * @param key la clave a eliminar.
+     * @return el valor al cual la clave estaba asociada, o null si no existia.
+     */
+    public V remove(int key)
+    {
+        int pos = this.search_for_index(key);
+        if(pos == -1) { return null; }
+
+        V old = value_at(pos);
+        values[pos] = null;
+        states[pos] = TOMBSTONE;
+        this.count--;
+        this.tombstones++;
+        this.modCount++;
+        return old;
+    }
+
+    /**
+     * Elimina el contenido de la tabla, de forma de dejarla vacia y con el
+     * tamanio que tuvo al ser creada.
+     */
+    public void clear()
+    {
+        this.keys = new int[initial_capacity];
+        this.values = new Object[initial_capacity];
+        this.states = new byte[initial_capacity];
+        this.count = 0;
+        this.tombstones = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Asegura que la tabla pueda contener al menos min_size pares sin que
+     * ninguna insercion posterior dispare un rehashing.
+     * @param min_size la cantidad de pares que la tabla debe poder contener.
+     */
+    public void ensureCapacity(int min_size)
+    {
+        int new_length = TSBHashTableDA.capacityFor(min_size, this.load_factor);
+        if(new_length > this.states.length) { this.rehash(new_length); }
+    }
+
+
+    //************************ Recorrido sin objetos intermedios.
+
+    /**
+     * Interface funcional para recorrer los pares de la tabla recibiendo la
+     * clave como tipo primitivo.
+     * @param <V> el tipo de los valores recorridos.
+     */
+    @FunctionalInterface
+    public interface IntObjectConsumer<V>
+    {
+        void accept(int key, V value);
+    }
+
+    /**
+     * Aplica la accion indicada a cada par (key, value) de la tabla, en el
+     * orden en que aparecen en el arreglo de soporte. No crea iteradores ni
+     * objetos Entry.
+     * @param action la accion a aplicar sobre cada par.
+     * @throws NullPointerException si action es null.
+     * @throws ConcurrentModificationException si la tabla cambia
+     *         su estructura durante el recorrido.
+     */
+    public void forEach(IntObjectConsumer<? super V> action)
+    {
+        if(action == null) throw new NullPointerException("forEach(): parametro null");
+        int expected_modCount = this.modCount;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { action.accept(keys[i], value_at(i)); }
+            if(this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("forEach(): modificacion inesperada de tabla...");
+            }
+        }
+    }
+
+    /**
+     * Retorna un arreglo nuevo con todas las claves de la tabla.
+     * @return las claves de la tabla, sin ningun orden en particular.
+     */
+    public int[] keys()
+    {
+        int[] r = new int[count];
+        int j = 0;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { r[j++] = keys[i]; }
+        }
+        return r;
+    }
+
+    /**
+     * Retorna un arreglo nuevo con todos los valores de la tabla, en el mismo
+     * orden en que keys() retorna las claves.
+     * @return los valores de la tabla.
+     */
+    public Object[] values()
+    {
+        Object[] r = new Object[count];
+        int j = 0;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { r[j++] = values[i]; }
+        }
+        return r;
+    }
+
+
+    //************************ Redefinicion de metodos heredados desde Object.
+
+    /**
+     * Retorna una copia de la tabla (los arreglos de soporte se duplican).
+     * @return una copia de la tabla.
+     * @throws CloneNotSupportedException si la clase no implementa Cloneable.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object clone() throws CloneNotSupportedException
+    {
+        IntObjectTSBHashTable<V> t = (IntObjectTSBHashTable<V>) super.clone();
+        t.keys = this.keys.clone();
+        t.values = this.values.clone();
+        t.states = this.states.clone();
+        t.modCount = 0;
+        return t;
+    }
+
+    /**
+     * Determina si esta tabla es igual al objeto especificado: ambas deben
+     * contener exactamente los mismos pares.
+     * @param obj el objeto a comparar con esta tabla.
+     * @return true si los objetos son iguales.
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if(this == obj) { return true; }
+        if(!(obj instanceof IntObjectTSBHashTable)) { return false; }
+
+        IntObjectTSBHashTable<?> t = (IntObjectTSBHashTable<?>) obj;
+        if(t.size() != this.size()) { return false; }
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] != CLOSED) { continue; }
+            int pos = t.search_for_index(keys[i]);
+            if(pos == -1 || !values[i].equals(t.values[pos])) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Retorna un hash code para la tabla completa.
+     * @return un hash code para la tabla.
+     */
+    @Override
+    public int hashCode()
+    {
+        int hc = 0;
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED) { hc += keys[i] ^ values[i].hashCode(); }
+        }
+        return hc;
+    }
+
+    /**
+     * Devuelve el contenido de la tabla en forma de String.
+     * @return una cadena con el contenido completo de la tabla.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder cad = new StringBuilder("[");
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED)
+            {
+                cad.append('(').append(keys[i]).append(", ").append(values[i]).append(") ");
+            }
+        }
+        cad.append("]");
+        return cad.toString();
+    }
+
+
+    //************************ Serializacion.
+
+    /*
+     * Se serializan los atributos escalares y luego cada par (clave, valor),
+     * sin los arreglos de soporte: al deserializar la tabla se arma de nuevo
+     * insertando los pares.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException
+    {
+        s.defaultWriteObject();
+        for(int i = 0; i < states.length; i++)
+        {
+            if(states[i] == CLOSED)
+            {
+                s.writeInt(keys[i]);
+                s.writeObject(values[i]);
+            }
+        }
+    }
+
+    /*
+     * Se leen los pares escritos por writeObject() y se vuelven a insertar en
+     * una tabla con lugar para todos ellos.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException
+    {
+        s.defaultReadObject();
+        int n = this.count;
+        int length = Math.max(this.initial_capacity, TSBHashTableDA.capacityFor(n, this.load_factor));
+        this.keys = new int[length];
+        this.values = new Object[length];
+        this.states = new byte[length];
+        this.count = 0;
+        this.tombstones = 0;
+        for(int i = 0; i < n; i++)
+        {
+            int key = s.readInt();
+            this.put(key, (V) s.readObject());
+        }
+    }
+
+
+    //************************ Metodos privados.
+
+    /*
+     * Funcion hash. Toma una clave entera k y un tamanio de tabla t, y calcula
+     * y retorna un indice valido para esa clave dado ese tamanio.
+     */
+    private static int h(int k, int t)
+    {
+        return (k & 0x7FFFFFFF) % t;
+    }
+
+    /*
+     * Retorna el valor de la casilla pos. El arreglo es Object[] porque no se
+     * puede crear un arreglo de V, pero solo guarda valores de tipo V (o null).
+     */
+    @SuppressWarnings("unchecked")
+    private V value_at(int pos)
+    {
+        return (V) values[pos];
+    }
+
+    /*
+     * Busca la clave key aplicando exploracion cuadratica. Si la encuentra,
+     * retorna su posicion. Si no la encuentra, retorna -1.
+     */
+    private int search_for_index(int key)
+    {
+        int t = states.length;
+        int y = h(key, t);
+        for(int j = 1; ; j++)
+        {
+            if(states[y] == OPEN) { return -1; }
+            if(states[y] == CLOSED && keys[y] == key) { return y; }
+
+            // (ik + j^2) - (ik + (j-1)^2) = 2j - 1...
+            y = (y + 2 * j - 1) % t;
+        }
+    }
+
+    /*
+     * Busca la clave key aplicando exploracion cuadratica. Si la encuentra,
+     * retorna su posicion (un valor >= 0). Si no la encuentra, retorna
+     * -(p + 1), siendo p la primera casilla libre (abierta o tumba) donde
+     * podria insertarse.
+     */
+    private int search_for_slot(int key)
+    {
+        int t = states.length;
+        int y = h(key, t);
+        int free = -1;
+        for(int j = 1; ; j++)
+        {
+            if(states[y] == OPEN) { return -((free != -1 ? free : y) + 1); }
+            if(states[y] == TOMBSTONE) { if(free == -1) { free = y; } }
+            else if(keys[y] == key) { return y; }
+
+            y = (y + 2 * j - 1) % t;
+        }
+    }
+
+    /*
+     * Inserta un par nuevo en la casilla libre pos (obtenida con
+     * search_for_slot()), haciendo antes el rehashing si corresponde.
+     */
+    private void insert(int pos, int key, V value)
+    {
+        // las tumbas tambien cuentan: de ellas depende que la exploracion termine...
+        if(states[pos] == OPEN && (this.count + this.tombstones + 1) > this.load_factor * states.length)
+        {
+            this.rehash();
+            pos = -this.search_for_slot(key) - 1;
+        }
+
+        if(states[pos] == TOMBSTONE) { this.tombstones--; }
+        keys[pos] = key;
+        values[pos] = value;
+        states[pos] = CLOSED;
+        this.count++;
+        this.modCount++;
+    }
+
+    /*
+     * Reorganiza la tabla. Si la mayor parte de las casillas usadas son tumbas
+     * alcanza con reorganizar con el mismo tamanio; si no, se crece al primer
+     * primo mayor o igual al 150% del tamanio actual.
+     */
+    private void rehash()
+    {
+        int old_length = states.length;
+        if(this.tombstones >= this.count) { this.rehash(old_length); }
+        else { this.rehash(TSBHashTableDA.nextPrime((int)(old_length * 1.5f))); }
+    }
+
+    /*
+     * Redimensiona la tabla al tamanio new_length (que se asume primo) y
+     * reubica en los nuevos arreglos todos los pares que contenia.
+     */
+    private void rehash(int new_length)
+    {
+        int[] old_keys = this.keys;
+        Object[] old_values = this.values;
+        byte[] old_states = this.states;
+
+        this.keys = new int[new_length];
+        this.values = new Object[new_length];
+        this.states = new byte[new_length];
+        this.tombstones = 0;
+        this.modCount++;
+
+        for(int i = 0; i < old_states.length; i++)
+        {
+            if(old_states[i] != CLOSED) { continue; }
+
+            int y = h(old_keys[i], new_length);
+            for(int j = 1; states[y] != OPEN; j++) { y = (y + 2 * j - 1) % new_length; }
+            keys[y] = old_keys[i];
+            values[y] = old_values[i];
+            states[y] = CLOSED;
+        }
+    }
+}
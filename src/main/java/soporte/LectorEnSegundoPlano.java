@@ -0,0 +1,163 @@
+package soporte;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream que lee (y, si corresponde, descomprime) otro InputStream en un hilo propio.
+ * El hilo va llenando bloques de bytes y los deja en una cola acotada; quien lee de este
+ * stream consume esos bloques, de forma que la lectura o descompresion del origen se
+ * superpone con el procesamiento de los datos. Si la cola esta llena, el hilo lector espera
+ * (los bloques en memoria nunca superan la cantidad indicada). Una excepcion del origen se
+ * relanza al consumidor cuando llega a ese punto del stream.
+ */
+public class LectorEnSegundoPlano extends InputStream
+{
+    // marca de fin de datos...
+    private static final byte[] FIN = new byte[0];
+
+    // el stream de origen y el hilo que lo lee...
+    private final InputStream origen;
+    private final Thread lector;
+
+    // la cola acotada de bloques leidos...
+    private final BlockingQueue<byte[]> bloques;
+
+    // el error producido al leer el origen (si lo hubo)...
+    private volatile IOException error;
+
+    // el bloque que se esta consumiendo y la posicion dentro de el...
+    private byte[] actual;
+    private int pos;
+
+    /**
+     * Crea el stream con bloques de 64 KB y a lo sumo 4 bloques en la cola.
+     * @param origen el stream a leer en segundo plano.
+     */
+    public LectorEnSegundoPlano(InputStream origen)
+    {
+        this(origen, 1 << 16, 4);
+    }
+
+    /**
+     * Crea el stream y comienza a leer el origen en un hilo propio.
+     * @param origen el stream a leer en segundo plano.
+     * @param tam_bloque la cantidad de bytes de cada bloque.
+     * @param max_bloques la cantidad maxima de bloques en la cola.
+     * @throws IllegalArgumentException si algun tamanio no es positivo.
+     * @throws NullPointerException si origen es null.
+     */
+    public LectorEnSegundoPlano(InputStream origen, int tam_bloque, int max_bloques)
+    {
+        if(origen == null) throw new NullPointerException("LectorEnSegundoPlano(): parametro null");
+        if(tam_bloque <= 0 || max_bloques <= 0)
+        {
+            throw new IllegalArgumentException("LectorEnSegundoPlano(): los tamanios deben ser positivos");
+        }
+
+        this.origen = origen;
+        this.bloques = new ArrayBlockingQueue<>(max_bloques);
+        this.lector = new Thread(() -> leer_origen(tam_bloque), "lector-segundo-plano");
+        this.lector.setDaemon(true);
+        this.lector.start();
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if(!this.hay_datos()) return -1;
+        return actual[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if(off < 0 || len < 0 || len > b.length - off) throw new IndexOutOfBoundsException("read(): rango fuera de limites...");
+        if(len == 0) return 0;
+        if(!this.hay_datos()) return -1;
+
+        int n = Math.min(len, actual.length - pos);
+        System.arraycopy(actual, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available()
+    {
+        return actual != null && actual != FIN ? actual.length - pos : 0;
+    }
+
+    /**
+     * Detiene el hilo lector y cierra el stream de origen.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        lector.interrupt();
+        bloques.clear();
+        origen.close();
+    }
+
+    /*
+     * Se asegura de que haya bytes pendientes en el bloque actual, tomando el
+     * siguiente de la cola si hace falta. Retorna false al llegar al final.
+     */
+    private boolean hay_datos() throws IOException
+    {
+        while(actual != FIN && (actual == null || pos == actual.length))
+        {
+            try
+            {
+                actual = bloques.take();
+                pos = 0;
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("read(): lectura interrumpida");
+            }
+        }
+        if(actual == FIN && error != null) throw error;
+        return actual != FIN;
+    }
+
+    /*
+     * Cuerpo del hilo lector: llena bloques con el contenido del origen hasta
+     * el final (o hasta un error) y termina encolando la marca de fin.
+     */
+    private void leer_origen(int tam_bloque)
+    {
+        try
+        {
+            while(true)
+            {
+                byte[] b = new byte[tam_bloque];
+                int n = origen.readNBytes(b, 0, tam_bloque);
+                if(n == 0) break;
+                bloques.put(n == tam_bloque ? b : Arrays.copyOf(b, n));
+                if(n < tam_bloque) break;
+            }
+        }
+        catch(IOException e)
+        {
+            error = e;
+        }
+        catch(InterruptedException e)
+        {
+            return;
+        }
+        try
+        {
+            bloques.put(FIN);
+        }
+        catch(InterruptedException e)
+        {
+            // cerrado por el consumidor: nadie espera la marca de fin...
+        }
+    }
+}
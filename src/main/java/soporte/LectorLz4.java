@@ -0,0 +1,424 @@
+package soporte;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream que descomprime al vuelo datos en formato de frame LZ4 (el que
+ * generan la herramienta lz4 y las bibliotecas compatibles), sin dependencias
+ * externas. Cada bloque se descomprime completo en un buffer que conserva los
+ * ultimos 64 KB ya entregados, que es lo que puede referenciar un bloque
+ * dependiente del anterior. Se verifican el checksum del descriptor y, si el
+ * frame los trae, los de cada bloque y el del contenido (xxHash32). Se
+ * aceptan varios frames seguidos y se saltean los frames "skippable"; los
+ * frames que requieren un diccionario externo no se soportan.
+ *
+ * Para superponer la descompresion con el procesamiento, se lo puede envolver
+ * en un LectorEnSegundoPlano.
+ */
+public class LectorLz4 extends InputStream
+{
+    // numeros magicos del frame LZ4 y de los frames que se saltean...
+    static final int MAGICO = 0x184D2204;
+    private static final int MAGICO_SKIPPABLE = 0x184D2A50;
+
+    // bytes que puede referenciar una coincidencia hacia atras...
+    private static final int VENTANA = 1 << 16;
+
+    // largo minimo de una coincidencia...
+    private static final int MIN_COINCIDENCIA = 4;
+
+    // el stream comprimido...
+    private final InputStream origen;
+
+    // configuracion del frame en curso...
+    private boolean bloques_independientes;
+    private boolean checksum_bloques;
+    private boolean checksum_contenido;
+    private long tam_contenido;
+    private int tam_max_bloque;
+
+    // el bloque comprimido leido y la salida (ventana + ultimo bloque)...
+    private byte[] comprimido = new byte[0];
+    private byte[] salida = new byte[0];
+    private int inicio;
+    private int fin;
+
+    // lo descomprimido del frame en curso y su checksum...
+    private long descomprimidos;
+    private XxHash32 hash_contenido;
+
+    // true mientras hay un frame abierto, y true al terminar el stream...
+    private boolean en_frame;
+    private boolean terminado;
+
+    /**
+     * Crea el stream que descomprime el contenido de origen.
+     * @param origen el stream con uno o mas frames LZ4.
+     * @throws NullPointerException si origen es null.
+     */
+    public LectorLz4(InputStream origen)
+    {
+        if(origen == null) throw new NullPointerException("LectorLz4(): parametro null");
+        this.origen = origen;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if(!this.hay_datos()) return -1;
+        return salida[inicio++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if(off < 0 || len < 0 || len > b.length - off) throw new IndexOutOfBoundsException("read(): rango fuera de limites...");
+        if(len == 0) return 0;
+        if(!this.hay_datos()) return -1;
+
+        int n = Math.min(len, fin - inicio);
+        System.arraycopy(salida, inicio, b, off, n);
+        inicio += n;
+        return n;
+    }
+
+    @Override
+    public int available()
+    {
+        return fin - inicio;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        terminado = true;
+        origen.close();
+    }
+
+    /*
+     * Se asegura de que haya bytes descomprimidos pendientes, descomprimiendo
+     * bloques (y abriendo frames) hasta conseguirlos. Retorna false al llegar
+     * al final del stream.
+     */
+    private boolean hay_datos() throws IOException
+    {
+        while(inicio == fin)
+        {
+            if(terminado) return false;
+            if(!en_frame)
+            {
+                if(!this.abrir_frame())
+                {
+                    terminado = true;
+                    return false;
+                }
+                continue;
+            }
+            this.leer_bloque();
+        }
+        return true;
+    }
+
+    /*
+     * Lee el encabezado del siguiente frame (salteando los skippable). Retorna
+     * false si el stream termina justo antes de un frame.
+     */
+    private boolean abrir_frame() throws IOException
+    {
+        while(true)
+        {
+            byte[] m = origen.readNBytes(4);
+            if(m.length == 0) return false;
+            if(m.length < 4) throw new EOFException("lz4: frame incompleto");
+            int magico = entero(m, 0);
+            if((magico & 0xFFFFFFF0) == MAGICO_SKIPPABLE)
+            {
+                this.saltear(entero(this.leer(4), 0) & 0xFFFFFFFFL);
+                continue;
+            }
+            if(magico != MAGICO) throw new IOException("lz4: numero magico no valido");
+            break;
+        }
+
+        byte[] d = new byte[14];
+        this.leer(d, 0, 2);
+        int flg = d[0] & 0xFF, bd = d[1] & 0xFF;
+        if((flg >>> 6) != 1) throw new IOException("lz4: version de frame no soportada");
+        if((flg & 0x02) != 0 || (bd & 0x8F) != 0) throw new IOException("lz4: descriptor no valido");
+        if((flg & 0x01) != 0) throw new IOException("lz4: los frames con diccionario no estan soportados");
+        bloques_independientes = (flg & 0x20) != 0;
+        checksum_bloques = (flg & 0x10) != 0;
+        checksum_contenido = (flg & 0x04) != 0;
+
+        int n = 2;
+        tam_contenido = -1;
+        if((flg & 0x08) != 0)
+        {
+            this.leer(d, n, 8);
+            tam_contenido = largo(d, n);
+            n += 8;
+        }
+        int hc = this.leer(1)[0] & 0xFF;
+        if(hc != ((XxHash32.hash(d, 0, n, 0) >>> 8) & 0xFF)) throw new IOException("lz4: checksum del descriptor no valido");
+
+        int codigo = (bd >>> 4) & 0x07;
+        if(codigo < 4) throw new IOException("lz4: tamanio de bloque no valido");
+        tam_max_bloque = 1 << (8 + 2 * codigo);
+        if(comprimido.length < tam_max_bloque) comprimido = new byte[tam_max_bloque];
+        if(salida.length < VENTANA + tam_max_bloque) salida = new byte[VENTANA + tam_max_bloque];
+        inicio = fin = 0;
+        descomprimidos = 0;
+        hash_contenido = checksum_contenido ? new XxHash32(0) : null;
+        en_frame = true;
+        return true;
+    }
+
+    /*
+     * Lee y descomprime el siguiente bloque del frame, o cierra el frame si
+     * llega a la marca de fin.
+     */
+    private void leer_bloque() throws IOException
+    {
+        int encabezado = entero(this.leer(4), 0);
+        if(encabezado == 0)
+        {
+            this.cerrar_frame();
+            return;
+        }
+        boolean sin_comprimir = (encabezado & 0x80000000) != 0;
+        int tam = encabezado & 0x7FFFFFFF;
+        if(tam > tam_max_bloque) throw new IOException("lz4: bloque mas grande que el maximo del frame");
+        this.leer(comprimido, 0, tam);
+        if(checksum_bloques && entero(this.leer(4), 0) != XxHash32.hash(comprimido, 0, tam, 0))
+        {
+            throw new IOException("lz4: checksum de bloque no valido");
+        }
+
+        // se conserva la ventana (los ultimos 64 KB) al principio de la salida...
+        int conservar = bloques_independientes ? 0 : Math.min(fin, VENTANA);
+        System.arraycopy(salida, fin - conservar, salida, 0, conservar);
+        inicio = fin = conservar;
+
+        if(sin_comprimir)
+        {
+            System.arraycopy(comprimido, 0, salida, fin, tam);
+            fin += tam;
+        }
+        else
+        {
+            fin = this.descomprimir(tam, fin);
+        }
+
+        descomprimidos += fin - inicio;
+        if(hash_contenido != null) hash_contenido.update(salida, inicio, fin - inicio);
+    }
+
+    /*
+     * Descomprime las secuencias del bloque (los primeros tam bytes de
+     * comprimido) en salida a partir de la posicion d. Retorna la posicion
+     * siguiente al ultimo byte escrito.
+     */
+    private int descomprimir(int tam, int d) throws IOException
+    {
+        int limite = inicio + tam_max_bloque;
+        int s = 0;
+        while(true)
+        {
+            if(s >= tam) throw new IOException("lz4: bloque truncado");
+            int token = comprimido[s++] & 0xFF;
+
+            // literales...
+            int literales = token >>> 4;
+            if(literales == 15)
+            {
+                int b;
+                do
+                {
+                    if(s >= tam) throw new IOException("lz4: bloque truncado");
+                    b = comprimido[s++] & 0xFF;
+                    literales += b;
+                }
+                while(b == 255);
+            }
+            if(literales > tam - s || literales > limite - d) throw new IOException("lz4: literales fuera del bloque");
+            System.arraycopy(comprimido, s, salida, d, literales);
+            s += literales;
+            d += literales;
+
+            // la ultima secuencia termina despues de los literales...
+            if(s == tam) return d;
+
+            // coincidencia...
+            if(s + 2 > tam) throw new IOException("lz4: bloque truncado");
+            int offset = (comprimido[s] & 0xFF) | (comprimido[s + 1] & 0xFF) << 8;
+            s += 2;
+            if(offset == 0 || offset > d) throw new IOException("lz4: desplazamiento no valido");
+            int largo = token & 0x0F;
+            if(largo == 15)
+            {
+                int b;
+                do
+                {
+                    if(s >= tam) throw new IOException("lz4: bloque truncado");
+                    b = comprimido[s++] & 0xFF;
+                    largo += b;
+                }
+                while(b == 255);
+            }
+            largo += MIN_COINCIDENCIA;
+            if(largo > limite - d) throw new IOException("lz4: coincidencia fuera del bloque");
+
+            int desde = d - offset;
+            if(offset >= largo)
+            {
+                System.arraycopy(salida, desde, salida, d, largo);
+                d += largo;
+            }
+            else
+            {
+                // la coincidencia se superpone con lo que se esta escribiendo...
+                for(int i = 0; i < largo; i++) { salida[d++] = salida[desde + i]; }
+            }
+        }
+    }
+
+    /*
+     * Verifica el tamanio y el checksum del contenido al terminar un frame.
+     */
+    private void cerrar_frame() throws IOException
+    {
+        if(checksum_contenido && entero(this.leer(4), 0) != hash_contenido.digest())
+        {
+            throw new IOException("lz4: checksum del contenido no valido");
+        }
+        if(tam_contenido >= 0 && tam_contenido != descomprimidos)
+        {
+            throw new IOException("lz4: el contenido no tiene el tamanio indicado en el frame");
+        }
+        en_frame = false;
+        inicio = fin = 0;
+    }
+
+    private byte[] leer(int n) throws IOException
+    {
+        byte[] b = new byte[n];
+        this.leer(b, 0, n);
+        return b;
+    }
+
+    private void leer(byte[] b, int off, int n) throws IOException
+    {
+        if(origen.readNBytes(b, off, n) != n) throw new EOFException("lz4: frame incompleto");
+    }
+
+    private void saltear(long n) throws IOException
+    {
+        while(n > 0)
+        {
+            long s = origen.skip(n);
+            if(s <= 0)
+            {
+                if(origen.read() < 0) throw new EOFException("lz4: frame skippable incompleto");
+                s = 1;
+            }
+            n -= s;
+        }
+    }
+
+    private static int entero(byte[] b, int i)
+    {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    private static long largo(byte[] b, int i)
+    {
+        return (entero(b, i) & 0xFFFFFFFFL) | (long) entero(b, i + 4) << 32;
+    }
+
+    /*
+     * xxHash32 (el checksum que usa el formato de frame LZ4), en una pasada
+     * con hash() o incremental con update() y digest().
+     */
+    static final class XxHash32
+    {
+        private static final int P1 = 0x9E3779B1;
+        private static final int P2 = 0x85EBCA77;
+        private static final int P3 = 0xC2B2AE3D;
+        private static final int P4 = 0x27D4EB2F;
+        private static final int P5 = 0x165667B1;
+
+        private final int seed;
+        private int v1, v2, v3, v4;
+        private final byte[] pendiente = new byte[16];
+        private int n_pendiente;
+        private long total;
+
+        XxHash32(int seed)
+        {
+            this.seed = seed;
+            v1 = seed + P1 + P2;
+            v2 = seed + P2;
+            v3 = seed;
+            v4 = seed - P1;
+        }
+
+        static int hash(byte[] b, int off, int len, int seed)
+        {
+            XxHash32 h = new XxHash32(seed);
+            h.update(b, off, len);
+            return h.digest();
+        }
+
+        void update(byte[] b, int off, int len)
+        {
+            total += len;
+            if(n_pendiente > 0)
+            {
+                int n = Math.min(len, 16 - n_pendiente);
+                System.arraycopy(b, off, pendiente, n_pendiente, n);
+                n_pendiente += n;
+                off += n;
+                len -= n;
+                if(n_pendiente < 16) return;
+                this.franja(pendiente, 0);
+                n_pendiente = 0;
+            }
+            for(; len >= 16; off += 16, len -= 16) { this.franja(b, off); }
+            System.arraycopy(b, off, pendiente, 0, len);
+            n_pendiente = len;
+        }
+
+        int digest()
+        {
+            int h = total >= 16
+                    ? Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18)
+                    : seed + P5;
+            h += (int) total;
+            int i = 0;
+            for(; i + 4 <= n_pendiente; i += 4)
+            {
+                h = Integer.rotateLeft(h + entero(pendiente, i) * P3, 17) * P4;
+            }
+            for(; i < n_pendiente; i++)
+            {
+                h = Integer.rotateLeft(h + (pendiente[i] & 0xFF) * P5, 11) * P1;
+            }
+            h ^= h >>> 15;
+            h *= P2;
+            h ^= h >>> 13;
+            h *= P3;
+            h ^= h >>> 16;
+            return h;
+        }
+
+        private void franja(byte[] b, int i)
+        {
+            v1 = Integer.rotateLeft(v1 + entero(b, i) * P2, 13) * P1;
+            v2 = Integer.rotateLeft(v2 + entero(b, i + 4) * P2, 13) * P1;
+            v3 = Integer.rotateLeft(v3 + entero(b, i + 8) * P2, 13) * P1;
+            v4 = Integer.rotateLeft(v4 + entero(b, i + 12) * P2, 13) * P1;
+        }
+    }
+}
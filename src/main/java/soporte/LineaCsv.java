@@ -0,0 +1,209 @@
+package soporte;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Una linea del Dataset con sus campos ubicados por posicion: se guardan el
+ * texto y el inicio de cada campo, sin crear una subcadena por campo ni usar
+ * expresiones regulares. Es el separador de campos del parser de
+ * CargaEnEtapas, y lo usan tambien los recorridos de una sola pasada
+ * (Dataset.leer(), la agregacion externa y el listado ordenado), de forma que
+ * todos los caminos de carga interpretan las lineas de la misma manera.
+ *
+ * Se ubican los primeros CAMPOS campos (hasta No_of_Votes inclusive); lo que
+ * sigue a la coma del ultimo queda fuera de la linea. Una instancia se reusa
+ * para todas las lineas de un recorrido, por lo que quien necesite conservar
+ * un campo debe obtenerlo con campo().
+ */
+final class LineaCsv
+{
+    // cantidad de campos que se ubican (hasta No_of_Votes inclusive)...
+    static final int CAMPOS = 12;
+
+    // campos usados por la carga...
+    static final int TITULO = 0;
+    static final int GENEROS = 4;
+    static final int PUNTUACION = 5;
+    static final int ESTRELLA1 = 7;
+    static final int VOTOS = 11;
+
+    // tamanio de los bloques de lectura de recorrer()...
+    private static final int TAM_BLOQUE = 1 << 16;
+
+    // el texto que contiene la linea...
+    private String texto;
+
+    // en campos[i] el inicio del campo i, y en campos[i + 1] - 1 su fin...
+    private final int[] campos = new int[CAMPOS + 1];
+
+    /**
+     * Ubica los campos de la linea [desde, hasta) del texto (separados por
+     * comas).
+     * @param texto el texto que contiene la linea.
+     * @param desde el indice del primer caracter de la linea.
+     * @param hasta el indice siguiente al ultimo caracter de la linea (sin el
+     *        fin de linea).
+     * @throws IllegalArgumentException si la linea tiene menos de CAMPOS
+     *         campos.
+     */
+    void ubicar(String texto, int desde, int hasta)
+    {
+        int n = 0;
+        campos[n++] = desde;
+        for(int i = desde; i < hasta && n <= CAMPOS; i++)
+        {
+            if(texto.charAt(i) == ',') campos[n++] = i + 1;
+        }
+        if(n <= CAMPOS)
+        {
+            if(n < CAMPOS) throw new IllegalArgumentException("linea con menos campos de los esperados: " + texto.substring(desde, hasta));
+            campos[n] = hasta + 1;
+        }
+        this.texto = texto;
+    }
+
+    /**
+     * Retorna el texto que contiene la linea (para leer un campo sin copiarlo,
+     * entre inicio() y fin()).
+     * @return el texto de la linea.
+     */
+    String texto()
+    {
+        return texto;
+    }
+
+    /**
+     * Retorna el indice del primer caracter del campo i en texto().
+     * @param i el numero de campo (de 0 a CAMPOS - 1).
+     * @return el inicio del campo.
+     */
+    int inicio(int i)
+    {
+        return campos[i];
+    }
+
+    /**
+     * Retorna el indice siguiente al ultimo caracter del campo i en texto().
+     * @param i el numero de campo (de 0 a CAMPOS - 1).
+     * @return el fin del campo.
+     */
+    int fin(int i)
+    {
+        return campos[i + 1] - 1;
+    }
+
+    /**
+     * Retorna una copia del campo i.
+     * @param i el numero de campo (de 0 a CAMPOS - 1).
+     * @return el contenido del campo.
+     */
+    String campo(int i)
+    {
+        return texto.substring(campos[i], campos[i + 1] - 1);
+    }
+
+    /**
+     * Retorna la puntuacion de la serie en decimas.
+     * @param redondeo la forma de llevar la puntuacion a decimas.
+     * @return la puntuacion en decimas.
+     * @throws NumberFormatException si la puntuacion no es un numero valido.
+     */
+    short decimas(ParserNumeros.Redondeo redondeo)
+    {
+        return ParserNumeros.parseDecimas(texto, this.inicio(PUNTUACION), this.fin(PUNTUACION), redondeo);
+    }
+
+    /**
+     * Retorna la cantidad de votos de la serie (0 si el campo esta vacio).
+     * @return la cantidad de votos.
+     * @throws NumberFormatException si el campo no es un numero valido.
+     */
+    long votos()
+    {
+        return this.fin(VOTOS) > this.inicio(VOTOS) ? ParserNumeros.parseLong(texto, this.inicio(VOTOS), this.fin(VOTOS)) : 0;
+    }
+
+    /**
+     * Retorna el fin del genero que empieza en la posicion i del campo de
+     * generos (separados por '|'), o -1 si ahi ya no empieza ninguno. Se
+     * recorren asi, sin crear un arreglo, empezando por inicio(GENEROS) y
+     * siguiendo por el fin anterior mas uno. Como en split(), un genero vacio
+     * al final del campo se descarta (salvo que sea el unico).
+     * @param i la posicion donde empieza el genero.
+     * @return el indice siguiente al ultimo caracter del genero, o -1.
+     */
+    int finGenero(int i)
+    {
+        int fin_generos = this.fin(GENEROS);
+        if(i > fin_generos) return -1;
+        int j = texto.indexOf('|', i);
+        if(j == -1 || j > fin_generos) j = fin_generos;
+        if(i == j && j == fin_generos && i != this.inicio(GENEROS)) return -1;
+        return j;
+    }
+
+    /**
+     * Recorre las lineas del stream y entrega cada una, con sus campos
+     * ubicados, a la accion indicada (siempre la misma instancia). El stream
+     * se lee en bloques que terminan en un fin de linea, como en la etapa de
+     * lectura de CargaEnEtapas, y se saltean las lineas vacias.
+     * @param in el stream a recorrer (no se cierra).
+     * @param charset la codificacion del stream.
+     * @param titulos si la primera linea es la de titulos (y se saltea).
+     * @param accion la accion a ejecutar con cada linea.
+     * @throws IOException si falla la lectura del stream.
+     * @throws IllegalArgumentException si una linea tiene menos campos de los
+     *         esperados.
+     */
+    static void recorrer(InputStream in, Charset charset, boolean titulos, Consumer<LineaCsv> accion) throws IOException
+    {
+        LineaCsv linea = new LineaCsv();
+        byte[] buff = new byte[TAM_BLOQUE];
+        int usados = 0;
+        boolean primera = titulos;
+
+        while(true)
+        {
+            if(usados == buff.length) buff = Arrays.copyOf(buff, buff.length * 2);
+            int n = in.readNBytes(buff, usados, buff.length - usados);
+            usados += n;
+            boolean fin = n == 0;
+
+            int corte = fin ? usados : ultimo_fin_de_linea(buff, usados) + 1;
+            if(corte > 0)
+            {
+                String texto = new String(buff, 0, corte, charset);
+                int inicio = 0;
+                while(inicio < texto.length())
+                {
+                    int f = texto.indexOf('\n', inicio);
+                    if(f == -1) f = texto.length();
+                    int hasta = f > inicio && texto.charAt(f - 1) == '\r' ? f - 1 : f;
+                    if(primera) primera = false;
+                    else if(hasta > inicio)
+                    {
+                        linea.ubicar(texto, inicio, hasta);
+                        accion.accept(linea);
+                    }
+                    inicio = f + 1;
+                }
+                System.arraycopy(buff, corte, buff, 0, usados - corte);
+                usados -= corte;
+            }
+            if(fin) break;
+        }
+    }
+
+    private static int ultimo_fin_de_linea(byte[] b, int hasta)
+    {
+        for(int i = hasta - 1; i >= 0; i--)
+        {
+            if(b[i] == '\n') return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,177 @@
+package soporte;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Listado de todas las series de uno o mas Dataset ordenado por puntuacion,
+ * por titulo o por cantidad de votos, sin necesidad de que el catalogo entre
+ * en memoria: las filas se ordenan con un OrdenamientoExterno, en corridas de
+ * tamanio acotado. De cada serie se guarda solo lo que se lista (titulo,
+ * generos, puntuacion en decimas y votos).
+ */
+public class ListadoOrdenado
+{
+    // bytes estimados por fila en memoria, ademas de los caracteres de sus textos...
+    private static final int BYTES_POR_FILA = 96;
+
+    /**
+     * Criterios de orden del listado. Los numericos van de mayor a menor; a
+     * igual valor, se desempata por titulo.
+     */
+    public enum Criterio
+    {
+        PUNTUACION(Comparator.comparingInt((Fila f) -> -f.decimas).thenComparingLong(f -> -f.votos).thenComparing(f -> f.titulo)),
+        TITULO(Comparator.comparing((Fila f) -> f.titulo)),
+        VOTOS(Comparator.comparingLong((Fila f) -> -f.votos).thenComparing(f -> f.titulo));
+
+        private final Comparator<Fila> orden;
+
+        Criterio(Comparator<Fila> orden)
+        {
+            this.orden = orden;
+        }
+    }
+
+    private final OrdenamientoExterno<Fila> ordenamiento;
+
+    /**
+     * Crea el listado con el criterio indicado, usando a lo sumo (en forma
+     * aproximada) memoria bytes para las filas de cada corrida.
+     * @param criterio el criterio de orden.
+     * @param memoria los bytes disponibles para ordenar en memoria.
+     * @throws IllegalArgumentException si memoria no es positiva.
+     */
+    public ListadoOrdenado(Criterio criterio, long memoria)
+    {
+        if(memoria <= 0) throw new IllegalArgumentException("ListadoOrdenado(): memoria no valida");
+        int filas = (int) Math.max(1000, Math.min(Integer.MAX_VALUE - 8, memoria / (BYTES_POR_FILA + 64)));
+        this.ordenamiento = new OrdenamientoExterno<>(criterio.orden, new FormatoFila(), filas, Fila[]::new);
+    }
+
+    /**
+     * Agrega al listado todas las series del Dataset (una por fila). Si falla,
+     * el listado ya no puede usarse y se borran sus archivos temporales.
+     * @param dataset el Dataset.
+     * @throws IOException si falla la lectura del Dataset o la escritura de
+     *         una corrida.
+     */
+    public void agregar(Dataset dataset) throws IOException
+    {
+        try
+        {
+            dataset.recorrer(linea -> {
+                try
+                {
+                    ordenamiento.agregar(new Fila(linea, dataset.getRedondeo()));
+                }
+                catch(IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch(UncheckedIOException e)
+        {
+            ordenamiento.close();
+            throw e.getCause();
+        }
+        catch(IOException | RuntimeException e)
+        {
+            ordenamiento.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Recorre las series en orden. Solo puede hacerse una vez.
+     * @param accion la accion a ejecutar con cada serie.
+     * @throws IOException si falla la lectura de las corridas.
+     */
+    public void recorrer(Consumer<Fila> accion) throws IOException
+    {
+        ordenamiento.ordenar(accion);
+    }
+
+    /**
+     * Retorna la cantidad de series agregadas.
+     * @return la cantidad de series.
+     */
+    public long size()
+    {
+        return ordenamiento.size();
+    }
+
+    /**
+     * Una serie del listado.
+     */
+    public static class Fila
+    {
+        private final String titulo;
+        private final String generos;
+        private final short decimas;
+        private final long votos;
+
+        private Fila(String titulo, String generos, short decimas, long votos)
+        {
+            this.titulo = titulo;
+            this.generos = generos;
+            this.decimas = decimas;
+            this.votos = votos;
+        }
+
+        private Fila(LineaCsv linea, ParserNumeros.Redondeo redondeo)
+        {
+            this(linea.campo(LineaCsv.TITULO), linea.campo(LineaCsv.GENEROS), linea.decimas(redondeo), linea.votos());
+        }
+
+        public String getTitulo()
+        {
+            return titulo;
+        }
+
+        public String getGeneros()
+        {
+            return generos;
+        }
+
+        /**
+         * Retorna la puntuacion con un decimal, como figura en el Dataset.
+         * @return la puntuacion (por ejemplo, "9.3").
+         */
+        public String getPuntuacion()
+        {
+            return ParserNumeros.formatDecimas(decimas);
+        }
+
+        public long getVotos()
+        {
+            return votos;
+        }
+    }
+
+    /*
+     * Formato binario de una fila en las corridas.
+     */
+    private static class FormatoFila implements OrdenamientoExterno.Formato<Fila>
+    {
+        @Override
+        public void escribir(DataOutput out, Fila f) throws IOException
+        {
+            out.writeUTF(f.titulo);
+            out.writeUTF(f.generos);
+            out.writeShort(f.decimas);
+            out.writeLong(f.votos);
+        }
+
+        @Override
+        public Fila leer(DataInput in) throws IOException
+        {
+            return new Fila(in.readUTF(), in.readUTF(), in.readShort(), in.readLong());
+        }
+    }
+}
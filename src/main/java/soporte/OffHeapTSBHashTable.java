@@ -0,0 +1,627 @@
+package soporte;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.function.BiConsumer;
+
+/**
+ * Tabla hash con claves String y valores de ancho fijo (un registro de width
+ * long por clave), implementada con el mismo modelo de Direccionamiento
+ * Abierto que ObjectIntTSBHashTable (tamanio primo, exploracion cuadratica,
+ * tumbas y factor de carga 0.5), pero con todo su contenido fuera del heap,
+ * en ByteBuffer directos:
+ *
+ * - las casillas: estado, hash de la clave, referencia a la clave y el
+ *   registro, una detras de otra en paginas de a lo sumo 64 MB;
+ * - las claves: en UTF-8 precedidas por su largo, en un area de paginas que
+ *   solo crece (las claves eliminadas se descartan en el siguiente rehashing).
+ *
+ * En el heap quedan solo la tabla y los ByteBuffer de sus paginas, sin importar
+ * cuantas claves contenga, por lo que el recolector de basura no tiene que
+ * recorrer un objeto Entry (ni un String) por clave. A cambio, get() y put()
+ * codifican la clave en UTF-8 y recorrer la tabla decodifica cada clave.
+ *
+ * La memoria de las paginas se libera cuando el recolector descarta sus
+ * ByteBuffer (luego de clear() o de un rehashing, o al descartar la tabla).
+ * Con width = 0 la tabla funciona como un conjunto de cadenas. No se admiten
+ * claves null. La tabla no es segura para ser usada desde varios hilos.
+ */
+public class OffHeapTSBHashTable
+{
+    //************************ Constantes (privadas o publicas).
+
+    // estados en los que puede estar una casilla (los mismos de TSBHashTableDA)...
+    private static final int OPEN = TSBHashTableDA.OPEN;
+    private static final int CLOSED = TSBHashTableDA.CLOSED;
+    private static final int TOMBSTONE = TSBHashTableDA.TOMBSTONE;
+
+    // desplazamientos de cada dato dentro de una casilla...
+    private static final int STATE = 0;
+    private static final int HASH = 4;
+    private static final int KEY = 8;
+    private static final int RECORD = 16;
+
+    // tamanio maximo de una pagina y tamanio de la primera pagina de claves...
+    private static final int PAGE_BYTES = 1 << 26;
+    private static final int FIRST_KEY_PAGE = 1 << 16;
+
+    //************************ Atributos privados (estructurales).
+
+    // la cantidad de long de cada registro y el tamanio de cada casilla...
+    private final int width;
+    private final int slot_size;
+    private final int slots_per_page;
+
+    // las paginas de casillas y la cantidad total de casillas...
+    private ByteBuffer[] slots;
+    private int length;
+
+    // las paginas de claves, cuantas se usan y la posicion libre en la ultima...
+    private ByteBuffer[] key_pages;
+    private int key_page_count;
+    private int key_position;
+
+    // el tamanio inicial de la tabla (tamanio con el que fue creada)...
+    private int initial_capacity;
+
+    // la cantidad de claves y de casillas marcadas como tumba...
+    private int count;
+    private int tombstones;
+
+    //************************ Atributos protegidos (control de iteracion).
+
+    // conteo de operaciones de cambio de tamanio (fail-fast).
+    protected transient int modCount;
+
+
+    //************************ Constructores.
+
+    /**
+     * Crea una tabla vacia con registros de width long, con la capacidad
+     * inicial igual a 11.
+     * @param width la cantidad de long de cada registro (0 o mas).
+     * @throws IllegalArgumentException si width es negativo o demasiado grande.
+     */
+    public OffHeapTSBHashTable(int width)
+    {
+        this(width, 11);
+    }
+
+    /**
+     * Crea una tabla vacia con registros de width long, con la capacidad
+     * inicial indicada (ajustada como en TSBHashTableDA: si es menor o igual a
+     * 0 se ajusta a 11, y si no es prima al primer primo mayor).
+     * @param width la cantidad de long de cada registro (0 o mas).
+     * @param initial_capacity la capacidad inicial de la tabla.
+     * @throws IllegalArgumentException si width es negativo o demasiado grande.
+     */
+    public OffHeapTSBHashTable(int width, int initial_capacity)
+    {
+        if(width < 0 || width > 1024) throw new IllegalArgumentException("OffHeapTSBHashTable(): ancho de registro no valido");
+        if(initial_capacity <= 0) { initial_capacity = 11; }
+        else if(!TSBHashTableDA.isPrime(initial_capacity))
+        {
+            initial_capacity = TSBHashTableDA.nextPrime(initial_capacity);
+        }
+
+        this.width = width;
+        this.slot_size = RECORD + 8 * width;
+        this.slots_per_page = PAGE_BYTES / slot_size;
+        this.initial_capacity = initial_capacity;
+        this.open_table(initial_capacity);
+        this.open_keys(FIRST_KEY_PAGE);
+        this.count = 0;
+        this.tombstones = 0;
+        this.modCount = 0;
+    }
+
+    /**
+     * Crea una tabla vacia dimensionada para contener expected_size claves sin
+     * necesidad de ningun rehashing.
+     * @param width la cantidad de long de cada registro (0 o mas).
+     * @param expected_size la cantidad de claves que se espera insertar.
+     * @return una tabla vacia con la capacidad ya ajustada.
+     */
+    public static OffHeapTSBHashTable withExpectedSize(int width, int expected_size)
+    {
+        return new OffHeapTSBHashTable(width, TSBHashTableDA.capacityFor(expected_size, 0.5f));
+    }
+
+
+    //************************ Operaciones basicas.
+
+    /**
+     * Retorna la cantidad de claves contenidas en la tabla.
+     * @return la cantidad de claves de la tabla.
+     */
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Determina si la tabla esta vacia.
+     * @return true si la tabla esta vacia.
+     */
+    public boolean isEmpty()
+    {
+        return this.count == 0;
+    }
+
+    /**
+     * Retorna la cantidad de long de cada registro.
+     * @return el ancho de los registros.
+     */
+    public int getWidth()
+    {
+        return this.width;
+    }
+
+    /**
+     * Retorna la cantidad de bytes reservados fuera del heap por la tabla.
+     * @return los bytes de todas las paginas de casillas y de claves.
+     */
+    public long memoryUsed()
+    {
+        long total = 0;
+        for(ByteBuffer p : slots) { total += p.capacity(); }
+        for(int i = 0; i < key_page_count; i++) { total += key_pages[i].capacity(); }
+        return total;
+    }
+
+    /**
+     * Determina si la clave key esta en la tabla.
+     * @param key la clave a buscar.
+     * @return true si la clave esta en la tabla.
+     * @throws NullPointerException si la clave es null.
+     */
+    public boolean containsKey(String key)
+    {
+        return this.search_for_index(key, this.encode(key)) != -1;
+    }
+
+    /**
+     * Copia en record el registro asociado a la clave key.
+     * @param key la clave a buscar.
+     * @param record el arreglo donde se copia el registro (de al menos width
+     *        elementos).
+     * @return true si la clave esta en la tabla (si no, record no se modifica).
+     * @throws NullPointerException si la clave es null.
+     */
+    public boolean get(String key, long[] record)
+    {
+        int pos = this.search_for_index(key, this.encode(key));
+        if(pos == -1) { return false; }
+        this.read_record(pos, record);
+        return true;
+    }
+
+    /**
+     * Retorna el campo field del registro asociado a la clave key, o 0 si la
+     * clave no esta en la tabla.
+     * @param key la clave a buscar.
+     * @param field el numero de campo (0 a width - 1).
+     * @return el valor del campo, o 0 si la clave no existe.
+     * @throws NullPointerException si la clave es null.
+     * @throws IndexOutOfBoundsException si field esta fuera de rango.
+     */
+    public long get(String key, int field)
+    {
+        this.check_field(field);
+        int pos = this.search_for_index(key, this.encode(key));
+        return pos != -1 ? this.page(pos).getLong(this.offset(pos) + RECORD + 8 * field) : 0;
+    }
+
+    /**
+     * Asocia el registro record con la clave key. Si la clave ya estaba en la
+     * tabla, su registro anterior es reemplazado.
+     * @param key la clave del par a agregar.
+     * @param record el registro (de width elementos; null equivale a todos 0).
+     * @return true si la clave no estaba en la tabla.
+     * @throws NullPointerException si la clave es null.
+     * @throws IllegalArgumentException si record no tiene width elementos.
+     */
+    public boolean put(String key, long[] record)
+    {
+        if(record != null && record.length != width) throw new IllegalArgumentException("put(): el registro no tiene " + width + " campos");
+        byte[] bytes = this.encode(key);
+        int pos = this.search_for_slot(key, bytes);
+        boolean nueva = pos < 0;
+        if(nueva) { pos = this.insert(-pos - 1, key, bytes); }
+        this.write_record(pos, record);
+        return nueva;
+    }
+
+    /**
+     * Suma incr al campo field del registro asociado a la clave key. Si la
+     * clave no estaba en la tabla, se agrega con su registro en 0 antes de
+     * sumar. Es la operacion tipica de un contador, resuelta con una sola
+     * busqueda.
+     * @param key la clave cuyo registro se modifica.
+     * @param field el numero de campo (0 a width - 1).
+     * @param incr el valor a sumar.
+     * @return el nuevo valor del campo.
+     * @throws NullPointerException si la clave es null.
+     * @throws IndexOutOfBoundsException si field esta fuera de rango.
+     */
+    public long addTo(String key, int field, long incr)
+    {
+        this.check_field(field);
+        byte[] bytes = this.encode(key);
+        int pos = this.search_for_slot(key, bytes);
+        if(pos < 0)
+        {
+            pos = this.insert(-pos - 1, key, bytes);
+            this.write_record(pos, null);
+        }
+        ByteBuffer p = this.page(pos);
+        int at = this.offset(pos) + RECORD + 8 * field;
+        long v = p.getLong(at) + incr;
+        p.putLong(at, v);
+        return v;
+    }
+
+    /**
+     * Elimina de la tabla la clave key (y su registro). El metodo no hace nada
+     * si la clave no esta en la tabla.
+     * @param key la clave a eliminar.
+     * @return true si la clave estaba en la tabla.
+     * @throws NullPointerException si la clave es null.
+     */
+    public boolean remove(String key)
+    {
+        int pos = this.search_for_index(key, this.encode(key));
+        if(pos == -1) { return false; }
+
+        this.page(pos).putInt(this.offset(pos) + STATE, TOMBSTONE);
+        this.count--;
+        this.tombstones++;
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * Elimina el contenido de la tabla, de forma de dejarla vacia y con el
+     * tamanio que tuvo al ser creada.
+     */
+    public void clear()
+    {
+        this.open_table(initial_capacity);
+        this.open_keys(FIRST_KEY_PAGE);
+        this.count = 0;
+        this.tombstones = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Asegura que la tabla pueda contener al menos min_size claves sin que
+     * ninguna insercion posterior dispare un rehashing.
+     * @param min_size la cantidad de claves que la tabla debe poder contener.
+     */
+    public void ensureCapacity(int min_size)
+    {
+        int new_length = TSBHashTableDA.capacityFor(min_size, 0.5f);
+        if(new_length > this.length) { this.rehash(new_length); }
+    }
+
+
+    //************************ Recorrido.
+
+    /**
+     * Aplica la accion indicada a cada par (key, record) de la tabla, en el
+     * orden en que aparecen en las casillas. El arreglo record se reutiliza
+     * entre un par y el siguiente: si la accion necesita conservarlo, debe
+     * copiarlo.
+     * @param action la accion a aplicar sobre cada par.
+     * @throws NullPointerException si action es null.
+     * @throws ConcurrentModificationException si la tabla cambia
+     *         su estructura durante el recorrido.
+     */
+    public void forEach(BiConsumer<String, long[]> action)
+    {
+        if(action == null) throw new NullPointerException("forEach(): parametro null");
+        int expected_modCount = this.modCount;
+        long[] record = new long[width];
+        for(int i = 0; i < length; i++)
+        {
+            if(this.page(i).getInt(this.offset(i) + STATE) != CLOSED) { continue; }
+            this.read_record(i, record);
+            action.accept(this.read_key(i), record);
+            if(this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("forEach(): modificacion inesperada de tabla...");
+            }
+        }
+    }
+
+    /**
+     * Retorna un arreglo con todas las claves de la tabla.
+     * @return las claves, en el orden en que aparecen en las casillas.
+     */
+    public String[] keys()
+    {
+        String[] r = new String[count];
+        int n = 0;
+        for(int i = 0; i < length; i++)
+        {
+            if(this.page(i).getInt(this.offset(i) + STATE) == CLOSED) { r[n++] = this.read_key(i); }
+        }
+        return r;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder cad = new StringBuilder("[");
+        this.forEach((k, r) -> cad.append('(').append(k).append(", ").append(Arrays.toString(r)).append(") "));
+        cad.append("]");
+        return cad.toString();
+    }
+
+
+    //************************ Metodos privados.
+
+    /*
+     * Funcion hash. Toma el hash de una clave y un tamanio de tabla t, y
+     * calcula y retorna un indice valido para esa clave dado ese tamanio.
+     */
+    private static int h(int hash, int t)
+    {
+        return (hash & 0x7FFFFFFF) % t;
+    }
+
+    private byte[] encode(String key)
+    {
+        if(key == null) throw new NullPointerException("parametro null");
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Busca la clave aplicando exploracion cuadratica. Si la encuentra,
+     * retorna su posicion. Si no la encuentra, retorna -1.
+     */
+    private int search_for_index(String key, byte[] bytes)
+    {
+        int hash = key.hashCode();
+        int y = h(hash, length);
+        for(int j = 1; ; j++)
+        {
+            ByteBuffer p = this.page(y);
+            int at = this.offset(y);
+            int state = p.getInt(at + STATE);
+            if(state == OPEN) { return -1; }
+            if(state == CLOSED && p.getInt(at + HASH) == hash && this.key_equals(p.getLong(at + KEY), bytes)) { return y; }
+
+            // (ik + j^2) - (ik + (j-1)^2) = 2j - 1...
+            y = (int) ((y + 2L * j - 1) % length);
+        }
+    }
+
+    /*
+     * Busca la clave aplicando exploracion cuadratica. Si la encuentra,
+     * retorna su posicion (un valor >= 0). Si no la encuentra, retorna
+     * -(p + 1), siendo p la primera casilla libre (abierta o tumba) donde
+     * podria insertarse.
+     */
+    private int search_for_slot(String key, byte[] bytes)
+    {
+        int hash = key.hashCode();
+        int y = h(hash, length);
+        int free = -1;
+        for(int j = 1; ; j++)
+        {
+            ByteBuffer p = this.page(y);
+            int at = this.offset(y);
+            int state = p.getInt(at + STATE);
+            if(state == OPEN) { return -((free != -1 ? free : y) + 1); }
+            if(state == TOMBSTONE) { if(free == -1) { free = y; } }
+            else if(p.getInt(at + HASH) == hash && this.key_equals(p.getLong(at + KEY), bytes)) { return y; }
+
+            y = (int) ((y + 2L * j - 1) % length);
+        }
+    }
+
+    /*
+     * Inserta una clave nueva en la casilla libre pos (obtenida con
+     * search_for_slot()), haciendo antes el rehashing si corresponde, y
+     * retorna la casilla donde quedo.
+     */
+    private int insert(int pos, String key, byte[] bytes)
+    {
+        // las tumbas tambien cuentan: de ellas depende que la exploracion termine...
+        ByteBuffer p = this.page(pos);
+        if(p.getInt(this.offset(pos) + STATE) == OPEN && (this.count + this.tombstones + 1) > 0.5f * length)
+        {
+            this.rehash();
+            pos = -this.search_for_slot(key, bytes) - 1;
+            p = this.page(pos);
+        }
+
+        int at = this.offset(pos);
+        if(p.getInt(at + STATE) == TOMBSTONE) { this.tombstones--; }
+        p.putInt(at + STATE, CLOSED);
+        p.putInt(at + HASH, key.hashCode());
+        p.putLong(at + KEY, this.store_key(bytes));
+        this.count++;
+        this.modCount++;
+        return pos;
+    }
+
+    /*
+     * Reorganiza la tabla. Si la mayor parte de las casillas usadas son tumbas
+     * alcanza con reorganizar con el mismo tamanio; si no, se crece al primer
+     * primo mayor o igual al 150% del tamanio actual.
+     */
+    private void rehash()
+    {
+        if(this.tombstones >= this.count) { this.rehash(length); }
+        else { this.rehash(TSBHashTableDA.nextPrime((int) (length * 1.5f))); }
+    }
+
+    /*
+     * Redimensiona la tabla al tamanio new_length (que se asume primo) y
+     * reubica en nuevas paginas todas las claves con sus registros. Las claves
+     * se copian a un area nueva, descartando las que fueron eliminadas.
+     */
+    private void rehash(int new_length)
+    {
+        ByteBuffer[] old_slots = this.slots;
+        int old_length = this.length;
+        ByteBuffer[] old_keys = this.key_pages;
+
+        this.open_table(new_length);
+        this.open_keys(Math.max(FIRST_KEY_PAGE, this.key_bytes(old_keys)));
+        this.tombstones = 0;
+        this.modCount++;
+
+        for(int i = 0; i < old_length; i++)
+        {
+            ByteBuffer op = old_slots[i / slots_per_page];
+            int oat = (i % slots_per_page) * slot_size;
+            if(op.getInt(oat + STATE) != CLOSED) { continue; }
+
+            int hash = op.getInt(oat + HASH);
+            int y = h(hash, new_length);
+            for(int j = 1; this.page(y).getInt(this.offset(y) + STATE) != OPEN; j++)
+            {
+                y = (int) ((y + 2L * j - 1) % new_length);
+            }
+
+            ByteBuffer p = this.page(y);
+            int at = this.offset(y);
+            p.putInt(at + STATE, CLOSED);
+            p.putInt(at + HASH, hash);
+            p.putLong(at + KEY, this.store_key(read_bytes(old_keys, op.getLong(oat + KEY))));
+            for(int f = 0; f < width; f++)
+            {
+                p.putLong(at + RECORD + 8 * f, op.getLong(oat + RECORD + 8 * f));
+            }
+        }
+    }
+
+    /*
+     * Crea las paginas de casillas para una tabla de new_length casillas
+     * (la memoria de un ByteBuffer directo nuevo esta en cero, es decir, todas
+     * las casillas quedan abiertas).
+     */
+    private void open_table(int new_length)
+    {
+        int pages = (new_length + slots_per_page - 1) / slots_per_page;
+        ByteBuffer[] t = new ByteBuffer[pages];
+        for(int i = 0; i < pages; i++)
+        {
+            int n = Math.min(slots_per_page, new_length - i * slots_per_page);
+            t[i] = ByteBuffer.allocateDirect(n * slot_size);
+        }
+        this.slots = t;
+        this.length = new_length;
+    }
+
+    private void open_keys(int first_page)
+    {
+        this.key_pages = new ByteBuffer[4];
+        this.key_pages[0] = ByteBuffer.allocateDirect(Math.min(first_page, PAGE_BYTES));
+        this.key_page_count = 1;
+        this.key_position = 0;
+    }
+
+    /*
+     * Guarda la clave (su largo y sus bytes) al final del area de claves y
+     * retorna su referencia: el numero de pagina en los 32 bits altos y la
+     * posicion dentro de la pagina en los bajos. Una clave nunca queda partida
+     * entre dos paginas.
+     */
+    private long store_key(byte[] bytes)
+    {
+        int need = 4 + bytes.length;
+        if(need > PAGE_BYTES) throw new IllegalArgumentException("clave demasiado larga: " + bytes.length + " bytes");
+
+        ByteBuffer p = key_pages[key_page_count - 1];
+        if(p.capacity() - key_position < need)
+        {
+            int size = Math.max(need, (int) Math.min(PAGE_BYTES, 2L * p.capacity()));
+            if(key_page_count == key_pages.length) { key_pages = Arrays.copyOf(key_pages, key_page_count * 2); }
+            p = ByteBuffer.allocateDirect(size);
+            key_pages[key_page_count++] = p;
+            key_position = 0;
+        }
+
+        long ref = ((long) (key_page_count - 1) << 32) | key_position;
+        p.putInt(key_position, bytes.length);
+        p.put(key_position + 4, bytes);
+        key_position += need;
+        return ref;
+    }
+
+    private boolean key_equals(long ref, byte[] bytes)
+    {
+        ByteBuffer p = key_pages[(int) (ref >>> 32)];
+        int at = (int) ref;
+        if(p.getInt(at) != bytes.length) { return false; }
+        at += 4;
+        for(int i = 0; i < bytes.length; i++)
+        {
+            if(p.get(at + i) != bytes[i]) { return false; }
+        }
+        return true;
+    }
+
+    private String read_key(int pos)
+    {
+        return new String(read_bytes(key_pages, this.page(pos).getLong(this.offset(pos) + KEY)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read_bytes(ByteBuffer[] pages, long ref)
+    {
+        ByteBuffer p = pages[(int) (ref >>> 32)];
+        int at = (int) ref;
+        byte[] bytes = new byte[p.getInt(at)];
+        p.get(at + 4, bytes);
+        return bytes;
+    }
+
+    /*
+     * Tamanio total de un area de claves (cota de lo que ocupan las claves
+     * vivas), para dimensionar la primera pagina del area nueva.
+     */
+    private int key_bytes(ByteBuffer[] pages)
+    {
+        long total = 0;
+        for(ByteBuffer p : pages)
+        {
+            if(p != null) { total += p.capacity(); }
+        }
+        return (int) Math.min(PAGE_BYTES, total);
+    }
+
+    private void read_record(int pos, long[] record)
+    {
+        ByteBuffer p = this.page(pos);
+        int at = this.offset(pos) + RECORD;
+        for(int f = 0; f < width; f++) { record[f] = p.getLong(at + 8 * f); }
+    }
+
+    private void write_record(int pos, long[] record)
+    {
+        ByteBuffer p = this.page(pos);
+        int at = this.offset(pos) + RECORD;
+        for(int f = 0; f < width; f++) { p.putLong(at + 8 * f, record != null ? record[f] : 0); }
+    }
+
+    private ByteBuffer page(int pos)
+    {
+        return slots[pos / slots_per_page];
+    }
+
+    private int offset(int pos)
+    {
+        return (pos % slots_per_page) * slot_size;
+    }
+
+    private void check_field(int field)
+    {
+        if(field < 0 || field >= width) throw new IndexOutOfBoundsException("campo fuera de rango: " + field);
+    }
+}
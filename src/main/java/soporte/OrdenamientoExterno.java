@@ -0,0 +1,347 @@
+package soporte;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Ordenamiento externo (merge sort de varias pasadas) para volumenes que no
+ * entran en memoria. Los valores agregados se juntan en memoria hasta
+ * completar una corrida, que se ordena y se escribe a un archivo temporal en
+ * formato binario (el que defina el Formato de los valores). Al final, las
+ * corridas se mezclan de a lo sumo 64 a la vez con un heap que siempre tiene
+ * el menor valor pendiente de cada corrida, leyendo cada archivo a traves de
+ * un FileChannel con su propio buffer. Si hay mas de 64 corridas, se mezclan
+ * primero por grupos en corridas mas largas.
+ *
+ * El ordenamiento es estable: los valores iguales salen en el orden en que se
+ * agregaron. Cada instancia ordena una sola vez; close() borra los archivos
+ * temporales si el ordenamiento no llego a completarse.
+ *
+ * @param <T> el tipo de los valores a ordenar.
+ */
+public class OrdenamientoExterno<T> implements Closeable
+{
+    // cantidad maxima de corridas que se mezclan a la vez...
+    private static final int MAX_CORRIDAS = 64;
+
+    // tamanio del buffer de lectura (por corrida) y de escritura...
+    private static final int TAM_BUFFER = 1 << 16;
+
+    // el orden, el formato binario de los valores y el tamanio de corrida...
+    private final Comparator<? super T> orden;
+    private final Formato<T> formato;
+    private final int tam_corrida;
+
+    // el directorio de los archivos temporales...
+    private Path temporales = Paths.get(System.getProperty("java.io.tmpdir"));
+
+    // los valores de la corrida en curso...
+    private T[] actual;
+    private int count;
+
+    // las corridas ya escritas, en el orden en que se generaron, y las que
+    // se van generando en una pasada de mezcla...
+    private final TSBArrayList<Corrida> corridas = new TSBArrayList<>();
+    private final TSBArrayList<Corrida> siguientes = new TSBArrayList<>();
+
+    private long total;
+    private boolean terminado;
+
+    /**
+     * Crea el ordenamiento.
+     * @param orden el orden de los valores.
+     * @param formato como se escribe y se lee cada valor en las corridas.
+     * @param tam_corrida la cantidad de valores que se ordenan en memoria
+     *        antes de escribir una corrida.
+     * @param generador crea el arreglo de la corrida en curso con el tamanio
+     *        indicado (por ejemplo, String[]::new).
+     * @throws IllegalArgumentException si tam_corrida no es positivo.
+     */
+    public OrdenamientoExterno(Comparator<? super T> orden, Formato<T> formato, int tam_corrida, IntFunction<T[]> generador)
+    {
+        if(orden == null || formato == null || generador == null) throw new NullPointerException("OrdenamientoExterno(): parametro null");
+        if(tam_corrida <= 0) throw new IllegalArgumentException("OrdenamientoExterno(): tamanio de corrida no valido");
+        this.orden = orden;
+        this.formato = formato;
+        this.tam_corrida = tam_corrida;
+        this.actual = generador.apply(Math.min(tam_corrida, 1024));
+    }
+
+    /**
+     * Indica el directorio de los archivos temporales (por defecto, el de
+     * java.io.tmpdir).
+     * @param temporales el directorio.
+     * @throws NullPointerException si temporales es null.
+     */
+    public void setDirectorioTemporal(Path temporales)
+    {
+        if(temporales == null) throw new NullPointerException("setDirectorioTemporal(): parametro null");
+        this.temporales = temporales;
+    }
+
+    /**
+     * Agrega un valor a ordenar. Si se completa la corrida en curso, se
+     * ordena y se escribe a disco.
+     * @param valor el valor.
+     * @throws IOException si falla la escritura de la corrida.
+     * @throws IllegalStateException si ya se ordeno.
+     */
+    public void agregar(T valor) throws IOException
+    {
+        if(terminado) throw new IllegalStateException("agregar(): el ordenamiento ya fue realizado");
+        if(count == actual.length)
+        {
+            if(count == tam_corrida) this.escribir_corrida();
+            else actual = Arrays.copyOf(actual, (int) Math.min(tam_corrida, 2L * count));
+        }
+        actual[count++] = valor;
+        total++;
+    }
+
+    /**
+     * Retorna la cantidad de valores agregados.
+     * @return la cantidad de valores.
+     */
+    public long size()
+    {
+        return total;
+    }
+
+    /**
+     * Retorna la cantidad de corridas escritas a disco hasta el momento.
+     * @return la cantidad de corridas.
+     */
+    public int getCorridas()
+    {
+        return corridas.size();
+    }
+
+    /**
+     * Recorre todos los valores agregados, de menor a mayor. Si nunca se
+     * completo una corrida, se ordena todo en memoria sin usar el disco.
+     * @param accion la accion a ejecutar con cada valor.
+     * @throws IOException si falla la lectura o escritura de las corridas.
+     * @throws IllegalStateException si ya se ordeno.
+     */
+    public void ordenar(Consumer<? super T> accion) throws IOException
+    {
+        if(terminado) throw new IllegalStateException("ordenar(): el ordenamiento ya fue realizado");
+        terminado = true;
+        try
+        {
+            if(corridas.isEmpty())
+            {
+                Arrays.sort(actual, 0, count, orden);
+                for(int i = 0; i < count; i++) { accion.accept(actual[i]); }
+                return;
+            }
+
+            if(count > 0) this.escribir_corrida();
+            actual = null;
+
+            // se mezclan grupos de corridas consecutivas (asi se conserva la estabilidad)...
+            while(corridas.size() > MAX_CORRIDAS)
+            {
+                siguientes.clear();
+                for(int i = 0; i < corridas.size(); i += MAX_CORRIDAS)
+                {
+                    int hasta = Math.min(corridas.size(), i + MAX_CORRIDAS);
+                    if(hasta - i == 1)
+                    {
+                        siguientes.add(corridas.get(i));
+                        continue;
+                    }
+                    Corrida nueva = this.nueva_corrida();
+                    siguientes.add(nueva);
+                    try(DataOutputStream out = this.abrir_escritura(nueva))
+                    {
+                        this.mezclar(i, hasta, v -> this.escribir_valor(out, v, nueva));
+                    }
+                    for(int j = i; j < hasta; j++) { Files.deleteIfExists(corridas.get(j).archivo); }
+                }
+                corridas.clear();
+                corridas.addAll(siguientes);
+                siguientes.clear();
+            }
+            this.mezclar(0, corridas.size(), accion);
+        }
+        catch(UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            this.close();
+        }
+    }
+
+    /**
+     * Borra los archivos temporales que queden.
+     */
+    @Override
+    public void close()
+    {
+        corridas.addAll(siguientes);
+        for(Corrida c : corridas)
+        {
+            try
+            {
+                Files.deleteIfExists(c.archivo);
+            }
+            catch(IOException e)
+            {
+                // es un archivo temporal: si no se puede borrar, no afecta al resultado...
+            }
+        }
+        corridas.clear();
+        siguientes.clear();
+        actual = null;
+        terminado = true;
+    }
+
+    /*
+     * Ordena la corrida en curso (en forma estable) y la escribe a disco.
+     */
+    private void escribir_corrida() throws IOException
+    {
+        Arrays.sort(actual, 0, count, orden);
+        Corrida c = this.nueva_corrida();
+        corridas.add(c);
+        try(DataOutputStream out = this.abrir_escritura(c))
+        {
+            for(int i = 0; i < count; i++)
+            {
+                formato.escribir(out, actual[i]);
+                actual[i] = null;
+            }
+        }
+        c.valores = count;
+        count = 0;
+    }
+
+    /*
+     * Mezcla las corridas [desde, hasta) con un heap de sus lectores, ordenado
+     * por el valor actual de cada uno (y, a igual valor, por su corrida).
+     */
+    private void mezclar(int desde, int hasta, Consumer<? super T> accion) throws IOException
+    {
+        PriorityQueue<Lector> heap = new PriorityQueue<>(hasta - desde, (a, b) -> {
+            int c = orden.compare(a.valor, b.valor);
+            return c != 0 ? c : Integer.compare(a.indice, b.indice);
+        });
+        TSBArrayList<Lector> lectores = new TSBArrayList<>(hasta - desde);
+        try
+        {
+            for(int i = desde; i < hasta; i++)
+            {
+                Lector l = new Lector(corridas.get(i), i);
+                lectores.add(l);
+                if(l.avanzar()) heap.add(l);
+            }
+            while(!heap.isEmpty())
+            {
+                Lector l = heap.poll();
+                accion.accept(l.valor);
+                if(l.avanzar()) heap.add(l);
+            }
+        }
+        finally
+        {
+            for(Lector l : lectores) { l.in.close(); }
+        }
+    }
+
+    private Corrida nueva_corrida() throws IOException
+    {
+        return new Corrida(Files.createTempFile(temporales, "corrida-", ".tmp"));
+    }
+
+    private DataOutputStream abrir_escritura(Corrida c) throws IOException
+    {
+        FileChannel canal = FileChannel.open(c.archivo, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), TAM_BUFFER));
+    }
+
+    private void escribir_valor(DataOutputStream out, T valor, Corrida c)
+    {
+        try
+        {
+            formato.escribir(out, valor);
+            c.valores++;
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forma de escribir y leer un valor en formato binario en las corridas.
+     * @param <T> el tipo de los valores.
+     */
+    public interface Formato<T>
+    {
+        void escribir(DataOutput out, T valor) throws IOException;
+
+        T leer(DataInput in) throws IOException;
+    }
+
+    /*
+     * Una corrida escrita a disco, con la cantidad de valores que contiene.
+     */
+    private static class Corrida
+    {
+        private final Path archivo;
+        private long valores;
+
+        public Corrida(Path archivo)
+        {
+            this.archivo = archivo;
+        }
+    }
+
+    /*
+     * Lector secuencial de una corrida, con el ultimo valor leido.
+     */
+    private class Lector
+    {
+        private final DataInputStream in;
+        private final int indice;
+        private long restantes;
+        private T valor;
+
+        public Lector(Corrida c, int indice) throws IOException
+        {
+            FileChannel canal = FileChannel.open(c.archivo, StandardOpenOption.READ);
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), TAM_BUFFER));
+            this.indice = indice;
+            this.restantes = c.valores;
+        }
+
+        public boolean avanzar() throws IOException
+        {
+            if(restantes == 0) return false;
+            restantes--;
+            valor = formato.leer(in);
+            return true;
+        }
+    }
+}
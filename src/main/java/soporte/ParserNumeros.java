@@ -0,0 +1,275 @@
+package soporte;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser de numeros decimales de precision fija y de enteros, que trabaja
+ * directamente sobre un rango de caracteres (de un String o de cualquier
+ * CharSequence) o de bytes ASCII, sin crear subcadenas ni objetos
+ * intermedios. Reemplaza a Double.parseDouble() para los campos numericos del
+ * Dataset: una puntuacion como "8.9" se obtiene en decimas (89) y una
+ * cantidad de votos como "125000" como long.
+ *
+ * El formato aceptado es: espacios opcionales, signo opcional, digitos, y
+ * opcionalmente un punto seguido de digitos, y espacios opcionales. Los
+ * digitos que exceden la escala pedida se resuelven segun el Redondeo
+ * indicado (siempre sobre el valor exacto, sin redondear dos veces).
+ */
+public final class ParserNumeros
+{
+    /**
+     * Formas de resolver los digitos que exceden la escala pedida.
+     */
+    public enum Redondeo
+    {
+        /** Descarta los digitos sobrantes (redondea hacia el cero). */
+        TRUNCAR,
+
+        /** Redondea al mas cercano; la mitad se aleja del cero. */
+        MEDIO_ARRIBA,
+
+        /** Redondea al mas cercano; la mitad va al valor par. */
+        MEDIO_PAR
+    }
+
+    private ParserNumeros()
+    {
+    }
+
+    /**
+     * Obtiene el valor en decimas del numero contenido en s, redondeando
+     * segun el modo indicado. Por ejemplo, "8.95" con MEDIO_ARRIBA es 90.
+     * @param s el texto que contiene el numero.
+     * @param desde el indice del primer caracter del numero.
+     * @param hasta el indice siguiente al ultimo caracter del numero.
+     * @param modo la forma de redondear.
+     * @return el valor en decimas.
+     * @throws NumberFormatException si el texto no es un numero valido o no
+     *         cabe en un short.
+     */
+    public static short parseDecimas(CharSequence s, int desde, int hasta, Redondeo modo)
+    {
+        return a_short(parse(null, s, desde, hasta, 1, modo));
+    }
+
+    /**
+     * Obtiene el valor en decimas del numero contenido en un rango de bytes
+     * ASCII.
+     * @see #parseDecimas(CharSequence, int, int, Redondeo)
+     */
+    public static short parseDecimas(byte[] b, int desde, int hasta, Redondeo modo)
+    {
+        return a_short(parse(b, null, desde, hasta, 1, modo));
+    }
+
+    /**
+     * Obtiene el numero contenido en s multiplicado por 10^escala, redondeando
+     * segun el modo indicado. Con escala 0 se obtiene el valor entero.
+     * @param s el texto que contiene el numero.
+     * @param desde el indice del primer caracter del numero.
+     * @param hasta el indice siguiente al ultimo caracter del numero.
+     * @param escala la cantidad de decimales a conservar (0 a 18).
+     * @param modo la forma de redondear.
+     * @return el valor escalado.
+     * @throws NumberFormatException si el texto no es un numero valido o el
+     *         resultado no cabe en un long.
+     */
+    public static long parseFijo(CharSequence s, int desde, int hasta, int escala, Redondeo modo)
+    {
+        return parse(null, s, desde, hasta, escala, modo);
+    }
+
+    /**
+     * Obtiene el numero contenido en un rango de bytes ASCII multiplicado por
+     * 10^escala.
+     * @see #parseFijo(CharSequence, int, int, int, Redondeo)
+     */
+    public static long parseFijo(byte[] b, int desde, int hasta, int escala, Redondeo modo)
+    {
+        return parse(b, null, desde, hasta, escala, modo);
+    }
+
+    /**
+     * Obtiene el numero entero contenido en s (por ejemplo, una cantidad de
+     * votos). No admite parte decimal.
+     * @param s el texto que contiene el numero.
+     * @param desde el indice del primer caracter del numero.
+     * @param hasta el indice siguiente al ultimo caracter del numero.
+     * @return el valor entero.
+     * @throws NumberFormatException si el texto no es un entero valido o no
+     *         cabe en un long.
+     */
+    public static long parseLong(CharSequence s, int desde, int hasta)
+    {
+        return parse_entero(null, s, desde, hasta);
+    }
+
+    /**
+     * Obtiene el numero entero contenido en un rango de bytes ASCII.
+     * @see #parseLong(CharSequence, int, int)
+     */
+    public static long parseLong(byte[] b, int desde, int hasta)
+    {
+        return parse_entero(b, null, desde, hasta);
+    }
+
+    /**
+     * Obtiene el texto con un decimal de un valor en decimas, como figuran las
+     * puntuaciones en el Dataset. Por ejemplo, 89 es "8.9".
+     * @param decimas el valor en decimas.
+     * @return el valor con un decimal.
+     */
+    public static String formatDecimas(int decimas)
+    {
+        int abs = Math.abs(decimas);
+        return (decimas < 0 ? "-" : "") + (abs / 10) + "." + (abs % 10);
+    }
+
+    /*
+     * Cuerpo comun de los parsers decimales: exactamente uno de b o s es
+     * distinto de null.
+     */
+    private static long parse(byte[] b, CharSequence s, int desde, int hasta, int escala, Redondeo modo)
+    {
+        if(modo == null) throw new NullPointerException("parse(): parametro null");
+        if(escala < 0 || escala > 18) throw new IllegalArgumentException("parse(): escala fuera de rango");
+        check_rango(b, s, desde, hasta);
+
+        while(desde < hasta && at(b, s, desde) == ' ') { desde++; }
+        while(hasta > desde && at(b, s, hasta - 1) == ' ') { hasta--; }
+
+        int i = desde;
+        boolean negativo = false;
+        if(i < hasta && (at(b, s, i) == '-' || at(b, s, i) == '+'))
+        {
+            negativo = at(b, s, i) == '-';
+            i++;
+        }
+
+        long valor = 0;
+        int digitos = 0;
+        for(; i < hasta && es_digito(at(b, s, i)); i++, digitos++)
+        {
+            valor = acumular(valor, at(b, s, i), b, s, desde, hasta);
+        }
+
+        // decimales: los primeros escala se acumulan, el siguiente decide el redondeo...
+        int decimales = 0;
+        int siguiente = 0;
+        boolean resto = false;
+        if(i < hasta && at(b, s, i) == '.')
+        {
+            for(i++; i < hasta && es_digito(at(b, s, i)); i++, digitos++)
+            {
+                char c = at(b, s, i);
+                if(decimales < escala) valor = acumular(valor, c, b, s, desde, hasta);
+                else if(decimales == escala) siguiente = c - '0';
+                else if(c != '0') resto = true;
+                decimales++;
+            }
+        }
+        if(i != hasta || digitos == 0) throw error(b, s, desde, hasta);
+
+        for(; decimales < escala; decimales++)
+        {
+            valor = acumular(valor, '0', b, s, desde, hasta);
+        }
+
+        boolean subir;
+        switch(modo)
+        {
+            case MEDIO_ARRIBA:
+                subir = siguiente >= 5;
+                break;
+            case MEDIO_PAR:
+                subir = siguiente > 5 || (siguiente == 5 && (resto || (valor & 1) == 1));
+                break;
+            default:
+                subir = false;
+        }
+        if(subir)
+        {
+            if(valor == Long.MAX_VALUE) throw error(b, s, desde, hasta);
+            valor++;
+        }
+        return negativo ? -valor : valor;
+    }
+
+    /*
+     * Cuerpo comun de los parsers de enteros.
+     */
+    private static long parse_entero(byte[] b, CharSequence s, int desde, int hasta)
+    {
+        check_rango(b, s, desde, hasta);
+
+        while(desde < hasta && at(b, s, desde) == ' ') { desde++; }
+        while(hasta > desde && at(b, s, hasta - 1) == ' ') { hasta--; }
+
+        int i = desde;
+        boolean negativo = false;
+        if(i < hasta && (at(b, s, i) == '-' || at(b, s, i) == '+'))
+        {
+            negativo = at(b, s, i) == '-';
+            i++;
+        }
+        if(i == hasta) throw error(b, s, desde, hasta);
+
+        long valor = 0;
+        for(; i < hasta; i++)
+        {
+            char c = at(b, s, i);
+            if(!es_digito(c)) throw error(b, s, desde, hasta);
+            valor = acumular(valor, c, b, s, desde, hasta);
+        }
+        return negativo ? -valor : valor;
+    }
+
+    private static char at(byte[] b, CharSequence s, int i)
+    {
+        return b != null ? (char) (b[i] & 0xFF) : s.charAt(i);
+    }
+
+    private static boolean es_digito(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /*
+     * Agrega el digito c a la derecha de valor, controlando el desborde.
+     */
+    private static long acumular(long valor, char c, byte[] b, CharSequence s, int desde, int hasta)
+    {
+        int d = c - '0';
+        if(valor > (Long.MAX_VALUE - d) / 10) throw error(b, s, desde, hasta);
+        return valor * 10 + d;
+    }
+
+    private static short a_short(long valor)
+    {
+        if(valor < Short.MIN_VALUE || valor > Short.MAX_VALUE)
+        {
+            throw new NumberFormatException("parseDecimas(): valor fuera de rango: " + valor);
+        }
+        return (short) valor;
+    }
+
+    private static void check_rango(byte[] b, CharSequence s, int desde, int hasta)
+    {
+        if(b == null && s == null) throw new NullPointerException("parse(): parametro null");
+        int length = b != null ? b.length : s.length();
+        if(desde < 0 || hasta > length || desde > hasta)
+        {
+            throw new IndexOutOfBoundsException("parse(): rango fuera de limites...");
+        }
+    }
+
+    /*
+     * El texto solo se copia para armar el mensaje de error.
+     */
+    private static NumberFormatException error(byte[] b, CharSequence s, int desde, int hasta)
+    {
+        String texto = b != null ? new String(b, desde, hasta - desde, StandardCharsets.ISO_8859_1)
+                                 : s.subSequence(desde, hasta).toString();
+        return new NumberFormatException("numero invalido: \"" + texto + "\"");
+    }
+}
@@ -0,0 +1,187 @@
+package soporte;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Sketches de valores agrupados por una clave cualquiera (por ejemplo, las
+ * estrellas de cada genero): para cada clave se mantiene un HyperLogLog, que
+ * estima cuantos valores distintos tiene, y un SpaceSaving, que sigue sus
+ * valores mas frecuentes. La memoria por clave es constante, sin importar
+ * cuantos valores se agreguen.
+ *
+ * Dos instancias con la misma configuracion se combinan con merge(), clave por
+ * clave, por lo que cada particion de una carga en paralelo puede llevar la
+ * suya. La clase no es thread-safe.
+ *
+ * @param <K> el tipo de las claves de agrupamiento.
+ * @param <V> el tipo de los valores.
+ */
+public class SketchesPorClave<K, V> implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // los sketches de cada clave...
+    private final TSBHashTableRH<K, Sketch<V>> table;
+
+    // configuracion de los sketches...
+    private final int precision;
+    private final int capacity;
+
+    /**
+     * Crea los sketches con HyperLogLog de precision 10 y SpaceSaving de 2048
+     * valores por clave. El error de cada cuenta llega a N / 2048 (N los
+     * valores agregados a la clave): con unas 4000 estrellas por genero queda
+     * en 2 o menos, por debajo de las frecuencias que interesan.
+     */
+    public SketchesPorClave()
+    {
+        this(10, 2048);
+    }
+
+    /**
+     * Crea los sketches con la configuracion indicada.
+     * @param precision la precision de cada HyperLogLog (4 a 16).
+     * @param capacity la cantidad de valores que sigue cada SpaceSaving.
+     * @throws IllegalArgumentException si algun parametro esta fuera de rango.
+     */
+    public SketchesPorClave(int precision, int capacity)
+    {
+        if(precision < 4 || precision > 16 || capacity <= 0)
+        {
+            throw new IllegalArgumentException("SketchesPorClave(): configuracion no valida");
+        }
+        this.table = new TSBHashTableRH<>();
+        this.precision = precision;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Agrega el valor v al grupo de la clave k.
+     * @param k la clave del grupo.
+     * @param v el valor.
+     * @throws NullPointerException si k o v son null.
+     */
+    public void add(K k, V v)
+    {
+        Sketch<V> s = table.get(k);
+        if(s == null)
+        {
+            s = new Sketch<>(precision, capacity);
+            table.put(k, s);
+        }
+        s.distintos.add(v);
+        s.frecuentes.add(v);
+    }
+
+    /**
+     * Retorna la cantidad estimada de valores distintos del grupo de la clave
+     * k, o 0 si la clave no tiene valores.
+     * @param k la clave del grupo.
+     * @return la cantidad estimada de valores distintos.
+     */
+    public long distinct(Object k)
+    {
+        Sketch<V> s = table.get(k);
+        return s == null ? 0 : s.distintos.estimate();
+    }
+
+    /**
+     * Retorna los n valores mas frecuentes del grupo de la clave k, de mayor
+     * a menor frecuencia (una lista vacia si la clave no tiene valores).
+     * @param k la clave del grupo.
+     * @param n la cantidad de valores pedida.
+     * @return los valores mas frecuentes con su cuenta y error.
+     */
+    public List<SpaceSaving.Frecuencia<V>> top(Object k, int n)
+    {
+        Sketch<V> s = table.get(k);
+        return s == null ? Collections.emptyList() : s.frecuentes.top(n);
+    }
+
+    /**
+     * Retorna los valores (a lo sumo n) del grupo de la clave k que seguro
+     * son los mas frecuentes, descartando los que no se distinguen del error
+     * del SpaceSaving (ver SpaceSaving.topGarantizado()).
+     * @param k la clave del grupo.
+     * @param n la cantidad maxima de valores pedida.
+     * @return los valores garantizados con su cuenta y error.
+     */
+    public List<SpaceSaving.Frecuencia<V>> topGarantizado(Object k, int n)
+    {
+        Sketch<V> s = table.get(k);
+        return s == null ? Collections.emptyList() : s.frecuentes.topGarantizado(n);
+    }
+
+    /**
+     * Combina en esta instancia los sketches de otra con igual configuracion.
+     * @param other la instancia a combinar.
+     * @throws IllegalArgumentException si las configuraciones son distintas.
+     */
+    public void merge(SketchesPorClave<K, V> other)
+    {
+        this.merge(other, k -> true);
+    }
+
+    /**
+     * Combina en esta instancia los sketches de otra con igual configuracion,
+     * pero solo los de las claves que cumplen con el filtro indicado.
+     * @param other la instancia a combinar.
+     * @param filtro el criterio que deben cumplir las claves a combinar.
+     * @throws IllegalArgumentException si las configuraciones son distintas.
+     */
+    public void merge(SketchesPorClave<K, V> other, Predicate<? super K> filtro)
+    {
+        if(other.precision != precision || other.capacity != capacity)
+        {
+            throw new IllegalArgumentException("merge(): las configuraciones no coinciden");
+        }
+        other.table.forEach((k, s) ->
+        {
+            if(!filtro.test(k)) return;
+            Sketch<V> mine = table.get(k);
+            if(mine == null)
+            {
+                mine = new Sketch<>(precision, capacity);
+                table.put(k, mine);
+            }
+            mine.distintos.merge(s.distintos);
+            mine.frecuentes.merge(s.frecuentes);
+        });
+    }
+
+    /**
+     * Retorna las claves que tienen algun valor.
+     * @return el conjunto de claves.
+     */
+    public Set<K> keySet()
+    {
+        return Collections.unmodifiableSet(table.keySet());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SketchesPorClave[claves=" + table.size() + ", p=" + precision + ", k=" + capacity + "]";
+    }
+
+    /*
+     * Los sketches de un grupo.
+     */
+    private static class Sketch<V> implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final HyperLogLog distintos;
+        private final SpaceSaving<V> frecuentes;
+
+        public Sketch(int precision, int capacity)
+        {
+            distintos = new HyperLogLog(precision);
+            frecuentes = new SpaceSaving<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package soporte;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resumen de los valores mas frecuentes de un flujo de datos (algoritmo
+ * Space-Saving), con memoria constante: se siguen a lo sumo capacity valores.
+ * Cuando llega un valor nuevo y no hay lugar, reemplaza al valor seguido con
+ * menor cuenta y hereda esa cuenta como cota de error. Todo valor con
+ * frecuencia mayor que N / capacity (N el total agregado) esta garantizado en
+ * el resumen, y la cuenta de cada uno excede la real en a lo sumo su error.
+ *
+ * Los valores seguidos forman un heap de minimo (por cuenta) en arreglos
+ * paralelos, con una ObjectIntTSBHashTable que ubica la posicion de cada uno,
+ * por lo que cada add() es O(log capacity). Dos resumenes se combinan con
+ * merge() (sumando cuentas y conservando los capacity mayores), lo que permite
+ * que cada particion de una carga en paralelo use el suyo.
+ *
+ * @param <T> el tipo de los valores.
+ */
+public class SpaceSaving<T> implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // el heap de minimo: valor, cuenta y error de cada posicion (los valores
+    // se serializan aparte, ver writeObject())...
+    private transient Object[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+
+    // la posicion de cada valor en el heap (se reconstruye al deserializar)...
+    private transient ObjectIntTSBHashTable<T> index;
+
+    // el total agregado...
+    private long total;
+
+    /**
+     * Crea un resumen que sigue a lo sumo capacity valores.
+     * @param capacity la cantidad de valores seguidos.
+     * @throws IllegalArgumentException si capacity no es positiva.
+     */
+    public SpaceSaving(int capacity)
+    {
+        if(capacity <= 0) throw new IllegalArgumentException("SpaceSaving(): capacidad no valida");
+        this.items = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.index = ObjectIntTSBHashTable.withExpectedSize(capacity);
+    }
+
+    /**
+     * Suma una aparicion del valor o.
+     * @param o el valor.
+     * @throws NullPointerException si o es null.
+     */
+    public void add(T o)
+    {
+        this.add(o, 1, 0);
+    }
+
+    /**
+     * Suma count apariciones del valor o.
+     * @param o el valor.
+     * @param count la cantidad de apariciones (positiva).
+     * @throws NullPointerException si o es null.
+     * @throws IllegalArgumentException si count no es positivo.
+     */
+    public void add(T o, long count)
+    {
+        if(count <= 0) throw new IllegalArgumentException("add(): cantidad no valida");
+        this.add(o, count, 0);
+    }
+
+    /**
+     * Combina en este resumen el contenido de otro. A los valores que estan
+     * en uno solo de los resumenes (estando el otro lleno) se les suma como
+     * error la menor cuenta del otro, que es lo maximo que pudieron perder.
+     * @param other el resumen a combinar.
+     */
+    public void merge(SpaceSaving<T> other)
+    {
+        long min_this = size == items.length ? counts[0] : 0;
+        long min_other = other.size == other.items.length ? other.counts[0] : 0;
+
+        // se arma la union con cuentas sumadas y se conservan las mayores...
+        ObjectIntTSBHashTable<T> pos = ObjectIntTSBHashTable.withExpectedSize(size + other.size);
+        TSBArrayList<T> u_items = new TSBArrayList<>(size + other.size);
+        TSBArrayList<long[]> u_counts = new TSBArrayList<>(size + other.size);
+        for(int i = 0; i < size; i++)
+        {
+            pos.put(this.item(i), u_items.size());
+            u_items.add(this.item(i));
+            u_counts.add(new long[] { counts[i] + min_other, errors[i] + min_other });
+        }
+        for(int i = 0; i < other.size; i++)
+        {
+            int p = pos.getOrDefault(other.items[i], -1);
+            if(p == -1)
+            {
+                u_items.add(other.item(i));
+                u_counts.add(new long[] { other.counts[i] + min_this, other.errors[i] + min_this });
+            }
+            else
+            {
+                long[] c = u_counts.get(p);
+                c[0] += other.counts[i] - min_other;
+                c[1] += other.errors[i] - min_other;
+            }
+        }
+
+        Integer[] orden = new Integer[u_items.size()];
+        for(int i = 0; i < orden.length; i++) { orden[i] = i; }
+        Arrays.sort(orden, (a, b) -> Long.compare(u_counts.get(b)[0], u_counts.get(a)[0]));
+
+        this.clear_all();
+        for(int i = 0; i < orden.length && i < items.length; i++)
+        {
+            long[] c = u_counts.get(orden[i]);
+            this.push(u_items.get(orden[i]), c[0], c[1]);
+        }
+        total += other.total;
+    }
+
+    /**
+     * Retorna los n valores con mayor cuenta, de mayor a menor.
+     * @param n la cantidad de valores pedida.
+     * @return la lista de valores con su cuenta y su error.
+     */
+    public List<Frecuencia<T>> top(int n)
+    {
+        Integer[] orden = new Integer[size];
+        for(int i = 0; i < size; i++) { orden[i] = i; }
+        Arrays.sort(orden, (a, b) -> Long.compare(counts[b], counts[a]));
+
+        List<Frecuencia<T>> r = new ArrayList<>(Math.min(n, size));
+        for(int i = 0; i < orden.length && i < n; i++)
+        {
+            r.add(new Frecuencia<>(this.item(orden[i]), counts[orden[i]], errors[orden[i]]));
+        }
+        return r;
+    }
+
+    /**
+     * Retorna los valores (a lo sumo n) que seguro son los mas frecuentes, de
+     * mayor a menor: los primeros j de top() tales que la menor de sus cuentas
+     * garantizadas (count - error) supera a la cuenta del siguiente y a lo que
+     * puede tener un valor no seguido (la menor cuenta, si el resumen esta
+     * lleno). Los empates con el siguiente quedan afuera. Si los errores son grandes frente a las cuentas (N /
+     * capacity del orden de las frecuencias buscadas) la lista puede quedar
+     * vacia: ningun valor se distingue del ruido.
+     * @param n la cantidad maxima de valores pedida.
+     * @return la lista de valores garantizados con su cuenta y su error.
+     */
+    public List<Frecuencia<T>> topGarantizado(int n)
+    {
+        List<Frecuencia<T>> todos = this.top(size);
+        long fuera = size == items.length ? counts[0] : 0;
+        long garantia = Long.MAX_VALUE;
+        int j = 0;
+        for(int i = 0; i < todos.size() && i < n; i++)
+        {
+            Frecuencia<T> f = todos.get(i);
+            garantia = Math.min(garantia, f.getCount() - f.getError());
+            long siguiente = i + 1 < todos.size() ? Math.max(todos.get(i + 1).getCount(), fuera) : fuera;
+            if(garantia > siguiente) { j = i + 1; }
+        }
+        return new ArrayList<>(todos.subList(0, j));
+    }
+
+    /**
+     * Retorna la cuenta del valor o, o 0 si no esta siendo seguido.
+     * @param o el valor.
+     * @return la cuenta del valor (cota superior de su frecuencia).
+     */
+    public long count(Object o)
+    {
+        int p = index.getOrDefault(o, -1);
+        return p == -1 ? 0 : counts[p];
+    }
+
+    /**
+     * Retorna la cantidad de valores seguidos.
+     * @return la cantidad de valores seguidos.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Retorna el total de apariciones agregadas.
+     * @return el total agregado.
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SpaceSaving" + this.top(size);
+    }
+
+    /*
+     * Se escriben las cuentas, los errores y el total, y luego los size
+     * valores del heap en orden; el indice de posiciones no se escribe porque
+     * se deduce de ellos.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException
+    {
+        s.defaultWriteObject();
+        for(int i = 0; i < size; i++) { s.writeObject(items[i]); }
+    }
+
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException
+    {
+        s.defaultReadObject();
+        if(counts == null || errors == null || counts.length == 0 || errors.length != counts.length || size < 0 || size > counts.length)
+        {
+            throw new InvalidObjectException("SpaceSaving: estado serializado no valido");
+        }
+        this.items = new Object[counts.length];
+        this.index = ObjectIntTSBHashTable.withExpectedSize(counts.length);
+        for(int i = 0; i < size; i++)
+        {
+            Object o = s.readObject();
+            if(o == null || index.containsKey(o)) throw new InvalidObjectException("SpaceSaving: valor null o repetido");
+            items[i] = o;
+            index.put(this.item(i), i);
+        }
+    }
+
+    /*
+     * Suma count apariciones de o, con error adicional error.
+     */
+    private void add(T o, long count, long error)
+    {
+        if(o == null) throw new NullPointerException("add(): parametro null");
+        total += count;
+
+        int p = index.getOrDefault(o, -1);
+        if(p != -1)
+        {
+            counts[p] += count;
+            errors[p] += error;
+            this.sift_down(p);
+            return;
+        }
+        if(size < items.length)
+        {
+            this.push(o, count, error);
+            return;
+        }
+
+        // reemplaza al de menor cuenta (la raiz) y hereda su cuenta como error...
+        long min = counts[0];
+        index.remove(items[0]);
+        items[0] = o;
+        counts[0] = min + count;
+        errors[0] = min + error;
+        index.put(o, 0);
+        this.sift_down(0);
+    }
+
+    private void push(T o, long count, long error)
+    {
+        int p = size++;
+        items[p] = o;
+        counts[p] = count;
+        errors[p] = error;
+        index.put(o, p);
+        this.sift_up(p);
+    }
+
+    private void clear_all()
+    {
+        for(int i = 0; i < size; i++) { items[i] = null; }
+        size = 0;
+        index.clear();
+    }
+
+    private void sift_up(int p)
+    {
+        while(p > 0)
+        {
+            int parent = (p - 1) / 2;
+            if(counts[parent] <= counts[p]) return;
+            this.swap(p, parent);
+            p = parent;
+        }
+    }
+
+    private void sift_down(int p)
+    {
+        while(true)
+        {
+            int l = 2 * p + 1;
+            if(l >= size) return;
+            int menor = l + 1 < size && counts[l + 1] < counts[l] ? l + 1 : l;
+            if(counts[p] <= counts[menor]) return;
+            this.swap(p, menor);
+            p = menor;
+        }
+    }
+
+    private void swap(int a, int b)
+    {
+        Object ti = items[a]; items[a] = items[b]; items[b] = ti;
+        long tc = counts[a]; counts[a] = counts[b]; counts[b] = tc;
+        long te = errors[a]; errors[a] = errors[b]; errors[b] = te;
+        index.put(this.item(a), a);
+        index.put(this.item(b), b);
+    }
+
+    /*
+     * Retorna el valor de la posicion p del heap. El arreglo es Object[]
+     * porque no se puede crear un arreglo de T, pero solo guarda valores de
+     * tipo T.
+     */
+    @SuppressWarnings("unchecked")
+    private T item(int p)
+    {
+        return (T) items[p];
+    }
+
+    /**
+     * Un valor frecuente con su cuenta y la cota de error de esa cuenta (la
+     * frecuencia real esta entre count - error y count).
+     * @param <T> el tipo del valor.
+     */
+    public static class Frecuencia<T> implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        // el valor se serializa aparte (ver writeObject())...
+        private transient T valor;
+        private final long count;
+        private final long error;
+
+        public Frecuencia(T valor, long count, long error)
+        {
+            this.valor = valor;
+            this.count = count;
+            this.error = error;
+        }
+
+        public T getValor()
+        {
+            return valor;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public long getError()
+        {
+            return error;
+        }
+
+        @Override
+        public String toString()
+        {
+            return valor + "=" + count + (error > 0 ? "(+-" + error + ")" : "");
+        }
+
+        private void writeObject(ObjectOutputStream s) throws IOException
+        {
+            s.defaultWriteObject();
+            s.writeObject(valor);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException
+        {
+            s.defaultReadObject();
+            this.valor = (T) s.readObject();
+        }
+    }
+}
@@ -2,9 +2,13 @@ package soporte;
 
 import java.io.Serializable;
 import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * Una clase para emular el concepto de lista implementada sobre un arreglo, tal
@@ -38,6 +42,9 @@ public class TSBArrayList<E> extends AbstractList<E>
     // la cantidad de casillas realmente usadas...
     private int count;
 
+    // el factor por el cual se multiplica la capacidad al crecer...
+    private float growth_factor;
+
     /**
      * Crea una lista con capacidad inicial de 10 casilleros, pero ninguno
      * ocupado realmente: la lista est� vac�a a todos los efectos pr�cticos. 
@@ -63,6 +70,7 @@ public class TSBArrayList<E> extends AbstractList<E>
         this.items = c.toArray();
         initial_capacity = c.size();
         count = c.size();
+        growth_factor = 1.5f;
     }
 
     /**
@@ -72,30 +80,103 @@ public class TSBArrayList<E> extends AbstractList<E>
      * @param initialCapacity la capacidad inicial de la lista.
      */
     public TSBArrayList(int initialCapacity)
+    {
+        this(initialCapacity, 1.5f);
+    }
+
+    /**
+     * Crea una lista con initialCapacity casilleros de capacidad, que al
+     * llenarse crecera multiplicando su capacidad por growthFactor. Si el
+     * valor de initialCapacity es <= 0, el valor se ajusta a 10. Si el valor
+     * de growthFactor es <= 1, el valor se ajusta a 1.5f (crecer en un factor
+     * constante es lo que hace que agregar n elementos cueste O(n) copias en
+     * total).
+     * @param initialCapacity la capacidad inicial de la lista.
+     * @param growthFactor el factor de crecimiento de la capacidad.
+     */
+    public TSBArrayList(int initialCapacity, float growthFactor)
     {
         if (initialCapacity <= 0) 
         {
             initialCapacity = 10;
         }
+        if (!(growthFactor > 1))
+        {
+            growthFactor = 1.5f;
+        }
         items = new Object[initialCapacity];
         initial_capacity = initialCapacity;
+        growth_factor = growthFactor;
         count = 0;
     }
     
     /**
-     *  Metodo encargado de colocar un nuevo elemento a la lista
-     * si este no excede el tama�o minimo
+     *  Metodo encargado de colocar un nuevo elemento al final de la lista. Si
+     * el arreglo de soporte esta lleno, crece segun el factor de crecimiento.
+     * @throws IllegalArgumentException si e es null.
      */
     @Override
     public boolean add(E e){
         if (e == null) {
             throw new IllegalArgumentException("add(E e): Elemento nulo");
         }
-        if (count >= size()) {
-            ensureCapacity((count+1) *2);
+        if (count == items.length) {
+            grow(count + 1);
         }
         items[count] = e;
         count ++;
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * Agrega al final de la lista todos los elementos de la coleccion c, en el
+     * orden en que los retorna su iterador. El arreglo de soporte crece (a lo
+     * sumo) una sola vez y los elementos se copian en bloque.
+     * @param c la coleccion cuyos elementos seran agregados.
+     * @return true si la lista cambio.
+     * @throws NullPointerException si c es null.
+     * @throws IllegalArgumentException si c contiene algun elemento null.
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c)
+    {
+        return addAll(count, c);
+    }
+
+    /**
+     * Inserta en la posicion index todos los elementos de la coleccion c, en
+     * el orden en que los retorna su iterador, desplazando hacia la derecha a
+     * los elementos siguientes. El arreglo de soporte crece (a lo sumo) una
+     * sola vez y los elementos se mueven en bloque.
+     * @param index el indice donde se insertara el primer elemento de c.
+     * @param c la coleccion cuyos elementos seran agregados.
+     * @return true si la lista cambio.
+     * @throws IndexOutOfBoundsException si index < 0 o index > size().
+     * @throws NullPointerException si c es null.
+     * @throws IllegalArgumentException si c contiene algun elemento null.
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c)
+    {
+        if(index > count || index < 0)
+        {
+            throw new IndexOutOfBoundsException("addAll(): indice fuera de rango...");
+        }
+
+        Object[] a = c.toArray();
+        int n = a.length;
+        if(n == 0) return false;
+        for(Object x : a)
+        {
+            if(x == null) throw new IllegalArgumentException("addAll(): Elemento nulo");
+        }
+
+        if(count + n > items.length) grow(count + n);
+        System.arraycopy(items, index, items, index + n, count - index);
+        System.arraycopy(a, 0, items, index, n);
+        count += n;
+        this.modCount++;
         return true;
     }
 
@@ -121,7 +202,7 @@ public class TSBArrayList<E> extends AbstractList<E>
         
         if(e == null) return;
         
-        if(count == items.length) this.ensureCapacity(items.length * 2);
+        if(count == items.length) this.grow(count + 1);
         
         int t = count - index;
         System.arraycopy(items, index, items, index+1, t);
@@ -146,7 +227,7 @@ public class TSBArrayList<E> extends AbstractList<E>
         
         // detecci�n r�pida de fallas en el iterador (fail-fast iterator)...
         // modCount se hereda desde AbstractList y es protected...
-        this.modCount = 0; 
+        this.modCount++; 
     }
     
     /**
@@ -194,17 +275,25 @@ public class TSBArrayList<E> extends AbstractList<E>
     /**
      * Aumenta la capacidad del arreglo de soporte, si es necesario, para 
      * asegurar que pueda contener al menos un n�mero de elementos igual al 
-     * indicado por el par�metro minCapacity.
+     * indicado por el par�metro minCapacity. Nunca reduce la capacidad (para
+     * eso esta trimToSize()).
      * @param minCapacity - la m�nima capacidad requerida.
      */
     public void ensureCapacity(int minCapacity)
     {
-        if(minCapacity == items.length) return;
-        if(minCapacity < count) return;
+        if(minCapacity <= items.length) return;
         
-        Object[] temp = new Object[minCapacity];
-        System.arraycopy(items, 0, temp, 0, count);
-        items = temp;
+        items = Arrays.copyOf(items, minCapacity);
+    }
+
+    /**
+     * Retorna la capacidad actual de la lista: la cantidad de casillas del
+     * arreglo de soporte (usadas o no).
+     * @return la capacidad de la lista.
+     */
+    public int capacity()
+    {
+        return items.length;
     }
     
     /**
@@ -219,7 +308,7 @@ public class TSBArrayList<E> extends AbstractList<E>
     @Override
     public E get(int index)
     {
-        if (index < 0 || index > count)
+        if (index < 0 || index >= count)
         {   
             throw new IndexOutOfBoundsException("get(): �ndice fuera de rango...");
         }
@@ -255,9 +344,6 @@ public class TSBArrayList<E> extends AbstractList<E>
             throw new IndexOutOfBoundsException("remove(): �ndice fuera de rango...");
         }
         
-        int t = items.length;
-        if(count < t/2) this.ensureCapacity(t/2);
-        
         Object old = items[index];
         int n = count;
         System.arraycopy(items, index+1, items, index, n-index-1);
@@ -294,19 +380,100 @@ public class TSBArrayList<E> extends AbstractList<E>
         return (E) old;
     }
 
+    /**
+     * Elimina de la lista los elementos cuyos indices estan entre fromIndex
+     * (inclusive) y toIndex (exclusive), desplazando en bloque a los que estan
+     * a la derecha. Lo usa subList(from, to).clear(). La capacidad de la lista
+     * no se altera.
+     * @param fromIndex indice del primer elemento a remover.
+     * @param toIndex indice siguiente al ultimo elemento a remover.
+     * @throws IndexOutOfBoundsException si el rango no es valido.
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex)
+    {
+        if(fromIndex < 0 || toIndex > count || fromIndex > toIndex)
+        {
+            throw new IndexOutOfBoundsException("removeRange(): rango fuera de limites...");
+        }
+        if(fromIndex == toIndex) return;
+
+        System.arraycopy(items, toIndex, items, fromIndex, count - toIndex);
+        int n = count - (toIndex - fromIndex);
+        Arrays.fill(items, n, count, null);
+        count = n;
+        this.modCount++;
+    }
+
     /**
      * Retorna el tama�o de la lista: la cantidad de elementos realmente 
-     * contenidos en ella. Este m�todo es sugerido desde la documentaci�n de la 
-     * clase AbstractList.
+     * contenidos en ella (equivale a size()).
      * @return la cantidad de elementos que la lista contiene.
      */
     public int count(){
         return count;
     }
     
+    /**
+     * Retorna el tama�o de la lista: la cantidad de elementos realmente 
+     * contenidos en ella (no la capacidad del arreglo de soporte, que la
+     * informa capacity()). Este metodo es sugerido desde la documentacion de
+     * la clase AbstractList.
+     * @return la cantidad de elementos que la lista contiene.
+     */
     @Override
     public int size(){
-        return items.length;
+        return count;
+    }
+
+    /**
+     * Aplica la accion indicada a cada elemento de la lista, en orden,
+     * recorriendo directamente el arreglo de soporte (sin crear un iterador).
+     * @param action la accion a aplicar.
+     * @throws NullPointerException si action es null.
+     * @throws ConcurrentModificationException si la lista cambia durante el
+     *         recorrido.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action)
+    {
+        if(action == null) throw new NullPointerException("forEach(): parametro null");
+        int expected_modCount = this.modCount;
+        Object[] a = items;
+        int n = count;
+        for(int i = 0; i < n && this.modCount == expected_modCount; i++)
+        {
+            action.accept((E) a[i]);
+        }
+        if(this.modCount != expected_modCount)
+        {
+            throw new ConcurrentModificationException("forEach(): modificacion inesperada de la lista...");
+        }
+    }
+
+    /**
+     * Retorna un Spliterator sobre los elementos de la lista que se divide en
+     * mitades exactas del rango del arreglo de soporte, de forma que
+     * stream().parallel() reparte el trabajo en partes iguales. Es
+     * late-binding (toma el tamanio de la lista en su primer uso) y fail-fast.
+     * @return un Spliterator sobre los elementos de la lista.
+     */
+    @Override
+    public Spliterator<E> spliterator()
+    {
+        return new ArraySpliterator(0, -1, 0);
+    }
+
+    /**
+     * Retorna un arreglo nuevo con los elementos de la lista, en el mismo
+     * orden, copiado en bloque desde el arreglo de soporte.
+     * @return un arreglo con los elementos de la lista.
+     */
+    @Override
+    public Object[] toArray()
+    {
+        return Arrays.copyOf(items, count);
     }
        
     @Override
@@ -339,4 +506,99 @@ public class TSBArrayList<E> extends AbstractList<E>
         System.arraycopy(items, 0, temp, 0, count);
         items = temp;
     }
+
+    /*
+     * Hace crecer el arreglo de soporte multiplicando su capacidad por el
+     * factor de crecimiento (o lo necesario para que quepan minCapacity
+     * elementos, si es mas).
+     */
+    private void grow(int minCapacity)
+    {
+        long length = (long)(items.length * (double) growth_factor) + 1;
+        if(length > Integer.MAX_VALUE - 8) length = Integer.MAX_VALUE - 8;
+        this.ensureCapacity(Math.max((int) length, minCapacity));
+    }
+
+    /*
+     * Spliterator sobre un rango [index, fence) del arreglo de soporte. Si
+     * fence es -1, el rango se fija (hasta count) en el primer uso.
+     */
+    private class ArraySpliterator implements Spliterator<E>
+    {
+        private int index;
+        private int fence;
+        private int expected_modCount;
+
+        public ArraySpliterator(int origin, int fence, int expected_modCount)
+        {
+            this.index = origin;
+            this.fence = fence;
+            this.expected_modCount = expected_modCount;
+        }
+
+        private int getFence()
+        {
+            if(fence < 0)
+            {
+                expected_modCount = TSBArrayList.this.modCount;
+                fence = count;
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit()
+        {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if(lo >= mid) return null;
+            index = mid;
+            return new ArraySpliterator(lo, mid, expected_modCount);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super E> action)
+        {
+            if(action == null) throw new NullPointerException("tryAdvance(): parametro null");
+            int hi = getFence(), i = index;
+            if(i >= hi) return false;
+            index = i + 1;
+            action.accept((E) items[i]);
+            if(TSBArrayList.this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("tryAdvance(): modificacion inesperada de la lista...");
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action)
+        {
+            if(action == null) throw new NullPointerException("forEachRemaining(): parametro null");
+            Object[] a = items;
+            int hi = getFence();
+            for(int i = index; i < hi; i++)
+            {
+                action.accept((E) a[i]);
+            }
+            index = hi;
+            if(TSBArrayList.this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("forEachRemaining(): modificacion inesperada de la lista...");
+            }
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
 }
@@ -2,6 +2,10 @@ package soporte;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
 
 /**
  * Clase para emular la funcionalidad de la clase java.util.Hashtable, pero implementada
@@ -22,6 +26,10 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     public static final int CLOSED = 1;
     public static final int TOMBSTONE = 2;
 
+    // casillas del arreglo anterior que se migran por operacion durante un
+    // rehashing incremental...
+    private static final int MIGRATION_STEP = 8;
+
     //************************ Atributos privados (estructurales).
 
     // la tabla hash: el arreglo que contiene todos los objetos...
@@ -35,6 +43,19 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     
     // el factor de carga para calcular si hace falta un rehashing...
     private float load_factor;
+
+    // si es true, el rehashing se hace en forma incremental...
+    private boolean incremental_rehash;
+
+    // durante un rehashing incremental: el arreglo anterior (con los pares aun
+    // no migrados) y la proxima casilla del mismo que falta migrar...
+    private TSBArrayList<Map.Entry<K, V>> old_table;
+    private int migrate_index;
+
+    // filtro de Bloom opcional de las claves del arreglo (null si no se usa),
+    // y durante un rehashing incremental, el de las claves del anterior...
+    private BloomBloqueado filter;
+    private BloomBloqueado old_filter;
       
     
     //************************ Atributos privados (para gestionar las vistas).
@@ -102,7 +123,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         }
         
         this.table = new TSBArrayList<>(initial_capacity);
-        for(int i=0; i<table.size(); i++)
+        for(int i=0; i<initial_capacity; i++)
         {
             Entry<K, V> e = new Entry<>(null, null);
             table.add(e);
@@ -112,6 +133,9 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         this.load_factor = load_factor;
         this.count = 0;
         this.modCount = 0;
+        this.incremental_rehash = false;
+        this.old_table = null;
+        this.migrate_index = 0;
     }
     
     /**
@@ -120,9 +144,38 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
      */     
     public TSBHashTableDA(Map<? extends K,? extends V> t)
     {
-        this(11, 0.5f);
+        this(capacityFor(t.size(), 0.5f), 0.5f);
         this.putAll(t);
     }
+
+    /**
+     * Crea una tabla vacia dimensionada para contener expected_size objetos
+     * sin necesidad de ningun rehashing, con factor de carga igual a 0.5f. Es
+     * la forma recomendada de crear la tabla cuando se conoce (aunque sea en
+     * forma aproximada) la cantidad de objetos que se van a insertar.
+     * @param expected_size la cantidad de objetos que se espera insertar.
+     * @param <K> el tipo de las claves de la tabla.
+     * @param <V> el tipo de los valores de la tabla.
+     * @return una tabla vacia con la capacidad ya ajustada.
+     */
+    public static <K, V> TSBHashTableDA<K, V> withExpectedSize(int expected_size)
+    {
+        return new TSBHashTableDA<>(capacityFor(expected_size, 0.5f), 0.5f);
+    }
+    
+    
+    /**
+     * Crea un constructor por lotes (Builder) para armar una tabla a partir de
+     * un conjunto de pares (key, value) no ordenados, reservando la capacidad
+     * final de una sola vez al momento de construirla.
+     * @param <K> el tipo de las claves de la tabla.
+     * @param <V> el tipo de los valores de la tabla.
+     * @return un Builder vacio.
+     */
+    public static <K, V> Builder<K, V> builder()
+    {
+        return new Builder<>();
+    }
     
     
     //************************ Implementacion de metodos especificados por Map.
@@ -148,7 +201,9 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     }
 
     /**
-     * Determina si la clave key esta en la tabla. 
+     * Determina si la clave key esta en la tabla. Con el filtro de Bloom
+     * activo (ver setBloomFilter()), una clave ausente casi siempre se descarta
+     * sin recorrer la secuencia de exploracion.
      * @param key la clave a verificar.
      * @return true si la clave esta en la tabla.
      * @throws NullPointerException si la clave es null.
@@ -173,7 +228,8 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
 
     /**
      * Retorna el objeto al cual esta asociada la clave key en la tabla, o null 
-     * si la tabla no contiene ningun objeto asociado a esa clave.
+     * si la tabla no contiene ningun objeto asociado a esa clave. No modifica
+     * la tabla (durante un rehashing incremental busca en ambos arreglos).
      * @param key la clave que sera buscada en la tabla.
      * @return el objeto asociado a la clave especificada (si existe la clave) o 
      *         null (si no existe la clave en esta tabla).
@@ -191,7 +247,12 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         try{k = (K) key;} 
         catch(ClassCastException c){throw new ClassCastException("get(): Llave incompatible");}
         
-        
+        // La busqueda no modifica la tabla: si hay un rehashing incremental en
+        // curso no se avanza la migracion (eso lo hacen put() y remove())
+
+        // Si el filtro de Bloom descarta la llave, seguro no esta en la tabla
+        if (!this.might_contain(k)) return null;
+
         // Obtenemos el codigo hash de la llave para partir a buscarlo a su casilla directa
         int hash = this.h(k);
         // Llamamos al metodo que busca el par para que busque su llave con su hash
@@ -199,6 +260,12 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         if (e != null && e.getState() != TOMBSTONE) {
             return e.getValue();
         }
+
+        // Si no estaba en el arreglo nuevo, puede estar aun sin migrar en el anterior
+        if (e == null && this.old_table != null) {
+            int pos = search_for_index(this.old_table, k, this.h(k, this.old_table.size()));
+            if (pos != -1) return this.old_table.get(pos).getValue();
+        }
         return null;
     }
 
@@ -219,6 +286,8 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     {
        if(key == null || value == null) throw new NullPointerException("put(): parametro null");
        
+       this.migrate_step();
+
        int ik = this.h((K)key);
        V old = null;
        Map.Entry<K, V> x = this.search_for_entry((K)key, ik);
@@ -227,12 +296,21 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
            old = x.getValue();
            x.setValue(value);
        }
+       else if(this.old_table != null && (x = this.take_from_old_table(key)) != null)
+       {
+           // el par aun no migrado se lleva al arreglo nuevo con su valor nuevo...
+           old = x.getValue();
+           x.setValue(value);
+           table.set(search_for_OPEN(this.table, this.h(key)), x);
+           this.filter_add(key);
+       }
        else
        {
            if(this.load_level() >= this.load_factor) { this.rehash(); }
            int pos = search_for_OPEN(this.table, this.h(key));
            Map.Entry<K, V> entry = new Entry<>(key, value, CLOSED);
            table.set(pos, entry);
+           this.filter_add(key);
            this.count++;
            this.modCount++;
        }
@@ -252,9 +330,19 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     public V remove(Object key) 
     {
         if(key == null) throw new NullPointerException("remove(): parametro null");
-        int hash = this.h((K) key);
-        int ind = search_for_index((K)key, hash);
-        if (ind == -1) return null;
+        this.migrate_step();
+        if(!this.might_contain(key)) return null;
+        K k = (K) key;
+        int hash = this.h(k);
+        int ind = search_for_index(k, hash);
+        if (ind == -1) {
+            // puede estar aun sin migrar en el arreglo anterior...
+            Map.Entry<K, V> x = this.old_table != null ? this.take_from_old_table(k) : null;
+            if (x == null) return null;
+            this.modCount ++;
+            this.count --;
+            return x.getValue();
+        }
         Entry<K, V> e = (Entry<K, V>) table.get(ind);
         if (e != null) {
             e.setState(TOMBSTONE);
@@ -280,6 +368,8 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         if (m == null) {
             throw new NullPointerException("Parametro vacio");
         }
+        // se dimensiona una sola vez para el peor caso (todas las claves nuevas)...
+        this.ensureCapacity(this.count + m.size());
         for(Map.Entry<? extends K, ? extends V> e : m.entrySet())
         {
             put(e.getKey(), e.getValue());
@@ -295,12 +385,16 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     public void clear() 
     {
          // Se recrea la tabla de Map.Entry
-        this.table = new TSBArrayList(initial_capacity);
+        this.table = new TSBArrayList<>(initial_capacity);
+        this.old_table = null;
+        this.old_filter = null;
+        if(this.filter != null) { this.filter = this.new_filter(initial_capacity); }
 
         // Inicializo el vector de estados
         Entry <K, V> e;
         for (int i = 0; i < initial_capacity; i++) {
             e = new Entry<>(null, null);
+            table.add(e);
         }
         this.count = 0;
         this.modCount++;
@@ -408,6 +502,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     public Object clone() throws CloneNotSupportedException 
     {
         TSBHashTableDA<K, V> t = (TSBHashTableDA<K, V>)new TSBHashTableDA<>(this.table.size(), this.load_factor);
+        t.setBloomFilter(this.filter != null);
         // Copiamos 1 a 1 los elementos
         for(Map.Entry<K, V> entry : this.entrySet()){
             t.put(entry.getKey(), entry.getValue());
@@ -460,6 +555,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     public int hashCode() 
     {
         int hc = 0;
+        this.finish_rehash();
         // Haremos la sumatoria del hash code de cada elemento (Par K-V) del Entry
         for (Map.Entry<K, V> entry : table) {
             hc += entry.hashCode();
@@ -475,6 +571,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     public String toString() 
     {
         // REVISAR... Asegurense de que funciona bien...
+        this.finish_rehash();
         StringBuilder cad = new StringBuilder("[");
         for(int i = 0; i < this.table.size(); i++)
         {
@@ -492,6 +589,58 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     
     //************************ Metodos especi�ficos de la clase.
 
+    /**
+     * Aplica la accion indicada a cada par (key, value) de la tabla,
+     * recorriendo directamente el arreglo de soporte (sin crear iteradores ni
+     * vistas).
+     * @param action la accion a aplicar sobre cada par.
+     * @throws NullPointerException si action es null.
+     * @throws ConcurrentModificationException si la tabla cambia su
+     *         estructura durante el recorrido.
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action)
+    {
+        if(action == null) throw new NullPointerException("forEach(): parametro null");
+        this.finish_rehash();
+        int expected_modCount = this.modCount;
+        for(int i = 0; i < this.table.size(); i++)
+        {
+            Entry<K, V> e = (Entry<K, V>) table.get(i);
+            if(e.getState() == CLOSED) { action.accept(e.getKey(), e.getValue()); }
+            if(this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("forEach(): modificacion inesperada de tabla...");
+            }
+        }
+    }
+
+    /**
+     * Aplica la accion indicada a cada par (key, value) de la tabla en
+     * paralelo: el arreglo de soporte se reparte por rangos de casillas entre
+     * los hilos del ForkJoinPool comun. La accion debe poder ejecutarse en
+     * forma concurrente y la tabla no debe modificarse mientras tanto.
+     * @param action la accion a aplicar sobre cada par.
+     * @throws NullPointerException si action es null.
+     */
+    public void parallelForEach(BiConsumer<? super K, ? super V> action)
+    {
+        if(action == null) throw new NullPointerException("parallelForEach(): parametro null");
+        Spliterator<Map.Entry<K, V>> sp = new TableSpliterator<>(e -> e, Spliterator.DISTINCT);
+        StreamSupport.stream(sp, true).forEach(e -> action.accept(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Retorna una copia congelada (inmutable) del contenido actual de la
+     * tabla, optimizada para lecturas concurrentes sin bloqueos. Los cambios
+     * posteriores en esta tabla no se reflejan en la copia.
+     * @return una tabla de solo lectura con el contenido actual.
+     */
+    public FrozenTSBHashTable<K, V> freeze()
+    {
+        return new FrozenTSBHashTable<>(this);
+    }
+
     /**
      * Determina si alguna clave de la tabla esta asociada al objeto value que
      * entra como parametro. Equivale a containsValue().
@@ -528,16 +677,220 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
      */
     protected void rehash()
     {
+        // si quedaba un rehashing incremental a medias, se lo completa...
+        this.finish_rehash();
+
         int old_length = this.table.size();
         
         // nuevo tamanio: primer primo mayor o igual al 50% del anterior...
         int new_length = nextPrime((int)(old_length * 1.5f));
-        
+        if(this.incremental_rehash) { this.start_rehash(new_length); }
+        else { this.rehash(new_length); }
+    }
+
+    /**
+     * Activa o desactiva el modo de rehashing incremental. En ese modo, cuando
+     * una insercion supera el factor de carga no se reubican todos los pares
+     * de una sola vez: se crea el arreglo nuevo y los dos arreglos conviven
+     * mientras cada put() y remove() posterior migra unas pocas casillas del
+     * arreglo anterior al nuevo (las busquedas consultan ambos y no migran
+     * nada, por lo que get() y containsKey() nunca modifican la tabla). Asi el
+     * costo O(n) del rehashing se reparte entre muchas operaciones en lugar de
+     * producir una pausa en una sola. Las operaciones que recorren la tabla
+     * completa (iteradores, forEach, toString, etc.) terminan antes la
+     * migracion pendiente. Si se desactiva el modo con una migracion en curso,
+     * la misma se completa en ese momento.
+     * @param incremental true para activar el rehashing incremental.
+     */
+    public void setIncrementalRehash(boolean incremental)
+    {
+        if(!incremental) { this.finish_rehash(); }
+        this.incremental_rehash = incremental;
+    }
+
+    /**
+     * Indica si la tabla esta en modo de rehashing incremental.
+     * @return true si el rehashing es incremental.
+     */
+    public boolean isIncrementalRehash()
+    {
+        return this.incremental_rehash;
+    }
+
+    /**
+     * Indica si hay un rehashing incremental en curso (quedan pares sin
+     * migrar al arreglo nuevo).
+     * @return true si la migracion no termino.
+     */
+    public boolean isRehashing()
+    {
+        return this.old_table != null;
+    }
+
+    /**
+     * Activa o desactiva un filtro de Bloom por bloques (ver BloomBloqueado)
+     * de las claves de la tabla, que se consulta antes de buscar en get(),
+     * containsKey() y remove(): si descarta la clave, la busqueda termina
+     * leyendo una sola linea de cache, sin recorrer la secuencia de
+     * exploracion hasta una casilla abierta. Conviene cuando la mayoria de
+     * las busquedas son de claves ausentes; si casi todas se encuentran, solo
+     * agrega trabajo. Usa unos 8 bits por casilla de la tabla y se reconstruye
+     * en cada rehashing (las claves eliminadas siguen en el filtro hasta
+     * entonces). Por defecto esta desactivado.
+     * @param enabled true para activar el filtro.
+     */
+    public void setBloomFilter(boolean enabled)
+    {
+        if(!enabled)
+        {
+            this.filter = null;
+            this.old_filter = null;
+            return;
+        }
+        if(this.filter != null) return;
+
+        this.finish_rehash();
+        BloomBloqueado f = this.new_filter(this.table.size());
+        for(int i = 0; i < this.table.size(); i++)
+        {
+            Entry<K, V> e = (Entry<K, V>) table.get(i);
+            if(e.getState() == CLOSED) { f.add(BloomBloqueado.hash(e.getKey().hashCode())); }
+        }
+        this.filter = f;
+    }
+
+    /**
+     * Determina si la tabla usa el filtro de Bloom de claves.
+     * @return true si el filtro esta activo.
+     */
+    public boolean isBloomFilter()
+    {
+        return this.filter != null;
+    }
+
+    /**
+     * Asegura que la tabla pueda contener al menos min_size objetos sin que
+     * ninguna insercion posterior dispare un rehashing. Si la capacidad actual
+     * no alcanza, se redimensiona la tabla una unica vez directamente al
+     * tamanio final (en lugar de crecer de a 50% en varios pasos).
+     * @param min_size la cantidad de objetos que la tabla debe poder contener.
+     */
+    public void ensureCapacity(int min_size)
+    {
+        int new_length = capacityFor(min_size, this.load_factor);
+        if(new_length > this.table.size())
+        {
+            this.finish_rehash();
+            this.rehash(new_length);
+        }
+    }
+
+    /*
+     * Inicia un rehashing incremental: crea el arreglo nuevo de tamanio
+     * new_length y deja el actual como arreglo anterior, para que sus pares
+     * se migren de a poco en migrate_step().
+     */
+    private void start_rehash(int new_length)
+    {
+        TSBArrayList<Map.Entry<K,V>> temp = this.open_table(new_length);
+
+        this.old_table = this.table;
+        this.migrate_index = 0;
+        this.table = temp;
+
+        // el filtro anterior sigue valiendo para los pares aun no migrados...
+        if(this.filter != null)
+        {
+            this.old_filter = this.filter;
+            this.filter = this.new_filter(new_length);
+        }
+
+        // notificacion fail-fast iterator... la tabla cambio su estructura...
+        this.modCount++;
+    }
+
+    /*
+     * Migra al arreglo nuevo los pares de las proximas MIGRATION_STEP casillas
+     * del arreglo anterior. Las casillas migradas quedan como tumbas sin
+     * clave, para no cortar las secuencias de exploracion de los pares que
+     * aun no se migraron. Al terminar, el arreglo anterior se descarta.
+     */
+    private void migrate_step()
+    {
+        if(this.old_table == null) return;
+
+        int end = Math.min(this.migrate_index + MIGRATION_STEP, this.old_table.size());
+        for(; this.migrate_index < end; this.migrate_index++)
+        {
+            Entry<K, V> x = (Entry<K, V>) this.old_table.get(this.migrate_index);
+            if(x.getState() == CLOSED)
+            {
+                this.old_table.set(this.migrate_index, new Entry<>(null, null, TOMBSTONE));
+                table.set(search_for_OPEN(this.table, this.h(x.getKey())), x);
+                this.filter_add(x.getKey());
+            }
+        }
+        if(this.migrate_index >= this.old_table.size())
+        {
+            this.old_table = null;
+            this.old_filter = null;
+        }
+    }
+
+    /*
+     * Crea un arreglo de soporte de tamanio length con todas sus casillas
+     * abiertas. Las casillas abiertas nunca se modifican (al ocuparlas se las
+     * reemplaza por un Entry nuevo), por lo que todas comparten un unico Entry
+     * y crear el arreglo no requiere crear length objetos: es lo que mantiene
+     * acotado el costo de iniciar un rehashing incremental.
+     */
+    private TSBArrayList<Map.Entry<K, V>> open_table(int length)
+    {
+        Map.Entry<K, V> open = new Entry<>(null, null);
+        return new TSBArrayList<>(Collections.nCopies(length, open));
+    }
+
+    /*
+     * Completa el rehashing incremental en curso (si lo hay). Lo invocan
+     * tambien los recorridos de la tabla completa (iteradores, forEach(),
+     * toString(), etc.), que asi son las unicas lecturas que modifican la
+     * tabla: como la estructura cambia, se incrementa modCount (un iterador
+     * creado antes ya estaba invalidado por el start_rehash() de la migracion).
+     */
+    private void finish_rehash()
+    {
+        if(this.old_table == null) return;
+        while(this.old_table != null) { this.migrate_step(); }
+        this.modCount++;
+    }
+
+    /*
+     * Busca la clave key en el arreglo anterior de un rehashing incremental.
+     * Si la encuentra, deja su casilla como tumba sin clave y retorna el par;
+     * si no, retorna null.
+     */
+    private Entry<K, V> take_from_old_table(K key)
+    {
+        int pos = search_for_index(this.old_table, key, this.h(key, this.old_table.size()));
+        if(pos == -1) return null;
+
+        Entry<K, V> x = (Entry<K, V>) this.old_table.get(pos);
+        this.old_table.set(pos, new Entry<>(null, null, TOMBSTONE));
+        return x;
+    }
+
+    /*
+     * Redimensiona la tabla al tamanio new_length (que se asume primo) y
+     * reubica en el nuevo arreglo todos los objetos que contenia.
+     */
+    private void rehash(int new_length)
+    {
         // crear el nuevo arreglo de tamanio new_length...
-        TSBArrayList<Map.Entry<K,V>> temp = new TSBArrayList<>(new_length);
-        Entry<K, V> e;
-        for(int j=0; j<temp.size(); j++) { e = new Entry<>(null, null); temp.add(e);}
+        TSBArrayList<Map.Entry<K,V>> temp = this.open_table(new_length);
         
+        // el filtro de Bloom (si se usa) se reconstruye con las claves vigentes...
+        BloomBloqueado f = this.filter != null ? this.new_filter(new_length) : null;
+
         // notificacion fail-fast iterator... la tabla cambio su estructura...
         this.modCount++;  
        
@@ -557,8 +910,10 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
 
                // ...insertar en el nuevo arreglo
                temp.set(y, x);
+               if(f != null) { f.add(BloomBloqueado.hash(key.hashCode())); }
            }
         }
+        if(f != null) { this.filter = f; }
        
         // cambiar la referencia table para que apunte a temp...
         this.table = temp;
@@ -605,7 +960,20 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         return k % t;        
     }
 
-    private boolean isPrime(int n)
+    /*
+     * Calcula la capacidad (un numero primo) que debe tener el arreglo de
+     * soporte para contener n objetos sin superar el factor de carga lf. Lo
+     * usan tambien las tablas especializadas en tipos primitivos del paquete.
+     */
+    static int capacityFor(int n, float lf)
+    {
+        if(n <= 0) { return 11; }
+        long length = (long) Math.ceil(n / (double) lf) + 1;
+        if(length > Integer.MAX_VALUE - 2) { throw new IllegalArgumentException("capacityFor(): tamanio excesivo"); }
+        return nextPrime((int) length);
+    }
+
+    static boolean isPrime(int n)
     {
         // negativos no admitidos en este contexto...
         if(n < 0) return false;
@@ -623,7 +991,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         return true;
     }
 
-    private int nextPrime (int n)
+    static int nextPrime (int n)
     {
         if(n % 2 == 0) n++;
         for(; !isPrime(n); n+=2);
@@ -640,6 +1008,36 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
     {
         return (float) this.count / this.table.size();
     } 
+
+    /*
+     * Crea un filtro de Bloom vacio para un arreglo de length casillas (con
+     * 16 bits por cada clave que puede llegar a contener).
+     */
+    private BloomBloqueado new_filter(int length)
+    {
+        return new BloomBloqueado((int) (length * this.load_factor) + 1, 16);
+    }
+
+    /*
+     * Registra la clave en el filtro de Bloom del arreglo, si se usa.
+     */
+    private void filter_add(Object key)
+    {
+        if(this.filter != null) { this.filter.add(BloomBloqueado.hash(key.hashCode())); }
+    }
+
+    /*
+     * Determina si la clave puede estar en la tabla segun el filtro de Bloom
+     * (el del arreglo o, durante un rehashing incremental, el del anterior).
+     * Sin filtro, siempre retorna true.
+     */
+    private boolean might_contain(Object key)
+    {
+        if(this.filter == null) return true;
+        long hash = BloomBloqueado.hash(key.hashCode());
+        if(this.filter.mightContain(hash)) return true;
+        return this.old_filter != null && this.old_filter.mightContain(hash);
+    }
     
     /*
      * Busca en la tabla un objeto Entry cuya clave coincida con key, a partir
@@ -658,13 +1056,21 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
      * retorna -1. Aplica exploracion cuadratica.
      */
     private int search_for_index(K key, int ik)
+    {
+        return search_for_index(this.table, key, ik);
+    }
+
+    /*
+     * Igual que search_for_index(key, ik), pero buscando en el arreglo t.
+     */
+    private int search_for_index(TSBArrayList<Map.Entry<K, V>> t, K key, int ik)
     {
         for(int j=0; ;j++)
         {
             int y = ik + (int)Math.pow(j, 2);
-            y %= table.size();
+            y %= t.size();
 
-            Entry<K, V> entry = (Entry<K, V>) table.get(y);
+            Entry<K, V> entry = (Entry<K, V>) t.get(y);
             if(entry.getState() == OPEN) { return -1; }
             if(key.equals(entry.getKey())) { return y; }
         }
@@ -796,6 +1202,12 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         {
             return new KeySetIterator();
         }
+
+        @Override
+        public Spliterator<K> spliterator()
+        {
+            return new TableSpliterator<>(Map.Entry::getKey, Spliterator.DISTINCT);
+        }
         
         @Override
         public int size() 
@@ -841,6 +1253,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
              */
             public KeySetIterator()
             {
+                TSBHashTableDA.this.finish_rehash();
                 next_ok = false;
                 expected_modCount = TSBHashTableDA.this.modCount;
                 current_index = -1;
@@ -963,6 +1376,12 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
             return new EntrySetIterator();
         }
 
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator()
+        {
+            return new TableSpliterator<>(e -> e, Spliterator.DISTINCT);
+        }
+
         /*
          * Verifica si esta vista (y por lo tanto la tabla) contiene al par 
          * que entra como parametro (que debe ser de la clase Entry).
@@ -975,6 +1394,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
             if(!(o instanceof Entry)) { return false; }
             
             // Convertimos el elemento en un entry
+            TSBHashTableDA.this.finish_rehash();
             Entry<K, V> e = (Entry <K, V>) o, eAux;
             
             int indHash = TSBHashTableDA.this.h(e.getKey());
@@ -1005,6 +1425,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
             if(!(o instanceof Entry)) { return false; }
             
             // Recorreremos con recorrido cuadratico el elemento
+            TSBHashTableDA.this.finish_rehash();
             Entry<K, V> e = (Entry<K, V>) o, eAux;
             int ih = TSBHashTableDA.this.h(e.getKey()), j = 0;
             for (int ic = ih; ic % table.size() == 0; ic += j^2) {
@@ -1054,6 +1475,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
              */
             public EntrySetIterator()
             {
+                TSBHashTableDA.this.finish_rehash();
                 current_index = -1;
                 last_index = 0;
                 next_ok = false;
@@ -1161,6 +1583,13 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
         {
             return new ValueCollectionIterator();
         }
+
+        @Override
+        public Spliterator<V> spliterator()
+        {
+            // los valores pueden repetirse: esta vista no es DISTINCT...
+            return new TableSpliterator<>(Map.Entry::getValue, 0);
+        }
         
         @Override
         public int size() 
@@ -1200,6 +1629,7 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
              */
             public ValueCollectionIterator()
             {
+                TSBHashTableDA.this.finish_rehash();
                 current_index = -1;
                 last_index = 0;
                 next_ok = false;
@@ -1295,4 +1725,222 @@ public class TSBHashTableDA<K,V> implements Map<K,V>, Cloneable, Serializable
             }     
         }
     }
+
+    /*
+     * Spliterator comun a las tres vistas, que recorre directamente el rango
+     * de casillas [index, fence) del arreglo de soporte y aplica la funcion
+     * extractor a cada par (casilla cerrada) que encuentra. trySplit() parte el
+     * rango de casillas por la mitad y cuenta los pares de la mitad que cede,
+     * de forma que cada parte conoce exactamente cuantos elementos tiene
+     * (SIZED y SUBSIZED): un stream paralelo puede entonces reservar y llenar
+     * los resultados de cada parte sin sincronizacion. Es late-binding (toma
+     * el tamanio de la tabla en su primer uso) y fail-fast.
+     */
+    private class TableSpliterator<T> implements Spliterator<T>
+    {
+        private final Function<Map.Entry<K, V>, ? extends T> extractor;
+        private final int extra_characteristics;
+
+        // el rango de casillas pendiente, y cuantos pares contiene...
+        private int index;
+        private int fence;
+        private int est;
+
+        private int expected_modCount;
+
+        public TableSpliterator(Function<Map.Entry<K, V>, ? extends T> extractor, int extra_characteristics)
+        {
+            this(extractor, extra_characteristics, 0, -1, 0, 0);
+        }
+
+        private TableSpliterator(Function<Map.Entry<K, V>, ? extends T> extractor, int extra_characteristics,
+                                 int origin, int fence, int est, int expected_modCount)
+        {
+            this.extractor = extractor;
+            this.extra_characteristics = extra_characteristics;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expected_modCount = expected_modCount;
+        }
+
+        private int getFence()
+        {
+            if(fence < 0)
+            {
+                TSBHashTableDA.this.finish_rehash();
+                expected_modCount = TSBHashTableDA.this.modCount;
+                est = TSBHashTableDA.this.count;
+                fence = table.size();
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<T> trySplit()
+        {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if(lo >= mid || est <= 1) return null;
+
+            int n = 0;
+            for(int i = lo; i < mid; i++)
+            {
+                if(((Entry<K, V>) table.get(i)).getState() == CLOSED) { n++; }
+            }
+            index = mid;
+            est -= n;
+            return new TableSpliterator<>(extractor, extra_characteristics, lo, mid, n, expected_modCount);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action)
+        {
+            if(action == null) throw new NullPointerException("tryAdvance(): parametro null");
+            int hi = getFence();
+            while(index < hi)
+            {
+                Entry<K, V> e = (Entry<K, V>) table.get(index++);
+                if(e.getState() == CLOSED)
+                {
+                    est--;
+                    action.accept(extractor.apply(e));
+                    if(TSBHashTableDA.this.modCount != expected_modCount)
+                    {
+                        throw new ConcurrentModificationException("tryAdvance(): modificacion inesperada de tabla...");
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action)
+        {
+            if(action == null) throw new NullPointerException("forEachRemaining(): parametro null");
+            int hi = getFence();
+            for(int i = index; i < hi; i++)
+            {
+                Entry<K, V> e = (Entry<K, V>) table.get(i);
+                if(e.getState() == CLOSED) { action.accept(extractor.apply(e)); }
+            }
+            index = hi;
+            est = 0;
+            if(TSBHashTableDA.this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("forEachRemaining(): modificacion inesperada de tabla...");
+            }
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            getFence();
+            return est;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL | extra_characteristics;
+        }
+    }
+
+    /**
+     * Clase para construir una tabla por lotes: acumula los pares (key, value)
+     * en el orden en que llegan (sin ningun orden en particular) y recien al
+     * invocar build() crea la tabla con la capacidad final ya calculada, de
+     * forma que la insercion de todo el lote no provoca ningun rehashing. Si
+     * una clave se repite en el lote, prevalece el ultimo valor agregado.
+     * @param <K> el tipo de las claves de la tabla.
+     * @param <V> el tipo de los valores de la tabla.
+     */
+    public static class Builder<K, V>
+    {
+        // las claves y valores del lote, en paralelo...
+        private TSBArrayList<K> keys;
+        private TSBArrayList<V> values;
+
+        // la cantidad de pares que se espera que tenga la tabla final...
+        private int expected_size;
+
+        private Builder()
+        {
+            keys = new TSBArrayList<>();
+            values = new TSBArrayList<>();
+            expected_size = 0;
+        }
+
+        /**
+         * Indica la cantidad aproximada de pares que tendra la tabla, para
+         * reservar desde el inicio el espacio del lote.
+         * @param expected_size la cantidad estimada de pares.
+         * @return este mismo Builder.
+         */
+        public Builder<K, V> expectedSize(int expected_size)
+        {
+            if(expected_size > this.expected_size)
+            {
+                this.expected_size = expected_size;
+                keys.ensureCapacity(expected_size);
+                values.ensureCapacity(expected_size);
+            }
+            return this;
+        }
+
+        /**
+         * Agrega un par (key, value) al lote.
+         * @param key la clave a agregar.
+         * @param value el valor asociado a la clave.
+         * @return este mismo Builder.
+         * @throws NullPointerException si key es null o value es null.
+         */
+        public Builder<K, V> put(K key, V value)
+        {
+            if(key == null || value == null) throw new NullPointerException("put(): parametro null");
+            keys.add(key);
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Agrega al lote todos los pares formados por las claves y los valores
+         * que estan en la misma posicion de ambos arreglos.
+         * @param keys las claves a agregar.
+         * @param values los valores asociados a cada clave.
+         * @return este mismo Builder.
+         * @throws NullPointerException si algun arreglo, clave o valor es null.
+         * @throws IllegalArgumentException si los arreglos difieren en tamanio.
+         */
+        public Builder<K, V> putAll(K[] keys, V[] values)
+        {
+            if(keys == null || values == null) throw new NullPointerException("putAll(): parametro null");
+            if(keys.length != values.length)
+            {
+                throw new IllegalArgumentException("putAll(): los arreglos no tienen el mismo tamanio");
+            }
+            this.expectedSize(this.keys.count() + keys.length);
+            for(int i = 0; i < keys.length; i++)
+            {
+                this.put(keys[i], values[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Crea la tabla con la capacidad justa para todo el lote e inserta en
+         * ella todos los pares acumulados.
+         * @return la tabla con el contenido del lote.
+         */
+        public TSBHashTableDA<K, V> build()
+        {
+            int n = keys.count();
+            TSBHashTableDA<K, V> t = TSBHashTableDA.withExpectedSize(Math.max(n, expected_size));
+            for(int i = 0; i < n; i++)
+            {
+                t.put(keys.get(i), values.get(i));
+            }
+            return t;
+        }
+    }
 }
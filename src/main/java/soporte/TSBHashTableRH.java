@@ -0,0 +1,941 @@
+package soporte;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Clase para emular la funcionalidad de la clase java.util.Hashtable, como
+ * TSBHashTableDA, pero resolviendo las colisiones con Direccionamiento Abierto
+ * en la variante Robin Hood: exploracion lineal en la que cada clave recuerda
+ * (a traves de su valor hash) cuan lejos quedo de su casilla inicial, y al
+ * insertar se le cede la casilla a la clave que este mas lejos de la suya. Eso
+ * mantiene todas las cadenas de exploracion con una longitud parecida, y una
+ * busqueda fallida termina apenas se encuentra una clave mas cercana a su
+ * casilla que la buscada.
+ *
+ * Las eliminaciones no dejan tumbas: las claves siguientes del mismo grupo se
+ * desplazan una casilla hacia atras (backward-shift). Por todo esto la tabla
+ * puede operar en forma segura con factores de carga de 0.85 a 0.9, contra el
+ * 0.5 que requiere la exploracion cuadratica de TSBHashTableDA.
+ *
+ * Las claves, los valores y los valores hash se guardan en arreglos paralelos;
+ * una casilla esta libre si su clave es null (no se admiten claves ni valores
+ * null, igual que en TSBHashTableDA).
+ *
+ * @param <K> el tipo de los objetos que seran usados como clave en la tabla.
+ * @param <V> el tipo de los objetos que seran los valores de la tabla.
+ */
+public class TSBHashTableRH<K,V> implements Map<K,V>, Cloneable, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    //************************ Atributos privados (estructurales).
+
+    // los arreglos paralelos que forman la tabla (no se serializan: ver
+    // writeObject())...
+    private transient Object[] keys;
+    private transient Object[] values;
+    private transient int[] hashes;
+
+    // el tamanio inicial de la tabla (tamanio con el que fue creada)...
+    private int initial_capacity;
+
+    // la cantidad de objetos que contiene la tabla...
+    private int count;
+
+    // el factor de carga para calcular si hace falta un rehashing...
+    private float load_factor;
+
+
+    //************************ Atributos privados (para gestionar las vistas).
+
+    private transient Set<K> keySet = null;
+    private transient Set<Map.Entry<K,V>> entrySet = null;
+    private transient Collection<V> values_view = null;
+
+
+    //************************ Atributos protegidos (control de iteracion).
+
+    // conteo de operaciones de cambio de tamanio (fail-fast iterator).
+    protected transient int modCount;
+
+
+    //************************ Constructores.
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial igual a 11 y con factor
+     * de carga igual a 0.85f.
+     */
+    public TSBHashTableRH()
+    {
+        this(11, 0.85f);
+    }
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial indicada y con factor
+     * de carga igual a 0.85f.
+     * @param initial_capacity la capacidad inicial de la tabla.
+     */
+    public TSBHashTableRH(int initial_capacity)
+    {
+        this(initial_capacity, 0.85f);
+    }
+
+    /**
+     * Crea una tabla vacia, con la capacidad inicial indicada y con el factor
+     * de carga indicado. Si la capacidad inicial es menor o igual a 0, la tabla
+     * sera creada de tamanio 11. Si el factor de carga es negativo, cero o
+     * mayor a 0.9, se ajustara a 0.85f. Si initial_capacity no es primo, el
+     * tamanio se ajustara al primer primo que sea mayor a initial_capacity.
+     * @param initial_capacity la capacidad inicial de la tabla.
+     * @param load_factor el factor de carga de la tabla.
+     */
+    public TSBHashTableRH(int initial_capacity, float load_factor)
+    {
+        if(load_factor <= 0 || load_factor > 0.9) { load_factor = 0.85f; }
+        if(initial_capacity <= 0) { initial_capacity = 11; }
+        else if(!TSBHashTableDA.isPrime(initial_capacity))
+        {
+            initial_capacity = TSBHashTableDA.nextPrime(initial_capacity);
+        }
+
+        this.keys = new Object[initial_capacity];
+        this.values = new Object[initial_capacity];
+        this.hashes = new int[initial_capacity];
+        this.initial_capacity = initial_capacity;
+        this.load_factor = load_factor;
+        this.count = 0;
+        this.modCount = 0;
+    }
+
+    /**
+     * Crea una tabla a partir del contenido del Map especificado, dimensionada
+     * de una sola vez para contenerlo.
+     * @param t el Map a partir del cual se creara la tabla.
+     */
+    public TSBHashTableRH(Map<? extends K,? extends V> t)
+    {
+        this(TSBHashTableDA.capacityFor(t.size(), 0.85f), 0.85f);
+        this.putAll(t);
+    }
+
+    /**
+     * Crea una tabla vacia dimensionada para contener expected_size objetos
+     * sin necesidad de ningun rehashing, con factor de carga igual a 0.85f.
+     * @param expected_size la cantidad de objetos que se espera insertar.
+     * @param <K> el tipo de las claves de la tabla.
+     * @param <V> el tipo de los valores de la tabla.
+     * @return una tabla vacia con la capacidad ya ajustada.
+     */
+    public static <K, V> TSBHashTableRH<K, V> withExpectedSize(int expected_size)
+    {
+        return new TSBHashTableRH<>(TSBHashTableDA.capacityFor(expected_size, 0.85f), 0.85f);
+    }
+
+
+    //************************ Implementacion de metodos especificados por Map.
+
+    /**
+     * Retorna la cantidad de elementos contenidos en la tabla.
+     * @return la cantidad de elementos de la tabla.
+     */
+    @Override
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Determina si la tabla esta vacia (no contiene ningun elemento).
+     * @return true si la tabla esta vacia.
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return (this.count == 0);
+    }
+
+    /**
+     * Determina si la clave key esta en la tabla.
+     * @param key la clave a verificar.
+     * @return true si la clave esta en la tabla.
+     * @throws NullPointerException si la clave es null.
+     */
+    @Override
+    public boolean containsKey(Object key)
+    {
+        if(key == null) throw new NullPointerException("containsKey(): parametro null");
+        return this.search_for_index(key) != -1;
+    }
+
+    /**
+     * Determina si alguna clave de la tabla esta asociada al objeto value que
+     * entra como parametro.
+     * @param value el objeto a buscar en la tabla.
+     * @return true si alguna clave esta asociada efectivamente a ese value.
+     */
+    @Override
+    public boolean containsValue(Object value)
+    {
+        if(value == null) return false;
+        for(int i = 0; i < keys.length; i++)
+        {
+            if(keys[i] != null && value.equals(values[i])) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna el objeto al cual esta asociada la clave key en la tabla, o null
+     * si la tabla no contiene ningun objeto asociado a esa clave.
+     * @param key la clave que sera buscada en la tabla.
+     * @return el objeto asociado a la clave especificada (si existe la clave) o
+     *         null (si no existe la clave en esta tabla).
+     * @throws NullPointerException si key es null.
+     */
+    @Override
+    public V get(Object key)
+    {
+        if(key == null) throw new NullPointerException("get(): parametro null");
+        int pos = this.search_for_index(key);
+        return pos != -1 ? value_at(pos) : null;
+    }
+
+    /**
+     * Asocia el valor (value) especificado, con la clave (key) especificada en
+     * esta tabla. Si la tabla contenia previamente un valor asociado para la
+     * clave, entonces el valor anterior es reemplazado por el nuevo (y en este
+     * caso el tamanio de la tabla no cambia).
+     * @param key la clave del objeto que se quiere agregar a la tabla.
+     * @param value el objeto que se quiere agregar a la tabla.
+     * @return el objeto anteriormente asociado a la clave si la clave ya
+     *         estaba asociada con alguno, o null si la clave no estaba antes
+     *         asociada a ningun objeto.
+     * @throws NullPointerException si key es null o value es null.
+     */
+    @Override
+    public V put(K key, V value)
+    {
+        if(key == null || value == null) throw new NullPointerException("put(): parametro null");
+
+        int pos = this.search_for_index(key);
+        if(pos != -1)
+        {
+            V old = value_at(pos);
+            values[pos] = value;
+            return old;
+        }
+
+        if(this.count + 1 > this.load_factor * keys.length) { this.rehash(); }
+        this.insert(key, value, key.hashCode());
+        this.count++;
+        this.modCount++;
+        return null;
+    }
+
+    /**
+     * Elimina de la tabla la clave key (y su correspondiente valor asociado).
+     * El metodo no hace nada si la clave no esta en la tabla. Las claves
+     * siguientes del mismo grupo se desplazan hacia atras, sin dejar tumbas.
+     * @param key la clave a eliminar.
+     * @return El objeto al cual la clave estaba asociada, o null si la clave no
+     *         estaba en la tabla.
+     * @throws NullPointerException si la clave es null.
+     */
+    @Override
+    public V remove(Object key)
+    {
+        if(key == null) throw new NullPointerException("remove(): parametro null");
+        int pos = this.search_for_index(key);
+        if(pos == -1) { return null; }
+
+        V old = value_at(pos);
+        this.remove_at(pos);
+        return old;
+    }
+
+    /**
+     * Copia en esta tabla todos los objetos contenidos en el map especificado,
+     * redimensionando la tabla una sola vez si hace falta.
+     * @param m el map cuyos objetos seran copiados en esta tabla.
+     * @throws NullPointerException si m es null.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m)
+    {
+        if(m == null) throw new NullPointerException("putAll(): parametro null");
+        this.ensureCapacity(this.count + m.size());
+        for(Map.Entry<? extends K, ? extends V> e : m.entrySet())
+        {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Elimina el contenido de la tabla, de forma de dejarla vacia y con el
+     * tamanio que tuvo al ser creada.
+     */
+    @Override
+    public void clear()
+    {
+        this.keys = new Object[initial_capacity];
+        this.values = new Object[initial_capacity];
+        this.hashes = new int[initial_capacity];
+        this.count = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Retorna un Set a modo de vista de todas las claves contenidas en la
+     * tabla, con las mismas reglas que TSBHashTableDA.keySet().
+     * @return un conjunto a modo de vista de todas las claves de la tabla.
+     */
+    @Override
+    public Set<K> keySet()
+    {
+        if(keySet == null) { keySet = new KeySet(); }
+        return keySet;
+    }
+
+    /**
+     * Retorna una Collection a modo de vista de todos los valores contenidos
+     * en la tabla, con las mismas reglas que TSBHashTableDA.values().
+     * @return una coleccion a modo de vista de todos los valores de la tabla.
+     */
+    @Override
+    public Collection<V> values()
+    {
+        if(values_view == null) { values_view = new ValueCollection(); }
+        return values_view;
+    }
+
+    /**
+     * Retorna un Set a modo de vista de todos los pares (key, value) de la
+     * tabla, con las mismas reglas que TSBHashTableDA.entrySet().
+     * @return un conjunto a modo de vista de todos los pares de la tabla.
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        if(entrySet == null) { entrySet = new EntrySet(); }
+        return entrySet;
+    }
+
+
+    //************************ Redefinicion de metodos heredados desde Object.
+
+    /**
+     * Retorna una copia superficial de la tabla: los arreglos de soporte se
+     * duplican, pero no se clonan las claves ni los valores que contienen.
+     * @return una copia superficial de la tabla.
+     * @throws CloneNotSupportedException si la clase no implementa Cloneable.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object clone() throws CloneNotSupportedException
+    {
+        TSBHashTableRH<K, V> t = (TSBHashTableRH<K, V>) super.clone();
+        t.keys = this.keys.clone();
+        t.values = this.values.clone();
+        t.hashes = this.hashes.clone();
+        t.keySet = null;
+        t.entrySet = null;
+        t.values_view = null;
+        t.modCount = 0;
+        return t;
+    }
+
+    /**
+     * Determina si esta tabla es igual al objeto especificado.
+     * @param obj el objeto a comparar con esta tabla.
+     * @return true si los objetos son iguales.
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if(this == obj) { return true; }
+        if(!(obj instanceof Map)) { return false; }
+
+        Map<?, ?> t = (Map<?, ?>) obj;
+        if(t.size() != this.size()) { return false; }
+
+        try
+        {
+            for(int i = 0; i < keys.length; i++)
+            {
+                if(keys[i] != null && !values[i].equals(t.get(keys[i]))) { return false; }
+            }
+        }
+        catch (ClassCastException | NullPointerException e)
+        {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Retorna un hash code para la tabla completa.
+     * @return un hash code para la tabla.
+     */
+    @Override
+    public int hashCode()
+    {
+        int hc = 0;
+        for(int i = 0; i < keys.length; i++)
+        {
+            if(keys[i] != null) { hc += hashes[i] ^ values[i].hashCode(); }
+        }
+        return hc;
+    }
+
+    /**
+     * Devuelve el contenido de la tabla en forma de String.
+     * @return una cadena con el contenido completo de la tabla.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder cad = new StringBuilder("[");
+        for(int i = 0; i < keys.length; i++)
+        {
+            if(keys[i] != null)
+            {
+                cad.append('(').append(keys[i]).append(", ").append(values[i]).append(") ");
+            }
+        }
+        cad.append("]");
+        return cad.toString();
+    }
+
+
+    //************************ Serializacion.
+
+    /*
+     * Se serializan los atributos escalares y luego cada par (clave, valor).
+     * Las casillas dependen del hashCode() de las claves, que no tiene por que
+     * ser el mismo al deserializar, por lo que los arreglos no se escriben.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException
+    {
+        s.defaultWriteObject();
+        for(int i = 0; i < keys.length; i++)
+        {
+            if(keys[i] != null)
+            {
+                s.writeObject(keys[i]);
+                s.writeObject(values[i]);
+            }
+        }
+    }
+
+    /*
+     * Se leen los pares escritos por writeObject() y se vuelven a insertar en
+     * una tabla con lugar para todos ellos.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException
+    {
+        s.defaultReadObject();
+        int n = this.count;
+        int length = Math.max(this.initial_capacity, TSBHashTableDA.capacityFor(n, this.load_factor));
+        this.keys = new Object[length];
+        this.values = new Object[length];
+        this.hashes = new int[length];
+        this.count = 0;
+        for(int i = 0; i < n; i++)
+        {
+            K key = (K) s.readObject();
+            V value = (V) s.readObject();
+            this.put(key, value);
+        }
+    }
+
+
+    //************************ Metodos especificos de la clase.
+
+    /**
+     * Asegura que la tabla pueda contener al menos min_size objetos sin que
+     * ninguna insercion posterior dispare un rehashing.
+     * @param min_size la cantidad de objetos que la tabla debe poder contener.
+     */
+    public void ensureCapacity(int min_size)
+    {
+        int new_length = TSBHashTableDA.capacityFor(min_size, this.load_factor);
+        if(new_length > keys.length) { this.rehash(new_length); }
+    }
+
+    /**
+     * Retorna la mayor distancia a la que quedo una clave de su casilla
+     * inicial: es la cantidad maxima de casillas que examina una busqueda
+     * exitosa, menos uno.
+     * @return la longitud maxima de exploracion de la tabla.
+     */
+    public int maxProbeLength()
+    {
+        int max = 0;
+        for(int i = 0; i < keys.length; i++)
+        {
+            if(keys[i] != null) { max = Math.max(max, this.distance(i)); }
+        }
+        return max;
+    }
+
+    /**
+     * Incrementa el tamanio de la tabla y reorganiza su contenido. Se invoca
+     * automaticamente cuando una insercion superaria el factor de carga.
+     */
+    protected void rehash()
+    {
+        this.rehash(TSBHashTableDA.nextPrime((int)(keys.length * 1.5f)));
+    }
+
+
+    //************************ Metodos privados.
+
+    /*
+     * Funcion hash. Toma el valor hash de una clave y un tamanio de tabla t, y
+     * calcula y retorna la casilla inicial de esa clave dado ese tamanio. Con
+     * exploracion lineal, claves con hashCode() consecutivos (como los de
+     * Strings que solo difieren en el ultimo caracter) formarian un unico
+     * grupo enorme, por lo que antes se dispersan los bits del valor hash.
+     */
+    private static int h(int hash, int t)
+    {
+        hash *= 0x9E3779B9;
+        hash ^= (hash >>> 16);
+        return (hash & 0x7FFFFFFF) % t;
+    }
+
+    /*
+     * Retorna la clave de la casilla pos. Los arreglos son Object[] porque no se
+     * pueden crear arreglos de K o V, pero solo guardan claves de tipo K y
+     * valores de tipo V (o null).
+     */
+    @SuppressWarnings("unchecked")
+    private K key_at(int pos)
+    {
+        return (K) keys[pos];
+    }
+
+    /*
+     * Retorna el valor de la casilla pos.
+     */
+    @SuppressWarnings("unchecked")
+    private V value_at(int pos)
+    {
+        return (V) values[pos];
+    }
+
+    /*
+     * Retorna la distancia entre la casilla pos y la casilla inicial de la
+     * clave que la ocupa.
+     */
+    private int distance(int pos)
+    {
+        int t = keys.length;
+        int d = pos - h(hashes[pos], t);
+        return d < 0 ? d + t : d;
+    }
+
+    /*
+     * Busca la clave key aplicando exploracion lineal. La busqueda se corta al
+     * llegar a una casilla libre o a una clave que esta mas cerca de su casilla
+     * inicial que lo que ya se avanzo: por el invariante Robin Hood, key no
+     * puede estar mas adelante. Retorna la posicion de key, o -1.
+     */
+    private int search_for_index(Object key)
+    {
+        int hash = key.hashCode();
+        int t = keys.length;
+        int pos = h(hash, t);
+        for(int dist = 0; ; dist++)
+        {
+            Object k = keys[pos];
+            if(k == null || this.distance(pos) < dist) { return -1; }
+            if(hashes[pos] == hash && key.equals(k)) { return pos; }
+            if(++pos == t) { pos = 0; }
+        }
+    }
+
+    /*
+     * Inserta un par que se sabe que no esta en la tabla, cediendo la casilla
+     * a la clave mas alejada de la suya cada vez que se cruzan. No actualiza
+     * los contadores.
+     */
+    private void insert(Object key, Object value, int hash)
+    {
+        int t = keys.length;
+        int pos = h(hash, t);
+        for(int dist = 0; ; dist++)
+        {
+            if(keys[pos] == null)
+            {
+                keys[pos] = key;
+                values[pos] = value;
+                hashes[pos] = hash;
+                return;
+            }
+
+            int d = this.distance(pos);
+            if(d < dist)
+            {
+                // la clave residente esta mas cerca de su casilla: se la desplaza...
+                Object tk = keys[pos]; keys[pos] = key; key = tk;
+                Object tv = values[pos]; values[pos] = value; value = tv;
+                int th = hashes[pos]; hashes[pos] = hash; hash = th;
+                dist = d;
+            }
+            if(++pos == t) { pos = 0; }
+        }
+    }
+
+    /*
+     * Elimina el par de la casilla pos desplazando una casilla hacia atras a
+     * todas las claves siguientes del grupo, hasta llegar a una casilla libre o
+     * a una clave que ya esta en su casilla inicial.
+     */
+    private void remove_at(int pos)
+    {
+        int t = keys.length;
+        int next = pos + 1 == t ? 0 : pos + 1;
+        while(keys[next] != null && this.distance(next) > 0)
+        {
+            keys[pos] = keys[next];
+            values[pos] = values[next];
+            hashes[pos] = hashes[next];
+            pos = next;
+            next = pos + 1 == t ? 0 : pos + 1;
+        }
+        keys[pos] = null;
+        values[pos] = null;
+        hashes[pos] = 0;
+
+        this.count--;
+        this.modCount++;
+    }
+
+    /*
+     * Redimensiona la tabla al tamanio new_length (que se asume primo) y
+     * reubica en los nuevos arreglos todos los pares que contenia.
+     */
+    private void rehash(int new_length)
+    {
+        Object[] old_keys = this.keys;
+        Object[] old_values = this.values;
+        int[] old_hashes = this.hashes;
+
+        this.keys = new Object[new_length];
+        this.values = new Object[new_length];
+        this.hashes = new int[new_length];
+        this.modCount++;
+
+        for(int i = 0; i < old_keys.length; i++)
+        {
+            if(old_keys[i] != null) { this.insert(old_keys[i], old_values[i], old_hashes[i]); }
+        }
+    }
+
+
+    //************************ Clases Internas.
+
+    /*
+     * Clase interna que representa un par de la tabla retornado por el
+     * iterador de entrySet(). Como las eliminaciones mueven los pares de
+     * casilla, setValue() vuelve a buscar la clave en la tabla.
+     */
+    private class Entry implements Map.Entry<K, V>
+    {
+        private final K key;
+        private V value;
+
+        public Entry(K key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey()
+        {
+            return key;
+        }
+
+        @Override
+        public V getValue()
+        {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value)
+        {
+            if(value == null)
+            {
+                throw new IllegalArgumentException("setValue(): parametro null...");
+            }
+
+            int pos = TSBHashTableRH.this.search_for_index(key);
+            if(pos == -1) { throw new IllegalStateException("setValue(): el par ya no esta en la tabla..."); }
+
+            V old = this.value;
+            this.value = value;
+            TSBHashTableRH.this.values[pos] = value;
+            return old;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(this == obj) { return true; }
+            if(!(obj instanceof Map.Entry)) { return false; }
+
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public String toString()
+        {
+            return "(" + key.toString() + ", " + value.toString() + ")";
+        }
+    }
+
+    /*
+     * Iterador base de las tres vistas. Recorre el arreglo de soporte
+     * comenzando en una casilla libre, de forma que ningun grupo de claves
+     * quede partido entre el final y el principio del recorrido: asi, cuando
+     * remove() desplaza hacia atras las claves siguientes, todas ellas siguen
+     * estando por delante del iterador y basta con volver a examinar la
+     * casilla que se acaba de vaciar.
+     */
+    private abstract class HashIterator<T> implements Iterator<T>
+    {
+        // la casilla libre en la que comienza (y termina) el recorrido...
+        private final int start;
+
+        // cantidad de casillas ya examinadas desde start...
+        private int offset;
+
+        // la casilla del ultimo par retornado por next()...
+        private int last_pos;
+
+        // flag para controlar si remove() esta bien invocado...
+        private boolean next_ok;
+
+        // el valor que deberia tener el modCount de la tabla completa...
+        private int expected_modCount;
+
+        public HashIterator()
+        {
+            int s = 0;
+            while(s < keys.length && keys[s] != null) { s++; }
+            start = s;
+            offset = 0;
+            next_ok = false;
+            expected_modCount = TSBHashTableRH.this.modCount;
+        }
+
+        /*
+         * Determina si hay al menos un elemento en la tabla que no haya sido
+         * retornado por next().
+         */
+        @Override
+        public boolean hasNext()
+        {
+            int t = keys.length;
+            for(int o = offset + 1; o < t; o++)
+            {
+                if(keys[(start + o) % t] != null) { return true; }
+            }
+            return false;
+        }
+
+        /*
+         * Avanza hasta la siguiente casilla ocupada y retorna su posicion.
+         */
+        protected int nextIndex()
+        {
+            if(TSBHashTableRH.this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("next(): modificacion inesperada de tabla...");
+            }
+
+            int t = keys.length;
+            for(offset++; offset < t; offset++)
+            {
+                int pos = (start + offset) % t;
+                if(keys[pos] != null)
+                {
+                    last_pos = pos;
+                    next_ok = true;
+                    return pos;
+                }
+            }
+            throw new NoSuchElementException("next(): no existe el elemento pedido...");
+        }
+
+        /*
+         * Remueve el elemento retornado por la ultima invocacion a next(). Si
+         * el desplazamiento hacia atras ocupo esa casilla, el iterador vuelve a
+         * examinarla en el proximo next().
+         */
+        @Override
+        public void remove()
+        {
+            if(TSBHashTableRH.this.modCount != expected_modCount)
+            {
+                throw new ConcurrentModificationException("remove(): modificacion inesperada de tabla...");
+            }
+            if(!next_ok)
+            {
+                throw new IllegalStateException("remove(): debe invocar a next() antes de remove()...");
+            }
+
+            TSBHashTableRH.this.remove_at(last_pos);
+            offset--;
+            next_ok = false;
+            expected_modCount = TSBHashTableRH.this.modCount;
+        }
+    }
+
+    /*
+     * Clase interna que representa una vista de todas las claves de la tabla.
+     */
+    private class KeySet extends AbstractSet<K>
+    {
+        @Override
+        public Iterator<K> iterator()
+        {
+            return new HashIterator<K>()
+            {
+                @Override
+                public K next()
+                {
+                    return key_at(nextIndex());
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return TSBHashTableRH.this.count;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return TSBHashTableRH.this.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o)
+        {
+            return (TSBHashTableRH.this.remove(o) != null);
+        }
+
+        @Override
+        public void clear()
+        {
+            TSBHashTableRH.this.clear();
+        }
+    }
+
+    /*
+     * Clase interna que representa una vista de todos los pares de la tabla.
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>>
+    {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator()
+        {
+            return new HashIterator<Map.Entry<K, V>>()
+            {
+                @Override
+                public Map.Entry<K, V> next()
+                {
+                    int pos = nextIndex();
+                    return new Entry(key_at(pos), value_at(pos));
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            if(!(o instanceof Map.Entry)) { return false; }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            if(e.getKey() == null) { return false; }
+
+            int pos = TSBHashTableRH.this.search_for_index(e.getKey());
+            return pos != -1 && values[pos].equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o)
+        {
+            if(!this.contains(o)) { return false; }
+            TSBHashTableRH.this.remove(((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public int size()
+        {
+            return TSBHashTableRH.this.count;
+        }
+
+        @Override
+        public void clear()
+        {
+            TSBHashTableRH.this.clear();
+        }
+    }
+
+    /*
+     * Clase interna que representa una vista de todos los valores de la tabla.
+     */
+    private class ValueCollection extends AbstractCollection<V>
+    {
+        @Override
+        public Iterator<V> iterator()
+        {
+            return new HashIterator<V>()
+            {
+                @Override
+                public V next()
+                {
+                    return value_at(nextIndex());
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return TSBHashTableRH.this.count;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return TSBHashTableRH.this.containsValue(o);
+        }
+
+        @Override
+        public void clear()
+        {
+            TSBHashTableRH.this.clear();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package soporte;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache acotada con politica de reemplazo LRU (se descarta el par usado hace
+ * mas tiempo). La cache se acota a la vez por cantidad de pares y por peso
+ * total: el peso de cada valor lo calcula la funcion indicada al crearla (por
+ * ejemplo, la cantidad aproximada de bytes de un texto), de forma que unos
+ * pocos valores muy grandes no puedan ocupar toda la memoria.
+ *
+ * Los pares se ubican con una TSBHashTableRH (que elimina sin dejar tumbas) y
+ * el orden de uso se mantiene con una lista doblemente enlazada, por lo que
+ * get(), put() y el descarte son O(1). Lleva la cuenta de aciertos, fallos y
+ * descartes. La clase no es thread-safe.
+ *
+ * @param <K> el tipo de las claves de la cache.
+ * @param <V> el tipo de los valores de la cache.
+ */
+public class TSBLruCache<K, V>
+{
+    // la tabla que ubica el nodo de cada clave...
+    private TSBHashTableRH<K, Node<K, V>> table;
+
+    // extremos de la lista en orden de uso: head es el mas reciente...
+    private Node<K, V> head;
+    private Node<K, V> tail;
+
+    // limites de la cache y funcion para pesar los valores...
+    private final int max_entries;
+    private final long max_weight;
+    private final ToLongFunction<? super V> weigher;
+
+    // el peso total de los valores guardados...
+    private long weight;
+
+    // contadores de uso...
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Crea una cache acotada solo por cantidad de pares (cada valor pesa 1).
+     * @param max_entries la cantidad maxima de pares.
+     * @throws IllegalArgumentException si max_entries no es positivo.
+     */
+    public TSBLruCache(int max_entries)
+    {
+        this(max_entries, Long.MAX_VALUE, v -> 1);
+    }
+
+    /**
+     * Crea una cache acotada por cantidad de pares y por peso total.
+     * @param max_entries la cantidad maxima de pares.
+     * @param max_weight el peso total maximo de los valores.
+     * @param weigher la funcion que calcula el peso de cada valor.
+     * @throws IllegalArgumentException si algun limite no es positivo.
+     * @throws NullPointerException si weigher es null.
+     */
+    public TSBLruCache(int max_entries, long max_weight, ToLongFunction<? super V> weigher)
+    {
+        if(max_entries <= 0 || max_weight <= 0)
+        {
+            throw new IllegalArgumentException("TSBLruCache(): los limites deben ser positivos");
+        }
+        if(weigher == null) throw new NullPointerException("TSBLruCache(): parametro null");
+
+        this.table = TSBHashTableRH.withExpectedSize(Math.min(max_entries, 1024));
+        this.max_entries = max_entries;
+        this.max_weight = max_weight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Retorna el valor asociado a la clave key y lo marca como el mas
+     * recientemente usado, o null si la clave no esta en la cache.
+     * @param key la clave buscada.
+     * @return el valor asociado a la clave, o null.
+     * @throws NullPointerException si key es null.
+     */
+    public V get(K key)
+    {
+        Node<K, V> n = table.get(key);
+        if(n == null)
+        {
+            misses++;
+            return null;
+        }
+        hits++;
+        this.move_to_head(n);
+        return n.value;
+    }
+
+    /**
+     * Asocia el valor value con la clave key (reemplazando al valor anterior,
+     * si lo habia) y lo marca como el mas recientemente usado. Si con eso se
+     * supera algun limite, se descartan los pares usados hace mas tiempo. Un
+     * valor que por si solo supera el peso maximo no se guarda.
+     * @param key la clave del par.
+     * @param value el valor del par.
+     * @throws NullPointerException si key o value son null.
+     */
+    public void put(K key, V value)
+    {
+        if(key == null || value == null) throw new NullPointerException("put(): parametro null");
+
+        long w = weigher.applyAsLong(value);
+        this.invalidate(key);
+        if(w > max_weight) return;
+
+        Node<K, V> n = new Node<>(key, value, w);
+        table.put(key, n);
+        this.link_head(n);
+        weight += w;
+
+        while(table.size() > max_entries || weight > max_weight)
+        {
+            Node<K, V> last = tail;
+            this.unlink(last);
+            table.remove(last.key);
+            weight -= last.weight;
+            evictions++;
+        }
+    }
+
+    /**
+     * Elimina de la cache la clave key (si esta).
+     * @param key la clave a eliminar.
+     * @throws NullPointerException si key es null.
+     */
+    public void invalidate(K key)
+    {
+        Node<K, V> n = table.remove(key);
+        if(n != null)
+        {
+            this.unlink(n);
+            weight -= n.weight;
+        }
+    }
+
+    /**
+     * Elimina todo el contenido de la cache (los contadores no se reinician).
+     */
+    public void clear()
+    {
+        table.clear();
+        head = tail = null;
+        weight = 0;
+    }
+
+    /**
+     * Retorna la cantidad de pares guardados en la cache.
+     * @return la cantidad de pares.
+     */
+    public int size()
+    {
+        return table.size();
+    }
+
+    /**
+     * Retorna el peso total de los valores guardados en la cache.
+     * @return el peso total.
+     */
+    public long weight()
+    {
+        return weight;
+    }
+
+    /**
+     * Retorna la cantidad de invocaciones a get() que encontraron la clave.
+     * @return la cantidad de aciertos.
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Retorna la cantidad de invocaciones a get() que no encontraron la clave.
+     * @return la cantidad de fallos.
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Retorna la cantidad de pares descartados por superar algun limite.
+     * @return la cantidad de descartes.
+     */
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TSBLruCache[size=" + size() + ", weight=" + weight + ", hits=" + hits
+                + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+
+    /*
+     * Mueve el nodo n al principio de la lista (el mas recientemente usado).
+     */
+    private void move_to_head(Node<K, V> n)
+    {
+        if(n == head) return;
+        this.unlink(n);
+        this.link_head(n);
+    }
+
+    /*
+     * Enlaza el nodo n al principio de la lista.
+     */
+    private void link_head(Node<K, V> n)
+    {
+        n.prev = null;
+        n.next = head;
+        if(head != null) head.prev = n;
+        head = n;
+        if(tail == null) tail = n;
+    }
+
+    /*
+     * Desenlaza el nodo n de la lista.
+     */
+    private void unlink(Node<K, V> n)
+    {
+        if(n.prev != null) n.prev.next = n.next;
+        else head = n.next;
+        if(n.next != null) n.next.prev = n.prev;
+        else tail = n.prev;
+        n.prev = n.next = null;
+    }
+
+    /*
+     * Nodo de la lista en orden de uso.
+     */
+    private static class Node<K, V>
+    {
+        private final K key;
+        private final V value;
+        private final long weight;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        public Node(K key, V value, long weight)
+        {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
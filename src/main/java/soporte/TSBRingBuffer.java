@@ -0,0 +1,173 @@
+package soporte;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cola circular acotada para exactamente un productor y un consumidor (cada
+ * uno en su propio hilo), sin bloqueos: el productor solo escribe el indice
+ * de escritura y el consumidor solo el de lectura, y cada uno publica su
+ * avance con escrituras ordenadas (release) que el otro lee con acquire.
+ * Cada lado guarda ademas una copia del indice del otro y solo la refresca
+ * cuando la cola le parece llena o vacia, de forma que en regimen normal casi
+ * no se comparten lineas de cache.
+ *
+ * offer() y poll() nunca esperan. put() y take() aplican contrapresion: si la
+ * cola esta llena (o vacia) esperan primero girando, luego cediendo el
+ * procesador y por ultimo durmiendo de a intervalos cortos. Ambas responden a
+ * la interrupcion del hilo. La cola no admite elementos null.
+ *
+ * @param <E> el tipo de los elementos de la cola.
+ */
+public class TSBRingBuffer<E>
+{
+    // el arreglo circular y la mascara para ubicar una posicion...
+    private final Object[] items;
+    private final int mask;
+
+    // proxima posicion a leer (la escribe solo el consumidor)...
+    private final AtomicLong head = new AtomicLong();
+
+    // proxima posicion a escribir (la escribe solo el productor)...
+    private final AtomicLong tail = new AtomicLong();
+
+    // copia del productor del indice de lectura...
+    private long head_cache;
+
+    // copia del consumidor del indice de escritura...
+    private long tail_cache;
+
+    /**
+     * Crea una cola con capacidad para al menos capacity elementos (la
+     * capacidad real se redondea a la siguiente potencia de 2).
+     * @param capacity la capacidad minima de la cola.
+     * @throws IllegalArgumentException si capacity no es positiva.
+     */
+    public TSBRingBuffer(int capacity)
+    {
+        if(capacity <= 0 || capacity > (1 << 30))
+        {
+            throw new IllegalArgumentException("TSBRingBuffer(): capacidad fuera de rango");
+        }
+        int length = 1;
+        while(length < capacity) { length <<= 1; }
+        this.items = new Object[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Agrega e al final de la cola si hay lugar. Solo puede invocarlo el hilo
+     * productor.
+     * @param e el elemento a agregar.
+     * @return true si se agrego, false si la cola estaba llena.
+     * @throws NullPointerException si e es null.
+     */
+    public boolean offer(E e)
+    {
+        if(e == null) throw new NullPointerException("offer(): parametro null");
+
+        long t = tail.getPlain();
+        if(t - head_cache == items.length)
+        {
+            head_cache = head.getAcquire();
+            if(t - head_cache == items.length) return false;
+        }
+        items[(int) t & mask] = e;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    /**
+     * Retira y retorna el primer elemento de la cola, o null si esta vacia.
+     * Solo puede invocarlo el hilo consumidor.
+     * @return el primer elemento, o null.
+     */
+    public E poll()
+    {
+        long h = head.getPlain();
+        if(h == tail_cache)
+        {
+            tail_cache = tail.getAcquire();
+            if(h == tail_cache) return null;
+        }
+        int pos = (int) h & mask;
+        // el arreglo es Object[] porque no se puede crear un arreglo de E, pero solo guarda E...
+        @SuppressWarnings("unchecked")
+        E e = (E) items[pos];
+        items[pos] = null;
+        head.setRelease(h + 1);
+        return e;
+    }
+
+    /**
+     * Agrega e al final de la cola, esperando mientras este llena. Solo puede
+     * invocarlo el hilo productor.
+     * @param e el elemento a agregar.
+     * @throws InterruptedException si el hilo es interrumpido mientras espera.
+     * @throws NullPointerException si e es null.
+     */
+    public void put(E e) throws InterruptedException
+    {
+        for(int intentos = 0; !this.offer(e); intentos++)
+        {
+            esperar(intentos);
+        }
+    }
+
+    /**
+     * Retira y retorna el primer elemento de la cola, esperando mientras este
+     * vacia. Solo puede invocarlo el hilo consumidor.
+     * @return el primer elemento de la cola.
+     * @throws InterruptedException si el hilo es interrumpido mientras espera.
+     */
+    public E take() throws InterruptedException
+    {
+        E e;
+        for(int intentos = 0; (e = this.poll()) == null; intentos++)
+        {
+            esperar(intentos);
+        }
+        return e;
+    }
+
+    /**
+     * Retorna la cantidad de elementos en la cola. Si los hilos la estan
+     * usando el valor es solo aproximado.
+     * @return la cantidad de elementos en la cola.
+     */
+    public int size()
+    {
+        long h = head.get();
+        return (int) (tail.get() - h);
+    }
+
+    /**
+     * Determina si la cola esta vacia (con la misma salvedad que size()).
+     * @return true si la cola esta vacia.
+     */
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    /**
+     * Retorna la capacidad real de la cola.
+     * @return la capacidad de la cola.
+     */
+    public int capacity()
+    {
+        return items.length;
+    }
+
+    /*
+     * Espera escalonada: gira un poco, luego cede el procesador y finalmente
+     * duerme de a 50 microsegundos.
+     */
+    private static void esperar(int intentos) throws InterruptedException
+    {
+        if(Thread.interrupted()) throw new InterruptedException();
+        if(intentos < 64) Thread.onSpinWait();
+        else if(intentos < 128) Thread.yield();
+        else LockSupport.parkNanos(50_000L);
+    }
+}
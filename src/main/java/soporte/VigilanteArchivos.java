@@ -0,0 +1,183 @@
+package soporte;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Vigila los archivos de un directorio con un WatchService y ejecuta una
+ * accion cuando alguno cambia. Los eventos se agrupan (debounce): la accion
+ * se ejecuta recien cuando pasa un tiempo de espera sin nuevos cambios, por
+ * lo que un archivo que se escribe en varias tandas (o que se reemplaza con
+ * un borrado y una creacion) provoca una sola ejecucion.
+ *
+ * Los eventos se reciben en un hilo propio y la accion se ejecuta en otro, de
+ * a una vez. Ambos son hilos daemon y terminan con close().
+ */
+public class VigilanteArchivos implements Closeable
+{
+    // el directorio vigilado y los archivos que interesan...
+    private final Path directorio;
+    private final Predicate<Path> filtro;
+
+    // el tiempo de espera (en milisegundos) y la accion a ejecutar...
+    private final long espera;
+    private final Runnable accion;
+
+    private final WatchService servicio;
+    private final Thread hilo;
+    private final ScheduledExecutorService temporizador;
+
+    // la ejecucion programada que todavia no comenzo (o null)...
+    private ScheduledFuture<?> pendiente;
+
+    /**
+     * Crea el vigilante y comienza a recibir los eventos del directorio.
+     * @param directorio el directorio a vigilar.
+     * @param filtro indica, por su nombre (sin directorio), si un archivo
+     *        interesa.
+     * @param espera los milisegundos sin cambios que se esperan antes de
+     *        ejecutar la accion.
+     * @param accion la accion a ejecutar.
+     * @throws IOException si no se puede vigilar el directorio.
+     * @throws IllegalArgumentException si la espera es negativa.
+     */
+    public VigilanteArchivos(Path directorio, Predicate<Path> filtro, long espera, Runnable accion) throws IOException
+    {
+        if(directorio == null || filtro == null || accion == null)
+        {
+            throw new NullPointerException("VigilanteArchivos(): parametro null");
+        }
+        if(espera < 0) throw new IllegalArgumentException("VigilanteArchivos(): espera negativa");
+        this.directorio = directorio;
+        this.filtro = filtro;
+        this.espera = espera;
+        this.accion = accion;
+
+        this.servicio = FileSystems.getDefault().newWatchService();
+        try
+        {
+            directorio.register(servicio, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            servicio.close();
+            throw e;
+        }
+
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vigilante-accion");
+            t.setDaemon(true);
+            return t;
+        });
+        this.hilo = new Thread(this::vigilar, "vigilante-archivos");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Crea el vigilante de un unico archivo (se vigila su directorio y se
+     * filtra por su nombre).
+     * @param archivo el archivo a vigilar.
+     * @param espera los milisegundos sin cambios que se esperan antes de
+     *        ejecutar la accion.
+     * @param accion la accion a ejecutar.
+     * @return el vigilante.
+     * @throws IOException si no se puede vigilar el directorio del archivo.
+     */
+    public static VigilanteArchivos deArchivo(Path archivo, long espera, Runnable accion) throws IOException
+    {
+        Path absoluto = archivo.toAbsolutePath();
+        Path nombre = absoluto.getFileName();
+        return new VigilanteArchivos(absoluto.getParent(), nombre::equals, espera, accion);
+    }
+
+    /**
+     * Retorna el directorio vigilado.
+     * @return el directorio.
+     */
+    public Path getDirectorio()
+    {
+        return directorio;
+    }
+
+    /**
+     * Deja de vigilar el directorio. Una ejecucion de la accion que ya
+     * comenzo se termina; una programada se cancela.
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            servicio.close();
+        }
+        catch(IOException e)
+        {
+            // el servicio queda inutilizable igual...
+        }
+        hilo.interrupt();
+        temporizador.shutdownNow();
+    }
+
+    /*
+     * Recibe los eventos del directorio hasta que se cierre el servicio. Si
+     * se pierden eventos (OVERFLOW) se programa la accion igual, por las dudas.
+     */
+    private void vigilar()
+    {
+        while(true)
+        {
+            WatchKey clave;
+            try
+            {
+                clave = servicio.take();
+            }
+            catch(ClosedWatchServiceException | InterruptedException e)
+            {
+                return;
+            }
+
+            boolean cambio = false;
+            for(WatchEvent<?> evento : clave.pollEvents())
+            {
+                if(evento.kind() == StandardWatchEventKinds.OVERFLOW) cambio = true;
+                else if(filtro.test((Path) evento.context())) cambio = true;
+            }
+            if(cambio) this.programar();
+
+            // si el directorio dejo de existir, no llegan mas eventos...
+            if(!clave.reset()) return;
+        }
+    }
+
+    /*
+     * Programa la accion para dentro de la espera, postergando la que
+     * estuviera pendiente.
+     */
+    private synchronized void programar()
+    {
+        if(pendiente != null) pendiente.cancel(false);
+        try
+        {
+            pendiente = temporizador.schedule(accion, espera, TimeUnit.MILLISECONDS);
+        }
+        catch(RejectedExecutionException e)
+        {
+            // el vigilante ya se cerro...
+        }
+    }
+}
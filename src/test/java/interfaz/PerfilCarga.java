@@ -0,0 +1,303 @@
+package interfaz;
+
+import soporte.Dataset;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Banco de medicion de la memoria que asigna la carga de un Dataset, para detectar
+ * regresiones en el camino de ingesta. Genera un CSV sintetico (o usa el archivo indicado),
+ * lo carga varias veces con Dataset.cargarDataset() y reporta, en promedio por repeticion:
+ *
+ *   - los bytes asignados por fila en cada etapa de la carga (lectura en el hilo que carga,
+ *     parseo y agregacion en sus hilos; ver CargaEnEtapas), medidos con
+ *     ThreadMXBean.getThreadAllocatedBytes() al terminar cada hilo;
+ *   - los bytes por fila del recorrido con Dataset.leer() (los campos se separan con el mismo
+ *     LineaCsv de la agregacion externa y el listado ordenado, mas un String por campo);
+ *   - la cantidad de recolecciones y el tiempo total de GC.
+ *
+ * Si se indican umbrales y alguno se supera, termina con codigo 1 (asi falla el build del
+ * perfil "perfil" del pom). Conviene correrlo siempre con las mismas opciones de la JVM
+ * (heap y recolector), porque la cantidad de recolecciones depende de ellas.
+ *
+ * Uso: PerfilCarga [--filas n] [--repeticiones n] [--calentamiento n] [--parsers n]
+ *                  [--agregadores n] [--max-carga b] [--max-lectura b] [--max-gc n]
+ *                  [--max-pausa ms] [archivo]
+ *
+ *   --filas n         filas del CSV generado (200000 por defecto; se ignora con archivo)
+ *   --repeticiones n  cargas medidas (5 por defecto), luego de --calentamiento (3) sin medir
+ *   --max-carga b     maximo de bytes por fila de Dataset.cargarDataset() (todas las etapas)
+ *   --max-lectura b   maximo de bytes por fila de Dataset.leer()
+ *   --max-gc n        maximo de recolecciones por carga
+ *   --max-pausa ms    maximo de milisegundos de GC por carga
+ */
+public class PerfilCarga {
+    private static final String[] GENEROS = {
+            "Action", "Adventure", "Animation", "Biography", "Comedy", "Crime", "Documentary", "Drama",
+            "Family", "Fantasy", "Game-Show", "History", "Horror", "Music", "Musical", "Mystery", "News",
+            "Reality-TV", "Romance", "Sci-Fi", "Short", "Sport", "Talk-Show", "Thriller", "War", "Western"};
+
+    private int filas = 200_000;
+    private int repeticiones = 5;
+    private int calentamiento = 3;
+    private int parsers = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 2));
+    private int agregadores = 2;
+    private double maxCarga = -1;
+    private double maxLectura = -1;
+    private double maxGc = -1;
+    private double maxPausa = -1;
+    private String archivo = null;
+
+    private final com.sun.management.ThreadMXBean hilos =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // bytes asignados por los hilos de parseo y de agregacion de la carga en curso
+    private final AtomicLong parseo = new AtomicLong();
+    private final AtomicLong agregacion = new AtomicLong();
+
+    public static void main(String[] args) {
+        PerfilCarga perfil = new PerfilCarga();
+        if (!perfil.opciones(args)) {
+            System.err.println("uso: PerfilCarga [--filas n] [--repeticiones n] [--calentamiento n] [--parsers n] [--agregadores n]");
+            System.err.println("                 [--max-carga b] [--max-lectura b] [--max-gc n] [--max-pausa ms] [archivo]");
+            System.exit(2);
+        }
+        File generado = null;
+        boolean cumple = false;
+        try {
+            File csv;
+            if (perfil.archivo != null) {
+                csv = new File(perfil.archivo);
+            } else {
+                generado = File.createTempFile("perfil-", ".csv");
+                perfil.generar(generado);
+                csv = generado;
+            }
+            cumple = perfil.medir(csv);
+        } catch (IOException e) {
+            System.err.println("No se pudo medir la carga: " + e.getMessage());
+        } finally {
+            if (generado != null)
+                generado.delete();
+        }
+        if (!cumple)
+            System.exit(1);
+    }
+
+    private boolean opciones(String[] args) {
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--filas":
+                        filas = Integer.parseInt(args[++i]);
+                        break;
+                    case "--repeticiones":
+                        repeticiones = Integer.parseInt(args[++i]);
+                        break;
+                    case "--calentamiento":
+                        calentamiento = Integer.parseInt(args[++i]);
+                        if (calentamiento < 0)
+                            return false;
+                        break;
+                    case "--parsers":
+                        parsers = Integer.parseInt(args[++i]);
+                        break;
+                    case "--agregadores":
+                        agregadores = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-carga":
+                        maxCarga = Double.parseDouble(args[++i]);
+                        break;
+                    case "--max-lectura":
+                        maxLectura = Double.parseDouble(args[++i]);
+                        break;
+                    case "--max-gc":
+                        maxGc = Double.parseDouble(args[++i]);
+                        break;
+                    case "--max-pausa":
+                        maxPausa = Double.parseDouble(args[++i]);
+                        break;
+                    default:
+                        if (args[i].startsWith("--") || archivo != null)
+                            return false;
+                        archivo = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            return false;
+        }
+        return filas > 0 && repeticiones > 0 && parsers > 0 && agregadores > 0;
+    }
+
+    /**
+     * Se genera un CSV con las columnas del Dataset original: de 1 a 3 generos por serie,
+     * puntuaciones de 1.0 a 9.9 y estrellas tomadas de un conjunto acotado. La semilla es fija,
+     * para que todas las corridas midan el mismo archivo
+     */
+    private void generar(File csv) throws IOException {
+        Random random = new Random(42);
+        try (Writer out = new BufferedWriter(new FileWriter(csv), 1 << 16)) {
+            out.write("Series_Title,Runtime_of_Series,Certificate,Runtime_of_Episodes,Genre,IMDB_Rating,"
+                    + "Overview,Star1,Star2,Star3,Star4,No_of_Votes\n");
+            StringBuilder sb = new StringBuilder(256);
+            for (int i = 0; i < filas; i++) {
+                sb.setLength(0);
+                int desde = 1990 + random.nextInt(30);
+                sb.append("Serie ").append(i).append(",(").append(desde).append('-').append(desde + 1 + random.nextInt(8))
+                        .append("),TV-14,").append(20 + random.nextInt(40)).append(" min,");
+                int generos = 1 + random.nextInt(3);
+                int g = random.nextInt(GENEROS.length);
+                for (int j = 0; j < generos; j++) {
+                    if (j > 0)
+                        sb.append('|');
+                    sb.append(GENEROS[(g + j * 7) % GENEROS.length]);
+                }
+                sb.append(',').append(1 + random.nextInt(9)).append('.').append(random.nextInt(10))
+                        .append(",Resumen de la serie ").append(i);
+                for (int k = 0; k < 4; k++)
+                    sb.append(",Actor ").append(random.nextInt(5000));
+                sb.append(',').append(random.nextInt(2_000_000)).append('\n');
+                out.write(sb.toString());
+            }
+        }
+    }
+
+    /**
+     * Se hacen las cargas de calentamiento y las medidas, se escribe el reporte y se
+     * devuelve false si se supero algun umbral
+     */
+    private boolean medir(File csv) throws IOException {
+        if (!hilos.isThreadAllocatedMemorySupported())
+            throw new IOException("la JVM no permite medir la memoria asignada por hilo");
+        hilos.setThreadAllocatedMemoryEnabled(true);
+
+        int series = contarFilas(csv);
+        if (series == 0)
+            throw new IOException("el archivo no tiene series: " + csv);
+        for (int i = 0; i < calentamiento; i++) {
+            cargar(csv);
+            leer(csv);
+        }
+
+        long lectura = 0, parseados = 0, agregados = 0, leidos = 0, colecciones = 0, pausas = 0;
+        for (int i = 0; i < repeticiones; i++) {
+            long gcAntes = colecciones(), pausaAntes = tiempoGc();
+            lectura += cargar(csv);
+            parseados += parseo.get();
+            agregados += agregacion.get();
+            colecciones += colecciones() - gcAntes;
+            pausas += tiempoGc() - pausaAntes;
+            leidos += leer(csv);
+        }
+
+        double filasMedidas = (double) series * repeticiones;
+        double carga = (lectura + parseados + agregados) / filasMedidas;
+        double porLectura = leidos / filasMedidas;
+        double gc = (double) colecciones / repeticiones;
+        double pausa = (double) pausas / repeticiones;
+
+        System.out.printf(Locale.ROOT, "Perfil de carga: %d series (%s), %d repeticiones (%d de calentamiento), %d parsers, %d agregadores%n",
+                series, archivo == null ? "archivo generado" : csv.getName(), repeticiones, calentamiento, parsers, agregadores);
+        System.out.printf(Locale.ROOT, "%-24s %12s %14s%n", "etapa", "bytes/serie", "MB/carga");
+        etapa("lectura", lectura, series);
+        etapa("parseo", parseados, series);
+        etapa("agregacion", agregados, series);
+        etapa("carga total", lectura + parseados + agregados, series);
+        etapa("leer (campos)", leidos, series);
+        System.out.printf(Locale.ROOT, "GC por carga: %.1f recolecciones, %.1f ms%n", gc, pausa);
+
+        List<String> superados = new ArrayList<>();
+        if (maxCarga >= 0 && carga > maxCarga)
+            superados.add(String.format(Locale.ROOT, "carga: %.1f bytes/serie (maximo %.1f)", carga, maxCarga));
+        if (maxLectura >= 0 && porLectura > maxLectura)
+            superados.add(String.format(Locale.ROOT, "leer: %.1f bytes/serie (maximo %.1f)", porLectura, maxLectura));
+        if (maxGc >= 0 && gc > maxGc)
+            superados.add(String.format(Locale.ROOT, "GC: %.1f recolecciones por carga (maximo %.1f)", gc, maxGc));
+        if (maxPausa >= 0 && pausa > maxPausa)
+            superados.add(String.format(Locale.ROOT, "GC: %.1f ms por carga (maximo %.1f)", pausa, maxPausa));
+        for (String s : superados)
+            System.out.println("UMBRAL SUPERADO: " + s);
+        return superados.isEmpty();
+    }
+
+    private void etapa(String nombre, long bytes, int series) {
+        System.out.printf(Locale.ROOT, "%-24s %12.1f %14.1f%n", nombre,
+                (double) bytes / series / repeticiones, bytes / (double) repeticiones / (1 << 20));
+    }
+
+    /**
+     * Se carga el archivo con Dataset.cargarDataset() y se devuelven los bytes asignados por el
+     * hilo que carga (la lectura); los de los hilos de parseo y agregacion quedan en parseo y
+     * agregacion, registrados por cada hilo al terminar
+     */
+    private long cargar(File csv) throws IOException {
+        parseo.set(0);
+        agregacion.set(0);
+        Dataset dataset = new Dataset(csv.getPath(), parsers, agregadores);
+        dataset.setFabricaHilos(medidos());
+        long antes = hilos.getCurrentThreadAllocatedBytes();
+        dataset.cargarDataset();
+        return hilos.getCurrentThreadAllocatedBytes() - antes;
+    }
+
+    /**
+     * Se recorre el archivo con Dataset.leer() y se devuelven los bytes asignados
+     */
+    private long leer(File csv) throws IOException {
+        Dataset dataset = new Dataset(csv.getPath());
+        long[] campos = {0};
+        long antes = hilos.getCurrentThreadAllocatedBytes();
+        dataset.leer(fila -> campos[0] += fila.length);
+        return hilos.getCurrentThreadAllocatedBytes() - antes;
+    }
+
+    /**
+     * Fabrica de hilos que, al terminar cada uno, suma lo que asigno a su etapa (segun el
+     * nombre que le da la carga)
+     */
+    private ThreadFactory medidos() {
+        return tarea -> new Thread(() -> {
+            try {
+                tarea.run();
+            } finally {
+                long bytes = hilos.getCurrentThreadAllocatedBytes();
+                if (Thread.currentThread().getName().startsWith("carga-parser"))
+                    parseo.addAndGet(bytes);
+                else
+                    agregacion.addAndGet(bytes);
+            }
+        });
+    }
+
+    private int contarFilas(File csv) throws IOException {
+        int[] n = {0};
+        new Dataset(csv.getPath()).leer(fila -> n[0]++);
+        return n[0];
+    }
+
+    private static long colecciones() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            total += Math.max(0, gc.getCollectionCount());
+        return total;
+    }
+
+    private static long tiempoGc() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            total += Math.max(0, gc.getCollectionTime());
+        return total;
+    }
+}
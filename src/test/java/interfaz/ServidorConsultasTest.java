@@ -0,0 +1,85 @@
+package interfaz;
+
+import negocio.Catalogo;
+import negocio.Estadisticas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServidorConsultasTest {
+    private ServidorConsultas servidor;
+    private Thread hilo;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        Estadisticas e = new Estadisticas();
+        e.agregar("Drama", "Lost", (short) 83, 10);
+        e.agregar("Drama", "Dark", (short) 87, 20);
+        e.agregar("Crime", "Fargo", (short) 89, 30);
+        Catalogo catalogo = new Catalogo();
+        catalogo.publicar(e);
+        servidor = new ServidorConsultas(catalogo, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        servidor.abrir();
+        hilo = new Thread(() -> {
+            try {
+                servidor.atender();
+            } catch (IOException x) {
+                // se cerro el servidor
+            }
+        });
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @AfterEach
+    void detener() throws Exception {
+        servidor.cerrar();
+        hilo.join(5000);
+    }
+
+    @Test
+    void pedidosEncadenadosConTopK() throws IOException {
+        try (ClienteConsultas c = new ClienteConsultas(servidor.getDireccion())) {
+            int a = c.pedirTopK(1, "Drama");
+            int b = c.pedirResumen("Drama");
+            int d = c.pedirTopK(5, "Western");
+            c.enviar();
+
+            ClienteConsultas.Respuesta r = c.recibir();
+            assertEquals(a, r.getId());
+            assertEquals(ServidorConsultas.OK, r.getEstado());
+            String texto = r.getTexto();
+            assertTrue(texto.contains("Dark"), texto);
+            assertFalse(texto.contains("Lost"), texto);
+
+            r = c.recibir();
+            assertEquals(b, r.getId());
+            assertEquals(ServidorConsultas.OK, r.getEstado());
+            assertEquals(2, r.getEntero());
+            assertEquals(83, r.getEntero());
+            assertEquals(87, r.getEntero());
+            assertEquals(8.5, r.getReal(), 1e-9);
+            assertEquals(30L, r.getLargo());
+
+            r = c.recibir();
+            assertEquals(d, r.getId());
+            assertEquals(ServidorConsultas.NO_ENCONTRADO, r.getEstado());
+        }
+    }
+
+    @Test
+    void topKNoPositivoSeRechaza() throws IOException {
+        try (ClienteConsultas c = new ClienteConsultas(servidor.getDireccion())) {
+            assertThrows(IllegalArgumentException.class, () -> c.pedirTopK(0, "Drama"));
+            assertThrows(IllegalArgumentException.class, () -> c.pedirTopK(-1, "Drama"));
+            // la conexion sigue sincronizada
+            assertEquals(2, c.generos().length);
+        }
+    }
+}
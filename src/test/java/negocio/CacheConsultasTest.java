@@ -0,0 +1,74 @@
+package negocio;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConsultasTest {
+    private static Estadisticas ejemplo() {
+        Estadisticas e = new Estadisticas();
+        e.agregar("Drama", "Lost", (short) 83, 517000);
+        e.agregar("Drama", "Dark", (short) 88, 400000);
+        e.agregar("Drama", "Fargo", (short) 89, 350000);
+        return e;
+    }
+
+    @Test
+    void laSegundaConsultaSaleDeLaCache() {
+        EstadisticasVersion v = new Catalogo().publicar(ejemplo());
+        CacheConsultas cache = new CacheConsultas(10, 1 << 20);
+        Resultado drama = (Resultado) v.buscar("Drama");
+
+        String texto = cache.texto(v, "Drama");
+        assertEquals(drama.toString(), texto);
+        assertSame(texto, cache.texto(v, "Drama"));
+        assertEquals(1, cache.getAciertos());
+
+        String top = cache.topK(v, "Drama", 2);
+        assertEquals(drama.topK(2), top);
+        assertNotEquals(texto, top);
+        assertSame(top, cache.topK(v, "Drama", 2));
+        assertEquals(2, cache.getAciertos());
+
+        assertNull(cache.texto(v, "Western"));
+        assertThrows(IllegalArgumentException.class, () -> cache.topK(v, "Drama", 0));
+    }
+
+    @Test
+    void unaVersionNuevaInvalidaLosTextos() {
+        Catalogo catalogo = new Catalogo();
+        CacheConsultas cache = new CacheConsultas(10, 1 << 20);
+        String antes = cache.topK(catalogo.publicar(ejemplo()), "Drama", 5);
+
+        Estadisticas otra = ejemplo();
+        otra.agregar("Drama", "Succession", (short) 88, 200000);
+        EstadisticasVersion v2 = catalogo.publicar(otra);
+        String despues = cache.topK(v2, "Drama", 5);
+        assertNotEquals(antes, despues);
+        assertEquals(((Resultado) v2.buscar("Drama")).topK(5), despues);
+    }
+
+    @Test
+    void unResultadoModificadoInvalidaSuTexto() {
+        Estadisticas e = ejemplo();
+        EstadisticasVersion v = new Catalogo().publicar(e);
+        CacheConsultas cache = new CacheConsultas(10, 1 << 20);
+        String antes = cache.texto(v, "Drama");
+
+        ((Resultado) v.buscar("Drama")).actualizar("Succession", (short) 88, 200000);
+        String despues = cache.texto(v, "Drama");
+        assertNotEquals(antes, despues);
+        assertTrue(despues.contains("Succession"));
+    }
+
+    @Test
+    void limpiarVaciaLaCache() {
+        EstadisticasVersion v = new Catalogo().publicar(ejemplo());
+        CacheConsultas cache = new CacheConsultas(10, 1 << 20);
+        String texto = cache.texto(v, "Drama");
+        cache.limpiar();
+        long fallos = cache.getFallos();
+        assertEquals(texto, cache.texto(v, "Drama"));
+        assertEquals(fallos + 1, cache.getFallos());
+    }
+}
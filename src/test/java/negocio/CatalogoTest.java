@@ -0,0 +1,123 @@
+package negocio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogoTest {
+    private static Estadisticas ejemplo(int series) {
+        Estadisticas e = new Estadisticas();
+        for (int i = 0; i < series; i++)
+            e.agregar("Drama", "Serie " + i, (short) 80, 100);
+        e.agregar("Comedy", "Friends", (short) 89, 900);
+        return e;
+    }
+
+    private static int series(EstadisticasVersion version, String genero) {
+        return ((Resultado) version.buscar(genero)).getSeries();
+    }
+
+    @Test
+    void publicarNumeraLasVersiones() {
+        Catalogo catalogo = new Catalogo();
+        assertNull(catalogo.actual());
+
+        EstadisticasVersion v1 = catalogo.publicar(ejemplo(2));
+        assertSame(v1, catalogo.actual());
+        assertEquals(1, v1.getNumero());
+        assertEquals(2, series(v1, "Drama"));
+        assertEquals(2, v1.getGeneros().size());
+        assertNull(v1.buscar("Western"));
+
+        EstadisticasVersion v2 = catalogo.publicar(ejemplo(5));
+        assertEquals(2, v2.getNumero());
+        assertSame(v2, catalogo.actual());
+        // la version anterior sigue siendo valida para quien la conserva
+        assertEquals(2, series(v1, "Drama"));
+    }
+
+    @Test
+    void lasEstadisticasPublicadasNoAdmitenMasCambios() {
+        Catalogo catalogo = new Catalogo();
+        Estadisticas e = ejemplo(1);
+        catalogo.publicar(e);
+        assertThrows(IllegalStateException.class, () -> e.incorporar(ejemplo(1)));
+
+        // copiaDe permite seguir agregando sin tocar la version publicada
+        Estadisticas copia = Estadisticas.copiaDe(catalogo.actual());
+        copia.agregar("Drama", "Otra", (short) 70, 10);
+        assertEquals(2, series(catalogo.publicar(copia), "Drama"));
+    }
+
+    @Test
+    void lasConsultasUsanLaVersionAnteriorDuranteUnaRecarga() throws Exception {
+        Catalogo catalogo = new Catalogo();
+        EstadisticasVersion v1 = catalogo.publicar(ejemplo(1));
+
+        CountDownLatch empezo = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        CompletableFuture<EstadisticasVersion> recarga = catalogo.recargar(() -> {
+            empezo.countDown();
+            try {
+                seguir.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return ejemplo(3);
+        });
+
+        assertTrue(empezo.await(10, TimeUnit.SECONDS));
+        assertSame(v1, catalogo.actual());
+        assertFalse(recarga.isDone());
+
+        seguir.countDown();
+        EstadisticasVersion v2 = recarga.get(10, TimeUnit.SECONDS);
+        assertSame(v2, catalogo.actual());
+        assertEquals(3, series(v2, "Drama"));
+    }
+
+    @Test
+    void unaCargaSinResultadoNoPublica() throws Exception {
+        Catalogo catalogo = new Catalogo();
+        EstadisticasVersion v1 = catalogo.publicar(ejemplo(1));
+        assertNull(catalogo.recargar(() -> null).get(10, TimeUnit.SECONDS));
+        assertSame(v1, catalogo.actual());
+    }
+
+    @Test
+    void lasRecargasSePublicanEnOrden() throws Exception {
+        Catalogo catalogo = new Catalogo();
+        CompletableFuture<EstadisticasVersion> ultima = null;
+        for (int i = 1; i <= 5; i++) {
+            int n = i;
+            ultima = catalogo.recargar(() -> ejemplo(n));
+        }
+        EstadisticasVersion v = ultima.get(10, TimeUnit.SECONDS);
+        assertEquals(5, v.getNumero());
+        assertEquals(5, series(catalogo.actual(), "Drama"));
+    }
+
+    @Test
+    void publicacionesConcurrentesDejanVigenteLaUltimaVersion() {
+        Catalogo catalogo = new Catalogo();
+        IntStream.range(0, 2_000).parallel().forEach(i -> catalogo.publicar(ejemplo(0)));
+        assertEquals(2_000, catalogo.actual().getNumero());
+    }
+
+    @Test
+    void lasVersionesConParticionesJuntanTodosLosGeneros() {
+        Estadisticas e = new Estadisticas(4);
+        String[] generos = {"Drama", "Comedy", "Crime", "Action", "Horror", "Sci-Fi"};
+        for (String g : generos)
+            e.agregar(g, "Serie", (short) 75, 1);
+        EstadisticasVersion v = new Catalogo().publicar(e);
+        assertEquals(generos.length, v.getGeneros().size());
+        for (String g : generos)
+            assertEquals(1, series(v, g));
+    }
+}
@@ -0,0 +1,110 @@
+package negocio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EstadisticasTest {
+    private static final String[] GENEROS = {"Drama", "Comedy", "Crime", "Action", "Mystery", "Thriller",
+            "Sci-Fi", "Horror", "Western", "Animation"};
+
+    private static void cargar(Estadisticas e) {
+        for (int i = 0; i < 1_000; i++) {
+            String g = GENEROS[i % GENEROS.length];
+            e.agregar(g, "Serie " + i, (short) (i % 100), i);
+            e.agregarEstrella(g, "Estrella " + (i % 7));
+        }
+    }
+
+    private static List<String> resumen(Estadisticas e) {
+        List<String> r = new ArrayList<>();
+        for (String g : GENEROS) {
+            Resultado x = (Resultado) e.buscar(g);
+            r.add(g + " " + x.getSeries() + " " + x.getVotos() + " " + x.getMinimo() + " " + x.getMaximo()
+                    + " " + e.estrellasDistintas(g));
+        }
+        return r;
+    }
+
+    @Test
+    void lasParticionesNoCambianLosResultados() {
+        Estadisticas una = new Estadisticas();
+        cargar(una);
+        for (int shards : new int[]{2, 3, 8, 16}) {
+            Estadisticas varias = new Estadisticas(shards);
+            cargar(varias);
+            assertEquals(shards, varias.getShards());
+            assertEquals(resumen(una), resumen(varias));
+            assertNull(varias.buscar("Documentary"));
+        }
+    }
+
+    @Test
+    void shardDeReparteEnElRango() {
+        for (String g : GENEROS) {
+            int s = Estadisticas.shardDe(g, 5);
+            assertTrue(s >= 0 && s < 5);
+            assertEquals(s, Estadisticas.shardDe(g, 5));
+        }
+        // hashCode negativo
+        assertTrue(Estadisticas.shardDe("polygenelubricants", 7) >= 0);
+        assertThrows(IllegalArgumentException.class, () -> new Estadisticas(0));
+    }
+
+    @Test
+    void losGenerosRecorrenTodasLasParticiones() {
+        Estadisticas e = new Estadisticas(16);
+        cargar(e);
+        assertEquals(GENEROS.length, e.getGeneros().size());
+        Set<Object> vistos = new HashSet<>(e.getGeneros());
+        assertEquals(Set.of((Object[]) GENEROS), vistos);
+        assertTrue(e.getGeneros().contains("Drama"));
+        assertFalse(e.getGeneros().contains("Documentary"));
+
+        int[] n = {0};
+        e.forEach((g, r) -> n[0] += r.getSeries());
+        assertEquals(1_000, n[0]);
+
+        Iterator<Object> it = new Estadisticas(4).getGeneros().iterator();
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    void incorporarRespetaLasParticiones() {
+        Estadisticas total = new Estadisticas(4);
+        Estadisticas a = new Estadisticas();
+        Estadisticas b = new Estadisticas(3);
+        cargar(a);
+        cargar(b);
+        total.incorporar(a);
+        total.incorporar(b);
+
+        Estadisticas esperado = new Estadisticas();
+        cargar(esperado);
+        cargar(esperado);
+        assertEquals(resumen(esperado), resumen(total));
+    }
+
+    @Test
+    void congelarJuntaLasParticiones() {
+        Estadisticas e = new Estadisticas(8);
+        cargar(e);
+        EstadisticasVersion v = e.congelar(7);
+        assertEquals(7, v.getNumero());
+        assertEquals(GENEROS.length, v.getGeneros().size());
+        for (String g : GENEROS) {
+            assertSame(e.buscar(g), v.buscar(g));
+            assertEquals(e.estrellasDistintas(g), v.estrellasDistintas(g));
+        }
+        assertThrows(IllegalStateException.class, () -> e.agregar("Drama", "Otra", (short) 1, 1));
+        assertThrows(IllegalStateException.class, () -> e.agregarEstrella("Drama", "Otra"));
+    }
+}
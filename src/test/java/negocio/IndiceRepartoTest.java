@@ -0,0 +1,79 @@
+package negocio;
+
+import org.junit.jupiter.api.Test;
+import soporte.SpaceSaving;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceRepartoTest {
+    private static IndiceReparto ejemplo() {
+        IndiceReparto.Acumulador a = new IndiceReparto.Acumulador();
+        a.agregar("Breaking Bad", new String[]{"Bryan Cranston", "Aaron Paul", "Anna Gunn", "Betsy Brandt"});
+        a.agregar("Malcolm", new String[]{"Frankie Muniz", "Bryan Cranston", "Jane Kaczmarek", ""});
+        a.agregar("El Camino", new String[]{"Aaron Paul", "Bryan Cranston", "Jesse Plemons", "Krysten Ritter"});
+        IndiceReparto.Acumulador b = new IndiceReparto.Acumulador();
+        b.agregar("Fargo", new String[]{"Jesse Plemons", "Kirsten Dunst", "Patrick Wilson", "Ted Danson"});
+        // la misma serie en otra particion: sus estrellas se juntan
+        b.agregar("Malcolm", new String[]{"Christopher Masterson", "", "", ""});
+        a.incorporar(b);
+        return a.construir();
+    }
+
+    @Test
+    void seriesYEstrellas() {
+        IndiceReparto r = ejemplo();
+        assertEquals(4, r.getSeries());
+        assertEquals(12, r.getEstrellas());
+        assertEquals(List.of("Breaking Bad", "Malcolm", "El Camino"), r.seriesDe("Bryan Cranston"));
+        assertEquals(List.of("El Camino", "Fargo"), r.seriesDe("Jesse Plemons"));
+        assertEquals(List.of("Bryan Cranston", "Frankie Muniz", "Jane Kaczmarek", "Christopher Masterson"),
+                r.estrellasDe("Malcolm"));
+        assertEquals(List.of(), r.seriesDe("Nadie"));
+        assertEquals(List.of(), r.estrellasDe("Ninguna"));
+    }
+
+    @Test
+    void seriesCompartidas() {
+        IndiceReparto r = ejemplo();
+        assertEquals(List.of("Breaking Bad", "El Camino"), r.seriesCompartidas("Aaron Paul", "Bryan Cranston"));
+        assertEquals(List.of(), r.seriesCompartidas("Aaron Paul", "Ted Danson"));
+        assertEquals(List.of(), r.seriesCompartidas("Aaron Paul", "Nadie"));
+    }
+
+    @Test
+    void coestrellasOrdenadasPorSeriesEnComunYNombre() {
+        IndiceReparto r = ejemplo();
+        List<SpaceSaving.Frecuencia<String>> l = r.coestrellas("Bryan Cranston", 4);
+        assertEquals(4, l.size());
+        assertEquals("Aaron Paul", l.get(0).getValor());
+        assertEquals(2, l.get(0).getCount());
+        assertEquals("Anna Gunn", l.get(1).getValor());
+        assertEquals(1, l.get(1).getCount());
+        assertEquals("Betsy Brandt", l.get(2).getValor());
+        assertEquals("Christopher Masterson", l.get(3).getValor());
+
+        assertEquals(8, r.coestrellas("Bryan Cranston", 100).size());
+        assertEquals(List.of(), r.coestrellas("Bryan Cranston", 0));
+        assertEquals(List.of(), r.coestrellas("Nadie", 3));
+    }
+
+    @Test
+    void lasEstadisticasArmanElIndiceDeTodasLasParticiones() {
+        Estadisticas e = new Estadisticas(4);
+        e.agregarReparto("Drama", "Breaking Bad", new String[]{"Bryan Cranston", "Aaron Paul", "", ""});
+        e.agregarReparto("Comedy", "Malcolm", new String[]{"Bryan Cranston", "Frankie Muniz", "", ""});
+        IndiceReparto r = e.getReparto();
+        assertSame(r, e.getReparto());
+        // el orden de las series depende de la particion de cada genero
+        assertEquals(Set.of("Breaking Bad", "Malcolm"), new HashSet<>(r.seriesDe("Bryan Cranston")));
+
+        e.agregarReparto("Crime", "El Camino", new String[]{"Aaron Paul", "", "", ""});
+        assertNotSame(r, e.getReparto());
+        assertEquals(2, e.getReparto().seriesDe("Aaron Paul").size());
+        assertNull(new Estadisticas().getReparto());
+    }
+}
@@ -0,0 +1,105 @@
+package negocio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecargaAutomaticaTest {
+    private static final String TITULOS = "Series_Title,Runtime_of_Series,Certificate,Runtime_of_Episodes,Genre,"
+            + "IMDB_Rating,Overview,Star1,Star2,Star3,Star4,No_of_Votes\n";
+
+    private Path dir;
+    private Catalogo catalogo;
+    private final BlockingQueue<EstadisticasVersion> publicadas = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void crear() throws IOException {
+        dir = Files.createTempDirectory("recarga-test");
+        catalogo = new Catalogo();
+    }
+
+    @AfterEach
+    void borrar() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(p);
+        }
+    }
+
+    private static String fila(String titulo, String rating) {
+        return titulo + ",(2011),A,50 min,Drama," + rating + ",Resumen,E1,E2,E3,E4,100";
+    }
+
+    private static void agregar(Path archivo, String texto) throws IOException {
+        Files.write(archivo, texto.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    private static int series(EstadisticasVersion version) {
+        return ((Resultado) version.buscar("Drama")).getSeries();
+    }
+
+    @Test
+    void soloSeCarganLasLineasCompletasAgregadas() throws Exception {
+        Path archivo = Files.writeString(dir.resolve("series.csv"), TITULOS + fila("Lost", "8.3") + "\n");
+        try (RecargaAutomatica recarga = new RecargaAutomatica(catalogo, archivo.toFile(), 50, publicadas::add)) {
+            assertEquals(1, series(recarga.cargar().get(10, TimeUnit.SECONDS)));
+
+            // una linea completa y otra que se esta escribiendo
+            String fargo = fila("Fargo", "8.9") + "\n";
+            int corte = fargo.indexOf("8.9") + 2;
+            agregar(archivo, fila("Dark", "8.7") + "\n" + fargo.substring(0, corte));
+            EstadisticasVersion v = publicadas.poll(10, TimeUnit.SECONDS);
+            assertNotNull(v);
+            assertEquals(2, series(v));
+            assertEquals(87, ((Resultado) v.buscar("Drama")).getMaximo());
+
+            // al terminar la linea se carga con su puntuacion completa
+            agregar(archivo, fargo.substring(corte));
+            v = publicadas.poll(10, TimeUnit.SECONDS);
+            assertNotNull(v);
+            assertEquals(3, series(v));
+            assertEquals(89, ((Resultado) v.buscar("Drama")).getMaximo());
+        }
+    }
+
+    @Test
+    void unArchivoReescritoSeCargaEntero() throws Exception {
+        Path archivo = Files.writeString(dir.resolve("series.csv"), TITULOS + fila("Lost", "8.3") + "\n");
+        try (RecargaAutomatica recarga = new RecargaAutomatica(catalogo, archivo.toFile(), 50, publicadas::add)) {
+            recarga.cargar().get(10, TimeUnit.SECONDS);
+            Files.writeString(archivo, TITULOS + fila("Dark", "8.7") + "\n");
+            EstadisticasVersion v = publicadas.poll(10, TimeUnit.SECONDS);
+            assertNotNull(v);
+            assertEquals(1, series(v));
+            assertEquals(87, ((Resultado) v.buscar("Drama")).getMinimo());
+        }
+    }
+
+    @Test
+    void siNoSePuedeLeerNoSePublicaNada() throws Exception {
+        Path archivo = Files.writeString(dir.resolve("series.csv"), TITULOS + fila("Lost", "8.3") + "\n");
+        try (RecargaAutomatica recarga = new RecargaAutomatica(catalogo, archivo.toFile(), 50, publicadas::add)) {
+            EstadisticasVersion anterior = recarga.cargar().get(10, TimeUnit.SECONDS);
+            Files.delete(archivo);
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> recarga.cargar().get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+            assertSame(anterior, catalogo.actual());
+        }
+    }
+}
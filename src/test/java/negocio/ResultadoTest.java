@@ -0,0 +1,88 @@
+package negocio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultadoTest {
+    private static Resultado ejemplo() {
+        Resultado r = new Resultado("A", (short) 89, 100);
+        r.actualizar("B", (short) 95, 10);
+        r.actualizar("C", (short) 95, 500);
+        r.actualizar("D", (short) 72, 0);
+        return r;
+    }
+
+    @Test
+    void conservaLasDecimasYLosVotos() {
+        Resultado r = ejemplo();
+        assertEquals(4, r.getSeries());
+        assertEquals(72, r.getMinimo());
+        assertEquals(95, r.getMaximo());
+        assertEquals(8.775, r.getPromedio(), 1e-9);
+        assertEquals(610, r.getVotos());
+        assertEquals(4, r.getModificaciones());
+    }
+
+    @Test
+    void textoConUnDecimal() {
+        assertEquals("4 series en este Genero.\n-----------------------------------\n"
+                + "A con puntuación 8.9\nB con puntuación 9.5\nC con puntuación 9.5\nD con puntuación 7.2", ejemplo().toString());
+    }
+
+    @Test
+    void topDesempataPorVotos() {
+        Resultado r = ejemplo();
+        assertEquals("Top 2 de 4 series en este Genero.\n-----------------------------------\n"
+                + "C con puntuación 9.5\nB con puntuación 9.5", r.topK(2));
+
+        List<String> top = new ArrayList<>();
+        r.forEachTop(10, (serie, rating, votos) -> top.add(serie + " " + rating + " " + votos));
+        assertEquals(List.of("C 95 500", "B 95 10", "A 89 100", "D 72 0"), top);
+        assertThrows(IllegalArgumentException.class, () -> r.topK(0));
+    }
+
+    @Test
+    void topCoincideConOrdenarTodasLasSeries() {
+        Random azar = new Random(3);
+        Resultado r = new Resultado("S0", (short) 50, 5);
+        List<String> series = new ArrayList<>(List.of("S0 50 5"));
+        for (int i = 1; i < 3_000; i++) {
+            // pocos valores distintos, para que haya muchos empates
+            short rating = (short) (40 + azar.nextInt(20));
+            long votos = azar.nextInt(8);
+            r.actualizar("S" + i, rating, votos);
+            series.add("S" + i + " " + rating + " " + votos);
+        }
+        // el orden estable deja primero, entre iguales, a la que se agrego antes
+        List<String> ordenadas = new ArrayList<>(series);
+        ordenadas.sort(Comparator.<String>comparingInt(s -> -Integer.parseInt(s.split(" ")[1]))
+                .thenComparingLong(s -> -Long.parseLong(s.split(" ")[2])));
+
+        for (int k : new int[]{1, 7, 100, 2_999, 3_000, 5_000}) {
+            List<String> top = new ArrayList<>();
+            r.forEachTop(k, (serie, rating, votos) -> top.add(serie + " " + rating + " " + votos));
+            assertEquals(ordenadas.subList(0, Math.min(k, ordenadas.size())), top, "k = " + k);
+        }
+    }
+
+    @Test
+    void incorporarYCopiaIndependiente() {
+        Resultado r = ejemplo();
+        Resultado copia = new Resultado(r);
+        copia.incorporar(new Resultado("E", (short) 100, 7));
+        assertEquals(4, r.getSeries());
+        assertEquals(5, copia.getSeries());
+        assertEquals(100, copia.getMaximo());
+        assertEquals(617, copia.getVotos());
+
+        List<String> series = new ArrayList<>();
+        copia.forEachSerie((serie, rating, votos) -> series.add(serie));
+        assertEquals(List.of("A", "B", "C", "D", "E"), series);
+    }
+}
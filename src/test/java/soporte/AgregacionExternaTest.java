@@ -0,0 +1,134 @@
+package soporte;
+
+import negocio.Estadisticas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgregacionExternaTest {
+    private static final String[] GENEROS = {"Drama", "Comedy", "Crime", "Action", "Mystery", "Thriller", "Sci-Fi"};
+
+    private Path dir;
+    private Path temporales;
+
+    @BeforeEach
+    void crearDirectorio() throws IOException {
+        dir = Files.createTempDirectory("agregacion-test");
+        temporales = Files.createDirectory(dir.resolve("tmp"));
+    }
+
+    @AfterEach
+    void borrarDirectorio() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(p);
+        }
+    }
+
+    private static String filas(int desde, int hasta) {
+        StringBuilder sb = new StringBuilder();
+        Random r = new Random(desde);
+        for (int i = desde; i < hasta; i++) {
+            String generos = GENEROS[r.nextInt(GENEROS.length)] + "|" + GENEROS[r.nextInt(GENEROS.length)];
+            sb.append(DatasetTest.fila("Serie " + i, generos, (r.nextInt(90) + 10) / 10.0 + "",
+                    String.valueOf(r.nextInt(100_000))));
+        }
+        return sb.toString();
+    }
+
+    private AgregacionExterna externa(long presupuesto, Dataset... datasets) {
+        AgregacionExterna a = new AgregacionExterna(presupuesto, datasets);
+        a.setDirectorioTemporal(temporales);
+        a.setParticiones(4);
+        return a;
+    }
+
+    private long temporalesQueQuedan() throws IOException {
+        try (Stream<Path> s = Files.list(temporales)) {
+            return s.count();
+        }
+    }
+
+    @Test
+    void volcandoADiscoDaLoMismoQueEnMemoria() throws IOException {
+        Path archivo = DatasetTest.escribir(dir, "series.csv", DatasetTest.TITULOS + filas(0, 3_000));
+        Estadisticas esperado = new Dataset(archivo.toString()).cargarDataset();
+
+        AgregacionExterna grande = externa(Long.MAX_VALUE, new Dataset(archivo.toString()));
+        List<Estadisticas> una = new ArrayList<>();
+        assertFalse(grande.cargar(una::add));
+        assertEquals(1, una.size());
+        assertEquals(DatasetTest.series(esperado), DatasetTest.series(una.get(0)));
+
+        AgregacionExterna chica = externa(20_000, new Dataset(archivo.toString()));
+        Estadisticas volcado = chica.cargarDataset();
+        assertEquals(DatasetTest.series(esperado), DatasetTest.series(volcado));
+        assertEquals(0, temporalesQueQuedan());
+    }
+
+    @Test
+    void lasParticionesNoRepitenGeneros() throws IOException {
+        Path archivo = DatasetTest.escribir(dir, "series.csv", DatasetTest.TITULOS + filas(0, 2_000));
+        List<Estadisticas> partes = new ArrayList<>();
+        assertTrue(externa(10_000, new Dataset(archivo.toString())).cargar(partes::add));
+        assertTrue(partes.size() > 1);
+
+        Set<Object> vistos = new HashSet<>();
+        for (Estadisticas e : partes) {
+            for (Object g : e.getGeneros())
+                assertTrue(vistos.add(g), "genero repetido " + g);
+        }
+        assertEquals(Set.of((Object[]) GENEROS), vistos);
+    }
+
+    @Test
+    void variosDatasetsSeAgreganEnOrden() throws IOException {
+        Path a = DatasetTest.escribir(dir, "a.csv", DatasetTest.TITULOS + filas(0, 1_000));
+        Path b = DatasetTest.escribir(dir, "b.csv", DatasetTest.TITULOS + filas(1_000, 2_500));
+        Path todo = DatasetTest.escribir(dir, "todo.csv", DatasetTest.TITULOS + filas(0, 1_000) + filas(1_000, 2_500));
+        Estadisticas esperado = new Dataset(todo.toString()).cargarDataset();
+        Estadisticas e = externa(15_000, new Dataset(a.toString()), new Dataset(b.toString())).cargarDataset();
+        assertEquals(DatasetTest.series(esperado), DatasetTest.series(e));
+    }
+
+    @Test
+    void elPresupuestoDelDatasetUsaLaAgregacionExterna() throws IOException {
+        Path archivo = DatasetTest.escribir(dir, "series.csv", DatasetTest.TITULOS + filas(0, 1_500));
+        Estadisticas esperado = new Dataset(archivo.toString()).cargarDataset();
+        Dataset d = new Dataset(archivo.toString());
+        d.setPresupuesto(5_000);
+        assertEquals(DatasetTest.series(esperado), DatasetTest.series(d.cargarDataset()));
+    }
+
+    @Test
+    void unErrorNoDejaArchivosTemporales() throws IOException {
+        Path archivo = DatasetTest.escribir(dir, "series.csv", DatasetTest.TITULOS + filas(0, 1_000));
+        AgregacionExterna a = externa(5_000, new Dataset(archivo.toString()),
+                new Dataset(dir.resolve("no-existe.csv").toString()));
+        assertThrows(FileNotFoundException.class, a::cargarDataset);
+        assertEquals(0, temporalesQueQuedan());
+    }
+
+    @Test
+    void parametrosNoValidos() {
+        assertThrows(IllegalArgumentException.class, () -> new AgregacionExterna(0));
+        AgregacionExterna a = new AgregacionExterna(1);
+        assertThrows(IllegalArgumentException.class, () -> a.setParticiones(0));
+        assertThrows(NullPointerException.class, () -> a.setDirectorioTemporal(null));
+        assertThrows(NullPointerException.class, () -> a.setRedondeo(null));
+    }
+}
@@ -0,0 +1,50 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomBloqueadoTest {
+    @Test
+    void noHayFalsosNegativos() {
+        BloomBloqueado f = new BloomBloqueado(10_000, 16);
+        for (int i = 0; i < 10_000; i++) f.add(BloomBloqueado.hash(("k" + i).hashCode()));
+        for (int i = 0; i < 10_000; i++) assertTrue(f.mightContain(BloomBloqueado.hash(("k" + i).hashCode())));
+    }
+
+    @Test
+    void tasaDeFalsosPositivosAcotada() {
+        BloomBloqueado f = new BloomBloqueado(10_000, 16);
+        for (int i = 0; i < 10_000; i++) f.add(BloomBloqueado.hash(i));
+        int falsos = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (f.mightContain(BloomBloqueado.hash(i))) falsos++;
+        }
+        // ~0.1% esperado con 16 bits por valor; se deja margen
+        assertTrue(falsos < 1_000, "falsos positivos: " + falsos);
+    }
+
+    @Test
+    void clearVaciaElFiltroYConservaElTamanio() {
+        BloomBloqueado f = new BloomBloqueado(1_000, 8);
+        long bits = f.sizeInBits();
+        assertEquals(0, bits % 512);
+        for (int i = 0; i < 1_000; i++) f.add(BloomBloqueado.hash(i));
+        f.clear();
+        assertEquals(bits, f.sizeInBits());
+        for (int i = 0; i < 1_000; i++) assertFalse(f.mightContain(BloomBloqueado.hash(i)));
+    }
+
+    @Test
+    void bitsPorValorNoPositivos() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomBloqueado(10, 0));
+    }
+
+    @Test
+    void hashDispersaClavesConsecutivas() {
+        // claves seguidas deben caer en bloques distintos (la parte alta cambia)
+        long a = BloomBloqueado.hash(1), b = BloomBloqueado.hash(2);
+        assertNotEquals(a >>> 54, b >>> 54);
+        assertEquals(BloomBloqueado.hash(42), BloomBloqueado.hash(42));
+    }
+}
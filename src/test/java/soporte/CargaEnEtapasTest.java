@@ -0,0 +1,107 @@
+package soporte;
+
+import negocio.Estadisticas;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CargaEnEtapasTest {
+    private static final String[] GENEROS = {"Drama", "Comedy", "Crime", "Action", "Mystery", "Thriller", "Sci-Fi"};
+
+    /*
+     * Contenido de varios bloques de lectura (mas de 64 KB) con generos al azar.
+     */
+    private static String contenido(int filas) {
+        StringBuilder sb = new StringBuilder(DatasetTest.TITULOS);
+        Random r = new Random(17);
+        for (int i = 0; i < filas; i++) {
+            String generos = GENEROS[r.nextInt(GENEROS.length)] + "|" + GENEROS[r.nextInt(GENEROS.length)];
+            sb.append(DatasetTest.fila("Serie " + i, generos, (r.nextInt(90) + 10) / 10.0 + "",
+                    r.nextInt(5) == 0 ? "" : String.valueOf(r.nextInt(1_000_000))));
+        }
+        return sb.toString();
+    }
+
+    private static InputStream stream(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(Charset.defaultCharset()));
+    }
+
+    /*
+     * Las mismas estadisticas cargadas linea por linea en un solo hilo.
+     */
+    private static Estadisticas secuencial(String texto) throws IOException {
+        Estadisticas e = new Estadisticas();
+        LineaCsv.recorrer(stream(texto), Charset.defaultCharset(), true,
+                linea -> Dataset.agregar(e, linea, ParserNumeros.Redondeo.MEDIO_ARRIBA, false));
+        return e;
+    }
+
+    @Test
+    void cualquierCantidadDeHilosDaLoMismoQueLaCargaSecuencial() throws IOException {
+        String texto = contenido(5_000);
+        assertTrue(texto.length() > 3 * (1 << 16));
+        Estadisticas esperado = secuencial(texto);
+        for (int[] hilos : new int[][]{{1, 1}, {2, 3}, {4, 2}, {3, 7}}) {
+            Estadisticas e = new CargaEnEtapas(stream(texto), hilos[0], hilos[1]).cargar();
+            assertEquals(hilos[1], e.getShards());
+            assertEquals(DatasetTest.series(esperado), DatasetTest.series(e), hilos[0] + "x" + hilos[1]);
+        }
+    }
+
+    @Test
+    void sinLineaDeTitulosYSinFinDeLineaAlFinal() throws IOException {
+        String filas = DatasetTest.fila("Lost", "Drama", "8.3", "517000") + DatasetTest.fila("Dark", "Drama", "8.8", "");
+        CargaEnEtapas carga = new CargaEnEtapas(stream(filas.substring(0, filas.length() - 1)), 2, 2);
+        carga.setTitulos(false);
+        Estadisticas e = carga.cargar();
+        assertEquals(DatasetTest.series(secuencial(DatasetTest.TITULOS + filas)), DatasetTest.series(e));
+    }
+
+    @Test
+    void losHilosSeCreanConLaFabrica() throws IOException {
+        AtomicInteger creados = new AtomicInteger();
+        CargaEnEtapas carga = new CargaEnEtapas(stream(contenido(10)), 3, 2);
+        carga.setFabricaHilos(r -> {
+            creados.incrementAndGet();
+            return new Thread(r);
+        });
+        carga.cargar();
+        assertEquals(5, creados.get());
+    }
+
+    @Test
+    void unErrorDeLecturaSeRelanza() {
+        InputStream falla = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("disco");
+            }
+        };
+        InputStream in = new SequenceInputStream(stream(contenido(2_000)), falla);
+        IOException e = assertThrows(IOException.class, () -> new CargaEnEtapas(in, 2, 2).cargar());
+        assertEquals("disco", e.getMessage());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void unErrorDeParseoSeRelanza() {
+        String texto = contenido(2_000) + "Rota,(2011),A,50 min,Drama,no-es-un-numero,Resumen,E1,E2,E3,E4,1\n";
+        assertThrows(RuntimeException.class, () -> new CargaEnEtapas(stream(texto), 2, 2).cargar());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void parametrosNoValidos() {
+        assertThrows(IllegalArgumentException.class, () -> new CargaEnEtapas(stream(""), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CargaEnEtapas(stream(""), 1, 0));
+        assertThrows(NullPointerException.class, () -> new CargaEnEtapas(null, 1, 1));
+    }
+}
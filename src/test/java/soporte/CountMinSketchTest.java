@@ -0,0 +1,51 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+    @Test
+    void nuncaSubestima() {
+        CountMinSketch c = new CountMinSketch(256, 4);
+        Map<Integer, Integer> real = new HashMap<>();
+        Random r = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            int v = r.nextInt(2_000);
+            c.add(v);
+            real.merge(v, 1, Integer::sum);
+        }
+        long excesoTotal = 0;
+        for (Map.Entry<Integer, Integer> e : real.entrySet()) {
+            long estimado = c.estimate(e.getKey());
+            assertTrue(estimado >= e.getValue());
+            excesoTotal += estimado - e.getValue();
+        }
+        // en promedio el exceso no pasa de N / width
+        assertTrue(excesoTotal / real.size() <= 10_000 / 256, "exceso medio " + excesoTotal / real.size());
+        assertEquals(10_000, c.getTotal());
+    }
+
+    @Test
+    void mergeSumaLosContadores() {
+        CountMinSketch a = new CountMinSketch(), b = new CountMinSketch();
+        a.add("x", 3);
+        b.add("x", 4);
+        b.add("y");
+        a.merge(b);
+        assertEquals(7, a.estimate("x"));
+        assertEquals(8, a.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> a.merge(new CountMinSketch(10, 4)));
+    }
+
+    @Test
+    void parametrosNoValidos() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(16, 17));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch().add("x", -1));
+    }
+}
@@ -0,0 +1,108 @@
+package soporte;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static soporte.DatasetTest.TITULOS;
+import static soporte.DatasetTest.escribir;
+import static soporte.DatasetTest.fila;
+import static soporte.DatasetTest.series;
+
+class DatasetDirectorioTest {
+    private Path dir;
+
+    @BeforeEach
+    void crearDirectorio() throws IOException {
+        dir = Files.createTempDirectory("directorio-test");
+    }
+
+    @AfterEach
+    void borrarDirectorio() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(p);
+        }
+    }
+
+    @Test
+    void soloSeDescartanLosTitulosDeArchivosAnteriores() throws IOException {
+        escribir(dir, "a.csv", TITULOS
+                + fila("Lost", "Drama", "8.3", "10")
+                + fila("Dark", "Drama", "8.7", "20")
+                + fila("Lost", "Drama", "8.1", "30"));
+        escribir(dir, "b.csv", TITULOS
+                + fila("Dark", "Drama", "5.0", "1")
+                + fila("Fargo", "Crime", "8.9", "40")
+                + fila("Lost", "Drama", "5.0", "1"));
+        escribir(dir, "c.csv", TITULOS
+                + fila("Sherlock", "Crime", "9.1", "50")
+                + fila("Sherlock", "Crime", "9.0", "60"));
+        escribir(dir, "notas.txt", "no es un csv");
+
+        DatasetDirectorio d = new DatasetDirectorio(dir.toString(), "*.csv", 2);
+        assertEquals(List.of("Crime|Fargo|89|40", "Crime|Sherlock|91|50", "Crime|Sherlock|90|60",
+                        "Drama|Lost|83|10", "Drama|Dark|87|20", "Drama|Lost|81|30"),
+                series(d.cargarDataset()));
+    }
+
+    @Test
+    void unSoloArchivoIgualQueDataset() throws IOException {
+        Path archivo = escribir(dir, "series.csv", TITULOS
+                + fila("Battlestar Galactica", "Drama|Sci-Fi", "8.7", "100")
+                + fila("Battlestar Galactica", "Drama|Sci-Fi", "7.4", "200")
+                + fila("Dark", "Crime|Drama", "8.7", "300"));
+        assertEquals(series(new Dataset(archivo.toString()).cargarDataset()),
+                series(new DatasetDirectorio(dir.toString()).cargarDataset()));
+    }
+
+    @Test
+    void directorioSinArchivos() throws IOException {
+        assertTrue(new DatasetDirectorio(dir.toString()).cargarDataset().getGeneros().isEmpty());
+    }
+
+    @Test
+    void listaDeArchivosEnElOrdenIndicado() throws IOException {
+        Path a = escribir(dir, "a.csv", TITULOS + fila("Lost", "Drama", "8.3", "10"));
+        Path b = escribir(dir, "b.csv", TITULOS + fila("Lost", "Drama", "5.0", "1") + fila("Dark", "Drama", "8.7", "20"));
+        TSBArrayList<Path> lista = new TSBArrayList<>();
+        lista.add(b);
+        lista.add(a);
+        DatasetDirectorio d = new DatasetDirectorio(lista);
+        assertEquals(lista, d.getArchivos());
+        assertEquals(List.of("Drama|Lost|50|1", "Drama|Dark|87|20"), series(d.cargarDataset()));
+    }
+
+    @Test
+    void unArchivoQueNoSePuedeLeerHaceFallarTodaLaCarga() throws IOException {
+        TSBArrayList<Path> lista = new TSBArrayList<>();
+        for (int i = 0; i < 6; i++)
+            lista.add(escribir(dir, "s" + i + ".csv", TITULOS + fila("Serie " + i, "Drama", "8.0", "1")));
+        lista.add(2, dir.resolve("no-existe.csv"));
+        DatasetDirectorio d = new DatasetDirectorio(lista);
+        assertThrows(IOException.class, d::cargarDataset);
+    }
+
+    @Test
+    void unaLineaMalFormadaHaceFallarTodaLaCarga() throws IOException {
+        escribir(dir, "a.csv", TITULOS + fila("Lost", "Drama", "8.3", "10"));
+        escribir(dir, "b.csv", TITULOS + "Dark,(2017),A\n");
+        DatasetDirectorio d = new DatasetDirectorio(dir.toString());
+        assertThrows(RuntimeException.class, d::cargarDataset);
+    }
+
+    @Test
+    void unDirectorioQueNoExisteHaceFallarLaCarga() {
+        DatasetDirectorio d = new DatasetDirectorio(dir.resolve("no-existe").toString());
+        assertThrows(IOException.class, d::getArchivos);
+        assertThrows(IOException.class, d::cargarDataset);
+    }
+}
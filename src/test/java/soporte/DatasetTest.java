@@ -0,0 +1,130 @@
+package soporte;
+
+import negocio.Estadisticas;
+import negocio.Resultado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetTest {
+    static final String TITULOS = "Series_Title,Runtime_of_Series,Certificate,Runtime_of_Episodes,Genre,IMDB_Rating,"
+            + "Overview,Star1,Star2,Star3,Star4,No_of_Votes\n";
+
+    private Path dir;
+
+    @BeforeEach
+    void crearDirectorio() throws IOException {
+        dir = Files.createTempDirectory("dataset-test");
+    }
+
+    @AfterEach
+    void borrarDirectorio() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(p);
+        }
+    }
+
+    static String fila(String titulo, String generos, String rating, String votos) {
+        return titulo + ",(2011),A,50 min," + generos + "," + rating + ",Resumen,E1,E2,E3,E4," + votos + "\n";
+    }
+
+    static Path escribir(Path dir, String nombre, String contenido) throws IOException {
+        return Files.write(dir.resolve(nombre), contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Todas las series de las estadisticas, genero por genero en orden alfabetico.
+     */
+    static List<String> series(Estadisticas e) {
+        List<String> generos = new ArrayList<>();
+        for (Object g : e.getGeneros())
+            generos.add(g.toString());
+        generos.sort(null);
+        List<String> r = new ArrayList<>();
+        for (String g : generos)
+            ((Resultado) e.buscar(g)).forEachSerie((serie, rating, votos) -> r.add(g + "|" + serie + "|" + rating + "|" + votos));
+        return r;
+    }
+
+    private Path ejemplo() throws IOException {
+        return escribir(dir, "series.csv", TITULOS
+                + fila("Game of Thrones", "Action|Adventure|Drama", "9.3", "1773458")
+                + fila("Dark", "Crime|Drama", "8.75", "")
+                + fila("Lost", "Drama", "8.3", "517000"));
+    }
+
+    @Test
+    void laCargaGuardaDecimasYVotos() throws IOException {
+        Dataset d = new Dataset(ejemplo().toString(), 2, 2);
+        assertEquals(List.of("Action|Game of Thrones|93|1773458", "Adventure|Game of Thrones|93|1773458",
+                "Crime|Dark|88|0", "Drama|Game of Thrones|93|1773458", "Drama|Dark|88|0", "Drama|Lost|83|517000"),
+                series(d.cargarDataset()));
+    }
+
+    @Test
+    void elRedondeoSeAplicaEnTodosLosCaminos() throws IOException {
+        Path archivo = ejemplo();
+        for (ParserNumeros.Redondeo modo : ParserNumeros.Redondeo.values()) {
+            Dataset etapas = new Dataset(archivo.toString(), 1, 1);
+            etapas.setRedondeo(modo);
+            List<String> esperado = series(etapas.cargarDataset());
+            assertTrue(esperado.contains("Crime|Dark|" + (modo == ParserNumeros.Redondeo.TRUNCAR ? 87 : 88) + "|0"), modo.toString());
+
+            Dataset externa = new Dataset(archivo.toString());
+            externa.setRedondeo(modo);
+            externa.setPresupuesto(1);
+            assertEquals(esperado, series(externa.cargarDataset()), modo.toString());
+
+            Dataset rango = new Dataset(archivo.toString());
+            rango.setRedondeo(modo);
+            assertEquals(esperado, series(rango.cargarRango(0, Files.size(archivo))), modo.toString());
+
+            DatasetDirectorio directorio = new DatasetDirectorio(dir.toString());
+            directorio.setRedondeo(modo);
+            assertEquals(esperado, series(directorio.cargarDataset()), modo.toString());
+        }
+    }
+
+    @Test
+    void cargarRangoDesdeUnaLinea() throws IOException {
+        Path archivo = ejemplo();
+        String texto = Files.readString(archivo);
+        long desde = texto.indexOf("Lost");
+        Estadisticas e = new Dataset(archivo.toString()).cargarRango(desde, texto.length());
+        assertEquals(List.of("Drama|Lost|83|517000"), series(e));
+    }
+
+    @Test
+    void unaLineaMalFormadaHaceFallarLaCarga() throws IOException {
+        Path archivo = escribir(dir, "rota.csv", TITULOS
+                + fila("Lost", "Drama", "8.3", "517000")
+                + "Dark,(2017),A\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new Dataset(archivo.toString()).cargarDataset());
+        assertTrue(e.getMessage().contains("menos campos"), e.getMessage());
+
+        Dataset externa = new Dataset(archivo.toString());
+        externa.setPresupuesto(1 << 20);
+        assertThrows(RuntimeException.class, externa::cargarDataset);
+    }
+
+    @Test
+    void unArchivoQueNoExisteHaceFallarLaCarga() {
+        Dataset d = new Dataset(dir.resolve("no-existe.csv").toString());
+        assertThrows(IOException.class, d::cargarDataset);
+        d.setPresupuesto(1 << 20);
+        assertThrows(IOException.class, d::cargarDataset);
+    }
+}
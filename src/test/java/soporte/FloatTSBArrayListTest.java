@@ -0,0 +1,84 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloatTSBArrayListTest {
+    @Test
+    void coincideConArrayList() {
+        FloatTSBArrayList l = new FloatTSBArrayList(1);
+        List<Float> m = new ArrayList<>();
+        Random r = new Random(9);
+        for (int i = 0; i < 20_000; i++) {
+            float v = r.nextInt(100) / 10f;
+            switch (r.nextInt(5)) {
+                case 0, 1 -> {
+                    l.add(v);
+                    m.add(v);
+                }
+                case 2 -> {
+                    int p = r.nextInt(m.size() + 1);
+                    l.add(p, v);
+                    m.add(p, v);
+                }
+                case 3 -> {
+                    if (!m.isEmpty()) {
+                        int p = r.nextInt(m.size());
+                        assertEquals((float) m.remove(p), l.remove(p));
+                    }
+                }
+                default -> {
+                    if (!m.isEmpty()) {
+                        int p = r.nextInt(m.size());
+                        assertEquals((float) m.set(p, v), l.set(p, v));
+                    }
+                }
+            }
+        }
+        assertEquals(m.size(), l.size());
+        float[] esperado = new float[m.size()];
+        for (int i = 0; i < esperado.length; i++) esperado[i] = m.get(i);
+        assertArrayEquals(esperado, l.toArray());
+        assertEquals(m.indexOf(4.2f), l.indexOf(4.2f));
+    }
+
+    @Test
+    void nanYCerosSeComparanComoFloatEquals() {
+        FloatTSBArrayList l = new FloatTSBArrayList(new float[] {0.0f, Float.NaN});
+        assertEquals(1, l.indexOf(Float.NaN));
+        assertTrue(l.contains(0.0f));
+        assertFalse(l.contains(-0.0f));
+    }
+
+    @Test
+    void limitesYOrden() {
+        FloatTSBArrayList l = new FloatTSBArrayList(new float[] {8.7f, 5.5f, 9.3f});
+        assertThrows(IndexOutOfBoundsException.class, () -> l.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.add(4, 1f));
+        l.addAll(new float[] {7.1f, 6.4f, 8.9f}, 1, 2);
+        l.sort();
+        assertArrayEquals(new float[] {5.5f, 6.4f, 8.7f, 8.9f, 9.3f}, l.toArray());
+        assertEquals("{5.5, 6.4, 8.7, 8.9, 9.3}", l.toString());
+
+        float[] suma = {0};
+        l.forEach(v -> suma[0] += v);
+        assertEquals(38.8f, suma[0], 1e-4f);
+        l.clear();
+        assertTrue(l.isEmpty());
+    }
+
+    @Test
+    void cloneEsIndependiente() throws CloneNotSupportedException {
+        FloatTSBArrayList l = new FloatTSBArrayList(new float[] {1f, 2f});
+        FloatTSBArrayList c = (FloatTSBArrayList) l.clone();
+        c.add(3f);
+        c.set(0, 10f);
+        assertArrayEquals(new float[] {1f, 2f}, l.toArray());
+        assertArrayEquals(new float[] {10f, 2f, 3f}, c.toArray());
+    }
+}
@@ -0,0 +1,80 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrozenTSBHashTableTest {
+    @Test
+    void tieneElMismoContenidoQueLaTablaOriginal() {
+        TSBHashTableDA<String, Integer> t = new TSBHashTableDA<>();
+        for (int i = 0; i < 5_000; i++) t.put("k" + i, i);
+        FrozenTSBHashTable<String, Integer> f = t.freeze();
+        assertEquals(5_000, f.size());
+        assertEquals(new HashMap<>(t), f);
+        for (int i = 0; i < 5_000; i++) assertEquals(i, f.get("k" + i));
+        assertNull(f.get("k-1"));
+        assertFalse(f.containsKey("k5000"));
+
+        AtomicInteger n = new AtomicInteger();
+        f.forEach((k, v) -> n.incrementAndGet());
+        assertEquals(5_000, n.get());
+    }
+
+    @Test
+    void losCambiosPosterioresNoSeReflejan() {
+        TSBHashTableDA<String, Integer> t = new TSBHashTableDA<>();
+        t.put("a", 1);
+        FrozenTSBHashTable<String, Integer> f = t.freeze();
+        t.put("a", 2);
+        t.put("b", 3);
+        assertEquals(Map.of("a", 1), f);
+    }
+
+    @Test
+    void esDeSoloLectura() {
+        FrozenTSBHashTable<String, Integer> f = new FrozenTSBHashTable<>(Map.of("a", 1));
+        assertThrows(UnsupportedOperationException.class, () -> f.put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> f.remove("a"));
+        assertThrows(UnsupportedOperationException.class, f::clear);
+        assertThrows(UnsupportedOperationException.class, () -> f.keySet().remove("a"));
+        assertThrows(UnsupportedOperationException.class, () -> f.entrySet().iterator().next().setValue(5));
+        assertEquals(1, f.get("a"));
+    }
+
+    @Test
+    void lecturasConcurrentes() {
+        Map<Integer, Integer> m = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) m.put(i, -i);
+        FrozenTSBHashTable<Integer, Integer> f = new FrozenTSBHashTable<>(m);
+        long errores = IntStream.range(0, 200_000).parallel()
+                .filter(i -> f.get(i % 10_000) != -(i % 10_000))
+                .count();
+        assertEquals(0, errores);
+    }
+
+    @Test
+    void serializacionConservaLosPares() throws Exception {
+        Map<String, Integer> m = new HashMap<>();
+        for (int i = 0; i < 3_000; i++) m.put("k" + i, i);
+        FrozenTSBHashTable<String, Integer> f = new FrozenTSBHashTable<>(m);
+        FrozenTSBHashTable<String, Integer> c = IntObjectTSBHashTableTest.copiaSerializada(f);
+        assertNotSame(f, c);
+        assertEquals(m, c);
+        for (int i = 0; i < 3_000; i++) assertEquals(i, c.get("k" + i));
+        assertEquals(3_000, c.entrySet().size());
+        assertThrows(UnsupportedOperationException.class, () -> c.put("x", 1));
+    }
+
+    @Test
+    void rechazaNulls() {
+        Map<String, Integer> m = new HashMap<>();
+        m.put("a", null);
+        assertThrows(NullPointerException.class, () -> new FrozenTSBHashTable<>(m));
+    }
+}
@@ -0,0 +1,86 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrafoCSRTest {
+    private static List<Integer> vecinos(GrafoCSR g, int v) {
+        List<Integer> l = new ArrayList<>();
+        g.forEachVecino(v, l::add);
+        return l;
+    }
+
+    @Test
+    void filasOrdenadasYSinRepetidas() {
+        GrafoCSR g = new GrafoCSR(4,
+                new IntTSBArrayList(new int[]{2, 0, 2, 0, 2, 3}),
+                new IntTSBArrayList(new int[]{5, 3, 1, 1, 5, 0}));
+        assertEquals(4, g.vertices());
+        assertEquals(5, g.aristas());
+        assertEquals(List.of(1, 3), vecinos(g, 0));
+        assertEquals(List.of(), vecinos(g, 1));
+        assertEquals(List.of(1, 5), vecinos(g, 2));
+        assertEquals(List.of(0), vecinos(g, 3));
+        assertEquals(2, g.grado(2));
+        assertEquals(5, g.vecino(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> g.vecino(2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> g.grado(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> g.forEachVecino(-1, x -> { }));
+    }
+
+    @Test
+    void coincideConConjuntosAlAzar() {
+        Random r = new Random(19);
+        int n = 200, m = 300;
+        List<Set<Integer>> esperado = new ArrayList<>();
+        List<Set<Integer>> traspuesto = new ArrayList<>();
+        for (int i = 0; i < n; i++) esperado.add(new TreeSet<>());
+        for (int i = 0; i < m; i++) traspuesto.add(new TreeSet<>());
+        IntTSBArrayList origenes = new IntTSBArrayList();
+        IntTSBArrayList destinos = new IntTSBArrayList();
+        for (int i = 0; i < 5_000; i++) {
+            int o = r.nextInt(n), d = r.nextInt(m);
+            origenes.add(o);
+            destinos.add(d);
+            esperado.get(o).add(d);
+            traspuesto.get(d).add(o);
+        }
+
+        GrafoCSR g = new GrafoCSR(n, origenes, destinos);
+        GrafoCSR t = g.traspuesto(m);
+        assertEquals(m, t.vertices());
+        assertEquals(g.aristas(), t.aristas());
+        for (int v = 0; v < n; v++) assertEquals(new ArrayList<>(esperado.get(v)), vecinos(g, v));
+        for (int v = 0; v < m; v++) assertEquals(new ArrayList<>(traspuesto.get(v)), vecinos(t, v));
+
+        for (int i = 0; i < 500; i++) {
+            int u = r.nextInt(n), v = r.nextInt(n);
+            Set<Integer> comunes = new TreeSet<>(esperado.get(u));
+            comunes.retainAll(esperado.get(v));
+            List<Integer> l = new ArrayList<>();
+            assertEquals(comunes.size(), g.interseccion(u, v, l::add));
+            assertEquals(new ArrayList<>(comunes), l);
+            assertEquals(comunes.size(), g.interseccion(u, v, null));
+        }
+    }
+
+    @Test
+    void aristasNoValidas() {
+        IntTSBArrayList uno = new IntTSBArrayList(new int[]{0});
+        IntTSBArrayList fuera = new IntTSBArrayList(new int[]{3});
+        assertThrows(IllegalArgumentException.class, () -> new GrafoCSR(2, uno, new IntTSBArrayList()));
+        assertThrows(IllegalArgumentException.class, () -> new GrafoCSR(2, fuera, uno));
+        assertThrows(IllegalArgumentException.class, () -> new GrafoCSR(2, uno, fuera).traspuesto(2));
+
+        GrafoCSR vacio = new GrafoCSR(0, new IntTSBArrayList(), new IntTSBArrayList());
+        assertEquals(0, vacio.vertices());
+        assertEquals(0, vacio.aristas());
+    }
+}
@@ -0,0 +1,45 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+    @Test
+    void estimaDistintosConErrorAcotado() {
+        HyperLogLog h = new HyperLogLog(12);
+        for (int r = 0; r < 3; r++) {
+            for (int i = 0; i < 50_000; i++)
+                h.add("v" + i);
+        }
+        // precision 12: ~1.6% de error tipico; se deja margen
+        assertEquals(50_000, h.estimate(), 50_000 * 0.06);
+    }
+
+    @Test
+    void pocosValoresCasiExactos() {
+        HyperLogLog h = new HyperLogLog();
+        for (int i = 0; i < 20; i++)
+            h.add(i % 10);
+        assertEquals(10, h.estimate(), 1);
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void mergeEsLaUnion() {
+        HyperLogLog a = new HyperLogLog(), b = new HyperLogLog(), u = new HyperLogLog();
+        for (int i = 0; i < 6_000; i++) {
+            (i < 4_000 ? a : b).add("s" + i);
+            u.add("s" + i);
+        }
+        a.merge(b);
+        assertEquals(u.estimate(), a.estimate());
+        assertThrows(IllegalArgumentException.class, () -> a.merge(new HyperLogLog(8)));
+    }
+
+    @Test
+    void precisionFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+    }
+}
@@ -0,0 +1,85 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntTSBHashTableTest {
+    @Test
+    void putGetYRemove() {
+        IntIntTSBHashTable t = new IntIntTSBHashTable();
+        assertTrue(t.isEmpty());
+        assertEquals(0, t.put(5, 50));
+        assertEquals(50, t.put(5, 55));
+        assertEquals(55, t.get(5));
+        assertEquals(1, t.size());
+
+        assertEquals(0, t.get(7));
+        assertEquals(-1, t.getOrDefault(7, -1));
+        assertFalse(t.containsKey(7));
+
+        t.put(7, 0);
+        assertTrue(t.containsKey(7));
+        assertEquals(0, t.get(7));
+
+        assertEquals(55, t.remove(5));
+        assertFalse(t.containsKey(5));
+        assertEquals(0, t.remove(5));
+        assertEquals(1, t.size());
+    }
+
+    @Test
+    void addToCuentaDesdeCero() {
+        IntIntTSBHashTable t = new IntIntTSBHashTable();
+        assertEquals(3, t.addTo(10, 3));
+        assertEquals(7, t.addTo(10, 4));
+        assertEquals(7, t.get(10));
+        assertEquals(1, t.size());
+    }
+
+    @Test
+    void coincideConHashMapEnOperacionesAlAzar() {
+        IntIntTSBHashTable t = new IntIntTSBHashTable();
+        HashMap<Integer, Integer> m = new HashMap<>();
+        Random r = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int k = r.nextInt(2_000) - 1_000;
+            switch (r.nextInt(3)) {
+                case 0 -> {
+                    Integer v = m.put(k, i);
+                    assertEquals(v == null ? 0 : v, t.put(k, i), "put " + k);
+                }
+                case 1 -> assertEquals((int) m.merge(k, 2, Integer::sum), t.addTo(k, 2), "addTo " + k);
+                default -> {
+                    Integer v = m.remove(k);
+                    assertEquals(v == null ? 0 : v, t.remove(k), "remove " + k);
+                }
+            }
+        }
+        assertEquals(m.size(), t.size());
+        m.forEach((k, v) -> assertEquals((int) v, t.getOrDefault(k, Integer.MIN_VALUE), "clave " + k));
+
+        HashMap<Integer, Integer> recorrido = new HashMap<>();
+        t.forEach((k, v) -> recorrido.put(k, v));
+        assertEquals(m, recorrido);
+    }
+
+    @Test
+    void ensureCapacityYClone() throws CloneNotSupportedException {
+        IntIntTSBHashTable t = IntIntTSBHashTable.withExpectedSize(1_000);
+        for (int i = 0; i < 1_000; i++) t.put(i, i * i);
+        IntIntTSBHashTable c = (IntIntTSBHashTable) t.clone();
+        assertEquals(t, c);
+        assertEquals(t.hashCode(), c.hashCode());
+        c.put(0, -1);
+        assertNotEquals(t, c);
+        assertEquals(0, t.get(0));
+
+        t.clear();
+        assertTrue(t.isEmpty());
+        assertEquals(0, t.keys().length);
+    }
+}
@@ -0,0 +1,126 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectTSBHashTableTest {
+    @SuppressWarnings("unchecked")
+    static <T> T copiaSerializada(T objeto) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(objeto);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    void putGetYRemove() {
+        IntObjectTSBHashTable<String> t = new IntObjectTSBHashTable<>();
+        assertTrue(t.isEmpty());
+        assertNull(t.put(5, "Lost"));
+        assertEquals("Lost", t.put(5, "Dark"));
+        assertEquals("Dark", t.get(5));
+        assertEquals(1, t.size());
+
+        assertNull(t.get(7));
+        assertEquals("-", t.getOrDefault(7, "-"));
+        assertFalse(t.containsKey(7));
+        assertTrue(t.containsValue("Dark"));
+        assertFalse(t.containsValue("Lost"));
+
+        assertEquals("Dark", t.remove(5));
+        assertFalse(t.containsKey(5));
+        assertNull(t.remove(5));
+        assertTrue(t.isEmpty());
+        assertThrows(NullPointerException.class, () -> t.put(1, null));
+    }
+
+    @Test
+    void computeIfAbsentCreaElValorUnaSolaVez() {
+        IntObjectTSBHashTable<StringBuilder> t = new IntObjectTSBHashTable<>();
+        int[] creados = {0};
+        for (int i = 0; i < 10; i++)
+            t.computeIfAbsent(i % 3, k -> {
+                creados[0]++;
+                return new StringBuilder();
+            }).append('x');
+        assertEquals(3, creados[0]);
+        assertEquals("xxxx", t.get(0).toString());
+        assertEquals("xxx", t.get(2).toString());
+    }
+
+    @Test
+    void coincideConHashMapEnOperacionesAlAzar() {
+        IntObjectTSBHashTable<String> t = new IntObjectTSBHashTable<>();
+        HashMap<Integer, String> m = new HashMap<>();
+        Random r = new Random(23);
+        for (int i = 0; i < 50_000; i++) {
+            int k = r.nextInt(2_000) - 1_000;
+            switch (r.nextInt(3)) {
+                case 0 -> assertEquals(m.put(k, "v" + i), t.put(k, "v" + i), "put " + k);
+                case 1 -> assertEquals(m.computeIfAbsent(k, x -> "c" + x), t.computeIfAbsent(k, x -> "c" + x),
+                        "computeIfAbsent " + k);
+                default -> assertEquals(m.remove(k), t.remove(k), "remove " + k);
+            }
+        }
+        assertEquals(m.size(), t.size());
+        m.forEach((k, v) -> assertEquals(v, t.get(k), "clave " + k));
+
+        HashMap<Integer, String> recorrido = new HashMap<>();
+        t.forEach(recorrido::put);
+        assertEquals(m, recorrido);
+        assertEquals(m.size(), t.keys().length);
+        assertEquals(m.size(), t.values().length);
+    }
+
+    @Test
+    void forEachDetectaModificaciones() {
+        IntObjectTSBHashTable<String> t = new IntObjectTSBHashTable<>();
+        t.put(1, "a");
+        t.put(2, "b");
+        assertThrows(ConcurrentModificationException.class, () -> t.forEach((k, v) -> t.remove(k)));
+    }
+
+    @Test
+    void ensureCapacityYClone() throws CloneNotSupportedException {
+        IntObjectTSBHashTable<String> t = IntObjectTSBHashTable.withExpectedSize(1_000);
+        for (int i = 0; i < 1_000; i++) t.put(i, "v" + i);
+        @SuppressWarnings("unchecked")
+        IntObjectTSBHashTable<String> c = (IntObjectTSBHashTable<String>) t.clone();
+        assertEquals(t, c);
+        assertEquals(t.hashCode(), c.hashCode());
+        c.put(0, "otro");
+        assertNotEquals(t, c);
+        assertEquals("v0", t.get(0));
+
+        t.ensureCapacity(5_000);
+        for (int i = 0; i < 1_000; i++) assertEquals("v" + i, t.get(i));
+        t.clear();
+        assertTrue(t.isEmpty());
+        assertEquals(0, t.keys().length);
+    }
+
+    @Test
+    void laSerializacionConservaLosPares() throws IOException, ClassNotFoundException {
+        IntObjectTSBHashTable<String> t = new IntObjectTSBHashTable<>();
+        for (int i = 0; i < 500; i++) t.put(i * 7, "v" + i);
+        for (int i = 0; i < 500; i += 3) t.remove(i * 7);
+        IntObjectTSBHashTable<String> copia = copiaSerializada(t);
+        assertEquals(t, copia);
+        copia.put(-1, "nuevo");
+        assertEquals("nuevo", copia.get(-1));
+        assertEquals(t.size() + 1, copia.size());
+    }
+}
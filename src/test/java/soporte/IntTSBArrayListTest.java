@@ -0,0 +1,72 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntTSBArrayListTest {
+    @Test
+    void coincideConArrayList() {
+        IntTSBArrayList l = new IntTSBArrayList(1);
+        List<Integer> m = new ArrayList<>();
+        Random r = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            int v = r.nextInt(100);
+            switch (r.nextInt(5)) {
+                case 0, 1 -> {
+                    l.add(v);
+                    m.add(v);
+                }
+                case 2 -> {
+                    int p = r.nextInt(m.size() + 1);
+                    l.add(p, v);
+                    m.add(p, v);
+                }
+                case 3 -> {
+                    if (!m.isEmpty()) {
+                        int p = r.nextInt(m.size());
+                        assertEquals((int) m.remove(p), l.remove(p));
+                    }
+                }
+                default -> {
+                    if (!m.isEmpty()) {
+                        int p = r.nextInt(m.size());
+                        assertEquals((int) m.set(p, v), l.set(p, v));
+                    }
+                }
+            }
+        }
+        assertEquals(m.size(), l.size());
+        int[] esperado = m.stream().mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(esperado, l.toArray());
+        assertEquals(m.indexOf(42), l.indexOf(42));
+    }
+
+    @Test
+    void limitesYOrden() {
+        IntTSBArrayList l = new IntTSBArrayList(new int[] {5, 3, 9});
+        assertThrows(IndexOutOfBoundsException.class, () -> l.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.add(4, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.addAll(new int[2], 1, 2));
+        l.addAll(new int[] {7, 1, 8}, 1, 2);
+        l.sort();
+        assertArrayEquals(new int[] {1, 3, 5, 8, 9}, l.toArray());
+        assertEquals("{1, 3, 5, 8, 9}", l.toString());
+        l.clear();
+        assertTrue(l.isEmpty());
+    }
+
+    @Test
+    void cloneEsIndependiente() throws CloneNotSupportedException {
+        IntTSBArrayList l = new IntTSBArrayList(new int[] {1, 2});
+        IntTSBArrayList c = (IntTSBArrayList) l.clone();
+        c.add(3);
+        c.set(0, 10);
+        assertArrayEquals(new int[] {1, 2}, l.toArray());
+        assertArrayEquals(new int[] {10, 2, 3}, c.toArray());
+    }
+}
@@ -0,0 +1,312 @@
+package soporte;
+
+import negocio.Estadisticas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LectorLz4Test {
+    private Path dir;
+
+    @BeforeEach
+    void crearDirectorio() throws IOException {
+        dir = Files.createTempDirectory("lz4-test");
+    }
+
+    @AfterEach
+    void borrarDirectorio() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(p);
+        }
+    }
+
+    /*
+     * Compresor LZ4 minimo (busqueda voraz con una tabla de hash) para armar los
+     * frames de los tests: bloques de 64 KB, opcionalmente dependientes del
+     * anterior, con checksums de bloque y de contenido, y con bloques sin
+     * comprimir cuando no conviene comprimirlos.
+     */
+    static byte[] comprimir(byte[] datos, boolean independientes, boolean checksumBloques,
+                            boolean checksumContenido, boolean tamContenido) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entero(out, LectorLz4.MAGICO);
+        ByteArrayOutputStream desc = new ByteArrayOutputStream();
+        int flg = 0x40 | (independientes ? 0x20 : 0) | (checksumBloques ? 0x10 : 0)
+                | (tamContenido ? 0x08 : 0) | (checksumContenido ? 0x04 : 0);
+        desc.write(flg);
+        desc.write(0x40);
+        if (tamContenido) {
+            entero(desc, datos.length);
+            entero(desc, 0);
+        }
+        byte[] d = desc.toByteArray();
+        out.writeBytes(d);
+        out.write((LectorLz4.XxHash32.hash(d, 0, d.length, 0) >>> 8) & 0xFF);
+
+        int tamBloque = 1 << 16;
+        for (int inicio = 0; inicio < datos.length; inicio += tamBloque) {
+            int fin = Math.min(datos.length, inicio + tamBloque);
+            int base = independientes ? inicio : Math.max(0, inicio - tamBloque);
+            byte[] bloque = bloque(datos, base, inicio, fin);
+            if (bloque.length >= fin - inicio) {
+                bloque = Arrays.copyOfRange(datos, inicio, fin);
+                entero(out, bloque.length | 0x80000000);
+            } else {
+                entero(out, bloque.length);
+            }
+            out.writeBytes(bloque);
+            if (checksumBloques)
+                entero(out, LectorLz4.XxHash32.hash(bloque, 0, bloque.length, 0));
+        }
+        entero(out, 0);
+        if (checksumContenido)
+            entero(out, LectorLz4.XxHash32.hash(datos, 0, datos.length, 0));
+        return out.toByteArray();
+    }
+
+    private static byte[] bloque(byte[] datos, int base, int inicio, int fin) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] tabla = new int[1 << 12];
+        Arrays.fill(tabla, -1);
+        for (int i = base; i + 4 <= inicio; i++)
+            tabla[hash(datos, i)] = i;
+
+        int literal = inicio;
+        int i = inicio;
+        // las ultimas 5 posiciones siempre van como literales (como exige el formato)...
+        int limite = fin - 12;
+        while (i < limite) {
+            int h = hash(datos, i);
+            int candidato = tabla[h];
+            tabla[h] = i;
+            if (candidato >= base && i - candidato <= 65535 && igual4(datos, candidato, i)) {
+                int largo = 4;
+                while (i + largo < fin - 5 && datos[candidato + largo] == datos[i + largo])
+                    largo++;
+                secuencia(out, datos, literal, i - literal, i - candidato, largo);
+                i += largo;
+                literal = i;
+            } else {
+                i++;
+            }
+        }
+        secuencia(out, datos, literal, fin - literal, 0, 0);
+        return out.toByteArray();
+    }
+
+    private static void secuencia(ByteArrayOutputStream out, byte[] datos, int desde, int literales,
+                                  int offset, int largo) {
+        int lm = largo == 0 ? 0 : largo - 4;
+        out.write((Math.min(literales, 15) << 4) | Math.min(lm, 15));
+        if (literales >= 15)
+            extension(out, literales - 15);
+        out.write(datos, desde, literales);
+        if (largo == 0)
+            return;
+        out.write(offset & 0xFF);
+        out.write(offset >>> 8);
+        if (lm >= 15)
+            extension(out, lm - 15);
+    }
+
+    private static void extension(ByteArrayOutputStream out, int n) {
+        for (; n >= 255; n -= 255)
+            out.write(255);
+        out.write(n);
+    }
+
+    private static int hash(byte[] b, int i) {
+        int v = (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+        return (v * 0x9E3779B1) >>> 20;
+    }
+
+    private static boolean igual4(byte[] b, int x, int y) {
+        return b[x] == b[y] && b[x + 1] == b[y + 1] && b[x + 2] == b[y + 2] && b[x + 3] == b[y + 3];
+    }
+
+    private static void entero(ByteArrayOutputStream out, int v) {
+        out.write(v);
+        out.write(v >>> 8);
+        out.write(v >>> 16);
+        out.write(v >>> 24);
+    }
+
+    private static byte[] leerTodo(byte[] frame) throws IOException {
+        try (InputStream in = new LectorLz4(new ByteArrayInputStream(frame))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] texto(int filas) {
+        StringBuilder sb = new StringBuilder();
+        Random r = new Random(7);
+        for (int i = 0; i < filas; i++)
+            sb.append("Serie ").append(r.nextInt(500)).append(",Drama,").append(r.nextInt(100) / 10.0)
+                    .append(",").append(r.nextInt(100000)).append("\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void xxHash32ConValoresConocidos() {
+        byte[] vacio = new byte[0];
+        assertEquals(0x02CC5D05, LectorLz4.XxHash32.hash(vacio, 0, 0, 0));
+        assertEquals(0x550D7456, LectorLz4.XxHash32.hash("a".getBytes(StandardCharsets.US_ASCII), 0, 1, 0));
+        assertEquals(0x32D153FF, LectorLz4.XxHash32.hash("abc".getBytes(StandardCharsets.US_ASCII), 0, 3, 0));
+    }
+
+    @Test
+    void xxHash32IncrementalIgualAlDeUnaPasada() {
+        byte[] datos = texto(200);
+        LectorLz4.XxHash32 h = new LectorLz4.XxHash32(0);
+        for (int i = 0; i < datos.length; i += 7)
+            h.update(datos, i, Math.min(7, datos.length - i));
+        assertEquals(LectorLz4.XxHash32.hash(datos, 0, datos.length, 0), h.digest());
+    }
+
+    @Test
+    void frameVacioDeLaHerramientaLz4() throws IOException {
+        byte[] frame = {0x04, 0x22, 0x4D, 0x18, 0x64, 0x40, (byte) 0xA7, 0, 0, 0, 0, 0x05, 0x5D, (byte) 0xCC, 0x02};
+        assertEquals(0, leerTodo(frame).length);
+    }
+
+    @Test
+    void bloqueSoloConLiterales() throws IOException {
+        byte[] frame = {0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, (byte) 0x82,
+                6, 0, 0, 0, 0x50, 'h', 'o', 'l', 'a', '\n',
+                0, 0, 0, 0};
+        assertEquals("hola\n", new String(leerTodo(frame), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void coincidenciaSuperpuestaRepiteElPatron() throws IOException {
+        // "ab" y una coincidencia de 10 bytes con offset 2, seguida de 5 literales...
+        byte[] frame = {0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, (byte) 0x82,
+                11, 0, 0, 0, 0x26, 'a', 'b', 2, 0, 0x50, 'x', 'y', 'z', 'w', 'v',
+                0, 0, 0, 0};
+        assertEquals("ababababababxyzwv", new String(leerTodo(frame), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void bloquesIndependientesYDependientes() throws IOException {
+        byte[] datos = texto(20000);
+        assertTrue(datos.length > 3 * (1 << 16));
+        byte[] independientes = comprimir(datos, true, false, false, false);
+        byte[] dependientes = comprimir(datos, false, true, true, true);
+        assertTrue(independientes.length < datos.length);
+        assertTrue(dependientes.length < datos.length);
+        assertArrayEquals(datos, leerTodo(independientes));
+        assertArrayEquals(datos, leerTodo(dependientes));
+    }
+
+    @Test
+    void bloquesSinComprimir() throws IOException {
+        byte[] datos = new byte[100000];
+        new Random(3).nextBytes(datos);
+        assertArrayEquals(datos, leerTodo(comprimir(datos, false, true, true, false)));
+    }
+
+    @Test
+    void lecturaDeAUnByte() throws IOException {
+        byte[] datos = texto(300);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new LectorLz4(new ByteArrayInputStream(comprimir(datos, false, false, true, false)))) {
+            int b;
+            while ((b = in.read()) >= 0)
+                out.write(b);
+        }
+        assertArrayEquals(datos, out.toByteArray());
+    }
+
+    @Test
+    void framesConcatenadosYSkippables() throws IOException {
+        byte[] a = texto(100);
+        byte[] b = texto(250);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(comprimir(a, true, false, false, false));
+        entero(out, 0x184D2A53);
+        entero(out, 3);
+        out.writeBytes(new byte[]{1, 2, 3});
+        out.writeBytes(comprimir(b, false, false, true, true));
+
+        ByteArrayOutputStream esperado = new ByteArrayOutputStream();
+        esperado.writeBytes(a);
+        esperado.writeBytes(b);
+        assertArrayEquals(esperado.toByteArray(), leerTodo(out.toByteArray()));
+    }
+
+    @Test
+    void checksumDeContenidoIncorrecto() {
+        byte[] frame = comprimir(texto(100), true, false, true, false);
+        frame[frame.length - 1] ^= 1;
+        assertThrows(IOException.class, () -> leerTodo(frame));
+    }
+
+    @Test
+    void checksumDeBloqueIncorrecto() {
+        byte[] frame = comprimir(texto(100), true, true, false, false);
+        frame[frame.length - 5] ^= 1;
+        assertThrows(IOException.class, () -> leerTodo(frame));
+    }
+
+    @Test
+    void checksumDelDescriptorIncorrecto() {
+        byte[] frame = comprimir(texto(10), true, false, false, false);
+        frame[6] ^= 1;
+        assertThrows(IOException.class, () -> leerTodo(frame));
+    }
+
+    @Test
+    void desplazamientoFueraDeLoEscrito() {
+        byte[] frame = {0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, (byte) 0x82,
+                9, 0, 0, 0, 0x10, 'a', 5, 0, 0x50, 'x', 'y', 'z', 'w',
+                0, 0, 0, 0};
+        assertThrows(IOException.class, () -> leerTodo(frame));
+    }
+
+    @Test
+    void frameTruncado() {
+        byte[] frame = comprimir(texto(100), true, false, false, false);
+        byte[] cortado = Arrays.copyOf(frame, frame.length - 10);
+        assertThrows(EOFException.class, () -> leerTodo(cortado));
+    }
+
+    @Test
+    void numeroMagicoNoValido() {
+        byte[] frame = {0x05, 0x22, 0x4D, 0x18, 0x60, 0x40, (byte) 0x82, 0, 0, 0, 0};
+        assertThrows(IOException.class, () -> leerTodo(frame));
+    }
+
+    @Test
+    void datasetCargaUnArchivoLz4() throws IOException {
+        String contenido = DatasetTest.TITULOS
+                + DatasetTest.fila("Dark", "Drama|Mystery", "8.8", "400000")
+                + DatasetTest.fila("Fargo", "Crime|Drama", "8.9", "350000")
+                + DatasetTest.fila("Friends", "Comedy", "8.9", "900000");
+        Path plano = DatasetTest.escribir(dir, "series.csv", contenido);
+        Path lz4 = dir.resolve("series.csv.lz4");
+        Files.write(lz4, comprimir(contenido.getBytes(StandardCharsets.UTF_8), false, true, true, true));
+
+        Dataset comprimido = new Dataset(lz4.toString());
+        assertTrue(comprimido.isComprimido());
+        assertFalse(new Dataset(plano.toString()).isComprimido());
+        Estadisticas esperado = new Dataset(plano.toString()).cargarDataset();
+        assertEquals(5, DatasetTest.series(esperado).size());
+        assertEquals(DatasetTest.series(esperado), DatasetTest.series(comprimido.cargarDataset()));
+    }
+}
@@ -0,0 +1,73 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineaCsvTest {
+    private static List<String> generos(LineaCsv linea) {
+        List<String> r = new ArrayList<>();
+        for (int i = linea.inicio(LineaCsv.GENEROS), j; (j = linea.finGenero(i)) != -1; i = j + 1)
+            r.add(linea.texto().substring(i, j));
+        return r;
+    }
+
+    private static LineaCsv ubicar(String texto) {
+        LineaCsv linea = new LineaCsv();
+        linea.ubicar(texto, 0, texto.length());
+        return linea;
+    }
+
+    @Test
+    void ubicaLosCamposComoSplit() {
+        String texto = DatasetTest.fila("Game of Thrones", "Action|Adventure|Drama", "9.35", "1773458").trim();
+        LineaCsv linea = ubicar(texto);
+        String[] campos = texto.split(",");
+        for (int i = 0; i < LineaCsv.CAMPOS; i++)
+            assertEquals(campos[i], linea.campo(i), "campo " + i);
+        assertEquals(94, linea.decimas(ParserNumeros.Redondeo.MEDIO_ARRIBA));
+        assertEquals(93, linea.decimas(ParserNumeros.Redondeo.TRUNCAR));
+        assertEquals(1_773_458, linea.votos());
+        assertEquals(Arrays.asList(campos[4].split("\\|")), generos(linea));
+    }
+
+    @Test
+    void camposVaciosYGeneroVacioAlFinal() {
+        LineaCsv linea = ubicar("Dark,(2017),A,60 min,Crime|,8.8,Resumen,E1,,E3,E4,");
+        assertEquals("", linea.campo(8));
+        assertEquals(0, linea.votos());
+        assertEquals(List.of("Crime"), generos(linea));
+        assertEquals(List.of(""), generos(ubicar("Dark,(2017),A,60 min,,8.8,Resumen,E1,E2,E3,E4,1")));
+    }
+
+    @Test
+    void unaLineaConMenosCamposSeRechaza() {
+        assertThrows(IllegalArgumentException.class, () -> ubicar("Dark,(2017),A"));
+    }
+
+    @Test
+    void recorrerSalteaTitulosYLineasVacias() throws IOException {
+        StringBuilder sb = new StringBuilder(DatasetTest.TITULOS);
+        for (int i = 0; i < 3_000; i++)
+            sb.append(DatasetTest.fila("Serie " + i, "Drama", "8.0", String.valueOf(i))).append(i % 100 == 0 ? "\r\n" : "");
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        assertTrue(bytes.length > 2 * (1 << 16));
+
+        List<String> titulos = new ArrayList<>();
+        long[] votos = {0};
+        LineaCsv.recorrer(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, true, linea -> {
+            titulos.add(linea.campo(LineaCsv.TITULO));
+            votos[0] += linea.votos();
+        });
+        assertEquals(3_000, titulos.size());
+        assertEquals("Serie 2999", titulos.get(2_999));
+        assertEquals(2_999L * 3_000 / 2, votos[0]);
+    }
+}
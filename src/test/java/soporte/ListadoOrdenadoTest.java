@@ -0,0 +1,76 @@
+package soporte;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static soporte.DatasetTest.TITULOS;
+import static soporte.DatasetTest.escribir;
+import static soporte.DatasetTest.fila;
+
+class ListadoOrdenadoTest {
+    private Path dir;
+
+    @BeforeEach
+    void crearDirectorio() throws IOException {
+        dir = Files.createTempDirectory("listado-test");
+    }
+
+    @AfterEach
+    void borrarDirectorio() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(p);
+        }
+    }
+
+    private List<String> listar(ListadoOrdenado.Criterio criterio, Path... archivos) throws IOException {
+        ListadoOrdenado listado = new ListadoOrdenado(criterio, 1 << 20);
+        for (Path a : archivos)
+            listado.agregar(new Dataset(a.toString()));
+        List<String> r = new ArrayList<>();
+        listado.recorrer(f -> r.add(f.getTitulo() + " " + f.getPuntuacion() + " " + f.getVotos()));
+        return r;
+    }
+
+    @Test
+    void ordenaPorCadaCriterio() throws IOException {
+        Path a = escribir(dir, "a.csv", TITULOS
+                + fila("Lost", "Drama", "8.3", "500")
+                + fila("Dark", "Crime|Drama", "8.75", "300"));
+        Path b = escribir(dir, "b.csv", TITULOS
+                + fila("Fargo", "Crime", "8.9", "300")
+                + fila("Atlanta", "Comedy", "8.3", "900"));
+
+        assertEquals(List.of("Fargo 8.9 300", "Dark 8.8 300", "Atlanta 8.3 900", "Lost 8.3 500"),
+                listar(ListadoOrdenado.Criterio.PUNTUACION, a, b));
+        assertEquals(List.of("Atlanta 8.3 900", "Dark 8.8 300", "Fargo 8.9 300", "Lost 8.3 500"),
+                listar(ListadoOrdenado.Criterio.TITULO, a, b));
+        assertEquals(List.of("Atlanta 8.3 900", "Lost 8.3 500", "Dark 8.8 300", "Fargo 8.9 300"),
+                listar(ListadoOrdenado.Criterio.VOTOS, a, b));
+    }
+
+    @Test
+    void muchasFilasPasanPorCorridas() throws IOException {
+        StringBuilder sb = new StringBuilder(TITULOS);
+        for (int i = 0; i < 5_000; i++)
+            sb.append(fila(String.format("S%05d", (i * 7919) % 5_000), "Drama", "7.0", Integer.toString(i)));
+        Path a = escribir(dir, "muchas.csv", sb.toString());
+        ListadoOrdenado listado = new ListadoOrdenado(ListadoOrdenado.Criterio.TITULO, 1);
+        listado.agregar(new Dataset(a.toString()));
+        assertEquals(5_000, listado.size());
+        List<String> titulos = new ArrayList<>();
+        listado.recorrer(f -> titulos.add(f.getTitulo()));
+        for (int i = 0; i < titulos.size(); i++)
+            assertEquals(String.format("S%05d", i), titulos.get(i));
+    }
+}
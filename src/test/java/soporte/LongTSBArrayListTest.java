@@ -0,0 +1,34 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongTSBArrayListTest {
+    @Test
+    void guardaValoresQueNoEntranEnUnInt() {
+        LongTSBArrayList l = new LongTSBArrayList();
+        for (long i = 0; i < 1_000; i++) l.add(i * 10_000_000_000L);
+        assertEquals(1_000, l.size());
+        assertEquals(9_990_000_000_000L, l.get(999));
+        assertEquals(500, l.indexOf(5_000_000_000_000L));
+        assertEquals(10_000_000_000L, l.remove(1));
+        assertEquals(999, l.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> l.get(999));
+
+        long[] suma = {0};
+        l.forEach(v -> suma[0] += v);
+        assertEquals(4_995_000_000_000_000L - 10_000_000_000L, suma[0]);
+    }
+
+    @Test
+    void insertarOrdenarYRecortar() {
+        LongTSBArrayList l = new LongTSBArrayList(new long[] {3, 1});
+        l.add(0, 2);
+        l.sort();
+        l.trimToSize();
+        assertArrayEquals(new long[] {1, 2, 3}, l.toArray());
+        assertEquals(2, l.set(1, 7));
+        assertTrue(l.contains(7));
+    }
+}
@@ -0,0 +1,68 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectIntTSBHashTableTest {
+    @Test
+    void putGetYRemove() {
+        ObjectIntTSBHashTable<String> t = new ObjectIntTSBHashTable<>();
+        assertEquals(0, t.put("Drama", 4));
+        assertEquals(4, t.put("Drama", 6));
+        assertEquals(6, t.get("Drama"));
+        assertEquals(0, t.get("Comedy"));
+        assertEquals(-1, t.getOrDefault("Comedy", -1));
+        assertEquals(6, t.remove("Drama"));
+        assertTrue(t.isEmpty());
+    }
+
+    @Test
+    void coincideConHashMapEnOperacionesAlAzar() {
+        ObjectIntTSBHashTable<String> t = new ObjectIntTSBHashTable<>();
+        HashMap<String, Integer> m = new HashMap<>();
+        Random r = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            String k = "k" + r.nextInt(1_500);
+            switch (r.nextInt(3)) {
+                case 0 -> {
+                    Integer v = m.put(k, i);
+                    assertEquals(v == null ? 0 : v, t.put(k, i), "put " + k);
+                }
+                case 1 -> assertEquals((int) m.merge(k, 1, Integer::sum), t.addTo(k, 1), "addTo " + k);
+                default -> {
+                    Integer v = m.remove(k);
+                    assertEquals(v == null ? 0 : v, t.remove(k), "remove " + k);
+                }
+            }
+        }
+        assertEquals(m.size(), t.size());
+        HashMap<String, Integer> recorrido = new HashMap<>();
+        t.forEach(recorrido::put);
+        assertEquals(m, recorrido);
+    }
+
+    @Test
+    void forEachDetectaModificaciones() {
+        ObjectIntTSBHashTable<String> t = new ObjectIntTSBHashTable<>();
+        t.put("a", 1);
+        t.put("b", 2);
+        assertThrows(ConcurrentModificationException.class, () -> t.forEach((k, v) -> t.remove(k)));
+    }
+
+    @Test
+    void laSerializacionConservaLosPares() throws IOException, ClassNotFoundException {
+        ObjectIntTSBHashTable<String> t = new ObjectIntTSBHashTable<>();
+        for (int i = 0; i < 500; i++) t.put("k" + i, i);
+        for (int i = 0; i < 500; i += 3) t.remove("k" + i);
+        ObjectIntTSBHashTable<String> copia = IntObjectTSBHashTableTest.copiaSerializada(t);
+        assertEquals(t, copia);
+        assertEquals(t.size(), copia.size());
+        assertEquals(3, copia.addTo("k1", 2));
+    }
+}
@@ -0,0 +1,109 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTSBHashTableTest {
+    @Test
+    void putGetYRemove() {
+        OffHeapTSBHashTable t = new OffHeapTSBHashTable(3);
+        assertEquals(3, t.getWidth());
+        assertTrue(t.put("Drama", new long[]{1, 2, 3}));
+        assertFalse(t.put("Drama", new long[]{4, 5, 6}));
+        long[] r = new long[3];
+        assertTrue(t.get("Drama", r));
+        assertArrayEquals(new long[]{4, 5, 6}, r);
+        assertEquals(5, t.get("Drama", 1));
+        assertEquals(0, t.get("Comedy", 1));
+        assertFalse(t.get("Comedy", r));
+        assertArrayEquals(new long[]{4, 5, 6}, r);
+
+        assertTrue(t.remove("Drama"));
+        assertFalse(t.remove("Drama"));
+        assertFalse(t.containsKey("Drama"));
+        assertTrue(t.isEmpty());
+    }
+
+    @Test
+    void clavesConCaracteresNoAscii() {
+        OffHeapTSBHashTable t = new OffHeapTSBHashTable(1);
+        String[] claves = {"", "Pok\u00e9mon", "La casa de papel \u00f1", "\u65e5\u672c\u306e\u30c9\u30e9\u30de", "emoji \ud83c\udfac"};
+        for (int i = 0; i < claves.length; i++) t.put(claves[i], new long[]{i});
+        for (int i = 0; i < claves.length; i++) assertEquals(i, t.get(claves[i], 0));
+        assertEquals(Set.of(claves), new HashSet<>(Arrays.asList(t.keys())));
+    }
+
+    @Test
+    void coincideConHashMapEnOperacionesAlAzar() {
+        OffHeapTSBHashTable t = new OffHeapTSBHashTable(2);
+        Map<String, Long> m = new HashMap<>();
+        Random r = new Random(23);
+        for (int i = 0; i < 50_000; i++) {
+            String k = "serie " + r.nextInt(3_000);
+            switch (r.nextInt(4)) {
+                case 0 -> {
+                    assertEquals(!m.containsKey(k), t.put(k, new long[]{i, -i}));
+                    m.put(k, (long) i);
+                }
+                case 1 -> assertEquals(m.merge(k, 5L, Long::sum), t.addTo(k, 0, 5));
+                case 2 -> assertEquals(m.remove(k) != null, t.remove(k));
+                default -> assertEquals(m.getOrDefault(k, 0L), t.get(k, 0));
+            }
+            assertEquals(m.size(), t.size());
+        }
+        Map<String, Long> recorrido = new HashMap<>();
+        t.forEach((k, rec) -> recorrido.put(k, rec[0]));
+        assertEquals(m, recorrido);
+    }
+
+    @Test
+    void conjuntoDeCadenasConAnchoCero() {
+        OffHeapTSBHashTable t = OffHeapTSBHashTable.withExpectedSize(0, 10_000);
+        for (int i = 0; i < 10_000; i++) assertTrue(t.put("k" + i, null));
+        for (int i = 0; i < 10_000; i += 2) assertFalse(t.put("k" + i, null));
+        assertEquals(10_000, t.size());
+        assertTrue(t.containsKey("k9999"));
+        assertFalse(t.containsKey("k10000"));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.get("k1", 0));
+    }
+
+    @Test
+    void crecimientoYClear() {
+        OffHeapTSBHashTable t = new OffHeapTSBHashTable(1);
+        long inicial = t.memoryUsed();
+        for (int i = 0; i < 100_000; i++) t.addTo("clave larga numero " + i, 0, i);
+        assertTrue(t.memoryUsed() > inicial);
+        for (int i = 0; i < 100_000; i++) assertEquals(i, t.get("clave larga numero " + i, 0));
+
+        t.clear();
+        assertEquals(0, t.size());
+        assertEquals(inicial, t.memoryUsed());
+        assertFalse(t.containsKey("clave larga numero 1"));
+        t.ensureCapacity(1_000);
+        t.put("otra", new long[]{7});
+        assertEquals(7, t.get("otra", 0));
+    }
+
+    @Test
+    void parametrosNoValidos() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapTSBHashTable(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapTSBHashTable(1025));
+        OffHeapTSBHashTable t = new OffHeapTSBHashTable(2);
+        assertThrows(IllegalArgumentException.class, () -> t.put("a", new long[1]));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.addTo("a", 2, 1));
+        assertThrows(NullPointerException.class, () -> t.put(null, null));
+        assertThrows(NullPointerException.class, () -> t.containsKey(null));
+        t.put("a", null);
+        t.put("b", null);
+        assertThrows(ConcurrentModificationException.class, () -> t.forEach((k, r) -> t.remove("a".equals(k) ? "b" : "a")));
+    }
+}
@@ -0,0 +1,120 @@
+package soporte;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrdenamientoExternoTest {
+    // pares (clave, secuencia): se ordena por clave y la secuencia muestra la estabilidad
+    private static final OrdenamientoExterno.Formato<int[]> PARES = new OrdenamientoExterno.Formato<>() {
+        @Override
+        public void escribir(DataOutput out, int[] valor) throws IOException {
+            out.writeInt(valor[0]);
+            out.writeInt(valor[1]);
+        }
+
+        @Override
+        public int[] leer(DataInput in) throws IOException {
+            return new int[]{in.readInt(), in.readInt()};
+        }
+    };
+
+    private Path dir;
+
+    @BeforeEach
+    void crearDirectorio() throws IOException {
+        dir = Files.createTempDirectory("ordenamiento-test");
+    }
+
+    @AfterEach
+    void borrarDirectorio() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(p);
+        }
+    }
+
+    private List<int[]> ordenar(int cantidad, int tamCorrida, int[] corridas) throws IOException {
+        OrdenamientoExterno<int[]> o = new OrdenamientoExterno<>(Comparator.comparingInt(v -> v[0]), PARES, tamCorrida, int[][]::new);
+        o.setDirectorioTemporal(dir);
+        Random r = new Random(11);
+        for (int i = 0; i < cantidad; i++)
+            o.agregar(new int[]{r.nextInt(100), i});
+        assertEquals(cantidad, o.size());
+        corridas[0] = o.getCorridas();
+        List<int[]> salida = new ArrayList<>();
+        o.ordenar(salida::add);
+        return salida;
+    }
+
+    private static void verificarOrdenEstable(List<int[]> salida, int cantidad) {
+        assertEquals(cantidad, salida.size());
+        for (int i = 1; i < salida.size(); i++) {
+            int[] a = salida.get(i - 1), b = salida.get(i);
+            assertTrue(a[0] < b[0] || (a[0] == b[0] && a[1] < b[1]), "posicion " + i);
+        }
+    }
+
+    @Test
+    void enMemoriaSinCorridas() throws IOException {
+        int[] corridas = new int[1];
+        verificarOrdenEstable(ordenar(500, 1000, corridas), 500);
+        assertEquals(0, corridas[0]);
+    }
+
+    @Test
+    void conCorridasEnDisco() throws IOException {
+        int[] corridas = new int[1];
+        verificarOrdenEstable(ordenar(5_000, 300, corridas), 5_000);
+        assertEquals(16, corridas[0]);
+        try (Stream<Path> s = Files.list(dir)) {
+            assertEquals(0, s.count());
+        }
+    }
+
+    @Test
+    void masCorridasQueLasQueSeMezclanAVez() throws IOException {
+        int[] corridas = new int[1];
+        verificarOrdenEstable(ordenar(20_000, 100, corridas), 20_000);
+        assertTrue(corridas[0] > 64);
+        try (Stream<Path> s = Files.list(dir)) {
+            assertEquals(0, s.count());
+        }
+    }
+
+    @Test
+    void soloSeOrdenaUnaVez() throws IOException {
+        OrdenamientoExterno<String> o = new OrdenamientoExterno<>(Comparator.naturalOrder(), new OrdenamientoExterno.Formato<>() {
+            @Override
+            public void escribir(DataOutput out, String valor) throws IOException {
+                out.writeUTF(valor);
+            }
+
+            @Override
+            public String leer(DataInput in) throws IOException {
+                return in.readUTF();
+            }
+        }, 2, String[]::new);
+        o.agregar("b");
+        o.agregar("a");
+        List<String> salida = new ArrayList<>();
+        o.ordenar(salida::add);
+        assertEquals(List.of("a", "b"), salida);
+        assertThrows(IllegalStateException.class, () -> o.agregar("c"));
+        assertThrows(IllegalStateException.class, () -> o.ordenar(salida::add));
+        assertThrows(NullPointerException.class, () -> new OrdenamientoExterno<String>(Comparator.naturalOrder(), null, 1, String[]::new));
+    }
+}
@@ -0,0 +1,66 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserNumerosTest {
+    private static short decimas(String s, ParserNumeros.Redondeo modo) {
+        return ParserNumeros.parseDecimas(s, 0, s.length(), modo);
+    }
+
+    @Test
+    void puntuacionConUnDecimalNoPierdeElDecimal() {
+        for (ParserNumeros.Redondeo modo : ParserNumeros.Redondeo.values()) {
+            assertEquals(89, decimas("8.9", modo));
+            assertEquals(90, decimas("9", modo));
+            assertEquals(93, decimas(" 9.30 ", modo));
+        }
+    }
+
+    @Test
+    void redondeoDeLosDecimalesSobrantes() {
+        assertEquals(89, decimas("8.95", ParserNumeros.Redondeo.TRUNCAR));
+        assertEquals(90, decimas("8.95", ParserNumeros.Redondeo.MEDIO_ARRIBA));
+        assertEquals(90, decimas("8.95", ParserNumeros.Redondeo.MEDIO_PAR));
+        assertEquals(88, decimas("8.85", ParserNumeros.Redondeo.MEDIO_PAR));
+        assertEquals(89, decimas("8.851", ParserNumeros.Redondeo.MEDIO_PAR));
+        assertEquals(88, decimas("8.849", ParserNumeros.Redondeo.MEDIO_ARRIBA));
+        assertEquals(-90, decimas("-8.95", ParserNumeros.Redondeo.MEDIO_ARRIBA));
+    }
+
+    @Test
+    void rangoDeBytesIgualQueTexto() {
+        byte[] linea = "x,8.95,1773458,y".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(90, ParserNumeros.parseDecimas(linea, 2, 6, ParserNumeros.Redondeo.MEDIO_ARRIBA));
+        assertEquals(1_773_458L, ParserNumeros.parseLong(linea, 7, 14));
+        assertEquals(895L, ParserNumeros.parseFijo("x,8.95,", 2, 6, 2, ParserNumeros.Redondeo.TRUNCAR));
+    }
+
+    @Test
+    void votos() {
+        assertEquals(1_773_458L, ParserNumeros.parseLong("1773458", 0, 7));
+        assertEquals(9_000_000_000L, ParserNumeros.parseLong("9000000000", 0, 10));
+        assertThrows(NumberFormatException.class, () -> ParserNumeros.parseLong("12.5", 0, 4));
+        assertThrows(NumberFormatException.class, () -> ParserNumeros.parseLong("", 0, 0));
+        assertThrows(NumberFormatException.class, () -> ParserNumeros.parseLong("99999999999999999999", 0, 20));
+    }
+
+    @Test
+    void textosInvalidos() {
+        assertThrows(NumberFormatException.class, () -> decimas("8,9", ParserNumeros.Redondeo.TRUNCAR));
+        assertThrows(NumberFormatException.class, () -> decimas(".", ParserNumeros.Redondeo.TRUNCAR));
+        assertThrows(NumberFormatException.class, () -> decimas("4000", ParserNumeros.Redondeo.TRUNCAR));
+        assertThrows(IndexOutOfBoundsException.class, () -> ParserNumeros.parseDecimas("8.9", 0, 4, ParserNumeros.Redondeo.TRUNCAR));
+    }
+
+    @Test
+    void formatoDeDecimas() {
+        assertEquals("8.9", ParserNumeros.formatDecimas(89));
+        assertEquals("10.0", ParserNumeros.formatDecimas(100));
+        assertEquals("0.5", ParserNumeros.formatDecimas(5));
+        assertEquals("-0.5", ParserNumeros.formatDecimas(-5));
+    }
+}
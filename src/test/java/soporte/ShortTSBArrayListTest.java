@@ -0,0 +1,33 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortTSBArrayListTest {
+    @Test
+    void guardaDecimas() {
+        ShortTSBArrayList l = new ShortTSBArrayList(2);
+        for (short d = 0; d <= 100; d++) l.add(d);
+        assertEquals(101, l.size());
+        assertEquals(89, l.get(89));
+        assertEquals(0, l.remove(0));
+        l.add(0, (short) 100);
+        assertEquals(100, l.get(0));
+        assertEquals(0, l.indexOf((short) 100));
+
+        int[] suma = {0};
+        l.forEach(v -> suma[0] += v);
+        assertEquals(5050 + 100, suma[0]);
+    }
+
+    @Test
+    void copiaYOrden() throws CloneNotSupportedException {
+        ShortTSBArrayList l = new ShortTSBArrayList(new short[] {93, 72, 88});
+        ShortTSBArrayList c = (ShortTSBArrayList) l.clone();
+        c.sort();
+        assertArrayEquals(new short[] {72, 88, 93}, c.toArray());
+        assertArrayEquals(new short[] {93, 72, 88}, l.toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> l.set(3, (short) 1));
+    }
+}
@@ -0,0 +1,55 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SketchesPorClaveTest {
+    @Test
+    void cadaClaveLlevaSusSketches() {
+        SketchesPorClave<String, String> s = new SketchesPorClave<>();
+        for (int i = 0; i < 4_500; i++)
+            s.add("Drama", "estrella" + i);
+        for (int i = 0; i < 6; i++)
+            s.add("Drama", "Peter Krause");
+        for (int i = 0; i < 4; i++)
+            s.add("Drama", "Sophie Rundle");
+        s.add("Crime", "Killian Scott");
+
+        assertEquals(Set.of("Drama", "Crime"), s.keySet());
+        assertEquals(4_502, s.distinct("Drama"), 4_502 * 0.1);
+        assertEquals(0, s.distinct("Western"));
+        assertTrue(s.topGarantizado("Western", 5).isEmpty());
+
+        // con la capacidad por defecto el error queda por debajo de las frecuencias buscadas
+        List<SpaceSaving.Frecuencia<String>> top = s.topGarantizado("Drama", 2);
+        assertEquals("Peter Krause", top.get(0).getValor());
+        assertEquals(6, top.get(0).getCount() - top.get(0).getError(), 3);
+    }
+
+    @Test
+    void conPocaCapacidadNoSeInformaRuido() {
+        SketchesPorClave<String, String> s = new SketchesPorClave<>(10, 256);
+        for (int i = 0; i < 4_500; i++)
+            s.add("Drama", "estrella" + i);
+        for (int i = 0; i < 6; i++)
+            s.add("Drama", "Peter Krause");
+        assertEquals(5, s.top("Drama", 5).size());
+        assertTrue(s.topGarantizado("Drama", 5).isEmpty());
+    }
+
+    @Test
+    void mergeConFiltro() {
+        SketchesPorClave<String, String> a = new SketchesPorClave<>(), b = new SketchesPorClave<>();
+        a.add("Drama", "x");
+        b.add("Drama", "x");
+        b.add("Crime", "y");
+        a.merge(b, k -> k.equals("Drama"));
+        assertEquals(Set.of("Drama"), a.keySet());
+        assertEquals(2, a.top("Drama", 1).get(0).getCount());
+        assertThrows(IllegalArgumentException.class, () -> a.merge(new SketchesPorClave<>(10, 8)));
+    }
+}
@@ -0,0 +1,109 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+    @Test
+    void conLugarLasCuentasSonExactas() {
+        SpaceSaving<String> s = new SpaceSaving<>(10);
+        for (String v : "a b a c a b".split(" "))
+            s.add(v);
+        assertEquals(3, s.count("a"));
+        assertEquals(0, s.count("z"));
+        assertEquals(6, s.getTotal());
+        List<SpaceSaving.Frecuencia<String>> top = s.topGarantizado(2);
+        assertEquals(2, top.size());
+        assertEquals("a", top.get(0).getValor());
+        assertEquals("b", top.get(1).getValor());
+        assertEquals(0, top.get(1).getError());
+    }
+
+    @Test
+    void lasCuentasAcotanLaFrecuenciaReal() {
+        SpaceSaving<Integer> s = new SpaceSaving<>(200);
+        Map<Integer, Integer> real = new HashMap<>();
+        Random r = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int v = r.nextInt(10) == 0 ? r.nextInt(5) : 100 + r.nextInt(5_000);
+            s.add(v);
+            real.merge(v, 1, Integer::sum);
+        }
+        for (SpaceSaving.Frecuencia<Integer> f : s.top(200)) {
+            int n = real.getOrDefault(f.getValor(), 0);
+            assertTrue(f.getCount() >= n && f.getCount() - f.getError() <= n, f.toString());
+        }
+        // los cinco frecuentes (~400 cada uno) superan el error, N / capacity = 100
+        List<SpaceSaving.Frecuencia<Integer>> top = s.topGarantizado(5);
+        assertEquals(5, top.size());
+        for (SpaceSaving.Frecuencia<Integer> f : top)
+            assertTrue(f.getValor() < 5, f.toString());
+    }
+
+    @Test
+    void topGarantizadoDescartaElRuido() {
+        // muchos valores unicos: ninguna cuenta se distingue del error
+        SpaceSaving<Integer> s = new SpaceSaving<>(16);
+        for (int i = 0; i < 1_000; i++)
+            s.add(i);
+        assertEquals(5, s.top(5).size());
+        assertTrue(s.topGarantizado(5).isEmpty());
+
+        // un valor muy frecuente si se garantiza, aunque haya ruido
+        for (int i = 0; i < 500; i++)
+            s.add(-1);
+        List<SpaceSaving.Frecuencia<Integer>> top = s.topGarantizado(5);
+        assertEquals(1, top.size());
+        assertEquals(-1, top.get(0).getValor());
+        assertTrue(top.get(0).getCount() - top.get(0).getError() >= 500);
+    }
+
+    @Test
+    void mergeSumaCuentasYErrores() {
+        SpaceSaving<String> a = new SpaceSaving<>(4), b = new SpaceSaving<>(4);
+        a.add("x", 10);
+        a.add("y", 3);
+        b.add("x", 5);
+        b.add("z", 7);
+        a.merge(b);
+        assertEquals(15, a.count("x"));
+        assertEquals(7, a.count("z"));
+        assertEquals(25, a.getTotal());
+        assertEquals(List.of("x", "z", "y"), a.topGarantizado(3).stream().map(SpaceSaving.Frecuencia::getValor).toList());
+    }
+
+    @Test
+    void parametrosNoValidos() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<String>(0));
+        SpaceSaving<String> s = new SpaceSaving<>(2);
+        assertThrows(IllegalArgumentException.class, () -> s.add("a", 0));
+        assertThrows(NullPointerException.class, () -> s.add(null));
+    }
+
+    @Test
+    void serializacionConservaElResumen() throws Exception {
+        SpaceSaving<String> s = new SpaceSaving<>(20);
+        Random r = new Random(9);
+        for (int i = 0; i < 5_000; i++) s.add("v" + (int) Math.abs(r.nextGaussian() * 15));
+        SpaceSaving<String> c = IntObjectTSBHashTableTest.copiaSerializada(s);
+        assertEquals(s.getTotal(), c.getTotal());
+        assertEquals(s.size(), c.size());
+        assertEquals(s.toString(), c.toString());
+        for (int i = 0; i < 60; i++) assertEquals(s.count("v" + i), c.count("v" + i));
+
+        // la copia sigue funcionando como resumen
+        s.add("nuevo", 1_000);
+        c.add("nuevo", 1_000);
+        assertEquals(s.toString(), c.toString());
+
+        SpaceSaving.Frecuencia<String> f = IntObjectTSBHashTableTest.copiaSerializada(s.top(1).get(0));
+        assertEquals("nuevo", f.getValor());
+        assertEquals(s.count("nuevo"), f.getCount());
+    }
+}
@@ -0,0 +1,152 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSBArrayListTest {
+    @Test
+    void coincideConArrayList() {
+        TSBArrayList<Integer> l = new TSBArrayList<>(1);
+        List<Integer> m = new ArrayList<>();
+        Random r = new Random(5);
+        for (int i = 0; i < 20_000; i++) {
+            int v = r.nextInt(100);
+            switch (r.nextInt(6)) {
+                case 0, 1 -> {
+                    l.add(v);
+                    m.add(v);
+                }
+                case 2 -> {
+                    int p = r.nextInt(m.size() + 1);
+                    l.add(p, v);
+                    m.add(p, v);
+                }
+                case 3 -> {
+                    if (!m.isEmpty()) {
+                        int p = r.nextInt(m.size());
+                        assertEquals(m.remove(p), l.remove(p));
+                    }
+                }
+                case 4 -> {
+                    int p = r.nextInt(m.size() + 1);
+                    List<Integer> lote = List.of(v, v + 1, v + 2);
+                    l.addAll(p, lote);
+                    m.addAll(p, lote);
+                }
+                default -> {
+                    if (!m.isEmpty()) {
+                        int p = r.nextInt(m.size());
+                        assertEquals(m.set(p, v), l.set(p, v));
+                    }
+                }
+            }
+            assertEquals(m.size(), l.size());
+        }
+        assertEquals(m, l);
+        assertEquals(l.size(), l.count());
+    }
+
+    @Test
+    void sizeEsLaCantidadDeElementosYNoLaCapacidad() {
+        TSBArrayList<String> l = new TSBArrayList<>(50);
+        assertEquals(0, l.size());
+        assertTrue(l.isEmpty());
+        assertEquals(50, l.capacity());
+        l.add("a");
+        assertEquals(1, l.size());
+        assertEquals("a", l.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.remove(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.set(1, "b"));
+        assertThrows(IllegalArgumentException.class, () -> l.add(null));
+    }
+
+    @Test
+    void laCapacidadCreceEnUnFactorYNoSeAchica() {
+        TSBArrayList<Integer> l = new TSBArrayList<>(10, 2f);
+        for (int i = 0; i < 11; i++) l.add(i);
+        assertTrue(l.capacity() >= 20);
+        int capacidad = l.capacity();
+
+        l.ensureCapacity(5);
+        assertEquals(capacidad, l.capacity());
+        for (int i = 0; i < 11; i++) l.remove(l.size() - 1);
+        assertEquals(capacidad, l.capacity());
+
+        l.ensureCapacity(1_000);
+        assertEquals(1_000, l.capacity());
+        l.add(1);
+        l.trimToSize();
+        assertEquals(1, l.capacity());
+
+        l.clear();
+        assertEquals(0, l.size());
+        assertEquals(10, l.capacity());
+    }
+
+    @Test
+    void addAllYSubListClear() {
+        TSBArrayList<Integer> l = new TSBArrayList<>(2);
+        assertFalse(l.addAll(List.of()));
+        assertTrue(l.addAll(List.of(1, 2, 3, 4, 5, 6)));
+        assertTrue(l.addAll(2, List.of(10, 11)));
+        assertEquals(List.of(1, 2, 10, 11, 3, 4, 5, 6), l);
+        assertThrows(IllegalArgumentException.class, () -> l.addAll(Arrays.asList(7, null)));
+        assertThrows(IndexOutOfBoundsException.class, () -> l.addAll(9, List.of(7)));
+        assertEquals(8, l.size());
+
+        l.subList(1, 5).clear();
+        assertEquals(List.of(1, 4, 5, 6), l);
+        assertArrayEquals(new Object[]{1, 4, 5, 6}, l.toArray());
+    }
+
+    @Test
+    void forEachYFallaRapida() {
+        TSBArrayList<Integer> l = new TSBArrayList<>();
+        for (int i = 0; i < 100; i++) l.add(i);
+        int[] suma = {0};
+        l.forEach(x -> suma[0] += x);
+        assertEquals(4_950, suma[0]);
+
+        assertThrows(NullPointerException.class, () -> l.forEach(null));
+        assertThrows(ConcurrentModificationException.class, () -> l.forEach(x -> {
+            if (x == 50) l.add(-1);
+        }));
+        assertThrows(ConcurrentModificationException.class, () -> {
+            for (Integer x : l) {
+                if (x == 10) l.remove(0);
+            }
+        });
+    }
+
+    @Test
+    void spliteratorSeParteEnMitades() {
+        TSBArrayList<Integer> l = new TSBArrayList<>();
+        long suma = 0;
+        for (int i = 0; i < 100_001; i++) {
+            l.add(i);
+            suma += i;
+        }
+        Spliterator<Integer> sp = l.spliterator();
+        assertTrue(sp.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(100_001, sp.estimateSize());
+        Spliterator<Integer> mitad = sp.trySplit();
+        assertEquals(50_000, mitad.estimateSize());
+        assertEquals(50_001, sp.estimateSize());
+        int[] primero = {-1};
+        assertTrue(mitad.tryAdvance(x -> primero[0] = x));
+        assertEquals(0, primero[0]);
+
+        assertEquals(suma, l.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(l, l.parallelStream().toList());
+    }
+}
@@ -0,0 +1,215 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSBHashTableDATest {
+    @Test
+    void rehashingIncrementalConservaTodosLosPares() {
+        TSBHashTableDA<Integer, String> t = new TSBHashTableDA<>();
+        t.setIncrementalRehash(true);
+        Map<Integer, String> m = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(m.put(i, "v" + i), t.put(i, "v" + i));
+            // las claves ya agregadas se encuentran esten o no migradas
+            int k = i * 7 % (i + 1);
+            assertEquals(m.get(k), t.get(k), "clave " + k);
+        }
+        for (int i = 0; i < 20_000; i += 3) assertEquals(m.put(i, "w" + i), t.put(i, "w" + i));
+        assertEquals(m.size(), t.size());
+        assertEquals(m, new HashMap<>(t));
+    }
+
+    @Test
+    void getNoModificaLaTablaDuranteUnaMigracion() {
+        TSBHashTableDA<Integer, Integer> t = new TSBHashTableDA<>(11, 0.5f);
+        t.setIncrementalRehash(true);
+        // la sexta insercion supera el factor de carga e inicia la migracion
+        int i = 0;
+        int antes;
+        do {
+            antes = t.modCount;
+            t.put(i, i);
+            i++;
+        } while (t.modCount == antes + 1);
+
+        assertTrue(t.isRehashing());
+
+        int mod = t.modCount;
+        for (int r = 0; r < 100; r++) {
+            for (int j = 0; j < i; j++) assertEquals(j, t.get(j));
+            assertNull(t.get(-1));
+            assertTrue(t.containsKey(0));
+        }
+        assertTrue(t.isRehashing());
+        assertEquals(mod, t.modCount);
+
+        // un recorrido completa la migracion y lo registra como cambio de estructura
+        t.forEach((k, v) -> assertEquals(k, v));
+        assertFalse(t.isRehashing());
+        assertTrue(t.modCount > mod);
+        assertEquals(i, t.keySet().size());
+    }
+
+    @Test
+    void desactivarElModoCompletaLaMigracion() {
+        TSBHashTableDA<String, Integer> t = new TSBHashTableDA<>();
+        t.setIncrementalRehash(true);
+        for (int i = 0; i < 1_000; i++) t.put("k" + i, i);
+        t.setIncrementalRehash(false);
+        assertFalse(t.isIncrementalRehash());
+        for (int i = 0; i < 1_000; i++) assertEquals(i, t.get("k" + i));
+        assertEquals(1_000, t.size());
+    }
+
+    @Test
+    void removeDeParesSinMigrar() {
+        TSBHashTableDA<Integer, Integer> t = new TSBHashTableDA<>();
+        t.setIncrementalRehash(true);
+        for (int i = 0; i < 6; i++) t.put(i, i);
+        assertEquals(3, t.remove(3));
+        assertNull(t.get(3));
+        assertNull(t.remove(3));
+        assertEquals(5, t.size());
+        assertEquals(5, t.get(5));
+    }
+
+    @Test
+    void elFiltroDeBloomNoCambiaLasRespuestas() {
+        TSBHashTableDA<String, Integer> con = new TSBHashTableDA<>();
+        TSBHashTableDA<String, Integer> sin = new TSBHashTableDA<>();
+        con.setBloomFilter(true);
+        con.setIncrementalRehash(true);
+        assertTrue(con.isBloomFilter());
+        for (int i = 0; i < 5_000; i++) {
+            con.put("s" + i, i);
+            sin.put("s" + i, i);
+            // durante las migraciones se consultan el filtro nuevo y el anterior
+            assertEquals(sin.get("s" + (i / 2)), con.get("s" + (i / 2)));
+        }
+        for (int i = -2_000; i < 7_000; i++) {
+            assertEquals(sin.get("s" + i), con.get("s" + i), "s" + i);
+            assertEquals(sin.containsKey("s" + i), con.containsKey("s" + i));
+        }
+
+        // activarlo con la tabla ya cargada registra las claves existentes
+        sin.setBloomFilter(true);
+        for (int i = 0; i < 5_000; i++) assertEquals(i, sin.get("s" + i));
+        sin.setBloomFilter(false);
+        assertFalse(sin.isBloomFilter());
+        assertEquals(4_999, sin.get("s4999"));
+    }
+
+    @Test
+    void withExpectedSizeNoRehashea() {
+        TSBHashTableDA<Integer, Integer> t = TSBHashTableDA.withExpectedSize(5_000);
+        t.setIncrementalRehash(true);
+        for (int i = 0; i < 5_000; i++) {
+            t.put(i, i);
+            assertFalse(t.isRehashing(), "insercion " + i);
+        }
+        assertEquals(5_000, t.size());
+
+        // ensureCapacity tambien deja lugar para el lote completo
+        t.ensureCapacity(20_000);
+        for (int i = 5_000; i < 20_000; i++) {
+            t.put(i, i);
+            assertFalse(t.isRehashing(), "insercion " + i);
+        }
+        for (int i = 0; i < 20_000; i++) assertEquals(i, t.get(i));
+    }
+
+    @Test
+    void builderConservaElUltimoValorDeCadaClave() {
+        TSBHashTableDA<String, Integer> t = TSBHashTableDA.<String, Integer>builder()
+                .expectedSize(3)
+                .put("a", 1)
+                .put("b", 2)
+                .putAll(new String[]{"c", "a"}, new Integer[]{3, 4})
+                .build();
+        assertEquals(3, t.size());
+        assertEquals(4, t.get("a"));
+        assertEquals(2, t.get("b"));
+        assertEquals(3, t.get("c"));
+    }
+
+    @Test
+    void builderRechazaParametrosNoValidos() {
+        TSBHashTableDA.Builder<String, Integer> b = TSBHashTableDA.builder();
+        assertThrows(NullPointerException.class, () -> b.put(null, 1));
+        assertThrows(NullPointerException.class, () -> b.put("a", null));
+        assertThrows(IllegalArgumentException.class, () -> b.putAll(new String[]{"a"}, new Integer[0]));
+        assertEquals(0, b.build().size());
+    }
+
+    @Test
+    void putAllReemplazaYAgrega() {
+        TSBHashTableDA<Integer, String> t = new TSBHashTableDA<>();
+        t.setIncrementalRehash(true);
+        for (int i = 0; i < 100; i++) t.put(i, "t" + i);
+        Map<Integer, String> m = new HashMap<>();
+        for (int i = 50; i < 3_000; i++) m.put(i, "m" + i);
+        t.putAll(m);
+        assertEquals(3_000, t.size());
+        assertEquals("t49", t.get(49));
+        assertEquals("m50", t.get(50));
+        assertEquals("m2999", t.get(2999));
+        assertThrows(NullPointerException.class, () -> t.putAll(null));
+    }
+
+    @Test
+    void spliteratorsDeLasVistas() {
+        TSBHashTableDA<Integer, Integer> t = new TSBHashTableDA<>();
+        long suma = 0;
+        for (int i = 0; i < 10_000; i++) {
+            t.put(i, 2 * i);
+            suma += i;
+        }
+        for (int i = 0; i < 10_000; i += 4) t.remove(i);
+        for (int i = 0; i < 10_000; i += 4) suma -= i;
+
+        Spliterator<Integer> sp = t.keySet().spliterator();
+        assertTrue(sp.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(sp.hasCharacteristics(Spliterator.DISTINCT));
+        assertEquals(t.size(), sp.estimateSize());
+        Spliterator<Integer> mitad = sp.trySplit();
+        assertNotNull(mitad);
+        assertEquals(t.size(), sp.estimateSize() + mitad.estimateSize());
+
+        assertEquals(suma, t.keySet().parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(2 * suma, t.values().parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(t.size(), t.entrySet().parallelStream().filter(e -> e.getValue() == 2 * e.getKey()).count());
+        List<Integer> claves = t.keySet().stream().sorted().collect(Collectors.toList());
+        assertEquals(7_500, claves.size());
+        assertEquals(1, claves.get(0));
+    }
+
+    @Test
+    void forEachYParallelForEachRecorrenTodosLosPares() {
+        TSBHashTableDA<Integer, Integer> t = new TSBHashTableDA<>();
+        t.setIncrementalRehash(true);
+        for (int i = 0; i < 10_000; i++) t.put(i, i);
+
+        LongAdder suma = new LongAdder();
+        t.forEach((k, v) -> suma.add(v));
+        assertEquals(49_995_000L, suma.sum());
+
+        Map<Integer, Integer> vistos = new ConcurrentHashMap<>();
+        t.parallelForEach(vistos::put);
+        assertEquals(new HashMap<>(t), vistos);
+
+        assertThrows(NullPointerException.class, () -> t.forEach(null));
+        assertThrows(NullPointerException.class, () -> t.parallelForEach(null));
+        assertThrows(ConcurrentModificationException.class, () -> t.forEach((k, v) -> t.put(-k - 1, v)));
+    }
+}
@@ -0,0 +1,137 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSBHashTableRHTest {
+    // clave con pocos valores de hash distintos, para forzar grupos largos
+    private record Colision(int id) implements Serializable {
+        @Override
+        public int hashCode() {
+            return id % 3;
+        }
+    }
+
+    @Test
+    void operacionesAlAzarComoHashMap() {
+        TSBHashTableRH<Integer, Integer> t = new TSBHashTableRH<>();
+        Map<Integer, Integer> m = new HashMap<>();
+        Random r = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            int k = r.nextInt(4_000);
+            switch (r.nextInt(3)) {
+                case 0 -> assertEquals(m.put(k, i), t.put(k, i));
+                case 1 -> assertEquals(m.remove(k), t.remove(k));
+                default -> assertEquals(m.get(k), t.get(k));
+            }
+            assertEquals(m.size(), t.size());
+        }
+        assertEquals(m, t);
+        assertEquals(t, m);
+        assertEquals(m.hashCode(), t.hashCode());
+        for (int k = -10; k < 4_010; k++) assertEquals(m.containsKey(k), t.containsKey(k));
+    }
+
+    @Test
+    void lasEliminacionesDesplazanElGrupoSinPerderClaves() {
+        TSBHashTableRH<Colision, Integer> t = new TSBHashTableRH<>();
+        for (int i = 0; i < 300; i++) t.put(new Colision(i), i);
+        assertTrue(t.maxProbeLength() > 0);
+        for (int i = 0; i < 300; i += 2) assertEquals(i, t.remove(new Colision(i)));
+        assertEquals(150, t.size());
+        for (int i = 0; i < 300; i++)
+            assertEquals(i % 2 == 0 ? null : i, t.get(new Colision(i)), "clave " + i);
+        assertNull(t.remove(new Colision(0)));
+    }
+
+    @Test
+    void lasExploracionesSeMantienenCortas() {
+        TSBHashTableRH<String, Integer> t = new TSBHashTableRH<>();
+        for (int i = 0; i < 100_000; i++) t.put("serie" + i, i);
+        // con factor de carga 0.85 la exploracion mas larga sigue siendo acotada
+        assertTrue(t.maxProbeLength() < 64, "maxProbeLength " + t.maxProbeLength());
+        for (int i = 0; i < 100_000; i++) assertEquals(i, t.get("serie" + i));
+    }
+
+    @Test
+    void withExpectedSizeYEnsureCapacityNoRehashean() {
+        // cada insercion nueva suma 1 a modCount; un rehashing sumaria otro mas
+        TSBHashTableRH<Integer, Integer> t = TSBHashTableRH.withExpectedSize(1_000);
+        for (int i = 0; i < 1_000; i++) t.put(i, i);
+        assertEquals(1_000, t.modCount);
+
+        t.ensureCapacity(5_000);
+        int mod = t.modCount;
+        for (int i = 1_000; i < 5_000; i++) t.put(i, i);
+        assertEquals(mod + 4_000, t.modCount);
+        for (int i = 0; i < 5_000; i++) assertEquals(i, t.get(i));
+    }
+
+    @Test
+    void vistasEIteradores() {
+        TSBHashTableRH<Integer, String> t = new TSBHashTableRH<>();
+        for (int i = 0; i < 1_000; i++) t.put(i, "v" + i);
+
+        Iterator<Integer> it = t.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) it.remove();
+        }
+        assertEquals(500, t.size());
+        for (int i = 0; i < 1_000; i++) assertEquals(i % 2 != 0, t.containsKey(i));
+
+        assertTrue(t.values().contains("v999"));
+        assertTrue(t.containsValue("v1"));
+        assertFalse(t.containsValue("v0"));
+        for (Map.Entry<Integer, String> e : t.entrySet()) e.setValue("w" + e.getKey());
+        assertEquals("w7", t.get(7));
+
+        Iterator<Integer> falla = t.keySet().iterator();
+        falla.next();
+        t.put(-1, "x");
+        assertThrows(ConcurrentModificationException.class, falla::next);
+    }
+
+    @Test
+    void cloneEsIndependiente() throws CloneNotSupportedException {
+        TSBHashTableRH<String, Integer> t = new TSBHashTableRH<>(Map.of("a", 1, "b", 2));
+        @SuppressWarnings("unchecked")
+        TSBHashTableRH<String, Integer> c = (TSBHashTableRH<String, Integer>) t.clone();
+        c.put("c", 3);
+        c.remove("a");
+        assertEquals(Map.of("a", 1, "b", 2), t);
+        assertEquals(Map.of("b", 2, "c", 3), c);
+    }
+
+    @Test
+    void serializacionConservaLosPares() throws Exception {
+        TSBHashTableRH<Colision, Integer> t = new TSBHashTableRH<>();
+        for (int i = 0; i < 500; i++) t.put(new Colision(i), i);
+        for (int i = 0; i < 500; i += 3) t.remove(new Colision(i));
+        TSBHashTableRH<Colision, Integer> c = IntObjectTSBHashTableTest.copiaSerializada(t);
+        assertEquals(t, c);
+        assertEquals(t.size(), c.size());
+        for (int i = 0; i < 500; i++) assertEquals(t.get(new Colision(i)), c.get(new Colision(i)));
+
+        // la copia sigue admitiendo cambios sin afectar al original
+        c.put(new Colision(0), -1);
+        assertNull(t.get(new Colision(0)));
+        assertEquals(-1, c.get(new Colision(0)));
+    }
+
+    @Test
+    void rechazaNulls() {
+        TSBHashTableRH<String, Integer> t = new TSBHashTableRH<>();
+        assertThrows(NullPointerException.class, () -> t.put(null, 1));
+        assertThrows(NullPointerException.class, () -> t.put("a", null));
+        assertThrows(NullPointerException.class, () -> t.get(null));
+        assertThrows(NullPointerException.class, () -> t.remove(null));
+    }
+}
@@ -0,0 +1,103 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSBLruCacheTest {
+    @Test
+    void descartaElUsadoHaceMasTiempo() {
+        TSBLruCache<String, Integer> c = new TSBLruCache<>(3);
+        c.put("a", 1);
+        c.put("b", 2);
+        c.put("c", 3);
+        // al leer "a" pasa a ser el mas reciente: el descartado es "b"
+        assertEquals(1, c.get("a"));
+        c.put("d", 4);
+        assertEquals(3, c.size());
+        assertNull(c.get("b"));
+        assertEquals(1, c.get("a"));
+        assertEquals(3, c.get("c"));
+        assertEquals(4, c.get("d"));
+        assertEquals(1, c.getEvictions());
+        assertEquals(4, c.getHits());
+        assertEquals(1, c.getMisses());
+    }
+
+    @Test
+    void seAcotaPorPeso() {
+        TSBLruCache<String, String> c = new TSBLruCache<>(100, 10, String::length);
+        c.put("a", "1234");
+        c.put("b", "1234");
+        assertEquals(8, c.weight());
+        c.put("c", "123");
+        // 11 supera el peso maximo: se descarta "a"
+        assertNull(c.get("a"));
+        assertEquals(7, c.weight());
+
+        // un valor mas pesado que el maximo no se guarda (y reemplazarlo quita el anterior)
+        c.put("b", "12345678901");
+        assertNull(c.get("b"));
+        assertEquals(3, c.weight());
+        assertEquals(1, c.size());
+
+        c.put("c", "1");
+        assertEquals(1, c.weight());
+    }
+
+    @Test
+    void coincideConUnLinkedHashMapEnOrdenDeAcceso() {
+        TSBLruCache<Integer, Integer> c = new TSBLruCache<>(50);
+        Map<Integer, Integer> m = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> e) {
+                return size() > 50;
+            }
+        };
+        Random r = new Random(13);
+        for (int i = 0; i < 20_000; i++) {
+            int k = r.nextInt(120);
+            switch (r.nextInt(4)) {
+                case 0, 1 -> assertEquals(m.get(k), c.get(k));
+                case 2 -> {
+                    c.put(k, i);
+                    m.put(k, i);
+                }
+                default -> {
+                    c.invalidate(k);
+                    m.remove(k);
+                }
+            }
+            assertEquals(m.size(), c.size());
+        }
+    }
+
+    @Test
+    void clearVaciaSinReiniciarContadores() {
+        TSBLruCache<String, Integer> c = new TSBLruCache<>(10);
+        c.put("a", 1);
+        c.get("a");
+        c.clear();
+        assertEquals(0, c.size());
+        assertEquals(0, c.weight());
+        assertNull(c.get("a"));
+        assertEquals(1, c.getHits());
+        assertEquals(1, c.getMisses());
+        c.put("b", 2);
+        assertEquals(2, c.get("b"));
+    }
+
+    @Test
+    void parametrosNoValidos() {
+        assertThrows(IllegalArgumentException.class, () -> new TSBLruCache<String, String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new TSBLruCache<String, String>(1, 0, String::length));
+        assertThrows(NullPointerException.class, () -> new TSBLruCache<String, String>(1, 1, null));
+        TSBLruCache<String, String> c = new TSBLruCache<>(1);
+        assertThrows(NullPointerException.class, () -> c.put(null, "a"));
+        assertThrows(NullPointerException.class, () -> c.put("a", null));
+    }
+}
@@ -0,0 +1,74 @@
+package soporte;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSBRingBufferTest {
+    @Test
+    void colaFifoAcotada() {
+        TSBRingBuffer<Integer> q = new TSBRingBuffer<>(5);
+        assertEquals(8, q.capacity());
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+        for (int i = 0; i < 8; i++) assertTrue(q.offer(i));
+        assertFalse(q.offer(8));
+        assertEquals(8, q.size());
+
+        // se da la vuelta al arreglo varias veces
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, q.poll());
+            assertTrue(q.offer(i + 8));
+        }
+        for (int i = 100; i < 108; i++) assertEquals(i, q.poll());
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    void parametrosNoValidos() {
+        assertThrows(IllegalArgumentException.class, () -> new TSBRingBuffer<Integer>(0));
+        assertThrows(IllegalArgumentException.class, () -> new TSBRingBuffer<Integer>((1 << 30) + 1));
+        TSBRingBuffer<Integer> q = new TSBRingBuffer<>(1);
+        assertThrows(NullPointerException.class, () -> q.offer(null));
+    }
+
+    @Test
+    void unProductorYUnConsumidorConservanElOrden() throws Exception {
+        TSBRingBuffer<Integer> q = new TSBRingBuffer<>(16);
+        int n = 500_000;
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread productor = new Thread(() -> {
+            try {
+                for (int i = 0; i < n; i++) q.put(i);
+            } catch (Throwable t) {
+                error.set(t);
+            }
+        });
+        productor.start();
+        for (int i = 0; i < n; i++) assertEquals(i, q.take());
+        productor.join(10_000);
+        assertNull(error.get());
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    void takeRespondeALaInterrupcion() throws Exception {
+        TSBRingBuffer<Integer> q = new TSBRingBuffer<>(2);
+        AtomicReference<Throwable> resultado = new AtomicReference<>();
+        Thread consumidor = new Thread(() -> {
+            try {
+                q.take();
+            } catch (Throwable t) {
+                resultado.set(t);
+            }
+        });
+        consumidor.start();
+        Thread.sleep(20);
+        consumidor.interrupt();
+        consumidor.join(10_000);
+        assertFalse(consumidor.isAlive());
+        assertTrue(resultado.get() instanceof InterruptedException);
+    }
+}